@@ -1,29 +1,109 @@
-package app;
-
-import controlador.Controlador;
-import modelo.*;
-import vista.VistaContactos;
-
-/**
- * Clase principal que inicia la aplicación.
- * Crea las estructuras de datos, la vista y conecta todo mediante el controlador.
- */
-public class Main {
-    /**
-     * Método main que arranca la aplicación.
-     * @param args Argumentos de línea de comandos (no usados)
-     */
-    public static void main(String[] args) {
-        // Crear la lista enlazada de contactos
-        ListaContactos lista = new ListaContactos();
-        // Crear el árbol binario de contactos
-        ArbolBinarioContactos arbol = new ArbolBinarioContactos();
-        // Crear el grafo de colaboraciones
-        GrafoColaboraciones grafo = new GrafoColaboraciones();
-        // Crear la ventana de la interfaz gráfica
-        VistaContactos vista = new VistaContactos();
-
-        // Crear el controlador que enlaza modelo y vista
-        new Controlador(lista, arbol, grafo, vista);
-    }
-}
+package app;
+
+import controlador.Controlador;
+import metricas.MetricasModelo;
+import modelo.*;
+import servicio.ServidorConsultas;
+import vista.VistaContactos;
+
+import javax.management.JMException;
+import javax.swing.SwingUtilities;
+import java.io.IOException;
+
+/**
+ * Clase principal que inicia la aplicación.
+ * Crea las estructuras de datos, la vista y conecta todo mediante el controlador.
+ * Con el argumento "--http PUERTO" además expone las consultas por HTTP en localhost.
+ * Con -Dcontactos.metricas=true mide las operaciones del modelo y publica las métricas por JMX.
+ * Con -Dcontactos.compacto=true guarda los datos de los contactos en un {@link AlmacenContactos};
+ * con -Dcontactos.fueraDelHeap=true ese almacén reserva sus páginas fuera del heap. Con
+ * -Dcontactos.mapeado=true la instantánea guardada se carga mapeada, sin copiar sus datos al heap.
+ */
+public class Main {
+    /**
+     * Método main que arranca la aplicación.
+     * @param args Argumentos de línea de comandos: opcionalmente "--http PUERTO"
+     */
+    public static void main(String[] args) {
+        int puertoHttp = -1;
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals("--http")) {
+                puertoHttp = Integer.parseInt(args[i + 1]);
+            }
+        }
+
+        // La interfaz se arma en el hilo de eventos de Swing
+        int puerto = puertoHttp;
+        SwingUtilities.invokeLater(() -> iniciar(puerto));
+    }
+
+    /**
+     * Crea el modelo, la ventana y el controlador y, si se pidió, el servidor HTTP.
+     * @param puertoHttp Puerto del servidor HTTP, o -1 para no iniciarlo
+     */
+    private static void iniciar(int puertoHttp) {
+        // Crear la lista enlazada, el árbol y el grafo en modo concurrente: el controlador los
+        // modifica en segundo plano mientras el panel del grafo (y el servidor HTTP) los leen
+        ListaContactos lista = new ListaContactos(true, true);
+        ArbolBinarioContactos arbol = new ArbolBinarioContactos(true);
+        GrafoColaboraciones grafo = new GrafoColaboraciones(true);
+        boolean fueraDelHeap = Boolean.getBoolean("contactos.fueraDelHeap");
+        AlmacenContactos almacen = (fueraDelHeap || Boolean.getBoolean("contactos.compacto"))
+                ? new AlmacenContactos(fueraDelHeap) : null;
+        RegistroContactos registro = new RegistroContactos(lista, arbol, grafo, true, almacen);
+        // Crear la ventana de la interfaz gráfica
+        VistaContactos vista = new VistaContactos();
+
+        // Crear el controlador que enlaza modelo y vista
+        Controlador controlador = new Controlador(registro, vista);
+
+        if (MetricasModelo.ACTIVAS) {
+            registrarMetricas(lista, arbol, grafo, almacen, vista);
+        }
+
+        if (puertoHttp >= 0) {
+            try {
+                ServidorConsultas servidor = new ServidorConsultas(controlador.getServicio(), puertoHttp);
+                servidor.iniciar();
+                vista.txtArea.append("Consultas HTTP en http://127.0.0.1:" + servidor.getPuerto() + "/\n");
+            } catch (IOException e) {
+                vista.txtArea.append("No se pudo iniciar el servidor HTTP: " + e.getMessage() + "\n");
+            }
+        }
+    }
+
+    /**
+     * Registra los indicadores de tamaño, altura y grado de las estructuras (y del almacén
+     * compacto, si hay) y publica las métricas por JMX. La altura y el grado máximo se calculan
+     * en O(n) solo al consultarlos.
+     */
+    private static void registrarMetricas(ListaContactos lista, ArbolBinarioContactos arbol,
+                                          GrafoColaboraciones grafo, AlmacenContactos almacen,
+                                          VistaContactos vista) {
+        MetricasModelo.registrarIndicador("lista.tamanio", lista::getTamanio);
+        MetricasModelo.registrarIndicador("arbol.tamanio", arbol::getTamanio);
+        MetricasModelo.registrarIndicador("arbol.altura", arbol::getAltura);
+        MetricasModelo.registrarIndicador("grafo.vertices", grafo::getNumVertices);
+        MetricasModelo.registrarIndicador("grafo.colaboraciones", grafo::getNumAristas);
+        MetricasModelo.registrarIndicador("grafo.gradoMaximo", () -> {
+            AdyacenciaCSR csr = grafo.obtenerSnapshotCSR();
+            int maximo = 0;
+            for (int v = 0; v < csr.getNumVertices(); v++) {
+                maximo = Math.max(maximo, csr.getGrado(v));
+            }
+            return maximo;
+        });
+        if (almacen != null) {
+            MetricasModelo.registrarIndicador("almacen.bytesUsados", almacen::getBytesUsados);
+            MetricasModelo.registrarIndicador("almacen.bytesLibres", almacen::getBytesLibres);
+            MetricasModelo.registrarIndicador("almacen.dominios", almacen::getCantidadDominios);
+            MetricasModelo.registrarIndicador("almacen.bytesReservados", almacen::getBytesReservados);
+        }
+        try {
+            MetricasModelo.registrarEnJmx();
+            vista.txtArea.append("Métricas del modelo publicadas por JMX como " + MetricasModelo.NOMBRE_JMX + "\n");
+        } catch (JMException e) {
+            vista.txtArea.append("No se pudieron publicar las métricas por JMX: " + e.getMessage() + "\n");
+        }
+    }
+}
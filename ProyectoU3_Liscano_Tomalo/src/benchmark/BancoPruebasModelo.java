@@ -0,0 +1,408 @@
+package benchmark;
+
+import modelo.AlmacenContactos;
+import modelo.ArbolBinarioContactos;
+import modelo.GrafoColaboraciones;
+import modelo.ListaContactos;
+import modelo.NodoContacto;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Pruebas de rendimiento de las estructuras del modelo: lista enlazada, árbol de contactos y
+ * grafo de colaboraciones, con datos sintéticos del {@link GeneradorDatos}.
+ * Cada prueba corre primero unas iteraciones de calentamiento (para que el JIT compile el
+ * código medido) y luego las iteraciones medidas; por cada una informa el rendimiento en
+ * operaciones por segundo, los bytes reservados por operación (contados por hilo con
+ * ThreadMXBean) y las colecciones de basura ocurridas. Las pruebas del árbol informan además
+ * su altura, y las de creación de contactos la memoria que queda ocupada por contacto (con
+ * String o en un {@link AlmacenContactos}). La preparación de los datos y de las estructuras
+ * no se mide.
+ *
+ * Uso: java benchmark.BancoPruebasModelo [--calentamiento N] [--iteraciones N]
+ *      [--semilla S] [--concurrente] [tamaños...]   (por omisión 1000 100000 1000000)
+ */
+public final class BancoPruebasModelo {
+    // Contactos entre los que se muestra cada página de los listados
+    private static final int TAMANIO_PAGINA = 100;
+    // Colaboraciones que agrega cada contacto nuevo del grafo sintético
+    private static final int COLABORACIONES_POR_CONTACTO = 3;
+
+    /**
+     * Trabajo medido de una iteración.
+     */
+    @FunctionalInterface
+    private interface Operacion {
+        /**
+         * Ejecuta el trabajo.
+         * @return cantidad de operaciones realizadas
+         */
+        long ejecutar();
+    }
+
+    // Destino de los resultados de las operaciones, para que el JIT no las elimine
+    private static volatile long sumidero;
+
+    // Parámetros de la corrida
+    private final int calentamiento;
+    private final int iteraciones;
+    private final long semilla;
+    private final boolean concurrente;
+    // Medición de memoria reservada por hilo
+    private final com.sun.management.ThreadMXBean hilos;
+    private final List<GarbageCollectorMXBean> colectores = ManagementFactory.getGarbageCollectorMXBeans();
+
+    private BancoPruebasModelo(int calentamiento, int iteraciones, long semilla, boolean concurrente) {
+        this.calentamiento = calentamiento;
+        this.iteraciones = iteraciones;
+        this.semilla = semilla;
+        this.concurrente = concurrente;
+        this.hilos = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (hilos.isThreadAllocatedMemorySupported()) {
+            hilos.setThreadAllocatedMemoryEnabled(true);
+        }
+    }
+
+    /**
+     * Punto de entrada de las pruebas.
+     * @param args Opciones y tamaños, ver la descripción de la clase
+     */
+    public static void main(String[] args) {
+        int calentamiento = 3;
+        int iteraciones = 5;
+        long semilla = 20240601L;
+        boolean concurrente = false;
+        List<Integer> tamanios = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--calentamiento":
+                    calentamiento = Integer.parseInt(args[++i]);
+                    break;
+                case "--iteraciones":
+                    iteraciones = Integer.parseInt(args[++i]);
+                    break;
+                case "--semilla":
+                    semilla = Long.parseLong(args[++i]);
+                    break;
+                case "--concurrente":
+                    concurrente = true;
+                    break;
+                default:
+                    tamanios.add(Integer.parseInt(args[i].replace("_", "")));
+            }
+        }
+        if (tamanios.isEmpty()) {
+            tamanios.add(1_000);
+            tamanios.add(100_000);
+            tamanios.add(1_000_000);
+        }
+
+        BancoPruebasModelo banco = new BancoPruebasModelo(Math.max(0, calentamiento), Math.max(1, iteraciones),
+                semilla, concurrente);
+        System.out.printf(Locale.ROOT, "Java %s, memoria máxima %d MB, semilla %d, %s%n",
+                System.getProperty("java.version"), Runtime.getRuntime().maxMemory() >> 20, semilla,
+                concurrente ? "estructuras concurrentes" : "estructuras de un solo hilo");
+        System.out.printf(Locale.ROOT, "%d iteraciones de calentamiento y %d medidas por prueba%n",
+                banco.calentamiento, banco.iteraciones);
+        for (int tamanio : tamanios) {
+            banco.correr(tamanio);
+        }
+    }
+
+    /**
+     * Corre todas las pruebas con una cantidad de contactos.
+     * @param n Cantidad de contactos
+     */
+    private void correr(int n) {
+        System.out.printf(Locale.ROOT, "%n=== %,d contactos ===%n", n);
+        System.out.printf(Locale.ROOT, "%-62s %14s %9s %10s %10s %8s  %s%n",
+                "Prueba", "ops/s", "± %", "B/op", "MB/s", "GC", "Detalle");
+
+        // Datos de la corrida; con la misma semilla son siempre los mismos
+        GeneradorDatos generador = new GeneradorDatos(semilla + n);
+        String[] aleatorios = generador.nombres(n);
+        String[] ordenados = GeneradorDatos.ordenar(aleatorios.clone());
+        NodoContacto[] contactos = GeneradorDatos.contactos(aleatorios);
+        int[] pares = generador.colaboracionesLeyPotencias(n, COLABORACIONES_POR_CONTACTO);
+        int[] consultas = generador.posiciones(n, n);
+
+        // ListaContactos
+        medir("ListaContactos.agregarContacto", () -> {
+            ListaContactos lista = new ListaContactos(true, concurrente);
+            return () -> {
+                for (int i = 0; i < n; i++) {
+                    lista.agregarContacto(aleatorios[i], contactos[i].getTelefono(), contactos[i].getCorreo());
+                }
+                return n;
+            };
+        }, null);
+        ListaContactos lista = new ListaContactos(true, concurrente);
+        for (int i = 0; i < n; i++) {
+            lista.agregarContacto(aleatorios[i], contactos[i].getTelefono(), contactos[i].getCorreo());
+        }
+        medir("ListaContactos.buscarPorNombre", () -> () -> {
+            long suma = 0;
+            for (int i = 0; i < n; i++) {
+                suma += lista.buscarPorNombre(aleatorios[consultas[i]]).getTelefono().length();
+            }
+            sumidero += suma;
+            return n;
+        }, null);
+        medir("ListaContactos.recorrerDesde (páginas de " + TAMANIO_PAGINA + ")", () -> () -> {
+            long[] suma = {0};
+            NodoContacto inicio = lista.getCabeza();
+            while (inicio != null) {
+                inicio = lista.recorrerDesde(inicio, TAMANIO_PAGINA, c -> suma[0] += c.getNombre().length());
+            }
+            sumidero += suma[0];
+            return n;
+        }, null);
+
+        // ArbolBinarioContactos, con los contactos en orden aleatorio y ya ordenados
+        ArbolBinarioContactos[] ultimo = new ArbolBinarioContactos[1];
+        for (boolean enOrden : new boolean[] {false, true}) {
+            String[] orden = enOrden ? ordenados : aleatorios;
+            NodoContacto[] nodos = GeneradorDatos.contactos(orden);
+            medir("ArbolBinarioContactos.insertar (" + (enOrden ? "ordenados" : "aleatorios") + ")", () -> {
+                ArbolBinarioContactos arbol = new ArbolBinarioContactos(concurrente);
+                ultimo[0] = arbol;
+                return () -> {
+                    for (int i = 0; i < n; i++) {
+                        arbol.insertar(nodos[i]);
+                    }
+                    return n;
+                };
+            }, () -> alturaTexto(ultimo[0]));
+        }
+        ArbolBinarioContactos arbol = new ArbolBinarioContactos(concurrente);
+        for (NodoContacto c : contactos) {
+            arbol.insertar(c);
+        }
+        medir("ArbolBinarioContactos.buscar", () -> () -> {
+            long suma = 0;
+            for (int i = 0; i < n; i++) {
+                suma += arbol.buscar(aleatorios[consultas[i]]).getTelefono().length();
+            }
+            sumidero += suma;
+            return n;
+        }, () -> alturaTexto(arbol));
+        medir("ArbolBinarioContactos.recorrerDesdePosicion (páginas de " + TAMANIO_PAGINA + ")", () -> () -> {
+            long[] suma = {0};
+            for (int p = 0; p < n; p += TAMANIO_PAGINA) {
+                arbol.recorrerDesdePosicion(p, TAMANIO_PAGINA, c -> suma[0] += c.getNombre().length());
+            }
+            sumidero += suma[0];
+            return n;
+        }, null);
+        medir("ArbolBinarioContactos.obtenerEstadisticasTexto", () -> () -> {
+            sumidero += arbol.obtenerEstadisticasTexto().length();
+            return 1;
+        }, null);
+
+        // GrafoColaboraciones
+        int colaboraciones = pares.length / 2;
+        GrafoColaboraciones[] grafoMedido = new GrafoColaboraciones[1];
+        medir("GrafoColaboraciones.agregarColaboracion", () -> {
+            GrafoColaboraciones grafo = new GrafoColaboraciones(concurrente);
+            for (NodoContacto c : contactos) {
+                grafo.agregarContacto(c);
+            }
+            grafoMedido[0] = grafo;
+            return () -> {
+                for (int k = 0; k < pares.length; k += 2) {
+                    grafo.agregarColaboracion(contactos[pares[k]], contactos[pares[k + 1]]);
+                }
+                return colaboraciones;
+            };
+        }, () -> String.format(Locale.ROOT, "%,d colaboraciones, grado máximo %d",
+                grafoMedido[0].getNumAristas(), gradoMaximo(grafoMedido[0], contactos)));
+        GrafoColaboraciones grafo = grafoMedido[0];
+        medir("GrafoColaboraciones.getVecinos", () -> () -> {
+            long suma = 0;
+            for (int i = 0; i < n; i++) {
+                for (NodoContacto vecino : grafo.getVecinos(contactos[consultas[i]])) {
+                    suma += vecino.getNombre().length();
+                }
+            }
+            sumidero += suma;
+            return n;
+        }, null);
+        medir("GrafoColaboraciones.recorrerVecinos", () -> () -> {
+            long[] suma = {0};
+            for (int i = 0; i < n; i++) {
+                grafo.recorrerVecinos(contactos[consultas[i]], vecino -> suma[0] += vecino.getNombre().length());
+            }
+            sumidero += suma[0];
+            return n;
+        }, null);
+        medir("GrafoColaboraciones.obtenerColaboracionesTexto", () -> () -> {
+            sumidero += grafo.obtenerColaboracionesTexto().length();
+            return 1;
+        }, null);
+
+        // Datos de los contactos: tres String por contacto o registros en un almacén compacto,
+        // con las páginas en el heap o fuera de él (ahí el heap retiene solo los nodos)
+        for (int modo = 0; modo < 3; modo++) {
+            boolean compacto = modo > 0;
+            boolean fueraDelHeap = modo == 2;
+            NodoContacto[][] creados = new NodoContacto[1][];
+            medir(!compacto ? "new NodoContacto"
+                    : fueraDelHeap ? "AlmacenContactos.crear (fuera del heap)" : "AlmacenContactos.crear", () -> {
+                AlmacenContactos almacen = compacto ? new AlmacenContactos(fueraDelHeap) : null;
+                NodoContacto[] nuevos = new NodoContacto[n];
+                creados[0] = nuevos;
+                return () -> {
+                    for (int i = 0; i < n; i++) {
+                        String telefono = GeneradorDatos.telefono(i);
+                        String correo = GeneradorDatos.correo(i);
+                        nuevos[i] = compacto ? almacen.crear(aleatorios[i], telefono, correo)
+                                : new NodoContacto(aleatorios[i], telefono, correo);
+                    }
+                    return n;
+                };
+            }, () -> String.format(Locale.ROOT, "%.1f B/contacto retenidos", retenidoPorContacto(creados[0])));
+        }
+        medir("NodoContacto.getNombre/getTelefono/getCorreo (compacto)", () -> {
+            AlmacenContactos almacen = new AlmacenContactos();
+            NodoContacto[] nuevos = new NodoContacto[n];
+            for (int i = 0; i < n; i++) {
+                nuevos[i] = almacen.crear(aleatorios[i], GeneradorDatos.telefono(i), GeneradorDatos.correo(i));
+            }
+            return () -> {
+                long suma = 0;
+                for (NodoContacto c : nuevos) {
+                    suma += c.getNombre().length() + c.getTelefono().length() + c.getCorreo().length();
+                }
+                sumidero += suma;
+                return n;
+            };
+        }, null);
+    }
+
+    /**
+     * Mide cuánta memoria ocupan los contactos de un arreglo comparando el heap en uso antes y
+     * después de soltarlos (vacía el arreglo). Es una aproximación: depende de que las
+     * colecciones pedidas con System.gc() sean completas.
+     * @param contactos Contactos creados por la última iteración
+     * @return bytes por contacto, incluido lo que cada contacto tiene solo para él
+     */
+    private static double retenidoPorContacto(NodoContacto[] contactos) {
+        long con = memoriaEnUso();
+        int n = contactos.length;
+        Arrays.fill(contactos, null);
+        long sin = memoriaEnUso();
+        return (double) (con - sin) / Math.max(1, n);
+    }
+
+    /**
+     * Heap en uso después de pedir varias colecciones.
+     * @return bytes en uso
+     */
+    private static long memoriaEnUso() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Corre una prueba: calentamiento, iteraciones medidas e informe de una línea.
+     * @param nombre Nombre de la prueba
+     * @param preparar Prepara una iteración (sin medir) y devuelve el trabajo a medir
+     * @param detalle Texto adicional calculado después de la última iteración, o null
+     */
+    private void medir(String nombre, Supplier<Operacion> preparar, Supplier<String> detalle) {
+        double[] porSegundo = new double[iteraciones];
+        long operaciones = 0;
+        long nanos = 0;
+        long bytes = 0;
+        long colecciones = 0;
+        long msColeccion = 0;
+        try {
+            for (int i = 0; i < calentamiento; i++) {
+                preparar.get().ejecutar();
+            }
+            for (int i = 0; i < iteraciones; i++) {
+                Operacion operacion = preparar.get();
+                long[] gcAntes = estadoColectores();
+                long bytesAntes = bytesReservados();
+                long inicio = System.nanoTime();
+                long hechas = operacion.ejecutar();
+                long duracion = System.nanoTime() - inicio;
+                long bytesDespues = bytesReservados();
+                bytes = (bytesAntes < 0 || bytes < 0) ? -1 : bytes + bytesDespues - bytesAntes;
+                long[] gcDespues = estadoColectores();
+                colecciones += gcDespues[0] - gcAntes[0];
+                msColeccion += gcDespues[1] - gcAntes[1];
+                operaciones += hechas;
+                nanos += duracion;
+                porSegundo[i] = hechas * 1e9 / Math.max(1, duracion);
+            }
+        } catch (OutOfMemoryError e) {
+            System.out.printf(Locale.ROOT, "%-62s sin memoria suficiente (-Xmx)%n", nombre);
+            return;
+        }
+
+        double media = operaciones * 1e9 / Math.max(1, nanos);
+        double varianza = 0;
+        double promedio = 0;
+        for (double v : porSegundo) {
+            promedio += v / iteraciones;
+        }
+        for (double v : porSegundo) {
+            varianza += (v - promedio) * (v - promedio) / iteraciones;
+        }
+        double error = (promedio > 0) ? 100 * Math.sqrt(varianza) / promedio : 0;
+        String bytesPorOperacion = (bytes < 0) ? "-" : String.format(Locale.ROOT, "%.1f", (double) bytes / operaciones);
+        String megasPorSegundo = (bytes < 0) ? "-" : String.format(Locale.ROOT, "%.1f", bytes * 1e3 / Math.max(1, nanos) / 1.048576);
+        // Las operaciones lentas (los textos completos) se muestran con decimales
+        String rendimiento = String.format(Locale.ROOT, (media >= 100) ? "%,.0f" : "%.3f", media);
+        System.out.printf(Locale.ROOT, "%-62s %14s %9.1f %10s %10s %8s  %s%n",
+                nombre, rendimiento, error, bytesPorOperacion, megasPorSegundo,
+                colecciones + "/" + msColeccion + "ms", (detalle == null) ? "" : detalle.get());
+    }
+
+    /**
+     * Bytes reservados hasta ahora por el hilo actual.
+     * @return bytes, o -1 si la JVM no los cuenta
+     */
+    private long bytesReservados() {
+        if (!hilos.isThreadAllocatedMemorySupported()) {
+            return -1;
+        }
+        return hilos.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Suma de colecciones y de milisegundos de colección de todos los colectores.
+     * @return {colecciones, milisegundos}
+     */
+    private long[] estadoColectores() {
+        long[] estado = new long[2];
+        for (GarbageCollectorMXBean colector : colectores) {
+            estado[0] += Math.max(0, colector.getCollectionCount());
+            estado[1] += Math.max(0, colector.getCollectionTime());
+        }
+        return estado;
+    }
+
+    private static String alturaTexto(ArbolBinarioContactos arbol) {
+        int minima = 32 - Integer.numberOfLeadingZeros(arbol.getTamanio());  // ceil(log2(n+1))
+        return "altura " + arbol.getAltura() + " (mínima " + minima + ", cota " + 2 * minima + ")";
+    }
+
+    private static int gradoMaximo(GrafoColaboraciones grafo, NodoContacto[] contactos) {
+        int maximo = 0;
+        for (NodoContacto c : contactos) {
+            maximo = Math.max(maximo, grafo.getGrado(c));
+        }
+        return maximo;
+    }
+}
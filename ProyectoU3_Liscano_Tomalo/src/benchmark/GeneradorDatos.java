@@ -0,0 +1,175 @@
+package benchmark;
+
+import modelo.NodoContacto;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Generador de datos sintéticos y reproducibles para las pruebas de rendimiento.
+ * Con la misma semilla produce siempre los mismos contactos y las mismas colaboraciones,
+ * así las mediciones de distintas versiones del modelo se pueden comparar entre sí.
+ * Las colaboraciones siguen una ley de potencias (modelo de Barabási-Albert): cada contacto
+ * nuevo colabora con contactos ya existentes elegidos con probabilidad proporcional a su
+ * grado, de modo que unos pocos concentran muchas colaboraciones, como en los datos reales.
+ */
+public final class GeneradorDatos {
+    private static final String[] NOMBRES = {
+        "Ana", "Luis", "María", "José", "Carmen", "Jorge", "Lucía", "Pedro", "Sofía", "Diego",
+        "Elena", "Andrés", "Paula", "Miguel", "Valeria", "Carlos", "Daniela", "Javier", "Gabriela", "Raúl"
+    };
+    private static final String[] APELLIDOS = {
+        "Liscano", "Tomalo", "Pérez", "Gómez", "Rodríguez", "Sánchez", "Torres", "Vera", "Castro", "Mora",
+        "Andrade", "Villacís", "Cedeño", "Zambrano", "Ortiz", "Salazar", "Paredes", "Guerrero", "Rivas", "Cruz"
+    };
+
+    // Fuente de números aleatorios; todo lo generado depende solo de la semilla
+    private final SplittableRandom aleatorio;
+
+    /**
+     * Constructor del generador.
+     * @param semilla Semilla de los números aleatorios
+     */
+    public GeneradorDatos(long semilla) {
+        aleatorio = new SplittableRandom(semilla);
+    }
+
+    /**
+     * Genera nombres distintos entre sí (también sin distinguir mayúsculas), de la forma
+     * "Nombre Apellido Apellido código", en orden aleatorio.
+     * @param cantidad Cantidad de nombres
+     * @return arreglo de nombres
+     */
+    public String[] nombres(int cantidad) {
+        String[] nombres = new String[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            // El código (el índice en base 36) hace único al nombre
+            nombres[i] = NOMBRES[aleatorio.nextInt(NOMBRES.length)] + " "
+                    + APELLIDOS[aleatorio.nextInt(APELLIDOS.length)] + " "
+                    + APELLIDOS[aleatorio.nextInt(APELLIDOS.length)] + " "
+                    + Integer.toString(i, 36);
+        }
+        mezclar(nombres);
+        return nombres;
+    }
+
+    /**
+     * Ordena nombres con el mismo criterio que el árbol de contactos.
+     * @param nombres Nombres a ordenar (se ordena el mismo arreglo)
+     * @return el mismo arreglo, ordenado
+     */
+    public static String[] ordenar(String[] nombres) {
+        Arrays.sort(nombres, String::compareToIgnoreCase);
+        return nombres;
+    }
+
+    /**
+     * Crea un contacto por nombre, con teléfono y correo derivados de su posición.
+     * @param nombres Nombres de los contactos
+     * @return contactos nuevos, en el orden de los nombres
+     */
+    public static NodoContacto[] contactos(String[] nombres) {
+        NodoContacto[] contactos = new NodoContacto[nombres.length];
+        for (int i = 0; i < nombres.length; i++) {
+            contactos[i] = new NodoContacto(nombres[i], telefono(i), correo(i));
+        }
+        return contactos;
+    }
+
+    /**
+     * Devuelve un correo derivado de un número; todos comparten el dominio.
+     * @param i Número del contacto
+     * @return correo
+     */
+    public static String correo(int i) {
+        return "contacto" + i + "@correo.ec";
+    }
+
+    /**
+     * Devuelve un teléfono celular de 10 dígitos derivado de un número.
+     * @param i Número del contacto
+     * @return teléfono
+     */
+    public static String telefono(int i) {
+        return "09" + String.format("%08d", i % 100_000_000);
+    }
+
+    /**
+     * Genera colaboraciones con distribución de grados de ley de potencias, por apego
+     * preferencial: los primeros contactos colaboran todos entre sí y cada uno de los siguientes
+     * colabora con {@code porContacto} contactos anteriores distintos, elegidos con probabilidad
+     * proporcional a su grado. Para elegirlos en O(1) se guarda cada extremo de cada
+     * colaboración en un arreglo y se toma una posición al azar de ese arreglo.
+     * @param cantidad Cantidad de contactos (ids de 0 a cantidad - 1)
+     * @param porContacto Colaboraciones que agrega cada contacto nuevo (al menos 1)
+     * @return pares de ids: la colaboración k une a pares[2k] con pares[2k + 1]
+     */
+    public int[] colaboracionesLeyPotencias(int cantidad, int porContacto) {
+        int m = Math.max(1, Math.min(porContacto, cantidad - 1));
+        if (cantidad < 2) {
+            return new int[0];
+        }
+        int iniciales = m + 1;  // Núcleo inicial completo, para que todos tengan grado > 0
+        long total = (long) iniciales * (iniciales - 1) / 2 + (long) (cantidad - iniciales) * m;
+        if (2 * total > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Demasiadas colaboraciones: " + total);
+        }
+        int[] pares = new int[(int) (2 * total)];
+        int usados = 0;
+        for (int a = 0; a < iniciales; a++) {
+            for (int b = a + 1; b < iniciales; b++) {
+                pares[usados++] = a;
+                pares[usados++] = b;
+            }
+        }
+        int[] elegidos = new int[m];
+        for (int nuevo = iniciales; nuevo < cantidad; nuevo++) {
+            int extremos = usados;  // Solo se eligen extremos de colaboraciones anteriores
+            for (int k = 0; k < m; k++) {
+                int candidato;
+                do {
+                    candidato = pares[aleatorio.nextInt(extremos)];
+                } while (yaElegido(elegidos, k, candidato));
+                elegidos[k] = candidato;
+                pares[usados++] = nuevo;
+                pares[usados++] = candidato;
+            }
+        }
+        return pares;
+    }
+
+    /**
+     * Genera una secuencia de posiciones al azar para las consultas.
+     * @param cantidad Cantidad de posiciones
+     * @param limite Posiciones posibles (de 0 a limite - 1)
+     * @return posiciones
+     */
+    public int[] posiciones(int cantidad, int limite) {
+        int[] posiciones = new int[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            posiciones[i] = aleatorio.nextInt(limite);
+        }
+        return posiciones;
+    }
+
+    private static boolean yaElegido(int[] elegidos, int cantidad, int candidato) {
+        for (int i = 0; i < cantidad; i++) {
+            if (elegidos[i] == candidato) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Mezcla un arreglo con el algoritmo de Fisher-Yates.
+     */
+    private void mezclar(Object[] arreglo) {
+        for (int i = arreglo.length - 1; i > 0; i--) {
+            int j = aleatorio.nextInt(i + 1);
+            Object temporal = arreglo[i];
+            arreglo[i] = arreglo[j];
+            arreglo[j] = temporal;
+        }
+    }
+}
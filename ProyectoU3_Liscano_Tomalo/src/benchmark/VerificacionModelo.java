@@ -0,0 +1,419 @@
+package benchmark;
+
+import modelo.BitacoraEscritura;
+import modelo.NodoContacto;
+import modelo.RegistroContactos;
+import modelo.SnapshotBinario;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Verificación de punta a punta de la persistencia y del modo concurrente del modelo, sobre
+ * una secuencia reproducible de altas, bajas, cambios y colaboraciones:
+ * - instantánea: guardar, cargar (copiando y mapeada) y comparar lista, árbol, grafo y número
+ *   del último cambio; el orden del árbol se compara con un TreeMap sin distinguir mayúsculas;
+ * - bitácora: reproducirla sobre una instantánea intermedia (los registros que la instantánea
+ *   ya contiene se deben saltar por su número), compactarla, y recuperar una compactación
+ *   cortada que dejó la bitácora rotada (".old") sin combinar;
+ * - concurrencia: un hilo escritor y cuatro lectores sobre un registro concurrente; los
+ *   lectores revisan que cada página del árbol salga ordenada y, al final, que lista, árbol,
+ *   índices y grafo coincidan.
+ * Termina con código 1 ante la primera diferencia. Los archivos van a un directorio temporal.
+ *
+ * Uso: java benchmark.VerificacionModelo [--semilla S] [--segundos N] [cambios]
+ *      (por omisión 20000 cambios y 3 segundos de prueba concurrente)
+ */
+public final class VerificacionModelo {
+    // Hilos lectores de la prueba concurrente
+    private static final int LECTORES = 4;
+    // Contactos por página en los recorridos de los lectores
+    private static final int TAMANIO_PAGINA = 50;
+    // Orden del árbol de contactos (el de compareToIgnoreCase)
+    private static final Comparator<String> ORDEN_NOMBRES = String.CASE_INSENSITIVE_ORDER;
+
+    private final long semilla;
+    private final int cambios;
+    private final Path directorio;
+
+    private VerificacionModelo(long semilla, int cambios, Path directorio) {
+        this.semilla = semilla;
+        this.cambios = cambios;
+        this.directorio = directorio;
+    }
+
+    /**
+     * Punto de entrada de la verificación.
+     * @param args Opciones y cantidad de cambios, ver la descripción de la clase
+     */
+    public static void main(String[] args) throws Exception {
+        long semilla = 20240601L;
+        int segundos = 3;
+        int cambios = 20_000;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--semilla":
+                    semilla = Long.parseLong(args[++i]);
+                    break;
+                case "--segundos":
+                    segundos = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    cambios = Integer.parseInt(args[i].replace("_", ""));
+            }
+        }
+
+        Path directorio = Files.createTempDirectory("verificacion-contactos");
+        VerificacionModelo verificacion = new VerificacionModelo(semilla, cambios, directorio);
+        try {
+            verificacion.verificarInstantanea();
+            verificacion.verificarBitacora();
+            verificacion.verificarConcurrencia(segundos);
+            System.out.println("Todas las verificaciones pasaron");
+        } catch (IllegalStateException e) {
+            System.err.println("FALLÓ: " + e.getMessage());
+            System.exit(1);
+        } finally {
+            borrarDirectorio(directorio);
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Instantánea
+    // ----------------------------------------------------------------------
+
+    /**
+     * Guarda un registro con altas, bajas y cambios, lo carga de las dos formas y compara.
+     */
+    private void verificarInstantanea() throws IOException {
+        RegistroContactos original = RegistroContactos.crearConcurrente();
+        Cambios generador = new Cambios(semilla);
+        generador.aplicar(original, cambios);
+        verificarOrden(original, "original");
+
+        Path snapshot = directorio.resolve("instantanea.snap");
+        SnapshotBinario.guardar(original, snapshot);
+        generador.aplicar(original, cambios / 10);
+        SnapshotBinario.guardar(original, snapshot);  // Segunda generación: se debe abrir esta
+
+        RegistroContactos copiado = RegistroContactos.crearConcurrente();
+        RegistroContactos mapeado = RegistroContactos.crearConcurrente();
+        try (SnapshotBinario instantanea = SnapshotBinario.abrir(snapshot)) {
+            verificar(instantanea.getSecuencia() == original.getSecuencia(),
+                    "la instantánea guarda el cambio " + instantanea.getSecuencia()
+                            + " y el registro va por el " + original.getSecuencia());
+            instantanea.cargarEn(copiado);
+        }
+        try (SnapshotBinario instantanea = SnapshotBinario.abrir(snapshot)) {
+            instantanea.cargarMapeadoEn(mapeado);
+        }
+        compararEstado(original, copiado, "instantánea cargada");
+        compararEstado(original, mapeado, "instantánea mapeada");
+        verificarOrden(copiado, "instantánea cargada");
+        informar("Instantánea", original);
+    }
+
+    // ----------------------------------------------------------------------
+    // Bitácora
+    // ----------------------------------------------------------------------
+
+    /**
+     * Reproduce la bitácora sobre una instantánea intermedia, compacta y recupera una
+     * compactación cortada.
+     */
+    private void verificarBitacora() throws IOException {
+        Path snapshot = directorio.resolve("bitacora.snap");
+        Path archivo = directorio.resolve("bitacora.wal");
+        Cambios generador = new Cambios(semilla + 1);
+        RegistroContactos original = RegistroContactos.crearConcurrente();
+
+        // La instantánea se toma a mitad de camino sin cortar la bitácora: la primera mitad
+        // queda en las dos y al reproducir se debe saltar
+        BitacoraEscritura bitacora = new BitacoraEscritura(archivo, 0);
+        original.setBitacora(bitacora);
+        generador.aplicar(original, cambios / 2);
+        SnapshotBinario.guardar(original, snapshot);
+        generador.aplicar(original, cambios / 2);
+        original.setBitacora(null);
+        bitacora.close();
+
+        RegistroContactos recuperado = recuperar(snapshot, archivo);
+        compararEstado(original, recuperado, "instantánea intermedia + bitácora completa");
+        RegistroContactos soloBitacora = RegistroContactos.crearConcurrente();
+        BitacoraEscritura.reproducirTodo(archivo, soloBitacora);
+        compararEstado(original, soloBitacora, "bitácora completa sin instantánea");
+
+        // Compactación normal: la bitácora rotada se combina con la instantánea y se borra
+        bitacora = new BitacoraEscritura(archivo, 0);
+        original.setBitacora(bitacora);
+        generador.aplicar(original, cambios / 4);
+        bitacora.compactar(snapshot).join();
+        verificar(bitacora.getUltimoError() == null, "la compactación falló: " + bitacora.getUltimoError());
+        Path rotada = archivo.resolveSibling(archivo.getFileName() + ".old");
+        verificar(!Files.exists(rotada), "la compactación dejó la bitácora rotada");
+        generador.aplicar(original, cambios / 4);
+        original.setBitacora(null);
+        bitacora.close();
+        compararEstado(original, recuperar(snapshot, archivo), "después de compactar");
+
+        // Compactación cortada: la bitácora se rotó pero la instantánea no se actualizó
+        Files.move(archivo, rotada);
+        bitacora = new BitacoraEscritura(archivo, 0);
+        original.setBitacora(bitacora);
+        generador.aplicar(original, cambios / 4);
+        original.setBitacora(null);
+        bitacora.close();
+        compararEstado(original, recuperar(snapshot, archivo), "bitácora rotada sin combinar");
+
+        // Cerrar como el servicio: instantánea completa y después borrar las bitácoras
+        SnapshotBinario.guardar(original, snapshot);
+        BitacoraEscritura.borrar(archivo);
+        verificar(!Files.exists(archivo) && !Files.exists(rotada), "quedaron bitácoras después de borrarlas");
+        compararEstado(original, recuperar(snapshot, archivo), "instantánea final");
+        informar("Bitácora", original);
+    }
+
+    /**
+     * Carga la instantánea (si existe) y reproduce encima la bitácora rotada y la actual.
+     */
+    private static RegistroContactos recuperar(Path snapshot, Path archivo) throws IOException {
+        RegistroContactos registro = RegistroContactos.crearConcurrente();
+        if (Files.exists(snapshot)) {
+            try (SnapshotBinario instantanea = SnapshotBinario.abrir(snapshot)) {
+                instantanea.cargarEn(registro);
+            }
+        }
+        BitacoraEscritura.reproducirTodo(archivo, registro);
+        return registro;
+    }
+
+    // ----------------------------------------------------------------------
+    // Concurrencia
+    // ----------------------------------------------------------------------
+
+    /**
+     * Un escritor y varios lectores sobre el mismo registro durante un tiempo fijo.
+     */
+    private void verificarConcurrencia(int segundos) throws InterruptedException {
+        RegistroContactos registro = RegistroContactos.crearConcurrente();
+        Cambios generador = new Cambios(semilla + 2);
+        generador.aplicar(registro, cambios / 4);
+        long fin = System.nanoTime() + segundos * 1_000_000_000L;
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        AtomicLong lecturas = new AtomicLong();
+        AtomicInteger escrituras = new AtomicInteger();
+
+        List<Thread> hilos = new ArrayList<>();
+        hilos.add(new Thread(() -> {
+            while (System.nanoTime() < fin && error.get() == null) {
+                generador.aplicar(registro, 1);
+                escrituras.incrementAndGet();
+            }
+        }, "escritor"));
+        for (int h = 0; h < LECTORES; h++) {
+            long semillaLector = semilla + 10 + h;
+            hilos.add(new Thread(() -> leer(registro, generador, new Random(semillaLector), fin, error, lecturas),
+                    "lector-" + h));
+        }
+        for (Thread hilo : hilos) {
+            hilo.setUncaughtExceptionHandler((t, e) -> error.compareAndSet(null, e));
+            hilo.start();
+        }
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+        if (error.get() != null) {
+            throw new IllegalStateException("error en la prueba concurrente: " + error.get(), error.get());
+        }
+
+        verificarOrden(registro, "después de la prueba concurrente");
+        int contactos = registro.getLista().getTamanio();
+        verificar(registro.getArbol().getTamanio() == contactos && registro.getGrafo().getNumVertices() == contactos,
+                "lista, árbol y grafo tienen " + contactos + ", " + registro.getArbol().getTamanio()
+                        + " y " + registro.getGrafo().getNumVertices() + " contactos");
+        long[] extremos = {0};
+        registro.getLista().recorrerDesde(null, Integer.MAX_VALUE, c -> {
+            verificar(registro.buscar(c.getNombre()) == c, "el índice de nombres no encuentra " + c.getNombre());
+            verificar(registro.buscarPorTelefono(c.getTelefono()) == c, "el índice de teléfonos no encuentra " + c.getNombre());
+            registro.getGrafo().recorrerVecinos(c, v -> {
+                verificar(registro.getGrafo().sonColaboradores(v, c), "colaboración sin su recíproca: " + c.getNombre());
+                extremos[0]++;
+            });
+        });
+        verificar(extremos[0] == 2 * registro.getGrafo().getNumAristas(),
+                "el grafo cuenta " + registro.getGrafo().getNumAristas() + " colaboraciones y tiene "
+                        + extremos[0] + " extremos");
+        System.out.printf(Locale.ROOT, "Concurrencia: OK (1 escritor con %,d cambios y %d lectores con %,d lecturas en %d s)%n",
+                escrituras.get(), LECTORES, lecturas.get(), segundos);
+    }
+
+    /**
+     * Trabajo de un lector: búsquedas, colaboradores y páginas del listado alfabético.
+     */
+    private static void leer(RegistroContactos registro, Cambios generador, Random azar, long fin,
+                             AtomicReference<Throwable> error, AtomicLong lecturas) {
+        List<String> pagina = new ArrayList<>(TAMANIO_PAGINA);
+        while (System.nanoTime() < fin && error.get() == null) {
+            int k = azar.nextInt(Math.max(1, generador.getCreados()));
+            NodoContacto contacto = registro.buscar("Contacto " + k);
+            if (contacto != null) {
+                for (NodoContacto vecino : registro.getGrafo().getVecinos(contacto)) {
+                    verificar(vecino.getNombre() != null, "colaborador sin nombre");
+                }
+                registro.getGrafo().recorrerVecinos(contacto, v -> verificar(v.getNombre() != null, "colaborador sin nombre"));
+            }
+            int tamanio = registro.getArbol().getTamanio();
+            pagina.clear();
+            registro.getArbol().recorrerDesdePosicion(azar.nextInt(Math.max(1, tamanio)), TAMANIO_PAGINA,
+                    c -> pagina.add(c.getNombre()));
+            for (int i = 1; i < pagina.size(); i++) {
+                verificar(ORDEN_NOMBRES.compare(pagina.get(i - 1), pagina.get(i)) < 0,
+                        "página desordenada: " + pagina.get(i - 1) + " antes de " + pagina.get(i));
+            }
+            registro.buscarPorPrefijo("Contacto " + k, 10);
+            lecturas.incrementAndGet();
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Comparaciones
+    // ----------------------------------------------------------------------
+
+    /**
+     * Revisa que el árbol recorra los nombres de la lista en el orden de un TreeMap.
+     */
+    private static void verificarOrden(RegistroContactos registro, String etapa) {
+        TreeMap<String, NodoContacto> esperado = new TreeMap<>(ORDEN_NOMBRES);
+        registro.getLista().recorrerDesde(null, Integer.MAX_VALUE, c -> esperado.put(c.getNombre(), c));
+        List<NodoContacto> enArbol = new ArrayList<>();
+        registro.getArbol().recorrerEnOrden(enArbol::add);
+        verificar(enArbol.equals(new ArrayList<>(esperado.values())),
+                etapa + ": el árbol no recorre los contactos en el orden del TreeMap");
+    }
+
+    /**
+     * Compara dos registros: contactos en orden de lista, orden del árbol, colaboraciones y
+     * número del último cambio.
+     */
+    private static void compararEstado(RegistroContactos esperado, RegistroContactos obtenido, String etapa) {
+        verificar(esperado.getSecuencia() == obtenido.getSecuencia(),
+                etapa + ": número de cambio " + obtenido.getSecuencia() + " en lugar de " + esperado.getSecuencia());
+        List<String> a = describir(esperado);
+        List<String> b = describir(obtenido);
+        for (int i = 0; i < Math.min(a.size(), b.size()); i++) {
+            verificar(a.get(i).equals(b.get(i)), etapa + ": se esperaba \"" + a.get(i) + "\" y hay \"" + b.get(i) + "\"");
+        }
+        verificar(a.size() == b.size(), etapa + ": " + b.size() + " líneas de estado en lugar de " + a.size());
+    }
+
+    /**
+     * Describe un registro en texto: una línea por contacto en orden de lista (con sus
+     * colaboradores ordenados) y luego los nombres en el orden del árbol.
+     */
+    private static List<String> describir(RegistroContactos registro) {
+        List<String> lineas = new ArrayList<>();
+        registro.getLista().recorrerDesde(null, Integer.MAX_VALUE, c -> {
+            List<String> vecinos = new ArrayList<>();
+            registro.getGrafo().recorrerVecinos(c, v -> vecinos.add(v.getNombre()));
+            vecinos.sort(ORDEN_NOMBRES);
+            lineas.add(c.getNombre() + "|" + c.getTelefono() + "|" + c.getCorreo() + " -> " + vecinos);
+        });
+        registro.getArbol().recorrerEnOrden(c -> lineas.add("árbol " + c.getNombre()));
+        return lineas;
+    }
+
+    private static void verificar(boolean condicion, String mensaje) {
+        if (!condicion) {
+            throw new IllegalStateException(mensaje);
+        }
+    }
+
+    private static void informar(String prueba, RegistroContactos registro) {
+        System.out.printf(Locale.ROOT, "%s: OK (%,d contactos, %,d colaboraciones, último cambio %,d)%n", prueba,
+                registro.getLista().getTamanio(), registro.getGrafo().getNumAristas(), registro.getSecuencia());
+    }
+
+    private static void borrarDirectorio(Path directorio) throws IOException {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            for (Path archivo : archivos.collect(Collectors.toList())) {
+                Files.deleteIfExists(archivo);
+            }
+        }
+        Files.deleteIfExists(directorio);
+    }
+
+    /**
+     * Secuencia reproducible de cambios sobre un registro: altas, colaboraciones, bajas de
+     * colaboraciones y de contactos, y cambios de nombre, teléfono y correo. Lleva la cuenta de
+     * los nombres vigentes para elegir sobre qué contactos operar. Solo la usa un hilo a la vez.
+     */
+    private static final class Cambios {
+        private final Random azar;
+        private final List<String> vigentes = new ArrayList<>();
+        // Contactos creados hasta ahora (los lectores concurrentes lo leen para elegir nombres)
+        private volatile int creados;
+
+        Cambios(long semilla) {
+            this.azar = new Random(semilla);
+        }
+
+        int getCreados() {
+            return creados;
+        }
+
+        void aplicar(RegistroContactos registro, int cantidad) {
+            for (int i = 0; i < cantidad; i++) {
+                int tipo = azar.nextInt(100);
+                if (vigentes.size() < 2 || tipo < 55) {
+                    int k = creados++;
+                    String nombre = "Contacto " + k;
+                    if (registro.agregarContacto(nombre, GeneradorDatos.telefono(k), GeneradorDatos.correo(k)) != null) {
+                        vigentes.add(nombre);
+                    }
+                } else if (tipo < 80) {
+                    int p = azar.nextInt(vigentes.size());
+                    int q = otro(p);
+                    registro.agregarColaboracion(vigentes.get(p), vigentes.get(q));
+                } else if (tipo < 88) {
+                    int p = azar.nextInt(vigentes.size());
+                    int q = otro(p);
+                    registro.eliminarColaboracion(vigentes.get(p), vigentes.get(q));
+                } else if (tipo < 94) {
+                    int p = azar.nextInt(vigentes.size());
+                    if (registro.eliminarContacto(vigentes.get(p)) != null) {
+                        vigentes.set(p, vigentes.get(vigentes.size() - 1));
+                        vigentes.remove(vigentes.size() - 1);
+                    }
+                } else {
+                    int p = azar.nextInt(vigentes.size());
+                    int k = creados++;
+                    String nombre = "Renombrado " + k;
+                    if (registro.actualizarContacto(vigentes.get(p), nombre,
+                            GeneradorDatos.telefono(k), GeneradorDatos.correo(k)) != null) {
+                        vigentes.set(p, nombre);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Posición al azar distinta de la dada (hay al menos dos contactos vigentes).
+         */
+        private int otro(int p) {
+            int q = azar.nextInt(vigentes.size() - 1);
+            return (q >= p) ? q + 1 : q;
+        }
+    }
+}
@@ -1,192 +1,703 @@
-package controlador;
-
-import modelo.*;
-import vista.VistaContactos;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
-
-/**
- * Clase Controlador que conecta el modelo (lista, árbol y grafo) con la vista (interfaz gráfica).
- * Gestiona la lógica de interacción para agregar, buscar contactos, mostrar listas y manejar colaboraciones.
- */
-public class Controlador {
-    // Estructuras de datos del modelo
-    private ListaContactos lista;
-    private ArbolBinarioContactos arbol;
-    private GrafoColaboraciones grafo;
-    // Vista para interactuar con el usuario
-    private VistaContactos vista;
-
-    /**
-     * Constructor que recibe las estructuras y la vista, y configura los listeners de los botones.
-     *
-     * @param lista Lista enlazada de contactos
-     * @param arbol Árbol binario de contactos
-     * @param grafo Grafo de colaboraciones
-     * @param vista Interfaz gráfica para interacción
-     */
-    public Controlador(ListaContactos lista, ArbolBinarioContactos arbol, GrafoColaboraciones grafo, VistaContactos vista) {
-        this.lista = lista;
-        this.arbol = arbol;
-        this.grafo = grafo;
-        this.vista = vista;
-
-        // Cargar datos iniciales estáticos
-        cargarContactosIniciales();
-        vista.panelGrafo.setGrafo(grafo);
-        
-        // Listener para botón limpiar área texto
-        this.vista.btnLimpiar.addActionListener(e -> {
-            vista.txtArea.setText("");    // Limpia el área de texto
-            //grafo.limpiar();              // Limpia datos del grafo
-            vista.panelGrafo.setGrafo(null);  // Refresca el panel grafo (ahora vacío)
-            actualizarComboContactos();   // Limpia/completa los combos (si quieres que estén vacíos)
-        });
-
-        
-        // Listener para botón Agregar contacto
-        this.vista.btnAgregar.addActionListener(new ActionListener() {
-            @Override
-            public void actionPerformed(ActionEvent e) {
-                String nombre = vista.txtNombre.getText().trim();
-                String telefono = vista.txtTelefono.getText().trim();
-                String correo = vista.txtCorreo.getText().trim();
-
-                if (nombre.isEmpty()) {
-                    vista.txtArea.append("El nombre es obligatorio.\n");
-                    return;  // No agregar contacto sin nombre
-                }
-
-                NodoContacto nuevo = new NodoContacto(nombre, telefono, correo);
-                lista.agregarContacto(nombre, telefono, correo); // Agregar a lista enlazada
-                arbol.insertar(nuevo);                            // Insertar en árbol
-                grafo.agregarContacto(nuevo);                     // Agregar nodo al grafo
-
-                vista.txtArea.append("Contacto agregado: " + nombre + "\n");
-
-                // Actualizar listas desplegables de contactos
-                actualizarComboContactos();
-
-                // Actualizar grafo visualmente
-                vista.panelGrafo.setGrafo(grafo);
-
-                // Limpiar campos de entrada
-                vista.txtNombre.setText("");
-                vista.txtTelefono.setText("");
-                vista.txtCorreo.setText("");
-            }
-        });
-
-        // Listener para botón Buscar contacto por nombre
-        this.vista.btnBuscar.addActionListener(new ActionListener() {
-            @Override
-            public void actionPerformed(ActionEvent e) {
-                String nombre = vista.txtNombre.getText().trim();
-                NodoContacto encontrado = arbol.buscar(nombre);
-                if (encontrado != null) {
-                    vista.txtArea.append("Encontrado: " + encontrado.getNombre() + ", " + encontrado.getTelefono() + ", " + encontrado.getCorreo() + "\n");
-                } else {
-                    vista.txtArea.append("Contacto no encontrado\n");
-                }
-            }
-        });
-
-        // Listener para botón Mostrar todo (lista, árbol y grafo)
-        this.vista.btnMostrar.addActionListener(new ActionListener() {
-            @Override
-            public void actionPerformed(ActionEvent e) {
-                vista.txtArea.append("\n--- Lista de contactos ---\n");
-                vista.txtArea.append(lista.obtenerContactosTexto());
-                vista.txtArea.append("\n--- Árbol en orden ---\n");
-                vista.txtArea.append(arbol.obtenerInOrdenTexto());
-                vista.txtArea.append("\n--- Colaboraciones ---\n");
-                vista.txtArea.append(grafo.obtenerColaboracionesTexto());
-                vista.panelGrafo.setGrafo(grafo);
-            }
-        });
-
-        // Listener para botón Agregar colaboración entre dos contactos
-        this.vista.btnAgregarColaboracion.addActionListener(new ActionListener() {
-            @Override
-            public void actionPerformed(ActionEvent e) {
-                String c1 = (String) vista.cbContacto1.getSelectedItem();
-                String c2 = (String) vista.cbContacto2.getSelectedItem();
-
-                if (c1 == null || c2 == null) {
-                    vista.txtArea.append("Debe seleccionar dos contactos.\n");
-                    return;
-                }
-                if (c1.equals(c2)) {
-                    vista.txtArea.append("No puede colaborar un contacto consigo mismo.\n");
-                    return;
-                }
-
-                NodoContacto contacto1 = arbol.buscar(c1);
-                NodoContacto contacto2 = arbol.buscar(c2);
-
-                if (contacto1 != null && contacto2 != null) {
-                    grafo.agregarColaboracion(contacto1, contacto2);  // Agregar arista en grafo
-                    vista.txtArea.append("Colaboración agregada entre " + c1 + " y " + c2 + "\n");
-
-                    // Actualizar grafo visualmente
-                    vista.panelGrafo.setGrafo(grafo);
-                } else {
-                    vista.txtArea.append("Error al buscar contactos para colaboración.\n");
-                }
-            }
-        });
-
-        // Inicializa los comboboxes con contactos existentes (vacíos al inicio)
-        actualizarComboContactos();
-    }
-
-    /**
-     * Actualiza los comboboxes de contactos con los nombres actuales en el grafo.
-     */
-    private void actualizarComboContactos() {
-        vista.cbContacto1.removeAllItems();
-        vista.cbContacto2.removeAllItems();
-
-        // Agrega cada contacto por su nombre a ambos comboboxes
-        for (NodoContacto c : grafo.getContactos()) {
-            vista.cbContacto1.addItem(c.getNombre());
-            vista.cbContacto2.addItem(c.getNombre());
-        }
-    }
-    
-    private void cargarContactosIniciales() {
-        String[][] datos = {
-            {"Ana Perez", "0991234567", "ana.perez@email.com"},
-            {"Luis Gomez", "0987654321", "luis.gomez@email.com"},
-            {"Marta Ruiz", "0971122334", "marta.ruiz@email.com"},
-            {"Carlos Vega", "0969988776", "carlos.vega@email.com"},
-            {"Elena Diaz", "0954433221", "elena.diaz@email.com"},
-            {"Jorge Lopez", "0945566778", "jorge.lopez@email.com"},
-            {"Sofia Cruz", "0932211445", "sofia.cruz@email.com"}
-        };
-
-        for (String[] d : datos) {
-            NodoContacto nuevo = new NodoContacto(d[0], d[1], d[2]);
-            lista.agregarContacto(d[0], d[1], d[2]);
-            arbol.insertar(nuevo);
-            grafo.agregarContacto(nuevo);
-        }
-
-        // Crear colaboraciones estáticas
-        NodoContacto a = arbol.buscar("Ana Perez");
-        NodoContacto b = arbol.buscar("Luis Gomez");
-        NodoContacto c = arbol.buscar("Marta Ruiz");
-        NodoContacto d = arbol.buscar("Carlos Vega");
-
-        if (a != null && b != null) grafo.agregarColaboracion(a, b);
-        if (a != null && c != null) grafo.agregarColaboracion(a, c);
-        if (b != null && d != null) grafo.agregarColaboracion(b, d);
-
-        // Refrescar grafo para que se dibuje con los datos cargados
-        vista.panelGrafo.setGrafo(grafo);
-
-        // Actualizar combos para que muestren los nuevos contactos
-        actualizarComboContactos();
-    }
-
-}
+package controlador;
+
+import metricas.MetricasModelo;
+import modelo.*;
+import servicio.ResultadoOperacion;
+import servicio.ServicioContactos;
+import vista.ModeloComboContactos;
+import vista.ModeloTablaColaboraciones;
+import vista.ModeloTablaContactos;
+import vista.VistaContactos;
+
+import javax.swing.JComboBox;
+import javax.swing.JFileChooser;
+import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Clase Controlador que conecta el modelo (lista, árbol y grafo) con la vista (interfaz gráfica).
+ * Lee los datos de la vista, delega las operaciones en {@link ServicioContactos} y muestra
+ * los resultados; la lógica de negocio vive en el servicio.
+ * Las operaciones sobre el modelo no corren en el hilo de eventos de Swing sino en un hilo de
+ * tareas propio, para que la ventana no se congele con muchos datos; los resultados vuelven
+ * al hilo de eventos para mostrarse.
+ */
+public class Controlador {
+    // Cantidad máxima de coincidencias que se muestran al buscar
+    private static final int MAX_SUGERENCIAS = 10;
+    // Archivo donde se guarda la instantánea binaria al cerrar la ventana
+    private static final Path ARCHIVO_SNAPSHOT = Paths.get("contactos.snap");
+    // Bitácora de altas desde la última instantánea, con fsync agrupado cada 50 ms
+    private static final Path ARCHIVO_BITACORA = Paths.get("contactos.wal");
+    private static final long INTERVALO_SINCRONIZACION_MS = 50;
+    // Tamaño de la bitácora que dispara una compactación en segundo plano
+    private static final long UMBRAL_COMPACTACION = 64L * 1024 * 1024;
+    // Espera máxima, al cerrar, a que termine la operación en curso
+    private static final long ESPERA_CIERRE_SEGUNDOS = 60;
+
+    // Estructuras de datos del modelo
+    private ListaContactos lista;
+    private ArbolBinarioContactos arbol;
+    private GrafoColaboraciones grafo;
+    // Registro que comparte una sola instancia de cada contacto entre las estructuras
+    private RegistroContactos registro;
+    // Servicio con las operaciones de negocio
+    private ServicioContactos servicio;
+    // Modelos de las tablas de contactos y colaboraciones
+    private final ModeloTablaContactos modeloContactos;
+    private final ModeloTablaColaboraciones modeloColaboraciones;
+    // Modelos de las listas desplegables de contactos (uno por lista: cada una guarda su selección)
+    private final ModeloComboContactos modeloCombo1;
+    private final ModeloComboContactos modeloCombo2;
+    // Vista para interactuar con el usuario
+    private VistaContactos vista;
+    // Hilo donde corren, de a una y en orden, las operaciones sobre el modelo
+    private final ThreadPoolExecutor ejecutor;
+    // Tarea que se muestra en la barra de estado (solo se usa en el hilo de eventos)
+    private TareaSegundoPlano<?> tareaVisible;
+    // true cuando terminó la carga inicial; antes de eso no se guarda la instantánea al cerrar
+    private volatile boolean cargaCompleta;
+
+    /**
+     * Constructor que recibe las estructuras y la vista, y configura los listeners de los botones.
+     * Las estructuras deberían estar en modo concurrente: las operaciones corren fuera del hilo
+     * de eventos mientras el panel del grafo las lee.
+     *
+     * @param lista Lista enlazada de contactos
+     * @param arbol Árbol binario de contactos
+     * @param grafo Grafo de colaboraciones
+     * @param vista Interfaz gráfica para interacción
+     */
+    public Controlador(ListaContactos lista, ArbolBinarioContactos arbol, GrafoColaboraciones grafo, VistaContactos vista) {
+        this(new RegistroContactos(lista, arbol, grafo), vista);
+    }
+
+    /**
+     * Constructor que recibe un registro ya creado (en modo concurrente, porque el modelo se
+     * modifica fuera del hilo de eventos) y la vista. Debe llamarse en el hilo de eventos.
+     * La carga de los datos guardados se hace en segundo plano; la ventana responde mientras tanto.
+     *
+     * @param registro Registro con la lista, el árbol y el grafo
+     * @param vista Interfaz gráfica para interacción
+     */
+    public Controlador(RegistroContactos registro, VistaContactos vista) {
+        this.lista = registro.getLista();
+        this.arbol = registro.getArbol();
+        this.grafo = registro.getGrafo();
+        this.vista = vista;
+        this.registro = registro;
+        this.servicio = new ServicioContactos(registro);
+        this.modeloContactos = new ModeloTablaContactos(arbol, grafo);
+        this.modeloColaboraciones = new ModeloTablaColaboraciones(grafo);
+        vista.tablaContactos.setModel(modeloContactos);
+        vista.tablaColaboraciones.setModel(modeloColaboraciones);
+        this.modeloCombo1 = new ModeloComboContactos(arbol);
+        this.modeloCombo2 = new ModeloComboContactos(arbol);
+        filtrarAlEscribir(vista.cbContacto1, modeloCombo1);
+        filtrarAlEscribir(vista.cbContacto2, modeloCombo2);
+        this.ejecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread hilo = new Thread(r, "tareas-contactos");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+
+        // Cargar la última instantánea guardada o, si no hay, los datos iniciales estáticos;
+        // luego reaplicar lo anotado en la bitácora desde esa instantánea y seguir anotando
+        lanzar(new TareaSegundoPlano<Void>(vista.txtArea, "Cargando contactos", false) {
+            @Override
+            protected Void ejecutar() {
+                if (!cargarSnapshot(this)) {
+                    cargarContactosIniciales();
+                }
+                abrirBitacora(this);
+                return null;
+            }
+
+            @Override
+            protected void alTerminar(Void resultado) {
+                cargaCompleta = true;
+                vista.panelGrafo.setGrafo(grafo);
+                actualizarTablas();
+                actualizarComboContactos();
+            }
+        });
+
+        // Guardar la instantánea al cerrar la ventana; con eso la bitácora ya no hace falta
+        this.vista.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                cerrar();
+            }
+        });
+
+        // Listener para botón Cancelar de la barra de estado
+        this.vista.btnCancelar.addActionListener(e -> {
+            if (tareaVisible != null) {
+                tareaVisible.cancel(false);  // La tarea se detiene en su próximo punto de control
+            }
+        });
+        
+        // Listener para botón limpiar área texto
+        this.vista.btnLimpiar.addActionListener(e -> {
+            vista.txtArea.setText("");    // Limpia el área de texto
+            //grafo.limpiar();              // Limpia datos del grafo
+            vista.panelGrafo.setGrafo(null);  // Refresca el panel grafo (ahora vacío)
+            actualizarComboContactos();   // Limpia/completa los combos (si quieres que estén vacíos)
+        });
+
+        
+        // Listener para botón Agregar contacto
+        this.vista.btnAgregar.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                // Los campos se leen aquí, en el hilo de eventos; el alta corre en segundo plano
+                String nombre = vista.txtNombre.getText();
+                String telefono = vista.txtTelefono.getText();
+                String correo = vista.txtCorreo.getText();
+                lanzar(new TareaSegundoPlano<ResultadoOperacion>(vista.txtArea, null, false) {
+                    @Override
+                    protected ResultadoOperacion ejecutar() {
+                        // El servicio valida el nombre y rechaza nombres, teléfonos o correos ya registrados
+                        return servicio.agregarContacto(nombre, telefono, correo);
+                    }
+
+                    @Override
+                    protected void alTerminar(ResultadoOperacion resultado) {
+                        vista.txtArea.append(resultado.getMensaje() + "\n");
+                        if (!resultado.isExito()) {
+                            return;
+                        }
+
+                        // Actualizar listas desplegables de contactos (solo se avisa la fila nueva)
+                        modeloCombo1.contactoAgregado(resultado.getContacto().getNombre());
+                        modeloCombo2.contactoAgregado(resultado.getContacto().getNombre());
+
+                        // Actualizar grafo visualmente
+                        vista.panelGrafo.setGrafo(grafo);
+                        actualizarTablas();
+
+                        // Limpiar campos de entrada (salvo que el usuario ya haya escrito otra cosa)
+                        limpiarSiNoCambio(vista.txtNombre, nombre);
+                        limpiarSiNoCambio(vista.txtTelefono, telefono);
+                        limpiarSiNoCambio(vista.txtCorreo, correo);
+                    }
+                });
+            }
+        });
+
+        // Listener para botón Buscar contacto por nombre
+        this.vista.btnBuscar.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                String nombre = vista.txtNombre.getText().trim();
+                String telefono = vista.txtTelefono.getText();
+                String correo = vista.txtCorreo.getText();
+                lanzar(new TareaSegundoPlano<NodoContacto>(vista.txtArea, null, false) {
+                    @Override
+                    protected NodoContacto ejecutar() {
+                        NodoContacto encontrado = buscarExacto(nombre, telefono, correo);
+                        if (encontrado == null) {
+                            // Sin coincidencia exacta: probar por prefijo y luego tolerando errores de tipeo
+                            escribir(textoCoincidencias(nombre));
+                        }
+                        return encontrado;
+                    }
+
+                    @Override
+                    protected void alTerminar(NodoContacto encontrado) {
+                        if (encontrado != null) {
+                            vista.txtArea.append("Encontrado: " + encontrado.getNombre() + ", " + encontrado.getTelefono() + ", " + encontrado.getCorreo() + "\n");
+                            seleccionarEnTabla(encontrado);
+                        }
+                    }
+                });
+            }
+        });
+
+        // Listener para botón Mostrar todo: los listados están en tablas que solo piden al
+        // modelo las filas visibles, así que abrirlos es inmediato con cualquier cantidad de datos
+        this.vista.btnMostrar.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                actualizarTablas();
+                vista.panelGrafo.setGrafo(grafo);
+                vista.txtArea.append("Contactos: " + lista.getTamanio() + ", colaboraciones: "
+                        + grafo.getNumAristas() + "\n");
+                if (MetricasModelo.ACTIVAS) {
+                    vista.txtArea.append(MetricasModelo.getInstancia().getTexto());
+                }
+                vista.pestanas.setSelectedIndex(vista.pestanas.indexOfTab("Contactos"));
+            }
+        });
+
+        // Listener para botón Agregar colaboración entre dos contactos
+        this.vista.btnAgregarColaboracion.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                String c1 = textoCombo(vista.cbContacto1);
+                String c2 = textoCombo(vista.cbContacto2);
+                lanzar(new TareaSegundoPlano<ResultadoOperacion>(vista.txtArea, null, false) {
+                    @Override
+                    protected ResultadoOperacion ejecutar() {
+                        return servicio.agregarColaboracion(c1, c2);
+                    }
+
+                    @Override
+                    protected void alTerminar(ResultadoOperacion resultado) {
+                        vista.txtArea.append(resultado.getMensaje() + "\n");
+                        if (resultado.isExito()) {
+                            // Actualizar grafo visualmente
+                            vista.panelGrafo.setGrafo(grafo);
+                            actualizarTablas();
+                        }
+                    }
+                });
+            }
+        });
+
+        // Listener para botón Quitar colaboración entre dos contactos
+        this.vista.btnQuitarColaboracion.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                String c1 = textoCombo(vista.cbContacto1);
+                String c2 = textoCombo(vista.cbContacto2);
+                lanzar(new TareaSegundoPlano<ResultadoOperacion>(vista.txtArea, null, false) {
+                    @Override
+                    protected ResultadoOperacion ejecutar() {
+                        return servicio.eliminarColaboracion(c1, c2);
+                    }
+
+                    @Override
+                    protected void alTerminar(ResultadoOperacion resultado) {
+                        vista.txtArea.append(resultado.getMensaje() + "\n");
+                        if (resultado.isExito()) {
+                            vista.panelGrafo.setGrafo(grafo);
+                            actualizarTablas();
+                        }
+                    }
+                });
+            }
+        });
+
+        // Listener para botón Actualizar: aplica los campos al contacto seleccionado (el último
+        // encontrado) o, si no hay, al del nombre escrito; un campo vacío conserva el dato actual
+        this.vista.btnActualizar.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                NodoContacto seleccionado = vista.panelGrafo.getSeleccionado();
+                String nuevoNombre = vista.txtNombre.getText();
+                String nombre = (seleccionado != null) ? seleccionado.getNombre() : nuevoNombre;
+                String telefono = vista.txtTelefono.getText();
+                String correo = vista.txtCorreo.getText();
+                lanzar(new TareaSegundoPlano<ResultadoOperacion>(vista.txtArea, null, false) {
+                    @Override
+                    protected ResultadoOperacion ejecutar() {
+                        return servicio.actualizarContacto(nombre, nuevoNombre, telefono, correo);
+                    }
+
+                    @Override
+                    protected void alTerminar(ResultadoOperacion resultado) {
+                        vista.txtArea.append(resultado.getMensaje() + "\n");
+                        if (!resultado.isExito()) {
+                            return;
+                        }
+                        vista.panelGrafo.setGrafo(grafo);
+                        actualizarTablas();
+                        actualizarComboContactos();  // El nombre pudo cambiar de lugar en el orden
+                        seleccionarEnTabla(resultado.getContacto());
+                        limpiarSiNoCambio(vista.txtNombre, nuevoNombre);
+                        limpiarSiNoCambio(vista.txtTelefono, telefono);
+                        limpiarSiNoCambio(vista.txtCorreo, correo);
+                    }
+                });
+            }
+        });
+
+        // Listener para botón Eliminar: quita el contacto del nombre escrito o, si está vacío,
+        // el seleccionado, junto con sus colaboraciones
+        this.vista.btnEliminar.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                NodoContacto seleccionado = vista.panelGrafo.getSeleccionado();
+                String escrito = vista.txtNombre.getText().trim();
+                String nombre = (!escrito.isEmpty() || seleccionado == null) ? escrito : seleccionado.getNombre();
+                lanzar(new TareaSegundoPlano<ResultadoOperacion>(vista.txtArea, null, false) {
+                    @Override
+                    protected ResultadoOperacion ejecutar() {
+                        return servicio.eliminarContacto(nombre);
+                    }
+
+                    @Override
+                    protected void alTerminar(ResultadoOperacion resultado) {
+                        vista.txtArea.append(resultado.getMensaje() + "\n");
+                        if (!resultado.isExito()) {
+                            return;
+                        }
+                        if (vista.panelGrafo.getSeleccionado() == resultado.getContacto()) {
+                            vista.panelGrafo.setSeleccionado(null);
+                        }
+                        vista.panelGrafo.setGrafo(grafo);
+                        actualizarTablas();
+                        actualizarComboContactos();
+                        limpiarSiNoCambio(vista.txtNombre, escrito);
+                    }
+                });
+            }
+        });
+
+        // Listener para botón Importar: contactos y, opcionalmente, colaboraciones desde CSV
+        this.vista.btnImportar.addActionListener(e -> importarCSV());
+    }
+
+    /**
+     * Devuelve el servicio de contactos que usa el controlador, para compartirlo con otros
+     * clientes (por ejemplo, el servidor de consultas).
+     * @return servicio de contactos
+     */
+    public ServicioContactos getServicio() {
+        return servicio;
+    }
+
+    /**
+     * Encola una tarea en el hilo de tareas del modelo. Las tareas corren de a una y en el
+     * orden en que se pidieron, así las altas nunca se cruzan entre sí. Las que tienen
+     * descripción se muestran en la barra de estado mientras corren.
+     * @param tarea Tarea a ejecutar
+     */
+    private void lanzar(TareaSegundoPlano<?> tarea) {
+        if (tarea.getDescripcion() != null) {
+            tarea.addPropertyChangeListener(evento -> {
+                // SwingWorker entrega estos eventos en el hilo de eventos
+                if ("progress".equals(evento.getPropertyName())) {
+                    if (tarea == tareaVisible) {
+                        vista.barraProgreso.setIndeterminate(false);
+                        vista.barraProgreso.setValue((Integer) evento.getNewValue());
+                    }
+                } else if (evento.getNewValue() == SwingWorker.StateValue.STARTED) {
+                    mostrarEstado(tarea);
+                } else if (evento.getNewValue() == SwingWorker.StateValue.DONE) {
+                    ocultarEstado(tarea);
+                }
+            });
+        }
+        ejecutor.execute(tarea);
+    }
+
+    /**
+     * Muestra en la barra de estado la tarea que empezó a correr.
+     */
+    private void mostrarEstado(TareaSegundoPlano<?> tarea) {
+        tareaVisible = tarea;
+        vista.lblEstado.setText(tarea.getDescripcion() + "...");
+        vista.barraProgreso.setValue(0);
+        vista.barraProgreso.setIndeterminate(true);  // Hasta que la tarea informe su avance
+        vista.barraProgreso.setVisible(true);
+        vista.btnCancelar.setEnabled(tarea.isCancelable());
+    }
+
+    /**
+     * Limpia la barra de estado si la tarea que terminó era la que se mostraba.
+     */
+    private void ocultarEstado(TareaSegundoPlano<?> tarea) {
+        if (tarea != tareaVisible) {
+            return;
+        }
+        tareaVisible = null;
+        vista.lblEstado.setText("Listo");
+        vista.barraProgreso.setIndeterminate(false);
+        vista.barraProgreso.setVisible(false);
+        vista.btnCancelar.setEnabled(false);
+    }
+
+    /**
+     * Al cerrar la ventana: cancela lo pendiente, espera la tarea en curso y guarda la instantánea.
+     * Si la carga inicial no terminó no se guarda nada, para no pisar la instantánea completa
+     * con una carga parcial.
+     */
+    private void cerrar() {
+        ejecutor.getQueue().clear();  // Las tareas que no empezaron ya no corren
+        if (tareaVisible != null && tareaVisible.isCancelable()) {
+            tareaVisible.cancel(false);
+        }
+        ejecutor.shutdown();
+        if (!cargaCompleta) {
+            return;
+        }
+        try {
+            if (!ejecutor.awaitTermination(ESPERA_CIERRE_SEGUNDOS, TimeUnit.SECONDS)) {
+                System.err.println("Una operación sigue en curso; no se guarda " + ARCHIVO_SNAPSHOT);
+                return;
+            }
+            servicio.close();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ex) {
+            System.err.println("No se pudo guardar " + ARCHIVO_SNAPSHOT + ": " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Actualiza los comboboxes de contactos después de cambios masivos. Los modelos leen los
+     * nombres del árbol a medida que se muestran, así que solo se relee la cantidad: O(log n).
+     */
+    private void actualizarComboContactos() {
+        modeloCombo1.actualizar();
+        modeloCombo2.actualizar();
+    }
+
+    /**
+     * Filtra la lista desplegable por lo que se escribe en ella: muestra los nombres que empiezan
+     * con el texto. El filtro se aplica en una vuelta posterior del hilo de eventos, porque el
+     * texto no puede cambiar mientras avisa sus propios cambios.
+     */
+    private static void filtrarAlEscribir(JComboBox<String> combo, ModeloComboContactos modelo) {
+        combo.setModel(modelo);
+        JTextField editor = (JTextField) combo.getEditor().getEditorComponent();
+        editor.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                filtrar();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                filtrar();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+
+            private void filtrar() {
+                SwingUtilities.invokeLater(() -> {
+                    modelo.setFiltro(editor.getText());
+                    if (editor.isFocusOwner() && combo.isShowing()) {
+                        combo.showPopup();  // Solo mientras el usuario escribe, no al elegir de la lista
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Devuelve el nombre escrito o elegido en una lista desplegable editable.
+     */
+    private static String textoCombo(JComboBox<String> combo) {
+        Object texto = combo.isEditable() ? combo.getEditor().getItem() : combo.getSelectedItem();
+        return (texto == null) ? "" : texto.toString().trim();
+    }
+
+    /**
+     * Vacía un campo de texto si todavía contiene el valor indicado.
+     */
+    private static void limpiarSiNoCambio(JTextField campo, String valor) {
+        if (campo.getText().equals(valor)) {
+            campo.setText("");
+        }
+    }
+
+    /**
+     * Busca por nombre exacto o, si no se escribió nombre, por teléfono o correo.
+     * @return contacto encontrado, o null
+     */
+    private NodoContacto buscarExacto(String nombre, String telefono, String correo) {
+        if (nombre.isEmpty()) {
+            // Sin nombre: búsqueda inversa por teléfono o por correo
+            return servicio.buscarPorTelefonoOCorreo(telefono, correo);
+        }
+        return servicio.buscar(nombre);
+    }
+
+    /**
+     * Busca por prefijo y, si no hay, tolerando errores de tipeo.
+     * @return texto con las coincidencias, listo para agregar al área
+     */
+    private String textoCoincidencias(String nombre) {
+        List<NodoContacto> sugerencias = servicio.buscarCoincidencias(nombre, MAX_SUGERENCIAS);
+        if (sugerencias.isEmpty()) {
+            return "Contacto no encontrado\n";
+        }
+        StringBuilder sb = new StringBuilder("Coincidencias para \"" + nombre + "\":\n");
+        for (NodoContacto c : sugerencias) {
+            sb.append("  ").append(c.getNombre()).append(", ").append(c.getTelefono()).append(", ").append(c.getCorreo()).append("\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Relee la cantidad de filas de las tablas y descarta lo que tenían en memoria.
+     */
+    private void actualizarTablas() {
+        modeloContactos.actualizar();
+        modeloColaboraciones.actualizar();
+    }
+
+    /**
+     * Selecciona un contacto en la tabla de contactos (desplazándola hasta él) y lo resalta en
+     * el grafo.
+     */
+    private void seleccionarEnTabla(NodoContacto contacto) {
+        vista.panelGrafo.setSeleccionado(contacto);
+        int fila = modeloContactos.getFila(contacto.getNombre());
+        if (fila < modeloContactos.getRowCount()) {
+            vista.tablaContactos.setRowSelectionInterval(fila, fila);
+            vista.tablaContactos.scrollRectToVisible(vista.tablaContactos.getCellRect(fila, 0, true));
+        }
+    }
+
+    /**
+     * Pide un CSV de contactos ("nombre,telefono,correo") y luego, opcionalmente,
+     * uno de colaboraciones ("nombre1,nombre2"), y los carga de forma masiva en segundo plano,
+     * con avance y posibilidad de cancelar entre lotes.
+     */
+    private void importarCSV() {
+        JFileChooser selector = new JFileChooser();
+        selector.setDialogTitle("Archivo CSV de contactos");
+        Path contactos = null;
+        Path colaboraciones = null;
+        if (selector.showOpenDialog(vista) == JFileChooser.APPROVE_OPTION) {
+            contactos = selector.getSelectedFile().toPath();
+        }
+        selector.setDialogTitle("Archivo CSV de colaboraciones (opcional)");
+        if (selector.showOpenDialog(vista) == JFileChooser.APPROVE_OPTION) {
+            colaboraciones = selector.getSelectedFile().toPath();
+        }
+        if (contactos == null && colaboraciones == null) {
+            return;
+        }
+        Path archivoContactos = contactos;
+        Path archivoColaboraciones = colaboraciones;
+        lanzar(new TareaSegundoPlano<Void>(vista.txtArea, "Importando CSV", true) {
+            @Override
+            protected Void ejecutar() throws IOException {
+                // El avance se mide en caracteres leídos sobre el tamaño de los archivos
+                long tamanioContactos = tamanio(archivoContactos);
+                long total = tamanioContactos + tamanio(archivoColaboraciones);
+                if (archivoContactos != null) {
+                    ResultadoImportacion r = servicio.importarContactos(archivoContactos, leidos -> {
+                        avance(leidos, total);
+                        return !isCancelled();
+                    });
+                    escribir(textoResultadoImportacion("Contactos", r));
+                }
+                if (archivoColaboraciones != null && !isCancelled()) {
+                    ResultadoImportacion r = servicio.importarColaboraciones(archivoColaboraciones, leidos -> {
+                        avance(tamanioContactos + leidos, total);
+                        return !isCancelled();
+                    });
+                    escribir(textoResultadoImportacion("Colaboraciones", r));
+                }
+                return null;
+            }
+        });
+        // Aun si se cancela, lo importado hasta ese momento queda en el modelo
+        lanzar(new TareaSegundoPlano<Void>(vista.txtArea, null, false) {
+            @Override
+            protected Void ejecutar() {
+                return null;
+            }
+
+            @Override
+            protected void alTerminar(Void resultado) {
+                vista.panelGrafo.setGrafo(grafo);
+                actualizarTablas();
+                actualizarComboContactos();
+            }
+        });
+    }
+
+    private static long tamanio(Path archivo) throws IOException {
+        return (archivo == null) ? 0 : Files.size(archivo);
+    }
+
+    /**
+     * Arma el resumen de una importación y los primeros motivos de rechazo.
+     */
+    private static String textoResultadoImportacion(String titulo, ResultadoImportacion resultado) {
+        StringBuilder sb = new StringBuilder(titulo + " importados: " + resultado + "\n");
+        int mostrados = 0;
+        for (String motivo : resultado.getMotivosRechazo()) {
+            if (mostrados++ == 10) {
+                sb.append("  ...\n");
+                break;
+            }
+            sb.append("  ").append(motivo).append("\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Carga la instantánea binaria guardada en la sesión anterior, si existe.
+     * @param tarea Tarea de carga, que recibe los mensajes
+     * @return true si se cargó; false si no había archivo o no se pudo leer
+     */
+    private boolean cargarSnapshot(TareaSegundoPlano<?> tarea) {
+        long inicio = System.nanoTime();
+        try {
+            if (!servicio.cargarSnapshot(ARCHIVO_SNAPSHOT)) {
+                return false;
+            }
+        } catch (IOException | RuntimeException ex) {
+            tarea.escribir("No se pudo cargar " + ARCHIVO_SNAPSHOT + ": " + ex.getMessage() + "\n");
+            return false;
+        }
+        tarea.escribir("Instantánea cargada: " + lista.getTamanio() + " contactos en "
+                + (System.nanoTime() - inicio) / 1_000_000 + " ms\n");
+        return true;
+    }
+
+    /**
+     * Reproduce la bitácora sobre lo ya cargado y la deja abierta para anotar las altas nuevas.
+     * Si falla, la aplicación sigue funcionando sin persistencia de cambios.
+     * @param tarea Tarea de carga, que recibe los mensajes
+     */
+    private void abrirBitacora(TareaSegundoPlano<?> tarea) {
+        try {
+            long reproducidos = servicio.abrirBitacora(ARCHIVO_SNAPSHOT, ARCHIVO_BITACORA,
+                    INTERVALO_SINCRONIZACION_MS, UMBRAL_COMPACTACION);
+            if (reproducidos > 0) {
+                tarea.escribir("Bitácora: " + reproducidos + " cambios recuperados\n");
+            }
+        } catch (IOException ex) {
+            tarea.escribir("No se pudo abrir la bitácora " + ARCHIVO_BITACORA + ": " + ex.getMessage() + "\n");
+        }
+    }
+
+    private void cargarContactosIniciales() {
+        String[][] datos = {
+            {"Ana Perez", "0991234567", "ana.perez@email.com"},
+            {"Luis Gomez", "0987654321", "luis.gomez@email.com"},
+            {"Marta Ruiz", "0971122334", "marta.ruiz@email.com"},
+            {"Carlos Vega", "0969988776", "carlos.vega@email.com"},
+            {"Elena Diaz", "0954433221", "elena.diaz@email.com"},
+            {"Jorge Lopez", "0945566778", "jorge.lopez@email.com"},
+            {"Sofia Cruz", "0932211445", "sofia.cruz@email.com"}
+        };
+
+        servicio.agregarContactos(Arrays.asList(datos));
+
+        // Crear colaboraciones estáticas
+        servicio.agregarColaboraciones(Arrays.asList(new String[][] {
+            {"Ana Perez", "Luis Gomez"},
+            {"Ana Perez", "Marta Ruiz"},
+            {"Luis Gomez", "Carlos Vega"}
+        }));
+    }
+
+}
@@ -0,0 +1,186 @@
+package controlador;
+
+import javax.swing.JTextArea;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Operación sobre el modelo que corre fuera del hilo de eventos de Swing.
+ * {@link #ejecutar()} corre en segundo plano y {@link #alTerminar(Object)} en el hilo de eventos.
+ * El texto que produce la tarea se acumula y se agrega al área de resultados en bloques de
+ * tamaño acotado, uno por vuelta del hilo de eventos, de modo que la ventana sigue pintándose
+ * y atendiendo eventos mientras llega la salida. Si el área no alcanza a mostrar lo que la
+ * tarea produce, la tarea espera (no se acumula texto sin límite en memoria).
+ *
+ * @param <T> Tipo del resultado
+ */
+abstract class TareaSegundoPlano<T> extends SwingWorker<T, Void> {
+    // Caracteres que se agregan al área en cada vuelta del hilo de eventos
+    private static final int MAX_POR_VUELTA = 16 * 1024;
+    // Caracteres pendientes de mostrar a partir de los cuales la tarea espera
+    private static final int MAX_PENDIENTE = 256 * 1024;
+    // Espera máxima entre revisiones de cancelación mientras la salida está llena
+    private static final long ESPERA_MS = 100;
+
+    // Área donde se muestra la salida
+    private final JTextArea salida;
+    // Descripción para la barra de estado (null: tarea breve, sin barra de progreso)
+    private final String descripcion;
+    // Si el usuario puede cancelarla
+    private final boolean cancelable;
+    // Texto producido y aún no mostrado; también es el monitor de la espera
+    private final StringBuilder pendiente = new StringBuilder();
+    // true si ya hay una vuelta del hilo de eventos programada para mostrar texto
+    private boolean muestraProgramada;
+    // Último porcentaje informado
+    private int ultimoPorcentaje;
+
+    /**
+     * Constructor de la tarea.
+     * @param salida Área donde se agrega el texto producido
+     * @param descripcion Texto para la barra de estado, o null si es una tarea breve
+     * @param cancelable true si el usuario puede cancelarla
+     */
+    TareaSegundoPlano(JTextArea salida, String descripcion, boolean cancelable) {
+        this.salida = salida;
+        this.descripcion = descripcion;
+        this.cancelable = cancelable;
+    }
+
+    /**
+     * Trabajo de la tarea; corre en segundo plano.
+     * @return resultado que recibe {@link #alTerminar(Object)}
+     * @throws Exception si la operación falla
+     */
+    protected abstract T ejecutar() throws Exception;
+
+    /**
+     * Se llama en el hilo de eventos cuando la tarea termina bien, después de mostrar todo su texto.
+     * @param resultado Resultado de {@link #ejecutar()}
+     */
+    protected void alTerminar(T resultado) {
+    }
+
+    /**
+     * Devuelve la descripción para la barra de estado.
+     * @return descripción, o null si es una tarea breve
+     */
+    String getDescripcion() {
+        return descripcion;
+    }
+
+    /**
+     * Indica si el usuario puede cancelar la tarea.
+     * @return true si es cancelable
+     */
+    boolean isCancelable() {
+        return cancelable;
+    }
+
+    @Override
+    protected final T doInBackground() throws Exception {
+        return ejecutar();
+    }
+
+    /**
+     * Agrega texto a la salida. Se llama desde {@link #ejecutar()}; si hay demasiado texto sin
+     * mostrar, espera a que el hilo de eventos lo consuma.
+     * @param texto Texto a agregar
+     * @throws CancellationException si la tarea fue cancelada
+     */
+    protected final void escribir(String texto) {
+        synchronized (pendiente) {
+            while (pendiente.length() >= MAX_PENDIENTE) {
+                verificarCancelacion();
+                try {
+                    pendiente.wait(ESPERA_MS);  // Con tope: el hilo de eventos puede estar ocupado
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException();
+                }
+            }
+            pendiente.append(texto);
+            if (!muestraProgramada) {
+                muestraProgramada = true;
+                SwingUtilities.invokeLater(this::mostrarPendiente);
+            }
+        }
+    }
+
+    /**
+     * Informa el avance; la barra de progreso se actualiza solo si cambia el porcentaje.
+     * @param hecho Unidades de trabajo completadas
+     * @param total Unidades de trabajo totales
+     */
+    protected final void avance(long hecho, long total) {
+        int porcentaje = (total <= 0) ? 0 : (int) Math.min(100, hecho * 100 / total);
+        if (porcentaje != ultimoPorcentaje) {
+            ultimoPorcentaje = porcentaje;
+            setProgress(porcentaje);
+        }
+    }
+
+    /**
+     * Detiene la tarea si el usuario la canceló. Se llama periódicamente desde {@link #ejecutar()}.
+     * @throws CancellationException si la tarea fue cancelada
+     */
+    protected final void verificarCancelacion() {
+        if (isCancelled() || Thread.currentThread().isInterrupted()) {
+            throw new CancellationException();
+        }
+    }
+
+    /**
+     * Muestra un bloque del texto pendiente; si queda más, programa otra vuelta para que entre
+     * bloque y bloque se atiendan la pintura y los eventos del usuario.
+     */
+    private void mostrarPendiente() {
+        String bloque;
+        synchronized (pendiente) {
+            int largo = Math.min(pendiente.length(), MAX_POR_VUELTA);
+            bloque = pendiente.substring(0, largo);
+            pendiente.delete(0, largo);
+            if (pendiente.length() > 0) {
+                SwingUtilities.invokeLater(this::mostrarPendiente);
+            } else {
+                muestraProgramada = false;
+            }
+            pendiente.notifyAll();
+        }
+        if (!bloque.isEmpty()) {
+            salida.append(bloque);
+        }
+    }
+
+    @Override
+    protected final void done() {
+        // Lo que quede se muestra antes del mensaje final, para conservar el orden
+        String resto;
+        synchronized (pendiente) {
+            resto = pendiente.toString();
+            pendiente.setLength(0);
+            pendiente.notifyAll();
+        }
+        if (!resto.isEmpty()) {
+            salida.append(resto);
+        }
+        if (isCancelled()) {
+            salida.append(descripcion + ": cancelado.\n");
+            return;
+        }
+        try {
+            alTerminar(get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof CancellationException) {
+                salida.append(descripcion + ": cancelado.\n");
+            } else {
+                salida.append("Error: " + causa.getMessage() + "\n");
+            }
+        }
+    }
+}
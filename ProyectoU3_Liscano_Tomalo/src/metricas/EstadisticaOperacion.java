@@ -0,0 +1,97 @@
+package metricas;
+
+import javax.management.ConstructorParameters;
+
+/**
+ * Instantánea inmutable de las mediciones de una operación del modelo.
+ * Los tiempos están en nanosegundos. Por JMX se publica como un CompositeData con un campo
+ * por cada getter.
+ */
+public final class EstadisticaOperacion {
+    private final String operacion;
+    private final long cantidad;
+    private final long lentas;
+    private final long promedioNanos;
+    private final long p50Nanos;
+    private final long p99Nanos;
+    private final long maximoNanos;
+
+    /**
+     * Constructor de la instantánea.
+     * @param operacion Nombre de la operación
+     * @param cantidad Veces que se ejecutó
+     * @param lentas Veces que superó el umbral de operación lenta
+     * @param promedioNanos Duración promedio
+     * @param p50Nanos Mediana estimada
+     * @param p99Nanos Percentil 99 estimado
+     * @param maximoNanos Mayor duración
+     */
+    @ConstructorParameters({"operacion", "cantidad", "lentas", "promedioNanos", "p50Nanos", "p99Nanos",
+            "maximoNanos"})
+    public EstadisticaOperacion(String operacion, long cantidad, long lentas, long promedioNanos,
+                                long p50Nanos, long p99Nanos, long maximoNanos) {
+        this.operacion = operacion;
+        this.cantidad = cantidad;
+        this.lentas = lentas;
+        this.promedioNanos = promedioNanos;
+        this.p50Nanos = p50Nanos;
+        this.p99Nanos = p99Nanos;
+        this.maximoNanos = maximoNanos;
+    }
+
+    /**
+     * Devuelve el nombre de la operación.
+     * @return nombre
+     */
+    public String getOperacion() {
+        return operacion;
+    }
+
+    /**
+     * Devuelve cuántas veces se ejecutó la operación.
+     * @return cantidad de ejecuciones
+     */
+    public long getCantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Devuelve cuántas ejecuciones superaron el umbral de operación lenta.
+     * @return cantidad de ejecuciones lentas
+     */
+    public long getLentas() {
+        return lentas;
+    }
+
+    /**
+     * Devuelve la duración promedio.
+     * @return promedio en nanosegundos
+     */
+    public long getPromedioNanos() {
+        return promedioNanos;
+    }
+
+    /**
+     * Devuelve la mediana estimada de la duración.
+     * @return mediana en nanosegundos
+     */
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    /**
+     * Devuelve el percentil 99 estimado de la duración.
+     * @return percentil 99 en nanosegundos
+     */
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    /**
+     * Devuelve la mayor duración registrada.
+     * @return máximo en nanosegundos
+     */
+    public long getMaximoNanos() {
+        return maximoNanos;
+    }
+}
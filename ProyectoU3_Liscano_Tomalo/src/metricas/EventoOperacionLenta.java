@@ -0,0 +1,42 @@
+package metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Evento de Java Flight Recorder emitido cuando una operación del modelo supera el umbral de
+ * operación lenta. Incluye la pila de llamadas, así en la grabación se ve quién la pidió.
+ * Solo cuesta algo si hay una grabación activa que lo incluya.
+ */
+@Name("contactos.OperacionLenta")
+@Label("Operación lenta del modelo")
+@Category({"Contactos", "Modelo"})
+@Description("Operación de la lista, el árbol o el grafo que superó el umbral de operación lenta")
+@StackTrace(true)
+final class EventoOperacionLenta extends Event {
+    @Label("Operación")
+    String operacion;
+
+    @Label("Duración")
+    @Timespan(Timespan.NANOSECONDS)
+    long duracion;
+
+    /**
+     * Emite el evento si la grabación lo está registrando.
+     * @param operacion Operación lenta
+     * @param duracionNanos Duración medida
+     */
+    static void emitir(OperacionModelo operacion, long duracionNanos) {
+        EventoOperacionLenta evento = new EventoOperacionLenta();
+        if (evento.isEnabled()) {
+            evento.operacion = operacion.getNombre();
+            evento.duracion = duracionNanos;
+            evento.commit();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package metricas;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias seguro para varios hilos, con cubetas log-lineales:
+ * cada potencia de dos se divide en 16 cubetas, así cualquier percentil se obtiene con
+ * un error relativo menor al 7 % usando memoria fija (960 contadores), sin guardar las muestras.
+ * Registrar una muestra es un incremento atómico, sin candados.
+ */
+public class HistogramaLatencias {
+    // Bits de mantisa por potencia de dos (16 cubetas por potencia)
+    private static final int BITS_SUB = 4;
+    private static final int SUB = 1 << BITS_SUB;
+    // Cantidad total de cubetas para cubrir todos los long positivos (exponente 0 a 62)
+    private static final int NUM_CUBETAS = (63 - BITS_SUB + 1) * SUB;
+
+    // Muestras por cubeta
+    private final AtomicLongArray cubetas = new AtomicLongArray(NUM_CUBETAS);
+    // Cantidad y suma de las muestras, y el mayor valor registrado
+    private final LongAdder cantidad = new LongAdder();
+    private final LongAdder suma = new LongAdder();
+    private final AtomicLong maximo = new AtomicLong();
+
+    /**
+     * Constructor que crea el histograma sin muestras.
+     */
+    public HistogramaLatencias() {
+    }
+
+    /**
+     * Registra una muestra.
+     * @param valor Duración (por lo general en nanosegundos); los negativos se cuentan como 0
+     */
+    public void registrar(long valor) {
+        if (valor < 0) {
+            valor = 0;
+        }
+        cubetas.incrementAndGet(indice(valor));
+        cantidad.increment();
+        suma.add(valor);
+        long actual = maximo.get();
+        while (valor > actual && !maximo.compareAndSet(actual, valor)) {
+            actual = maximo.get();
+        }
+    }
+
+    /**
+     * Devuelve la cantidad de muestras registradas.
+     * @return cantidad de muestras
+     */
+    public long getCantidad() {
+        return cantidad.sum();
+    }
+
+    /**
+     * Devuelve el promedio de las muestras.
+     * @return promedio, o 0 si no hay muestras
+     */
+    public long getPromedio() {
+        long n = cantidad.sum();
+        return (n == 0) ? 0 : suma.sum() / n;
+    }
+
+    /**
+     * Devuelve el mayor valor registrado.
+     * @return máximo, o 0 si no hay muestras
+     */
+    public long getMaximo() {
+        return maximo.get();
+    }
+
+    /**
+     * Estima un percentil. Devuelve el límite superior de la cubeta donde cae, sin pasar del máximo.
+     * @param percentil Percentil entre 0 y 100 (por ejemplo 50 o 99)
+     * @return valor estimado, o 0 si no hay muestras
+     */
+    public long percentil(double percentil) {
+        long total = 0;
+        long[] copia = new long[NUM_CUBETAS];
+        for (int i = 0; i < NUM_CUBETAS; i++) {
+            copia[i] = cubetas.get(i);
+            total += copia[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(total * Math.min(100, Math.max(0, percentil)) / 100.0));
+        long acumulado = 0;
+        for (int i = 0; i < NUM_CUBETAS; i++) {
+            acumulado += copia[i];
+            if (acumulado >= objetivo) {
+                long superior = (i + 1 < NUM_CUBETAS) ? limiteInferior(i + 1) - 1 : Long.MAX_VALUE;
+                return Math.min(superior, maximo.get());
+            }
+        }
+        return maximo.get();
+    }
+
+    /**
+     * Borra todas las muestras. No es atómico respecto de registros concurrentes.
+     */
+    public void reiniciar() {
+        for (int i = 0; i < NUM_CUBETAS; i++) {
+            cubetas.set(i, 0);
+        }
+        cantidad.reset();
+        suma.reset();
+        maximo.set(0);
+    }
+
+    /**
+     * Cubeta de un valor: los menores que 16 tienen cubeta propia; el resto se ubica por su
+     * potencia de dos y los 4 bits que siguen al más significativo.
+     */
+    static int indice(long valor) {
+        if (valor < SUB) {
+            return (int) valor;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(valor);
+        int mantisa = (int) (valor >>> (exponente - BITS_SUB)) & (SUB - 1);
+        return (exponente - BITS_SUB + 1) * SUB + mantisa;
+    }
+
+    /**
+     * Menor valor que cae en una cubeta.
+     */
+    static long limiteInferior(int indice) {
+        if (indice < SUB) {
+            return indice;
+        }
+        int exponente = indice / SUB + BITS_SUB - 1;
+        long mantisa = indice % SUB;
+        return (SUB + mantisa) << (exponente - BITS_SUB);
+    }
+}
@@ -0,0 +1,188 @@
+package metricas;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Métricas de las operaciones de la lista, el árbol y el grafo de contactos.
+ * Cada operación medida tiene un histograma de latencias (que también lleva la cuenta de
+ * ejecuciones) y un contador de ejecuciones lentas; todo se actualiza sin candados. Las
+ * operaciones que superan el umbral emiten además un evento de Java Flight Recorder
+ * ({@link EventoOperacionLenta}). Los indicadores (tamaño, altura, grado máximo...) se
+ * registran como funciones y se evalúan solo al pedir una instantánea.
+ *
+ * Se activan al iniciar la JVM con -Dcontactos.metricas=true; el umbral de operación lenta se
+ * fija con -Dcontactos.metricas.umbralLentaMicros (por omisión 1000). Como el interruptor es
+ * una constante, con las métricas desactivadas el JIT elimina la medición por completo: las
+ * operaciones instrumentadas no leen el reloj ni tocan memoria compartida.
+ *
+ * Uso dentro de una operación:
+ * <pre>
+ *     long inicio = MetricasModelo.inicio();
+ *     try { ... } finally { MetricasModelo.registrar(OperacionModelo.ARBOL_BUSCAR, inicio); }
+ * </pre>
+ */
+public final class MetricasModelo implements MetricasModeloMXBean {
+    /** true si las operaciones se miden; se decide una sola vez al cargar la clase. */
+    public static final boolean ACTIVAS = Boolean.getBoolean("contactos.metricas");
+    /** Nombre con el que se registra en JMX. */
+    public static final String NOMBRE_JMX = "ProyectoU3_Liscano_Tomalo:type=MetricasModelo";
+
+    // Duración a partir de la cual una operación es lenta
+    private static final long UMBRAL_LENTA_NANOS =
+            Math.max(0, Long.getLong("contactos.metricas.umbralLentaMicros", 1000)) * 1000;
+    // Histograma y contador de lentas por operación, indexados por ordinal
+    private static final HistogramaLatencias[] LATENCIAS = new HistogramaLatencias[OperacionModelo.values().length];
+    private static final LongAdder[] LENTAS = new LongAdder[OperacionModelo.values().length];
+    // Indicadores por nombre, en orden alfabético
+    private static final Map<String, LongSupplier> INDICADORES = new ConcurrentSkipListMap<>();
+    // Instancia que se publica por JMX
+    private static final MetricasModelo INSTANCIA = new MetricasModelo();
+
+    static {
+        for (int i = 0; i < LATENCIAS.length; i++) {
+            LATENCIAS[i] = new HistogramaLatencias();
+            LENTAS[i] = new LongAdder();
+        }
+    }
+
+    private MetricasModelo() {
+    }
+
+    /**
+     * Marca el comienzo de una operación.
+     * @return instante de inicio para {@link #registrar(OperacionModelo, long)}, o 0 si las
+     *         métricas están desactivadas
+     */
+    public static long inicio() {
+        return ACTIVAS ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Registra el final de una operación: su duración en el histograma y, si fue lenta, en el
+     * contador de lentas y como evento de JFR. No hace nada si las métricas están desactivadas.
+     * @param operacion Operación que terminó
+     * @param inicio Valor devuelto por {@link #inicio()} al comenzarla
+     */
+    public static void registrar(OperacionModelo operacion, long inicio) {
+        if (ACTIVAS) {
+            long duracion = System.nanoTime() - inicio;
+            LATENCIAS[operacion.ordinal()].registrar(duracion);
+            if (duracion >= UMBRAL_LENTA_NANOS) {
+                LENTAS[operacion.ordinal()].increment();
+                EventoOperacionLenta.emitir(operacion, duracion);
+            }
+        }
+    }
+
+    /**
+     * Registra un indicador; si ya había uno con ese nombre, lo reemplaza. La función se
+     * evalúa en cada instantánea, desde el hilo que la pide, así que debe ser segura entre hilos.
+     * @param nombre Nombre del indicador, por ejemplo "arbol.altura"
+     * @param valor Función que calcula el valor actual
+     */
+    public static void registrarIndicador(String nombre, LongSupplier valor) {
+        INDICADORES.put(nombre, valor);
+    }
+
+    /**
+     * Quita un indicador.
+     * @param nombre Nombre del indicador
+     */
+    public static void quitarIndicador(String nombre) {
+        INDICADORES.remove(nombre);
+    }
+
+    /**
+     * Devuelve la instancia que implementa la interfaz de administración.
+     * @return instancia única
+     */
+    public static MetricasModelo getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Publica las métricas en el servidor de MBeans de la plataforma con el nombre
+     * {@link #NOMBRE_JMX}. Si ya estaban publicadas no hace nada.
+     * @throws JMException si no se pueden registrar
+     */
+    public static void registrarEnJmx() throws JMException {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCIA, new ObjectName(NOMBRE_JMX));
+        } catch (InstanceAlreadyExistsException e) {
+            // Ya publicadas
+        }
+    }
+
+    @Override
+    public boolean isActivas() {
+        return ACTIVAS;
+    }
+
+    @Override
+    public long getUmbralLentaNanos() {
+        return UMBRAL_LENTA_NANOS;
+    }
+
+    @Override
+    public List<EstadisticaOperacion> getOperaciones() {
+        List<EstadisticaOperacion> operaciones = new ArrayList<>();
+        for (OperacionModelo operacion : OperacionModelo.values()) {
+            HistogramaLatencias h = LATENCIAS[operacion.ordinal()];
+            long cantidad = h.getCantidad();
+            if (cantidad > 0) {
+                operaciones.add(new EstadisticaOperacion(operacion.getNombre(), cantidad,
+                        LENTAS[operacion.ordinal()].sum(), h.getPromedio(), h.percentil(50), h.percentil(99),
+                        h.getMaximo()));
+            }
+        }
+        return operaciones;
+    }
+
+    @Override
+    public Map<String, Long> getIndicadores() {
+        Map<String, Long> valores = new LinkedHashMap<>();
+        for (Map.Entry<String, LongSupplier> indicador : INDICADORES.entrySet()) {
+            valores.put(indicador.getKey(), indicador.getValue().getAsLong());
+        }
+        return valores;
+    }
+
+    @Override
+    public String getTexto() {
+        StringBuilder sb = new StringBuilder();
+        if (!ACTIVAS) {
+            sb.append("Métricas del modelo desactivadas (iniciar con -Dcontactos.metricas=true).\n");
+        } else {
+            sb.append(String.format(Locale.ROOT, "%-46s %10s %7s %9s %9s %9s %9s%n",
+                    "Operación", "Cantidad", "Lentas", "Prom. µs", "p50 µs", "p99 µs", "Máx. µs"));
+            for (EstadisticaOperacion e : getOperaciones()) {
+                sb.append(String.format(Locale.ROOT, "%-46s %10d %7d %9.1f %9.1f %9.1f %9.1f%n",
+                        e.getOperacion(), e.getCantidad(), e.getLentas(), e.getPromedioNanos() / 1e3,
+                        e.getP50Nanos() / 1e3, e.getP99Nanos() / 1e3, e.getMaximoNanos() / 1e3));
+            }
+        }
+        for (Map.Entry<String, Long> indicador : getIndicadores().entrySet()) {
+            sb.append(indicador.getKey()).append(": ").append(indicador.getValue()).append("\n");
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void reiniciar() {
+        for (int i = 0; i < LATENCIAS.length; i++) {
+            LATENCIAS[i].reiniciar();
+            LENTAS[i].reset();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package metricas;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interfaz de administración (JMX) de las métricas del modelo. Se registra como
+ * {@value MetricasModelo#NOMBRE_JMX} en el servidor de MBeans de la plataforma y se puede
+ * consultar con JConsole o VisualVM.
+ */
+public interface MetricasModeloMXBean {
+    /**
+     * Indica si las operaciones del modelo se están midiendo.
+     * @return true si las métricas están activas
+     */
+    boolean isActivas();
+
+    /**
+     * Devuelve el umbral a partir del cual una operación se considera lenta.
+     * @return umbral en nanosegundos
+     */
+    long getUmbralLentaNanos();
+
+    /**
+     * Devuelve las mediciones de las operaciones ejecutadas al menos una vez.
+     * @return una instantánea por operación
+     */
+    List<EstadisticaOperacion> getOperaciones();
+
+    /**
+     * Devuelve el valor actual de los indicadores (tamaños, altura, grados).
+     * @return valor por nombre de indicador
+     */
+    Map<String, Long> getIndicadores();
+
+    /**
+     * Devuelve las mediciones y los indicadores como texto.
+     * @return informe de varias líneas
+     */
+    String getTexto();
+
+    /**
+     * Borra las mediciones acumuladas (los indicadores no se afectan).
+     */
+    void reiniciar();
+}
@@ -0,0 +1,40 @@
+package metricas;
+
+/**
+ * Operaciones públicas del modelo que se miden cuando las métricas están activas
+ * (ver {@link MetricasModelo}).
+ */
+public enum OperacionModelo {
+    LISTA_AGREGAR("ListaContactos.agregarContacto"),
+    LISTA_BUSCAR("ListaContactos.buscarPorNombre"),
+    LISTA_RECORRER("ListaContactos.recorrerDesde"),
+    LISTA_ELIMINAR("ListaContactos.eliminarContacto"),
+    ARBOL_INSERTAR("ArbolBinarioContactos.insertar"),
+    ARBOL_CONSTRUIR("ArbolBinarioContactos.construirDesdeOrdenados"),
+    ARBOL_BUSCAR("ArbolBinarioContactos.buscar"),
+    ARBOL_RECORRER("ArbolBinarioContactos.recorrer"),
+    ARBOL_POSICION("ArbolBinarioContactos.posicion"),
+    ARBOL_ELIMINAR("ArbolBinarioContactos.eliminar"),
+    GRAFO_AGREGAR_CONTACTO("GrafoColaboraciones.agregarContacto"),
+    GRAFO_AGREGAR_COLABORACION("GrafoColaboraciones.agregarColaboracion"),
+    GRAFO_ELIMINAR_CONTACTO("GrafoColaboraciones.eliminarContacto"),
+    GRAFO_ELIMINAR_COLABORACION("GrafoColaboraciones.eliminarColaboracion"),
+    GRAFO_VECINOS("GrafoColaboraciones.getVecinos"),
+    GRAFO_CSR("GrafoColaboraciones.obtenerSnapshotCSR"),
+    GRAFO_TEXTO("GrafoColaboraciones.obtenerColaboracionesTexto");
+
+    // Nombre que se muestra en los informes
+    private final String nombre;
+
+    OperacionModelo(String nombre) {
+        this.nombre = nombre;
+    }
+
+    /**
+     * Devuelve el nombre de la operación para los informes.
+     * @return nombre, de la forma "Clase.metodo"
+     */
+    public String getNombre() {
+        return nombre;
+    }
+}
@@ -0,0 +1,84 @@
+package modelo;
+
+/**
+ * Instantánea inmutable del grafo de colaboraciones en formato CSR (Compressed Sparse Row).
+ * Los vecinos del vértice v ocupan las posiciones [desplazamientos[v], desplazamientos[v+1])
+ * del arreglo destinos, ordenados de menor a mayor id. Está pensada para las fases de
+ * solo lectura (recorridos, análisis, persistencia): todo se guarda en arreglos de int.
+ */
+public final class AdyacenciaCSR {
+    // Cantidad de vértices de la instantánea
+    final int numVertices;
+    // Inicio de la fila de cada vértice (tamaño numVertices + 1)
+    final int[] desplazamientos;
+    // Ids de los vecinos, fila tras fila
+    final int[] destinos;
+    // Contacto correspondiente a cada id
+    final NodoContacto[] contactos;
+
+    /**
+     * Constructor usado por GrafoColaboraciones al construir la instantánea.
+     * @param numVertices Cantidad de vértices
+     * @param desplazamientos Inicio de cada fila
+     * @param destinos Vecinos concatenados
+     * @param contactos Contacto de cada id
+     */
+    AdyacenciaCSR(int numVertices, int[] desplazamientos, int[] destinos, NodoContacto[] contactos) {
+        this.numVertices = numVertices;
+        this.desplazamientos = desplazamientos;
+        this.destinos = destinos;
+        this.contactos = contactos;
+    }
+
+    /**
+     * Devuelve la cantidad de vértices.
+     * @return número de vértices
+     */
+    public int getNumVertices() {
+        return numVertices;
+    }
+
+    /**
+     * Devuelve la cantidad de entradas de adyacencia (dos por cada colaboración).
+     * @return tamaño del arreglo de destinos usado
+     */
+    public int getNumEntradas() {
+        return desplazamientos[numVertices];
+    }
+
+    /**
+     * Devuelve el grado (cantidad de colaboradores) de un vértice.
+     * @param id Id del vértice
+     * @return grado del vértice
+     */
+    public int getGrado(int id) {
+        return desplazamientos[id + 1] - desplazamientos[id];
+    }
+
+    /**
+     * Devuelve la posición donde empieza la fila de un vértice.
+     * @param id Id del vértice
+     * @return índice inicial en destinos
+     */
+    public int getInicio(int id) {
+        return desplazamientos[id];
+    }
+
+    /**
+     * Devuelve el id del vecino guardado en una posición del arreglo de destinos.
+     * @param posicion Índice entre getInicio(v) y getInicio(v) + getGrado(v)
+     * @return id del vecino
+     */
+    public int getDestino(int posicion) {
+        return destinos[posicion];
+    }
+
+    /**
+     * Devuelve el contacto asociado a un id.
+     * @param id Id del vértice
+     * @return contacto
+     */
+    public NodoContacto getContacto(int id) {
+        return contactos[id];
+    }
+}
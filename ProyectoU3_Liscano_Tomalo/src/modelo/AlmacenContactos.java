@@ -0,0 +1,431 @@
+package modelo;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Almacén compacto de los datos de los contactos (nombre, teléfono y correo).
+ * En lugar de tres String por contacto, cada contacto es un registro de bytes dentro de
+ * páginas grandes compartidas y el nodo guarda solo su dirección (ver {@link NodoContactoCompacto}):
+ * - los textos se guardan en Latin-1 (un byte por carácter) si alcanza, si no en UTF-8;
+ * - un teléfono de solo dígitos (hasta 15, el máximo de E.164) se empaqueta en un long;
+ * - el dominio del correo ("@correo.ec") se guarda una sola vez y el registro lleva su número.
+ *
+ * Formato de un registro:
+ * <pre>
+ *     marcas (1 byte)
+ *     largo del nombre (varint) + nombre
+ *     teléfono: 8 bytes si está empaquetado, si no largo (varint) + bytes
+ *     parte local del correo: largo (varint) + bytes
+ *     número de dominio (varint), solo si el correo tiene dominio
+ * </pre>
+ * Las páginas solo crecen: modificar un contacto agrega un registro nuevo y el anterior queda
+ * como espacio libre (solo se contabiliza, no se reutiliza). Las altas se serializan con el
+ * monitor del almacén; las lecturas no bloquean, porque un registro no cambia después de escrito
+ * y el nodo publica su dirección en un campo volatile.
+ *
+ * Creado con {@link #AlmacenContactos(boolean)} en true, las páginas son búferes directos,
+ * fuera del heap: el recolector de basura no las recorre ni las copia, y en el heap quedan solo
+ * los nodos con sus direcciones. La memoria directa está limitada por -XX:MaxDirectMemorySize
+ * (por omisión, igual a -Xmx) y se devuelve al sistema cuando el almacén deja de usarse.
+ */
+public class AlmacenContactos {
+    // Bits de la dirección que indican la posición dentro de la página (el resto, el número de página)
+    private static final int BITS_POSICION = 20;
+    private static final int MASCARA_POSICION = (1 << BITS_POSICION) - 1;
+    // Las páginas empiezan en 64 KB y duplican su tamaño hasta 1 MB, lo que cabe en una dirección
+    private static final int PAGINA_INICIAL = 1 << 16;
+    private static final int TAMANIO_PAGINA = 1 << BITS_POSICION;
+    private static final int MAXIMO_PAGINAS = 1 << (Integer.SIZE - BITS_POSICION);
+    // Marcas del primer byte del registro
+    private static final int NOMBRE_UTF8 = 1;
+    private static final int TELEFONO_UTF8 = 2;
+    private static final int TELEFONO_EMPAQUETADO = 4;
+    private static final int CORREO_UTF8 = 8;
+    private static final int CORREO_CON_DOMINIO = 16;
+    // Un long empaquetado lleva la cantidad de dígitos en los bits 59 a 62 y el valor en el resto
+    private static final int MAXIMO_DIGITOS = 15;
+    private static final int BITS_VALOR_TELEFONO = 59;
+    private static final long MASCARA_VALOR_TELEFONO = (1L << BITS_VALOR_TELEFONO) - 1;
+
+    // true si las páginas se reservan fuera del heap
+    private final boolean fueraDelHeap;
+    // Páginas escritas; se reemplaza el arreglo completo al agregar una (volatile: lo leen otros hilos)
+    private volatile ByteBuffer[] paginas = new ByteBuffer[0];
+    // Posición libre en la última página
+    private int posicion;
+    // Dominios de correo: dominio -> número y número -> dominio
+    private final Map<String, Integer> numerosDominio = new HashMap<>();
+    private volatile String[] dominios = new String[16];
+    private int cantidadDominios;
+    // Contabilidad: bytes escritos en registros y bytes de registros que ya no se usan
+    private long bytesUsados;
+    private long bytesLibres;
+
+    /**
+     * Crea un almacén con las páginas en el heap.
+     */
+    public AlmacenContactos() {
+        this(false);
+    }
+
+    /**
+     * Crea un almacén eligiendo dónde se reservan las páginas.
+     * @param fueraDelHeap true para usar búferes directos, fuera del heap
+     */
+    public AlmacenContactos(boolean fueraDelHeap) {
+        this.fueraDelHeap = fueraDelHeap;
+    }
+
+    /**
+     * Indica si las páginas están fuera del heap.
+     * @return true si se usan búferes directos
+     */
+    public boolean esFueraDelHeap() {
+        return fueraDelHeap;
+    }
+
+    /**
+     * Crea un contacto cuyos datos quedan guardados en este almacén.
+     * @param nombre Nombre del contacto
+     * @param telefono Teléfono del contacto
+     * @param correo Correo electrónico del contacto
+     * @return contacto compacto; sus getters decodifican los datos del almacén
+     */
+    public NodoContacto crear(String nombre, String telefono, String correo) {
+        return new NodoContactoCompacto(this, guardar(nombre, telefono, correo));
+    }
+
+    /**
+     * Escribe un registro con los datos de un contacto.
+     * @return dirección del registro
+     * @throws IllegalStateException si se agotaron las direcciones del almacén
+     */
+    synchronized int guardar(String nombre, String telefono, String correo) {
+        nombre = (nombre == null) ? "" : nombre;
+        telefono = (telefono == null) ? "" : telefono;
+        correo = (correo == null) ? "" : correo;
+        int marcas = 0;
+        boolean latin1 = esLatin1(nombre);
+        byte[] bytesNombre = codificar(nombre, latin1);
+        if (!latin1) {
+            marcas |= NOMBRE_UTF8;
+        }
+        long empaquetado = empaquetarTelefono(telefono);
+        byte[] bytesTelefono = null;
+        if (empaquetado >= 0) {
+            marcas |= TELEFONO_EMPAQUETADO;
+        } else {
+            latin1 = esLatin1(telefono);
+            bytesTelefono = codificar(telefono, latin1);
+            if (!latin1) {
+                marcas |= TELEFONO_UTF8;
+            }
+        }
+        int arroba = correo.lastIndexOf('@');
+        int dominio = -1;
+        String local = correo;
+        if (arroba >= 0 && arroba < correo.length() - 1) {
+            dominio = numeroDominio(correo.substring(arroba));
+            local = correo.substring(0, arroba);
+            marcas |= CORREO_CON_DOMINIO;
+        }
+        latin1 = esLatin1(local);
+        byte[] bytesLocal = codificar(local, latin1);
+        if (!latin1) {
+            marcas |= CORREO_UTF8;
+        }
+
+        int largo = 1 + largoVarint(bytesNombre.length) + bytesNombre.length
+                + ((bytesTelefono == null) ? Long.BYTES : largoVarint(bytesTelefono.length) + bytesTelefono.length)
+                + largoVarint(bytesLocal.length) + bytesLocal.length
+                + ((dominio >= 0) ? largoVarint(dominio) : 0);
+        int direccion = reservar(largo);
+        ByteBuffer p = pagina(direccion);
+        int i = direccion & MASCARA_POSICION;
+        p.put(i++, (byte) marcas);
+        i = escribirBytes(p, i, bytesNombre);
+        if (bytesTelefono == null) {
+            p.putLong(i, empaquetado);
+            i += Long.BYTES;
+        } else {
+            i = escribirBytes(p, i, bytesTelefono);
+        }
+        i = escribirBytes(p, i, bytesLocal);
+        if (dominio >= 0) {
+            escribirVarint(p, i, dominio);
+        }
+        bytesUsados += largo;
+        return direccion;
+    }
+
+    /**
+     * Marca como libre el registro de una dirección (el espacio solo se contabiliza).
+     * @param direccion Dirección devuelta por {@link #guardar(String, String, String)}
+     */
+    synchronized void liberar(int direccion) {
+        ByteBuffer p = pagina(direccion);
+        int inicio = direccion & MASCARA_POSICION;
+        int marcas = p.get(inicio);
+        int i = saltarTexto(p, inicio + 1);
+        i = ((marcas & TELEFONO_EMPAQUETADO) != 0) ? i + Long.BYTES : saltarTexto(p, i);
+        i = saltarTexto(p, i);
+        if ((marcas & CORREO_CON_DOMINIO) != 0) {
+            i += largoVarint(leerVarint(p, i));
+        }
+        bytesLibres += i - inicio;
+    }
+
+    /**
+     * Decodifica el nombre guardado en un registro.
+     * @param direccion Dirección del registro
+     * @return nombre del contacto
+     */
+    String nombre(int direccion) {
+        ByteBuffer p = pagina(direccion);
+        int i = direccion & MASCARA_POSICION;
+        return leerTexto(p, i + 1, (p.get(i) & NOMBRE_UTF8) != 0);
+    }
+
+    /**
+     * Decodifica el teléfono guardado en un registro.
+     * @param direccion Dirección del registro
+     * @return teléfono del contacto
+     */
+    String telefono(int direccion) {
+        ByteBuffer p = pagina(direccion);
+        int i = direccion & MASCARA_POSICION;
+        int marcas = p.get(i);
+        i = saltarTexto(p, i + 1);
+        if ((marcas & TELEFONO_EMPAQUETADO) == 0) {
+            return leerTexto(p, i, (marcas & TELEFONO_UTF8) != 0);
+        }
+        long empaquetado = p.getLong(i);
+        int digitos = (int) (empaquetado >>> BITS_VALOR_TELEFONO);
+        String valor = Long.toString(empaquetado & MASCARA_VALOR_TELEFONO);
+        if (valor.length() == digitos) {
+            return valor;
+        }
+        StringBuilder sb = new StringBuilder(digitos);
+        for (int c = valor.length(); c < digitos; c++) {
+            sb.append('0');  // Ceros a la izquierda, como el "0" de "0991234567"
+        }
+        return sb.append(valor).toString();
+    }
+
+    /**
+     * Decodifica el correo guardado en un registro.
+     * @param direccion Dirección del registro
+     * @return correo del contacto
+     */
+    String correo(int direccion) {
+        ByteBuffer p = pagina(direccion);
+        int i = direccion & MASCARA_POSICION;
+        int marcas = p.get(i);
+        i = saltarTexto(p, i + 1);
+        i = ((marcas & TELEFONO_EMPAQUETADO) != 0) ? i + Long.BYTES : saltarTexto(p, i);
+        String local = leerTexto(p, i, (marcas & CORREO_UTF8) != 0);
+        if ((marcas & CORREO_CON_DOMINIO) == 0) {
+            return local;
+        }
+        return local + dominios[leerVarint(p, saltarTexto(p, i))];
+    }
+
+    /**
+     * Devuelve los bytes escritos en registros, incluidos los que ya no se usan.
+     * @return bytes escritos
+     */
+    public synchronized long getBytesUsados() {
+        return bytesUsados;
+    }
+
+    /**
+     * Devuelve los bytes de registros reemplazados o de contactos eliminados.
+     * @return bytes que ya no se usan
+     */
+    public synchronized long getBytesLibres() {
+        return bytesLibres;
+    }
+
+    /**
+     * Devuelve los bytes reservados en páginas, escritos o no.
+     * @return capacidad total de las páginas
+     */
+    public long getBytesReservados() {
+        long total = 0;
+        for (ByteBuffer p : paginas) {
+            total += p.capacity();
+        }
+        return total;
+    }
+
+    /**
+     * Devuelve cuántos dominios de correo distintos hay guardados.
+     * @return cantidad de dominios
+     */
+    public synchronized int getCantidadDominios() {
+        return cantidadDominios;
+    }
+
+    /**
+     * Reserva espacio para un registro, en la última página o en una nueva.
+     * Un registro más grande que una página recibe una página para él solo.
+     */
+    private int reservar(int largo) {
+        ByteBuffer[] actuales = paginas;
+        int numero = actuales.length - 1;
+        if (numero < 0 || posicion + largo > actuales[numero].capacity()) {
+            if (actuales.length == MAXIMO_PAGINAS) {
+                throw new IllegalStateException("El almacén de contactos está lleno");
+            }
+            int tamanio = Math.max(largo,
+                    (numero < 0) ? PAGINA_INICIAL : Math.min(TAMANIO_PAGINA, 2 * actuales[numero].capacity()));
+            ByteBuffer[] nuevas = Arrays.copyOf(actuales, actuales.length + 1);
+            nuevas[actuales.length] = (fueraDelHeap ? ByteBuffer.allocateDirect(tamanio) : ByteBuffer.allocate(tamanio))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            numero = actuales.length;
+            posicion = 0;
+            paginas = nuevas;
+        }
+        int direccion = (numero << BITS_POSICION) | posicion;
+        posicion += largo;
+        return direccion;
+    }
+
+    /**
+     * Devuelve la página de una dirección.
+     */
+    private ByteBuffer pagina(int direccion) {
+        return paginas[direccion >>> BITS_POSICION];
+    }
+
+    /**
+     * Devuelve el número de un dominio, agregándolo si es nuevo.
+     */
+    private int numeroDominio(String dominio) {
+        Integer numero = numerosDominio.get(dominio);
+        if (numero != null) {
+            return numero;
+        }
+        String[] actuales = dominios;
+        if (cantidadDominios == actuales.length) {
+            actuales = Arrays.copyOf(actuales, actuales.length * 2);
+        }
+        actuales[cantidadDominios] = dominio;
+        dominios = actuales;  // Se publica antes que el registro que lo usa
+        numerosDominio.put(dominio, cantidadDominios);
+        return cantidadDominios++;
+    }
+
+    /**
+     * Empaqueta un teléfono de solo dígitos en un long.
+     * @return teléfono empaquetado, o -1 si tiene otros caracteres, está vacío o es muy largo
+     */
+    static long empaquetarTelefono(String telefono) {
+        int digitos = telefono.length();
+        if (digitos == 0 || digitos > MAXIMO_DIGITOS) {
+            return -1;
+        }
+        long valor = 0;
+        for (int i = 0; i < digitos; i++) {
+            char c = telefono.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            valor = valor * 10 + (c - '0');
+        }
+        return ((long) digitos << BITS_VALOR_TELEFONO) | valor;
+    }
+
+    /**
+     * Indica si todos los caracteres del texto caben en un byte (Latin-1).
+     */
+    private static boolean esLatin1(String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Codifica un texto en Latin-1 o, si tiene caracteres fuera de ese rango, en UTF-8.
+     */
+    private static byte[] codificar(String texto, boolean latin1) {
+        return texto.getBytes(latin1 ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Lee un texto (largo + bytes) a partir de una posición.
+     */
+    private static String leerTexto(ByteBuffer p, int i, boolean utf8) {
+        int largo = leerVarint(p, i);
+        i += largoVarint(largo);
+        if (p.hasArray()) {
+            return new String(p.array(), i, largo, utf8 ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1);
+        }
+        byte[] bytes = new byte[largo];
+        p.get(i, bytes);  // Lectura absoluta: no mueve la posición del búfer compartido
+        return new String(bytes, utf8 ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Devuelve la posición que sigue a un texto (largo + bytes).
+     */
+    private static int saltarTexto(ByteBuffer p, int i) {
+        int largo = leerVarint(p, i);
+        return i + largoVarint(largo) + largo;
+    }
+
+    /**
+     * Escribe un largo y los bytes; devuelve la posición siguiente.
+     */
+    private static int escribirBytes(ByteBuffer p, int i, byte[] bytes) {
+        i = escribirVarint(p, i, bytes.length);
+        p.put(i, bytes);
+        return i + bytes.length;
+    }
+
+    /**
+     * Escribe un entero no negativo en 7 bits por byte; devuelve la posición siguiente.
+     */
+    private static int escribirVarint(ByteBuffer p, int i, int valor) {
+        while ((valor & ~0x7F) != 0) {
+            p.put(i++, (byte) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+        }
+        p.put(i++, (byte) valor);
+        return i;
+    }
+
+    /**
+     * Lee un entero escrito con {@link #escribirVarint(ByteBuffer, int, int)}.
+     */
+    private static int leerVarint(ByteBuffer p, int i) {
+        int valor = 0;
+        for (int desplazamiento = 0; ; desplazamiento += 7) {
+            byte b = p.get(i++);
+            valor |= (b & 0x7F) << desplazamiento;
+            if (b >= 0) {
+                return valor;
+            }
+        }
+    }
+
+    /**
+     * Devuelve cuántos bytes ocupa un entero escrito como varint.
+     */
+    private static int largoVarint(int valor) {
+        int largo = 1;
+        while ((valor & ~0x7F) != 0) {
+            largo++;
+            valor >>>= 7;
+        }
+        return largo;
+    }
+}
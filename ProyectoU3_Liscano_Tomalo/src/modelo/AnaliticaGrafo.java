@@ -0,0 +1,329 @@
+package modelo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Consultas de análisis sobre el grafo de colaboraciones: camino más corto entre dos
+ * contactos (grados de separación), vecindario a k saltos, componentes conexas y
+ * distribución de grados.
+ * Trabaja sobre la instantánea CSR del grafo y reutiliza sus arreglos de trabajo
+ * (bitsets de visitados, colas y padres) entre consultas, por lo que una instancia no
+ * debe usarse desde varios hilos a la vez.
+ */
+public class AnaliticaGrafo {
+    // Grafo analizado
+    private final GrafoColaboraciones grafo;
+    // Instantánea usada en la última consulta
+    private AdyacenciaCSR csr;
+
+    // Arreglos de trabajo de la búsqueda en anchura bidireccional (lado origen / lado destino)
+    private long[] visitadosOrigen = new long[0];
+    private long[] visitadosDestino = new long[0];
+    private int[] colaOrigen = new int[0];
+    private int[] colaDestino = new int[0];
+    private int[] padreOrigen = new int[0];
+    private int[] padreDestino = new int[0];
+    private int[] distanciaOrigen = new int[0];
+    private int[] distanciaDestino = new int[0];
+    // Fin de la cola después de la última llamada a expandirNivel
+    private int finCola;
+    // Arreglos de trabajo de union-find
+    private int[] padreConjunto = new int[0];
+    private int[] tamanioConjunto = new int[0];
+
+    /**
+     * Constructor que asocia el análisis a un grafo.
+     * @param grafo Grafo de colaboraciones a analizar
+     */
+    public AnaliticaGrafo(GrafoColaboraciones grafo) {
+        this.grafo = grafo;
+    }
+
+    /**
+     * Calcula el camino más corto de colaboraciones entre dos contactos.
+     * Usa una búsqueda en anchura bidireccional, que expande siempre la frontera más pequeña.
+     * @param origen Contacto de partida
+     * @param destino Contacto de llegada
+     * @return contactos del camino (incluye origen y destino), o lista vacía si no están conectados
+     */
+    public List<NodoContacto> caminoMasCorto(NodoContacto origen, NodoContacto destino) {
+        preparar();
+        int s = idEnSnapshot(origen);
+        int t = idEnSnapshot(destino);
+        if (s < 0 || t < 0) {
+            return Collections.emptyList();  // Algún contacto no está en el grafo
+        }
+        if (s == t) {
+            return Collections.singletonList(csr.contactos[s]);
+        }
+
+        colaOrigen[0] = s;
+        colaDestino[0] = t;
+        marcar(visitadosOrigen, s);
+        marcar(visitadosDestino, t);
+        padreOrigen[s] = -1;
+        padreDestino[t] = -1;
+        distanciaOrigen[s] = 0;
+        distanciaDestino[t] = 0;
+        int inicioO = 0, finO = 1, inicioD = 0, finD = 1;
+        int encuentro = -1;
+
+        while (encuentro < 0 && inicioO < finO && inicioD < finD) {
+            // Expandir un nivel completo del lado con la frontera más pequeña
+            if (finO - inicioO <= finD - inicioD) {
+                int finNivel = finO;
+                encuentro = expandirNivel(colaOrigen, inicioO, finNivel, visitadosOrigen, padreOrigen,
+                        distanciaOrigen, visitadosDestino, distanciaDestino);
+                finO = finCola;
+                inicioO = finNivel;
+            } else {
+                int finNivel = finD;
+                encuentro = expandirNivel(colaDestino, inicioD, finNivel, visitadosDestino, padreDestino,
+                        distanciaDestino, visitadosOrigen, distanciaOrigen);
+                finD = finCola;
+                inicioD = finNivel;
+            }
+        }
+
+        List<NodoContacto> camino = new ArrayList<>();
+        if (encuentro >= 0) {
+            // Mitad origen -> encuentro (se recorre al revés y luego se invierte)
+            for (int v = encuentro; v >= 0; v = padreOrigen[v]) {
+                camino.add(csr.contactos[v]);
+            }
+            Collections.reverse(camino);
+            // Mitad encuentro -> destino
+            for (int v = padreDestino[encuentro]; v >= 0; v = padreDestino[v]) {
+                camino.add(csr.contactos[v]);
+            }
+        }
+
+        desmarcar(visitadosOrigen, colaOrigen, finO);   // Limpiar solo lo visitado
+        desmarcar(visitadosDestino, colaDestino, finD);
+        return camino;
+    }
+
+    /**
+     * Calcula los grados de separación (cantidad de colaboraciones intermedias) entre dos contactos.
+     * @param origen Contacto de partida
+     * @param destino Contacto de llegada
+     * @return longitud del camino más corto, o -1 si no están conectados
+     */
+    public int gradosDeSeparacion(NodoContacto origen, NodoContacto destino) {
+        return caminoMasCorto(origen, destino).size() - 1;
+    }
+
+    /**
+     * Devuelve los contactos alcanzables desde uno dado en como máximo k colaboraciones.
+     * @param contacto Contacto central
+     * @param k Cantidad máxima de saltos
+     * @return contactos a distancia entre 1 y k, ordenados por distancia
+     */
+    public List<NodoContacto> vecindario(NodoContacto contacto, int k) {
+        preparar();
+        int s = idEnSnapshot(contacto);
+        if (s < 0 || k <= 0) {
+            return Collections.emptyList();
+        }
+        colaOrigen[0] = s;
+        marcar(visitadosOrigen, s);
+        int inicio = 0, fin = 1;
+        for (int nivel = 0; nivel < k && inicio < fin; nivel++) {  // Un nivel por salto
+            int finNivel = fin;
+            for (int i = inicio; i < finNivel; i++) {
+                int v = colaOrigen[i];
+                for (int p = csr.desplazamientos[v], hasta = csr.desplazamientos[v + 1]; p < hasta; p++) {
+                    int w = csr.destinos[p];
+                    if (!marcado(visitadosOrigen, w)) {
+                        marcar(visitadosOrigen, w);
+                        colaOrigen[fin++] = w;
+                    }
+                }
+            }
+            inicio = finNivel;
+        }
+        List<NodoContacto> resultado = new ArrayList<>(fin - 1);
+        for (int i = 1; i < fin; i++) {
+            resultado.add(csr.contactos[colaOrigen[i]]);
+        }
+        desmarcar(visitadosOrigen, colaOrigen, fin);
+        return resultado;
+    }
+
+    /**
+     * Calcula las componentes conexas del grafo con union-find (compresión de caminos y unión por tamaño).
+     * @return arreglo indexado por id de contacto con el número de componente (0, 1, 2, ...)
+     */
+    public int[] componentesConexas() {
+        preparar();
+        int n = csr.numVertices;
+        for (int v = 0; v < n; v++) {
+            padreConjunto[v] = v;
+            tamanioConjunto[v] = 1;
+        }
+        for (int v = 0; v < n; v++) {
+            for (int p = csr.desplazamientos[v], hasta = csr.desplazamientos[v + 1]; p < hasta; p++) {
+                int w = csr.destinos[p];
+                if (v < w) {  // Cada arista no dirigida se procesa una sola vez
+                    unir(v, w);
+                }
+            }
+        }
+        // Numerar las componentes de forma compacta, en orden de aparición
+        int[] etiquetas = new int[n];
+        int componentes = 0;
+        for (int v = 0; v < n; v++) {
+            int r = raizConjunto(v);
+            if (r == v) {
+                tamanioConjunto[r] = -(++componentes);  // Reutiliza el arreglo para guardar la etiqueta
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            etiquetas[v] = -tamanioConjunto[raizConjunto(v)] - 1;
+        }
+        return etiquetas;
+    }
+
+    /**
+     * Cuenta las componentes conexas del grafo.
+     * @return cantidad de componentes (un contacto aislado es una componente)
+     */
+    public int contarComponentes() {
+        int[] etiquetas = componentesConexas();
+        int maximo = -1;
+        for (int e : etiquetas) {
+            maximo = Math.max(maximo, e);
+        }
+        return maximo + 1;
+    }
+
+    /**
+     * Calcula la distribución de grados del grafo.
+     * @return arreglo donde la posición d indica cuántos contactos tienen exactamente d colaboradores
+     */
+    public int[] distribucionGrados() {
+        preparar();
+        int maximo = 0;
+        for (int v = 0; v < csr.numVertices; v++) {
+            maximo = Math.max(maximo, csr.getGrado(v));
+        }
+        int[] distribucion = new int[maximo + 1];
+        for (int v = 0; v < csr.numVertices; v++) {
+            distribucion[csr.getGrado(v)]++;
+        }
+        return distribucion;
+    }
+
+    // ----------------------------------------------------------------------
+    // Utilidades internas
+    // ----------------------------------------------------------------------
+
+    /**
+     * Expande un nivel completo de la búsqueda bidireccional.
+     * @return vértice de encuentro con el otro lado que minimiza la distancia total, o -1
+     */
+    private int expandirNivel(int[] cola, int inicio, int finNivel, long[] visitados, int[] padres,
+                              int[] distancias, long[] visitadosOtro, int[] distanciasOtro) {
+        int fin = finNivel;
+        int mejor = -1;
+        int mejorDistancia = Integer.MAX_VALUE;
+        for (int i = inicio; i < finNivel; i++) {
+            int v = cola[i];
+            for (int p = csr.desplazamientos[v], hasta = csr.desplazamientos[v + 1]; p < hasta; p++) {
+                int w = csr.destinos[p];
+                if (marcado(visitados, w)) {
+                    continue;
+                }
+                marcar(visitados, w);
+                padres[w] = v;
+                distancias[w] = distancias[v] + 1;
+                cola[fin++] = w;
+                if (marcado(visitadosOtro, w) && distancias[w] + distanciasOtro[w] < mejorDistancia) {
+                    mejor = w;  // Los dos lados se tocan en w
+                    mejorDistancia = distancias[w] + distanciasOtro[w];
+                }
+            }
+        }
+        finCola = fin;
+        return mejor;
+    }
+
+    /**
+     * Toma la instantánea vigente del grafo y agranda los arreglos de trabajo si hace falta.
+     */
+    private void preparar() {
+        csr = grafo.obtenerSnapshotCSR();
+        int n = csr.numVertices;
+        if (colaOrigen.length < n) {
+            int palabras = (n + 63) >>> 6;
+            visitadosOrigen = new long[palabras];
+            visitadosDestino = new long[palabras];
+            colaOrigen = new int[n];
+            colaDestino = new int[n];
+            padreOrigen = new int[n];
+            padreDestino = new int[n];
+            distanciaOrigen = new int[n];
+            distanciaDestino = new int[n];
+            padreConjunto = new int[n];
+            tamanioConjunto = new int[n];
+        }
+    }
+
+    /**
+     * Devuelve el id de un contacto dentro de la instantánea en uso, o -1 si no está en ella
+     * (por ejemplo, si otro hilo lo agregó al grafo después de tomarla, o si una baja lo
+     * renumeró y en la instantánea ese id es de otro contacto).
+     */
+    private int idEnSnapshot(NodoContacto contacto) {
+        int id = grafo.obtenerId(contacto);
+        return (id >= 0 && id < csr.numVertices && csr.contactos[id] == contacto) ? id : -1;
+    }
+
+    private static boolean marcado(long[] bits, int v) {
+        return (bits[v >>> 6] & (1L << v)) != 0;
+    }
+
+    private static void marcar(long[] bits, int v) {
+        bits[v >>> 6] |= 1L << v;
+    }
+
+    /**
+     * Limpia los bits de los vértices que quedaron en la cola, sin recorrer todo el bitset.
+     */
+    private static void desmarcar(long[] bits, int[] cola, int fin) {
+        for (int i = 0; i < fin; i++) {
+            bits[cola[i] >>> 6] = 0;
+        }
+    }
+
+    /**
+     * Devuelve la raíz del conjunto de v, acortando el camino a la mitad en cada paso.
+     */
+    private int raizConjunto(int v) {
+        while (padreConjunto[v] != v) {
+            padreConjunto[v] = padreConjunto[padreConjunto[v]];
+            v = padreConjunto[v];
+        }
+        return v;
+    }
+
+    /**
+     * Une los conjuntos de a y b, colgando el más pequeño del más grande.
+     */
+    private void unir(int a, int b) {
+        int ra = raizConjunto(a);
+        int rb = raizConjunto(b);
+        if (ra == rb) {
+            return;
+        }
+        if (tamanioConjunto[ra] < tamanioConjunto[rb]) {
+            int t = ra;
+            ra = rb;
+            rb = t;
+        }
+        padreConjunto[rb] = ra;
+        tamanioConjunto[ra] += tamanioConjunto[rb];
+    }
+}
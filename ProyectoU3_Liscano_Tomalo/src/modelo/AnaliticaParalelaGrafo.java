@@ -0,0 +1,357 @@
+package modelo;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Versiones paralelas (fork-join) de los análisis pesados del grafo de colaboraciones:
+ * búsqueda en anchura por niveles, componentes conexas por propagación de etiquetas,
+ * puntaje de influencia tipo PageRank y conteo de triángulos / coeficiente de agrupamiento.
+ * Cada análisis reparte rangos de vértices de la instantánea CSR entre los hilos de un
+ * ForkJoinPool propio, cuyo tamaño se elige al construir el objeto.
+ * Hay que llamar a {@link #close()} al terminar para liberar los hilos.
+ */
+public class AnaliticaParalelaGrafo implements AutoCloseable {
+    // Cantidad mínima de elementos que procesa una tarea sin volver a dividirse
+    private static final int UMBRAL = 1024;
+    // Acceso atómico (compareAndSet) a posiciones de un int[]
+    private static final VarHandle ENTEROS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    // Grafo analizado
+    private final GrafoColaboraciones grafo;
+    // Pool de hilos usado por todos los análisis
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructor que usa un hilo por procesador disponible.
+     * @param grafo Grafo de colaboraciones a analizar
+     */
+    public AnaliticaParalelaGrafo(GrafoColaboraciones grafo) {
+        this(grafo, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor con una cantidad de hilos fija.
+     * @param grafo Grafo de colaboraciones a analizar
+     * @param hilos Cantidad de hilos de trabajo (mínimo 1)
+     */
+    public AnaliticaParalelaGrafo(GrafoColaboraciones grafo, int hilos) {
+        this.grafo = grafo;
+        this.pool = new ForkJoinPool(Math.max(1, hilos));
+    }
+
+    /**
+     * Devuelve la cantidad de hilos de trabajo.
+     * @return paralelismo del pool
+     */
+    public int getHilos() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Búsqueda en anchura paralela sincronizada por niveles: todos los vértices de la frontera
+     * actual se expanden en paralelo y cada vecino se reclama con un compareAndSet.
+     * @param origen Contacto de partida
+     * @return distancia (en colaboraciones) de cada id al origen, -1 si no es alcanzable
+     */
+    public int[] distanciasDesde(NodoContacto origen) {
+        AdyacenciaCSR g = grafo.obtenerSnapshotCSR();
+        int n = g.numVertices;
+        int[] distancias = new int[n];
+        Arrays.fill(distancias, -1);
+        int s = grafo.obtenerId(origen);
+        if (s < 0 || s >= n || g.contactos[s] != origen) {  // No está en la instantánea o una baja lo renumeró
+            return distancias;
+        }
+        distancias[s] = 0;
+        int[] frontera = new int[n];
+        int[] siguiente = new int[n];
+        frontera[0] = s;
+        int tamanioFrontera = 1;
+        AtomicInteger finSiguiente = new AtomicInteger();
+
+        for (int nivel = 1; tamanioFrontera > 0; nivel++) {
+            final int nivelActual = nivel;
+            final int[] fronteraActual = frontera;
+            final int[] destino = siguiente;
+            finSiguiente.set(0);
+            ejecutar(0, tamanioFrontera, (desde, hasta) -> {
+                int[] locales = new int[64];  // Descubiertos por esta tarea
+                int cantidad = 0;
+                for (int i = desde; i < hasta; i++) {
+                    int v = fronteraActual[i];
+                    for (int p = g.desplazamientos[v], fin = g.desplazamientos[v + 1]; p < fin; p++) {
+                        int w = g.destinos[p];
+                        if (distancias[w] < 0 && ENTEROS.compareAndSet(distancias, w, -1, nivelActual)) {
+                            if (cantidad == locales.length) {
+                                locales = Arrays.copyOf(locales, cantidad * 2);
+                            }
+                            locales[cantidad++] = w;  // Solo el hilo que ganó el CAS lo agrega
+                        }
+                    }
+                }
+                int posicion = finSiguiente.getAndAdd(cantidad);  // Reserva un tramo de la próxima frontera
+                System.arraycopy(locales, 0, destino, posicion, cantidad);
+            });
+            tamanioFrontera = finSiguiente.get();
+            frontera = siguiente;          // Intercambiar fronteras
+            siguiente = fronteraActual;
+        }
+        return distancias;
+    }
+
+    /**
+     * Componentes conexas por propagación de etiquetas: cada vértice adopta la menor etiqueta
+     * entre la suya y las de sus vecinos hasta que nada cambia. Cada tarea solo escribe las
+     * etiquetas de su propio rango, así que no hacen falta operaciones atómicas.
+     * @return etiqueta de componente de cada id (el menor id de la componente)
+     */
+    public int[] componentesConexas() {
+        AdyacenciaCSR g = grafo.obtenerSnapshotCSR();
+        int n = g.numVertices;
+        int[] etiquetas = new int[n];
+        for (int v = 0; v < n; v++) {
+            etiquetas[v] = v;
+        }
+        boolean[] cambio = new boolean[1];
+        do {
+            cambio[0] = false;
+            ejecutar(0, n, (desde, hasta) -> {
+                boolean cambioLocal = false;
+                for (int v = desde; v < hasta; v++) {
+                    int minimo = etiquetas[etiquetas[v]];  // Salto de punteros: acelera la convergencia
+                    for (int p = g.desplazamientos[v], fin = g.desplazamientos[v + 1]; p < fin; p++) {
+                        minimo = Math.min(minimo, etiquetas[g.destinos[p]]);
+                    }
+                    if (minimo < etiquetas[v]) {
+                        etiquetas[v] = minimo;
+                        cambioLocal = true;
+                    }
+                }
+                if (cambioLocal) {
+                    cambio[0] = true;  // Se lee recién cuando terminan todas las tareas
+                }
+            });
+        } while (cambio[0]);
+        return etiquetas;
+    }
+
+    /**
+     * Puntaje de influencia tipo PageRank sobre el grafo no dirigido.
+     * La masa de los contactos sin colaboraciones se reparte entre todos.
+     * @param iteraciones Cantidad de iteraciones
+     * @param amortiguacion Factor de amortiguación (típicamente 0.85)
+     * @return puntaje de cada id; la suma de todos es 1
+     */
+    public double[] influencia(int iteraciones, double amortiguacion) {
+        AdyacenciaCSR g = grafo.obtenerSnapshotCSR();
+        int n = g.numVertices;
+        if (n == 0) {
+            return new double[0];
+        }
+        double[] puntaje = new double[n];
+        double[] nuevo = new double[n];
+        double[] aporte = new double[n];
+        Arrays.fill(puntaje, 1.0 / n);
+
+        for (int it = 0; it < iteraciones; it++) {
+            final double[] actual = puntaje;
+            final double[] siguiente = nuevo;
+            DoubleAdder sinSalida = new DoubleAdder();
+            // Paso 1: lo que cada vértice reparte a cada vecino
+            ejecutar(0, n, (desde, hasta) -> {
+                double suma = 0;
+                for (int v = desde; v < hasta; v++) {
+                    int grado = g.desplazamientos[v + 1] - g.desplazamientos[v];
+                    if (grado == 0) {
+                        suma += actual[v];
+                        aporte[v] = 0;
+                    } else {
+                        aporte[v] = actual[v] / grado;
+                    }
+                }
+                sinSalida.add(suma);
+            });
+            double base = (1 - amortiguacion) / n + amortiguacion * sinSalida.sum() / n;
+            // Paso 2: cada vértice suma lo que le aportan sus vecinos
+            ejecutar(0, n, (desde, hasta) -> {
+                for (int v = desde; v < hasta; v++) {
+                    double suma = 0;
+                    for (int p = g.desplazamientos[v], fin = g.desplazamientos[v + 1]; p < fin; p++) {
+                        suma += aporte[g.destinos[p]];
+                    }
+                    siguiente[v] = base + amortiguacion * suma;
+                }
+            });
+            puntaje = siguiente;  // Intercambiar arreglos
+            nuevo = actual;
+        }
+        return puntaje;
+    }
+
+    /**
+     * Cuenta, para cada contacto, cuántas colaboraciones hay entre sus propios colaboradores
+     * (los triángulos en los que participa). Usa intersección de filas ordenadas del CSR.
+     * @return triángulos de cada id
+     */
+    public long[] triangulosPorContacto() {
+        AdyacenciaCSR g = grafo.obtenerSnapshotCSR();
+        int n = g.numVertices;
+        long[] triangulos = new long[n];
+        ejecutar(0, n, (desde, hasta) -> {
+            for (int v = desde; v < hasta; v++) {
+                long pares = 0;
+                for (int p = g.desplazamientos[v], fin = g.desplazamientos[v + 1]; p < fin; p++) {
+                    int u = g.destinos[p];
+                    if (u != v) {
+                        pares += comunes(g, v, u);
+                    }
+                }
+                triangulos[v] = pares / 2;  // Cada par de vecinos se contó desde ambos extremos
+            }
+        });
+        return triangulos;
+    }
+
+    /**
+     * Cuenta los triángulos (tres contactos que colaboran entre sí) de todo el grafo.
+     * @return cantidad de triángulos
+     */
+    public long contarTriangulos() {
+        long total = 0;
+        for (long t : triangulosPorContacto()) {
+            total += t;
+        }
+        return total / 3;  // Cada triángulo aparece en sus tres vértices
+    }
+
+    /**
+     * Calcula el coeficiente de agrupamiento local de cada contacto: la fracción de pares de
+     * colaboradores que también colaboran entre sí.
+     * @return coeficiente de cada id (0 si tiene menos de dos colaboradores)
+     */
+    public double[] coeficientesAgrupamiento() {
+        AdyacenciaCSR g = grafo.obtenerSnapshotCSR();
+        long[] triangulos = triangulosPorContacto();
+        double[] coeficientes = new double[triangulos.length];
+        ejecutar(0, triangulos.length, (desde, hasta) -> {
+            for (int v = desde; v < hasta; v++) {
+                long grado = gradoSinLazos(g, v);
+                coeficientes[v] = (grado < 2) ? 0 : 2.0 * triangulos[v] / (grado * (grado - 1));
+            }
+        });
+        return coeficientes;
+    }
+
+    /**
+     * Promedio del coeficiente de agrupamiento local de todos los contactos.
+     * @return coeficiente promedio, 0 si el grafo está vacío
+     */
+    public double coeficienteAgrupamientoPromedio() {
+        double[] coeficientes = coeficientesAgrupamiento();
+        double suma = 0;
+        for (double c : coeficientes) {
+            suma += c;
+        }
+        return coeficientes.length == 0 ? 0 : suma / coeficientes.length;
+    }
+
+    /**
+     * Detiene los hilos del pool.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    // ----------------------------------------------------------------------
+    // Utilidades internas
+    // ----------------------------------------------------------------------
+
+    /**
+     * Trabajo a realizar sobre un rango [desde, hasta) de índices.
+     */
+    private interface TareaRango {
+        void ejecutar(int desde, int hasta);
+    }
+
+    /**
+     * Ejecuta la tarea sobre [desde, hasta) dividiendo el rango entre los hilos del pool
+     * y espera a que termine. Al volver, todas las escrituras de las tareas son visibles.
+     */
+    private void ejecutar(int desde, int hasta, TareaRango tarea) {
+        if (hasta - desde <= UMBRAL || pool.getParallelism() == 1) {
+            tarea.ejecutar(desde, hasta);  // No vale la pena repartir
+            return;
+        }
+        pool.invoke(new AccionRango(desde, hasta, tarea));
+    }
+
+    /**
+     * Acción fork-join que divide un rango a la mitad hasta llegar al umbral.
+     */
+    private static final class AccionRango extends RecursiveAction {
+        private final int desde;
+        private final int hasta;
+        private final TareaRango tarea;
+
+        AccionRango(int desde, int hasta, TareaRango tarea) {
+            this.desde = desde;
+            this.hasta = hasta;
+            this.tarea = tarea;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde <= UMBRAL) {
+                tarea.ejecutar(desde, hasta);
+                return;
+            }
+            int medio = (desde + hasta) >>> 1;
+            invokeAll(new AccionRango(desde, medio, tarea), new AccionRango(medio, hasta, tarea));
+        }
+    }
+
+    /**
+     * Cuenta los vecinos comunes de v y u (sin contarlos a ellos mismos) intersectando sus filas ordenadas.
+     */
+    private static long comunes(AdyacenciaCSR g, int v, int u) {
+        int i = g.desplazamientos[v], finI = g.desplazamientos[v + 1];
+        int j = g.desplazamientos[u], finJ = g.desplazamientos[u + 1];
+        long cantidad = 0;
+        while (i < finI && j < finJ) {
+            int a = g.destinos[i];
+            int b = g.destinos[j];
+            if (a < b) {
+                i++;
+            } else if (a > b) {
+                j++;
+            } else {
+                if (a != v && a != u) {
+                    cantidad++;
+                }
+                i++;
+                j++;
+            }
+        }
+        return cantidad;
+    }
+
+    /**
+     * Grado de un vértice sin contar una posible colaboración consigo mismo.
+     */
+    private static long gradoSinLazos(AdyacenciaCSR g, int v) {
+        long grado = 0;
+        for (int p = g.desplazamientos[v], fin = g.desplazamientos[v + 1]; p < fin; p++) {
+            if (g.destinos[p] != v) {
+                grado++;
+            }
+        }
+        return grado;
+    }
+}
@@ -1,96 +1,747 @@
-package modelo;
-
-/**
- * Clase que representa un árbol binario de búsqueda para almacenar contactos.
- * Permite insertar, buscar contactos por nombre y obtener la lista de contactos en orden alfabético.
- */
-public class ArbolBinarioContactos {
-    // Nodo raíz del árbol binario
-    private NodoArbolContacto raiz;
-
-    /**
-     * Constructor que inicializa el árbol vacío.
-     */
-    public ArbolBinarioContactos() {
-        raiz = null;  // El árbol comienza sin nodos
-    }
-
-    /**
-     * Método público para insertar un contacto en el árbol.
-     * @param contacto NodoContacto a insertar
-     */
-    public void insertar(NodoContacto contacto) {
-        raiz = insertarRec(raiz, contacto);  // Llama al método recursivo para insertar desde la raíz
-    }
-
-    /**
-     * Método recursivo para insertar un nodo en la posición correcta según orden alfabético por nombre.
-     * @param nodo NodoArbolContacto actual en el recorrido
-     * @param contacto NodoContacto a insertar
-     * @return NodoArbolContacto actualizado
-     */
-    private NodoArbolContacto insertarRec(NodoArbolContacto nodo, NodoContacto contacto) {
-        if (nodo == null) {
-            return new NodoArbolContacto(contacto);  // Crear nuevo nodo si llegamos a un lugar vacío
-        }
-        // Comparar nombres ignorando mayúsculas/minúsculas para decidir dirección
-        if (contacto.nombre.compareToIgnoreCase(nodo.contacto.nombre) < 0) {
-            nodo.izquierdo = insertarRec(nodo.izquierdo, contacto);  // Insertar en subárbol izquierdo
-        } else if (contacto.nombre.compareToIgnoreCase(nodo.contacto.nombre) > 0) {
-            nodo.derecho = insertarRec(nodo.derecho, contacto);      // Insertar en subárbol derecho
-        }
-        // Si el nombre es igual, no inserta duplicados (podría modificarse)
-        return nodo;  // Retorna el nodo actual actualizado
-    }
-
-    /**
-     * Busca un contacto por nombre en el árbol.
-     * @param nombre Nombre del contacto a buscar
-     * @return NodoContacto encontrado o null si no existe
-     */
-    public NodoContacto buscar(String nombre) {
-        NodoArbolContacto resultado = buscarRec(raiz, nombre);  // Llama a búsqueda recursiva
-        return (resultado != null) ? resultado.contacto : null;  // Retorna el contacto o null
-    }
-
-    /**
-     * Método recursivo para buscar un nodo por nombre en el árbol.
-     * @param nodo Nodo actual en el recorrido
-     * @param nombre Nombre a buscar
-     * @return NodoArbolContacto encontrado o null si no existe
-     */
-    private NodoArbolContacto buscarRec(NodoArbolContacto nodo, String nombre) {
-        if (nodo == null || nodo.contacto.nombre.equalsIgnoreCase(nombre)) {
-            return nodo;  // Nodo encontrado o fin del camino sin encontrar
-        }
-        if (nombre.compareToIgnoreCase(nodo.contacto.nombre) < 0) {
-            return buscarRec(nodo.izquierdo, nombre);  // Buscar en subárbol izquierdo
-        }
-        return buscarRec(nodo.derecho, nombre);        // Buscar en subárbol derecho
-    }
-
-    /**
-     * Devuelve un String con la lista de contactos en orden alfabético (recorrido inorden).
-     * @return String con la información de todos los contactos
-     */
-    public String obtenerInOrdenTexto() {
-        StringBuilder sb = new StringBuilder();  // Para construir el texto
-        obtenerInOrdenRec(raiz, sb);             // Llamada recursiva al recorrido inorden
-        return sb.toString();                     // Retorna el resultado completo
-    }
-
-    /**
-     * Método recursivo para recorrer el árbol inorden y agregar datos al StringBuilder.
-     * @param nodo Nodo actual
-     * @param sb StringBuilder para concatenar la información
-     */
-    private void obtenerInOrdenRec(NodoArbolContacto nodo, StringBuilder sb) {
-        if (nodo != null) {
-            obtenerInOrdenRec(nodo.izquierdo, sb);   // Recorrer subárbol izquierdo
-            sb.append("Nombre: ").append(nodo.contacto.nombre)  // Agregar nombre
-              .append(", Teléfono: ").append(nodo.contacto.telefono) // Agregar teléfono
-              .append(", Correo: ").append(nodo.contacto.correo).append("\n");  // Agregar correo
-            obtenerInOrdenRec(nodo.derecho, sb);    // Recorrer subárbol derecho
-        }
-    }
-}
+package modelo;
+
+import metricas.MetricasModelo;
+import metricas.OperacionModelo;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/**
+ * Clase que representa un árbol binario de búsqueda para almacenar contactos.
+ * Permite insertar, eliminar, buscar contactos por nombre y obtener la lista de contactos en orden alfabético.
+ * El árbol es rojo-negro: se rebalancea en cada inserción y eliminación, por lo que su altura nunca
+ * supera 2·log2(n+1) aunque los contactos lleguen ya ordenados por nombre.
+ * Todas las operaciones son iterativas para no depender de la pila de llamadas.
+ * Cada nodo guarda el tamaño de su subárbol, así un contacto se ubica por su posición en el
+ * orden alfabético en O(log n) y los listados se recorren por páginas sin empezar desde el primero.
+ * En modo concurrente las escrituras (altas y bajas) se serializan con un StampedLock y
+ * {@link #buscar(String)} desciende sin bloquear (lectura optimista validada al final); solo si
+ * coincidió con una escritura repite la búsqueda con el candado de lectura.
+ */
+public class ArbolBinarioContactos {
+    // Nodo raíz del árbol binario
+    private NodoArbolContacto raiz;
+    // Cantidad de contactos almacenados
+    private volatile int tamanio;
+    // Candado del modo concurrente (null si el árbol se usa desde un solo hilo)
+    private final StampedLock candado;
+
+    /**
+     * Constructor que inicializa el árbol vacío, para uso desde un solo hilo.
+     */
+    public ArbolBinarioContactos() {
+        this(false);
+    }
+
+    /**
+     * Constructor que inicializa el árbol vacío.
+     * @param concurrente true para admitir lecturas desde varios hilos mientras otro inserta
+     */
+    public ArbolBinarioContactos(boolean concurrente) {
+        raiz = null;  // El árbol comienza sin nodos
+        tamanio = 0;
+        candado = concurrente ? new StampedLock() : null;
+    }
+
+    /**
+     * Compara dos nombres ignorando mayúsculas/minúsculas.
+     * Es el único criterio de orden del árbol.
+     * @param a Primer nombre
+     * @param b Segundo nombre
+     * @return negativo, cero o positivo según a sea menor, igual o mayor que b
+     */
+    static int compararNombres(String a, String b) {
+        return a.compareToIgnoreCase(b);
+    }
+
+    /**
+     * Inserta un contacto en el árbol y lo rebalancea.
+     * Si ya existe un contacto con el mismo nombre no se inserta (no se admiten duplicados).
+     * @param contacto NodoContacto a insertar
+     */
+    public void insertar(NodoContacto contacto) {
+        long inicio = MetricasModelo.inicio();
+        long sello = bloquearEscritura();
+        try {
+            insertarNodo(contacto);
+        } finally {
+            desbloquearEscritura(sello);
+            MetricasModelo.registrar(OperacionModelo.ARBOL_INSERTAR, inicio);
+        }
+    }
+
+    /**
+     * Inserción propiamente dicha; quien llama ya tiene el candado de escritura si hace falta.
+     */
+    private void insertarNodo(NodoContacto contacto) {
+        NodoArbolContacto padre = null;
+        NodoArbolContacto actual = raiz;
+        String nombre = contacto.getNombre();  // Se lee una vez: en un contacto compacto se decodifica
+        int cmp = 0;
+        while (actual != null) {  // Descender hasta un hueco vacío
+            padre = actual;
+            cmp = compararNombres(nombre, actual.contacto.getNombre()); // Una sola comparación por nivel
+            if (cmp < 0) {
+                actual = actual.izquierdo;
+            } else if (cmp > 0) {
+                actual = actual.derecho;
+            } else {
+                return;  // El nombre ya existe, no inserta duplicados
+            }
+        }
+
+        NodoArbolContacto nuevo = new NodoArbolContacto(contacto);
+        nuevo.padre = padre;
+        if (padre == null) {
+            raiz = nuevo;             // Árbol vacío: el nuevo nodo es la raíz
+        } else if (cmp < 0) {
+            padre.izquierdo = nuevo;
+        } else {
+            padre.derecho = nuevo;
+        }
+        for (NodoArbolContacto p = padre; p != null; p = p.padre) {
+            p.tamanio++;              // Un nodo más en cada subárbol del camino
+        }
+        tamanio++;
+        balancearInsercion(nuevo);    // Restaurar las propiedades rojo-negras
+    }
+
+    /**
+     * Elimina el contacto con el nombre dado y rebalancea el árbol, en O(log n).
+     * @param nombre Nombre del contacto a eliminar
+     * @return el contacto eliminado, o null si no había ninguno con ese nombre
+     */
+    public NodoContacto eliminar(String nombre) {
+        long inicio = MetricasModelo.inicio();
+        long sello = bloquearEscritura();
+        try {
+            NodoArbolContacto nodo = buscarNodo(nombre);
+            if (nodo == null) {
+                return null;
+            }
+            eliminarNodo(nodo);
+            return nodo.contacto;
+        } finally {
+            desbloquearEscritura(sello);
+            MetricasModelo.registrar(OperacionModelo.ARBOL_ELIMINAR, inicio);
+        }
+    }
+
+    /**
+     * Desengancha un nodo del árbol. Como el contacto de cada nodo es final, con dos hijos no se
+     * copia el sucesor sobre el nodo: el nodo sucesor se mueve a su lugar.
+     */
+    private void eliminarNodo(NodoArbolContacto nodo) {
+        NodoArbolContacto hijo;        // Nodo que ocupa el hueco que queda (puede ser nulo)
+        NodoArbolContacto padreHijo;   // Su padre, necesario cuando el hijo es nulo
+        boolean negroQuitado;
+        if (nodo.izquierdo == null || nodo.derecho == null) {
+            for (NodoArbolContacto p = nodo.padre; p != null; p = p.padre) {
+                p.tamanio--;              // Un nodo menos en cada subárbol del camino
+            }
+            negroQuitado = !nodo.rojo;
+            hijo = (nodo.izquierdo != null) ? nodo.izquierdo : nodo.derecho;
+            padreHijo = nodo.padre;
+            reemplazarEnPadre(nodo, hijo);
+        } else {
+            NodoArbolContacto sucesor = minimo(nodo.derecho);
+            for (NodoArbolContacto p = sucesor.padre; p != null; p = p.padre) {
+                p.tamanio--;              // El camino del sucesor incluye al nodo eliminado
+            }
+            negroQuitado = !sucesor.rojo;
+            hijo = sucesor.derecho;
+            if (sucesor.padre == nodo) {
+                padreHijo = sucesor;
+            } else {
+                padreHijo = sucesor.padre;
+                reemplazarEnPadre(sucesor, hijo);
+                sucesor.derecho = nodo.derecho;
+                sucesor.derecho.padre = sucesor;
+            }
+            reemplazarEnPadre(nodo, sucesor);
+            sucesor.izquierdo = nodo.izquierdo;
+            sucesor.izquierdo.padre = sucesor;
+            sucesor.rojo = nodo.rojo;
+            sucesor.tamanio = nodo.tamanio;  // Ya descontado el nodo eliminado
+        }
+        tamanio--;
+        if (negroQuitado) {
+            balancearEliminacion(hijo, padreHijo);  // Falta un negro en el camino del hueco
+        }
+    }
+
+    /**
+     * Construye el árbol de una sola vez a partir de contactos ya ordenados por nombre,
+     * en O(n) y sin comparaciones: el elemento del medio de cada tramo es la raíz del subárbol.
+     * Los nodos del último nivel quedan rojos y el resto negros, lo que cumple las reglas
+     * rojo-negras. Solo se puede usar con el árbol vacío; si no lo está, inserta uno por uno.
+     * @param ordenados Contactos en orden estrictamente creciente de nombre, sin duplicados
+     * @param cantidad Cantidad de contactos válidos del arreglo
+     */
+    public void construirDesdeOrdenados(NodoContacto[] ordenados, int cantidad) {
+        long inicio = MetricasModelo.inicio();
+        long sello = bloquearEscritura();
+        try {
+            if (raiz != null) {
+                for (int i = 0; i < cantidad; i++) {
+                    insertarNodo(ordenados[i]);
+                }
+                return;
+            }
+            int nivelInferior = 31 - Integer.numberOfLeadingZeros(Math.max(1, cantidad));  // floor(log2 n)
+            NodoArbolContacto nueva = construirTramo(ordenados, 0, cantidad - 1, 0, nivelInferior, null);
+            if (nueva != null) {
+                nueva.rojo = false;
+            }
+            raiz = nueva;  // Se publica ya completo
+            tamanio = cantidad;
+        } finally {
+            desbloquearEscritura(sello);
+            MetricasModelo.registrar(OperacionModelo.ARBOL_CONSTRUIR, inicio);
+        }
+    }
+
+    /**
+     * Construye el subárbol balanceado del tramo [desde, hasta]. La recursión tiene
+     * profundidad log2(n), por lo que no hay riesgo de agotar la pila.
+     */
+    private static NodoArbolContacto construirTramo(NodoContacto[] ordenados, int desde, int hasta,
+                                                   int nivel, int nivelInferior, NodoArbolContacto padre) {
+        if (desde > hasta) {
+            return null;
+        }
+        int medio = (desde + hasta) >>> 1;
+        NodoArbolContacto nodo = new NodoArbolContacto(ordenados[medio]);
+        nodo.padre = padre;
+        nodo.rojo = (nivel == nivelInferior);  // Solo el último nivel (posiblemente incompleto) es rojo
+        nodo.tamanio = hasta - desde + 1;
+        nodo.izquierdo = construirTramo(ordenados, desde, medio - 1, nivel + 1, nivelInferior, nodo);
+        nodo.derecho = construirTramo(ordenados, medio + 1, hasta, nivel + 1, nivelInferior, nodo);
+        return nodo;
+    }
+
+    /**
+     * Busca un contacto por nombre en el árbol.
+     * @param nombre Nombre del contacto a buscar
+     * @return NodoContacto encontrado o null si no existe
+     */
+    public NodoContacto buscar(String nombre) {
+        long inicio = MetricasModelo.inicio();
+        try {
+            return buscarContacto(nombre);
+        } finally {
+            MetricasModelo.registrar(OperacionModelo.ARBOL_BUSCAR, inicio);
+        }
+    }
+
+    private NodoContacto buscarContacto(String nombre) {
+        if (candado == null) {
+            NodoArbolContacto resultado = buscarNodo(nombre);
+            return (resultado != null) ? resultado.contacto : null;  // Retorna el contacto o null
+        }
+        // Lectura optimista: no bloquea ni escribe memoria compartida, así escala con los núcleos
+        long sello = candado.tryOptimisticRead();
+        if (sello != 0) {
+            try {
+                NodoContacto resultado = buscarOptimista(nombre);
+                if (candado.validate(sello)) {
+                    return resultado;
+                }
+            } catch (RuntimeException e) {
+                // Se leyó un estado intermedio de una escritura; se reintenta con candado
+            }
+        }
+        sello = candado.readLock();
+        try {
+            NodoArbolContacto resultado = buscarNodo(nombre);
+            return (resultado != null) ? resultado.contacto : null;
+        } finally {
+            candado.unlockRead(sello);
+        }
+    }
+
+    /**
+     * Búsqueda sin candado que puede cruzarse con una rotación en curso. Como una rotación a
+     * medias puede formar un ciclo momentáneo, el descenso se corta al superar la altura
+     * máxima posible; el resultado solo vale si después se valida el sello.
+     */
+    private NodoContacto buscarOptimista(String nombre) {
+        if (nombre == null) {
+            return null;
+        }
+        NodoArbolContacto actual = raiz;
+        for (int pasos = 0; actual != null && pasos < 128; pasos++) {  // 2·log2(2^31) < 128
+            NodoContacto contacto = actual.contacto;
+            int cmp = compararNombres(nombre, contacto.getNombre());
+            if (cmp == 0) {
+                return contacto;
+            }
+            actual = (cmp < 0) ? actual.izquierdo : actual.derecho;
+        }
+        return null;
+    }
+
+    /**
+     * Busca iterativamente el nodo del árbol cuyo contacto tiene el nombre dado.
+     * @param nombre Nombre a buscar
+     * @return NodoArbolContacto encontrado o null si no existe
+     */
+    private NodoArbolContacto buscarNodo(String nombre) {
+        if (nombre == null) {
+            return null;
+        }
+        NodoArbolContacto actual = raiz;
+        while (actual != null) {
+            int cmp = compararNombres(nombre, actual.contacto.getNombre()); // Una sola comparación por nivel
+            if (cmp == 0) {
+                return actual;               // Nodo encontrado
+            }
+            actual = (cmp < 0) ? actual.izquierdo : actual.derecho;
+        }
+        return null;  // Fin del camino sin encontrar
+    }
+
+    /**
+     * Recorre los contactos en orden alfabético sin recursión.
+     * @param accion Acción a aplicar a cada contacto
+     */
+    public void recorrerEnOrden(Consumer<NodoContacto> accion) {
+        long inicio = MetricasModelo.inicio();
+        long sello = bloquearLectura();
+        try {
+            for (NodoArbolContacto nodo = minimo(raiz); nodo != null; nodo = sucesor(nodo)) {
+                accion.accept(nodo.contacto);
+            }
+        } finally {
+            desbloquearLectura(sello);
+            MetricasModelo.registrar(OperacionModelo.ARBOL_RECORRER, inicio);
+        }
+    }
+
+    /**
+     * Recorre en orden alfabético a partir del primer contacto cuyo nombre es mayor o igual
+     * al indicado, como máximo la cantidad pedida. Sirve para listar por páginas: la página
+     * siguiente empieza después del último nombre recibido.
+     * @param nombreInicio Primer nombre a incluir (si no existe, se empieza por el siguiente);
+     *                     null para empezar por el primero
+     * @param limite Cantidad máxima de contactos a recorrer
+     * @param accion Acción a aplicar a cada contacto
+     * @return cantidad de contactos recorridos
+     */
+    public int recorrerDesde(String nombreInicio, int limite, Consumer<NodoContacto> accion) {
+        long inicio = MetricasModelo.inicio();
+        long sello = bloquearLectura();
+        try {
+            NodoArbolContacto nodo = (nombreInicio == null) ? minimo(raiz) : techo(nombreInicio);
+            return recorrerNodos(nodo, limite, accion);
+        } finally {
+            desbloquearLectura(sello);
+            MetricasModelo.registrar(OperacionModelo.ARBOL_RECORRER, inicio);
+        }
+    }
+
+    /**
+     * Recorre en orden alfabético a partir de una posición, como máximo la cantidad pedida.
+     * Llegar a la posición cuesta O(log n), no O(posición).
+     * @param posicion Posición del primer contacto (desde 0)
+     * @param limite Cantidad máxima de contactos a recorrer
+     * @param accion Acción a aplicar a cada contacto
+     * @return cantidad de contactos recorridos
+     */
+    public int recorrerDesdePosicion(int posicion, int limite, Consumer<NodoContacto> accion) {
+        long inicio = MetricasModelo.inicio();
+        long sello = bloquearLectura();
+        try {
+            return recorrerNodos(nodoEnPosicion(posicion), limite, accion);
+        } finally {
+            desbloquearLectura(sello);
+            MetricasModelo.registrar(OperacionModelo.ARBOL_RECORRER, inicio);
+        }
+    }
+
+    /**
+     * Devuelve el contacto que ocupa una posición en el orden alfabético, en O(log n).
+     * @param posicion Posición (desde 0)
+     * @return contacto, o null si la posición está fuera de rango
+     */
+    public NodoContacto obtenerPorPosicion(int posicion) {
+        long inicio = MetricasModelo.inicio();
+        long sello = bloquearLectura();
+        try {
+            NodoArbolContacto nodo = nodoEnPosicion(posicion);
+            return (nodo != null) ? nodo.contacto : null;
+        } finally {
+            desbloquearLectura(sello);
+            MetricasModelo.registrar(OperacionModelo.ARBOL_POSICION, inicio);
+        }
+    }
+
+    /**
+     * Devuelve la posición en el orden alfabético del primer contacto cuyo nombre es mayor o
+     * igual al indicado, es decir, dónde está o dónde quedaría ese nombre. O(log n).
+     * @param nombre Nombre a ubicar
+     * @return posición entre 0 y getTamanio()
+     */
+    public int posicionDe(String nombre) {
+        long inicio = MetricasModelo.inicio();
+        long sello = bloquearLectura();
+        try {
+            int posicion = 0;
+            NodoArbolContacto actual = raiz;
+            while (actual != null) {
+                if (compararNombres(nombre, actual.contacto.getNombre()) <= 0) {
+                    actual = actual.izquierdo;
+                } else {
+                    posicion += tamanioDe(actual.izquierdo) + 1;  // Quedan antes el subárbol izquierdo y el nodo
+                    actual = actual.derecho;
+                }
+            }
+            return posicion;
+        } finally {
+            desbloquearLectura(sello);
+            MetricasModelo.registrar(OperacionModelo.ARBOL_POSICION, inicio);
+        }
+    }
+
+    /**
+     * Devuelve la cantidad de contactos almacenados en el árbol.
+     * @return número de contactos
+     */
+    public int getTamanio() {
+        return tamanio;
+    }
+
+    /**
+     * Calcula la altura del árbol (número de niveles) recorriéndolo por niveles.
+     * Un árbol vacío tiene altura 0. Costo O(n), pensado para estadísticas.
+     * @return altura del árbol
+     */
+    public int getAltura() {
+        long sello = bloquearLectura();
+        try {
+            if (raiz == null) {
+                return 0;
+            }
+            ArrayDeque<NodoArbolContacto> nivel = new ArrayDeque<>();
+            nivel.add(raiz);
+            int altura = 0;
+            while (!nivel.isEmpty()) {
+                altura++;
+                for (int i = nivel.size(); i > 0; i--) {  // Procesar exactamente un nivel
+                    NodoArbolContacto nodo = nivel.poll();
+                    if (nodo.izquierdo != null) nivel.add(nodo.izquierdo);
+                    if (nodo.derecho != null) nivel.add(nodo.derecho);
+                }
+            }
+            return altura;
+        } finally {
+            desbloquearLectura(sello);
+        }
+    }
+
+    /**
+     * Devuelve un resumen con el tamaño y la altura del árbol, junto con la altura
+     * mínima posible y la cota máxima de un árbol rojo-negro de ese tamaño.
+     * Sirve para verificar que la profundidad se mantiene en O(log n).
+     * @return String con las estadísticas del árbol
+     */
+    public String obtenerEstadisticasTexto() {
+        int minima = 32 - Integer.numberOfLeadingZeros(tamanio);  // ceil(log2(n+1))
+        return "Contactos: " + tamanio
+                + ", Altura: " + getAltura()
+                + ", Altura mínima: " + minima
+                + ", Cota rojo-negro: " + (2 * minima) + "\n";
+    }
+
+    // ----------------------------------------------------------------------
+    // Candado del modo concurrente (no hace nada en modo de un solo hilo)
+    // ----------------------------------------------------------------------
+
+    private long bloquearLectura() {
+        return (candado != null) ? candado.readLock() : 0;
+    }
+
+    private void desbloquearLectura(long sello) {
+        if (candado != null) {
+            candado.unlockRead(sello);
+        }
+    }
+
+    private long bloquearEscritura() {
+        return (candado != null) ? candado.writeLock() : 0;
+    }
+
+    private void desbloquearEscritura(long sello) {
+        if (candado != null) {
+            candado.unlockWrite(sello);
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Utilidades internas del árbol rojo-negro
+    // ----------------------------------------------------------------------
+
+    /**
+     * Devuelve el nodo con el menor nombre del subárbol indicado.
+     */
+    private static NodoArbolContacto minimo(NodoArbolContacto nodo) {
+        if (nodo == null) return null;
+        while (nodo.izquierdo != null) {
+            nodo = nodo.izquierdo;
+        }
+        return nodo;
+    }
+
+    /**
+     * Devuelve el tamaño de un subárbol (0 si es nulo).
+     */
+    private static int tamanioDe(NodoArbolContacto nodo) {
+        return (nodo != null) ? nodo.tamanio : 0;
+    }
+
+    /**
+     * Devuelve el nodo que ocupa una posición del orden alfabético, o null si no existe.
+     */
+    private NodoArbolContacto nodoEnPosicion(int posicion) {
+        if (posicion < 0 || posicion >= tamanioDe(raiz)) {
+            return null;
+        }
+        NodoArbolContacto actual = raiz;
+        while (true) {
+            int izquierdos = tamanioDe(actual.izquierdo);
+            if (posicion < izquierdos) {
+                actual = actual.izquierdo;
+            } else if (posicion == izquierdos) {
+                return actual;
+            } else {
+                posicion -= izquierdos + 1;
+                actual = actual.derecho;
+            }
+        }
+    }
+
+    /**
+     * Devuelve el nodo con el menor nombre mayor o igual al indicado, o null si no hay.
+     */
+    private NodoArbolContacto techo(String nombre) {
+        NodoArbolContacto candidato = null;
+        NodoArbolContacto actual = raiz;
+        while (actual != null) {
+            int cmp = compararNombres(nombre, actual.contacto.getNombre());
+            if (cmp == 0) {
+                return actual;
+            }
+            if (cmp < 0) {
+                candidato = actual;  // Sirve, pero puede haber uno menor a la izquierda
+                actual = actual.izquierdo;
+            } else {
+                actual = actual.derecho;
+            }
+        }
+        return candidato;
+    }
+
+    /**
+     * Aplica la acción a lo sumo a "limite" nodos en orden a partir del indicado.
+     */
+    private static int recorrerNodos(NodoArbolContacto nodo, int limite, Consumer<NodoContacto> accion) {
+        int recorridos = 0;
+        while (nodo != null && recorridos < limite) {
+            accion.accept(nodo.contacto);
+            recorridos++;
+            nodo = sucesor(nodo);
+        }
+        return recorridos;
+    }
+
+    /**
+     * Devuelve el siguiente nodo en orden alfabético, o null si es el último.
+     */
+    private static NodoArbolContacto sucesor(NodoArbolContacto nodo) {
+        if (nodo.derecho != null) {
+            return minimo(nodo.derecho);  // El menor del subárbol derecho
+        }
+        NodoArbolContacto padre = nodo.padre;
+        while (padre != null && nodo == padre.derecho) {  // Subir mientras venimos por la derecha
+            nodo = padre;
+            padre = padre.padre;
+        }
+        return padre;
+    }
+
+    /**
+     * Indica si un nodo es rojo. Los hijos nulos se consideran negros.
+     */
+    private static boolean esRojo(NodoArbolContacto nodo) {
+        return nodo != null && nodo.rojo;
+    }
+
+    /**
+     * Restaura las propiedades rojo-negras después de insertar un nodo rojo.
+     * @param nodo Nodo recién insertado
+     */
+    private void balancearInsercion(NodoArbolContacto nodo) {
+        while (nodo != raiz && nodo.padre.rojo) {
+            NodoArbolContacto padre = nodo.padre;
+            NodoArbolContacto abuelo = padre.padre;  // Existe: un padre rojo nunca es la raíz
+            if (padre == abuelo.izquierdo) {
+                NodoArbolContacto tio = abuelo.derecho;
+                if (esRojo(tio)) {
+                    // Caso 1: tío rojo, se recolorea y se sigue subiendo
+                    padre.rojo = false;
+                    tio.rojo = false;
+                    abuelo.rojo = true;
+                    nodo = abuelo;
+                } else {
+                    if (nodo == padre.derecho) {
+                        // Caso 2: nodo interior, se convierte en el caso 3
+                        nodo = padre;
+                        rotarIzquierda(nodo);
+                        padre = nodo.padre;
+                    }
+                    // Caso 3: nodo exterior, una rotación deja el subárbol balanceado
+                    padre.rojo = false;
+                    abuelo.rojo = true;
+                    rotarDerecha(abuelo);
+                }
+            } else {
+                NodoArbolContacto tio = abuelo.izquierdo;
+                if (esRojo(tio)) {
+                    padre.rojo = false;
+                    tio.rojo = false;
+                    abuelo.rojo = true;
+                    nodo = abuelo;
+                } else {
+                    if (nodo == padre.izquierdo) {
+                        nodo = padre;
+                        rotarDerecha(nodo);
+                        padre = nodo.padre;
+                    }
+                    padre.rojo = false;
+                    abuelo.rojo = true;
+                    rotarIzquierda(abuelo);
+                }
+            }
+        }
+        raiz.rojo = false;  // La raíz siempre es negra
+    }
+
+    /**
+     * Restaura las propiedades rojo-negras después de quitar un nodo negro: el camino que pasa
+     * por "nodo" tiene un negro de menos. El nodo puede ser nulo, por eso se recibe su padre.
+     * @param nodo Nodo que ocupó el lugar del eliminado
+     * @param padre Padre de ese nodo
+     */
+    private void balancearEliminacion(NodoArbolContacto nodo, NodoArbolContacto padre) {
+        while (nodo != raiz && !esRojo(nodo)) {
+            if (nodo == padre.izquierdo) {
+                NodoArbolContacto hermano = padre.derecho;  // Existe: su lado tiene al menos un negro
+                if (esRojo(hermano)) {
+                    // Caso 1: hermano rojo, se rota para que el hermano sea negro
+                    hermano.rojo = false;
+                    padre.rojo = true;
+                    rotarIzquierda(padre);
+                    hermano = padre.derecho;
+                }
+                if (!esRojo(hermano.izquierdo) && !esRojo(hermano.derecho)) {
+                    // Caso 2: sobrinos negros, se recolorea el hermano y el faltante sube
+                    hermano.rojo = true;
+                    nodo = padre;
+                    padre = nodo.padre;
+                } else {
+                    if (!esRojo(hermano.derecho)) {
+                        // Caso 3: sobrino interior rojo, se convierte en el caso 4
+                        hermano.izquierdo.rojo = false;
+                        hermano.rojo = true;
+                        rotarDerecha(hermano);
+                        hermano = padre.derecho;
+                    }
+                    // Caso 4: sobrino exterior rojo, una rotación repone el negro que faltaba
+                    hermano.rojo = padre.rojo;
+                    padre.rojo = false;
+                    hermano.derecho.rojo = false;
+                    rotarIzquierda(padre);
+                    nodo = raiz;
+                }
+            } else {
+                NodoArbolContacto hermano = padre.izquierdo;
+                if (esRojo(hermano)) {
+                    hermano.rojo = false;
+                    padre.rojo = true;
+                    rotarDerecha(padre);
+                    hermano = padre.izquierdo;
+                }
+                if (!esRojo(hermano.izquierdo) && !esRojo(hermano.derecho)) {
+                    hermano.rojo = true;
+                    nodo = padre;
+                    padre = nodo.padre;
+                } else {
+                    if (!esRojo(hermano.izquierdo)) {
+                        hermano.derecho.rojo = false;
+                        hermano.rojo = true;
+                        rotarIzquierda(hermano);
+                        hermano = padre.izquierdo;
+                    }
+                    hermano.rojo = padre.rojo;
+                    padre.rojo = false;
+                    hermano.izquierdo.rojo = false;
+                    rotarDerecha(padre);
+                    nodo = raiz;
+                }
+            }
+        }
+        if (nodo != null) {
+            nodo.rojo = false;
+        }
+    }
+
+    /**
+     * Rota a la izquierda alrededor del nodo dado: su hijo derecho pasa a ocupar su lugar.
+     */
+    private void rotarIzquierda(NodoArbolContacto x) {
+        NodoArbolContacto y = x.derecho;
+        x.derecho = y.izquierdo;
+        if (y.izquierdo != null) {
+            y.izquierdo.padre = x;
+        }
+        reemplazarEnPadre(x, y);
+        y.izquierdo = x;
+        x.padre = y;
+        y.tamanio = x.tamanio;  // y ocupa el lugar de x con el mismo subárbol
+        x.tamanio = tamanioDe(x.izquierdo) + tamanioDe(x.derecho) + 1;
+    }
+
+    /**
+     * Rota a la derecha alrededor del nodo dado: su hijo izquierdo pasa a ocupar su lugar.
+     */
+    private void rotarDerecha(NodoArbolContacto x) {
+        NodoArbolContacto y = x.izquierdo;
+        x.izquierdo = y.derecho;
+        if (y.derecho != null) {
+            y.derecho.padre = x;
+        }
+        reemplazarEnPadre(x, y);
+        y.derecho = x;
+        x.padre = y;
+        y.tamanio = x.tamanio;
+        x.tamanio = tamanioDe(x.izquierdo) + tamanioDe(x.derecho) + 1;
+    }
+
+    /**
+     * Hace que el padre de "viejo" apunte a "nuevo" (o que "nuevo" sea la raíz).
+     */
+    private void reemplazarEnPadre(NodoArbolContacto viejo, NodoArbolContacto nuevo) {
+        NodoArbolContacto padre = viejo.padre;
+        if (nuevo != null) {
+            nuevo.padre = padre;
+        }
+        if (padre == null) {
+            raiz = nuevo;
+        } else if (viejo == padre.izquierdo) {
+            padre.izquierdo = nuevo;
+        } else {
+            padre.derecho = nuevo;
+        }
+    }
+}
@@ -0,0 +1,577 @@
+package modelo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Bitácora de escritura anticipada (write-ahead log) de los cambios del registro.
+ * Cada alta, baja o modificación de un contacto y cada alta o baja de una colaboración se
+ * agrega al final del archivo como un registro binario:
+ * [largo del contenido][CRC32][tipo][número de cambio][campos como largo + UTF-8].
+ * El número de cambio lo asigna el registro ({@link RegistroContactos#getSecuencia()}) y la
+ * instantánea guarda el último que contiene: al reproducir se saltan los registros con número
+ * menor o igual, porque su efecto ya está en la instantánea. Los registros escritos antes de
+ * que existiera el número (sin la marca {@link #CON_SECUENCIA} en el tipo) se aplican siempre.
+ * Las escrituras se acumulan en memoria y un hilo en segundo plano las vuelca al disco y hace
+ * fsync cada cierto intervalo (group commit), así insertar no espera al disco. Un corte de luz
+ * pierde como máximo lo escrito en el último intervalo; un registro a medio escribir se detecta
+ * por el CRC y se descarta al reabrir.
+ * Al iniciar, {@link #reproducir(Path, RegistroContactos)} vuelve a aplicar la bitácora sobre la
+ * última instantánea. {@link #compactar(Path)} rota la bitácora y, en otro hilo, combina la
+ * instantánea con la bitácora rotada en una instantánea nueva.
+ */
+public class BitacoraEscritura implements Closeable {
+    // Tipos de registro
+    static final byte TIPO_CONTACTO = 1;
+    static final byte TIPO_COLABORACION = 2;
+    static final byte TIPO_ELIMINAR_CONTACTO = 3;
+    static final byte TIPO_ELIMINAR_COLABORACION = 4;
+    static final byte TIPO_ACTUALIZAR_CONTACTO = 5;
+    // Marca del tipo que indica que el registro lleva número de cambio
+    static final byte CON_SECUENCIA = 0x40;
+    // Cantidad máxima de campos de un registro (la modificación de un contacto)
+    private static final int MAXIMO_CAMPOS = 4;
+    // Tamaño a partir del cual se vuelca el búfer sin esperar al intervalo
+    private static final int LIMITE_PENDIENTE = 1 << 20;
+
+    // Archivo de la bitácora y archivo al que se rota durante la compactación
+    private final Path archivo;
+    private final Path archivoRotado;
+    // Canal abierto para agregar al final
+    private FileChannel canal;
+    // Intervalo entre fsync; 0 sincroniza en cada registro
+    private final long intervaloMillis;
+    // Registros aún no escritos al canal y búfer de intercambio
+    private ByteBuffer pendiente = nuevoBufer(64 * 1024);
+    private ByteBuffer reserva = nuevoBufer(64 * 1024);
+    // Protege el búfer pendiente (se toma muy poco tiempo)
+    private final Object candadoBufer = new Object();
+    // Protege el canal: escritura, fsync y rotación
+    private final Object candadoArchivo = new Object();
+    // Hay datos escritos al canal que todavía no pasaron por fsync
+    private boolean sinSincronizar;
+    // Hilo del group commit y hilo de la compactación (separados para que compactar no frene los fsync)
+    private final ScheduledExecutorService planificador;
+    private final ExecutorService compactador;
+    // Compactación en curso (o la última terminada)
+    private CompletableFuture<Void> compactacion = CompletableFuture.completedFuture(null);
+    // Compactación automática: instantánea destino y tamaño de bitácora que la dispara (0 = apagada)
+    private Path snapshotAutomatico;
+    private long umbralCompactacion;
+    // Último error del hilo en segundo plano
+    private volatile IOException ultimoError;
+    private volatile boolean cerrada;
+    // Se empezó a cerrar: no se inician compactaciones nuevas (se protege con candadoArchivo)
+    private boolean cerrando;
+
+    /**
+     * Abre (o crea) la bitácora para agregar registros. Si el final del archivo tiene un
+     * registro incompleto o dañado, se recorta hasta el último registro válido.
+     * @param archivo Ruta de la bitácora
+     * @param intervaloMillis Milisegundos entre cada fsync; 0 para sincronizar cada registro
+     * @throws IOException si no se puede abrir el archivo
+     */
+    public BitacoraEscritura(Path archivo, long intervaloMillis) throws IOException {
+        this.archivo = archivo;
+        this.archivoRotado = rotada(archivo);
+        this.intervaloMillis = intervaloMillis;
+        this.canal = abrirParaAgregar(archivo);
+        this.planificador = Executors.newSingleThreadScheduledExecutor(r -> hiloDemonio(r, "bitacora-escritura"));
+        this.compactador = Executors.newSingleThreadExecutor(r -> hiloDemonio(r, "bitacora-compactacion"));
+        if (intervaloMillis > 0) {
+            planificador.scheduleWithFixedDelay(this::sincronizarPeriodicamente,
+                    intervaloMillis, intervaloMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Escritura
+    // ----------------------------------------------------------------------
+
+    /**
+     * Agrega el alta de un contacto.
+     */
+    void registrarContacto(long numero, String nombre, String telefono, String correo) {
+        agregarRegistro(TIPO_CONTACTO, numero, nombre, telefono, correo);
+    }
+
+    /**
+     * Agrega el alta de una colaboración entre dos contactos (por nombre).
+     */
+    void registrarColaboracion(long numero, String nombre1, String nombre2) {
+        agregarRegistro(TIPO_COLABORACION, numero, nombre1, nombre2);
+    }
+
+    /**
+     * Agrega la baja de un contacto (por nombre).
+     */
+    void registrarEliminacionContacto(long numero, String nombre) {
+        agregarRegistro(TIPO_ELIMINAR_CONTACTO, numero, nombre);
+    }
+
+    /**
+     * Agrega la baja de una colaboración entre dos contactos (por nombre).
+     */
+    void registrarEliminacionColaboracion(long numero, String nombre1, String nombre2) {
+        agregarRegistro(TIPO_ELIMINAR_COLABORACION, numero, nombre1, nombre2);
+    }
+
+    /**
+     * Agrega la modificación de un contacto: su nombre anterior y sus datos nuevos.
+     */
+    void registrarActualizacion(long numero, String nombre, String nuevoNombre, String telefono, String correo) {
+        agregarRegistro(TIPO_ACTUALIZAR_CONTACTO, numero, nombre, nuevoNombre, telefono, correo);
+    }
+
+    /**
+     * Codifica un registro en el búfer pendiente. Solo vuelca al canal si el búfer se llenó
+     * o si la bitácora sincroniza en cada registro.
+     * @param numero Número de cambio asignado por el registro
+     */
+    private void agregarRegistro(byte tipo, long numero, String... campos) {
+        if (cerrada) {
+            throw new IllegalStateException("La bitácora está cerrada");
+        }
+        byte[][] bytes = new byte[campos.length][];
+        int largo = 1 + Long.BYTES;
+        for (int i = 0; i < campos.length; i++) {
+            bytes[i] = (campos[i] == null ? "" : campos[i]).getBytes(StandardCharsets.UTF_8);
+            largo += 4 + bytes[i].length;
+        }
+        boolean volcar;
+        synchronized (candadoBufer) {
+            if (pendiente.remaining() < 8 + largo) {
+                ByteBuffer mayor = nuevoBufer(Math.max(pendiente.capacity() * 2, pendiente.position() + 8 + largo));
+                pendiente.flip();
+                mayor.put(pendiente);
+                pendiente = mayor;
+            }
+            int inicio = pendiente.position();
+            pendiente.putInt(largo).putInt(0).put((byte) (tipo | CON_SECUENCIA)).putLong(numero);
+            for (byte[] campo : bytes) {
+                pendiente.putInt(campo.length).put(campo);
+            }
+            pendiente.putInt(inicio + 4, crc(pendiente, inicio + 8, largo));
+            volcar = pendiente.position() >= LIMITE_PENDIENTE;
+        }
+        if (volcar || intervaloMillis == 0) {
+            try {
+                escribirPendientes(intervaloMillis == 0);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Escribe al disco todos los registros pendientes y hace fsync.
+     * Al volver, todo lo registrado antes de la llamada es durable.
+     * @throws IOException si falla la escritura
+     */
+    public void sincronizar() throws IOException {
+        escribirPendientes(true);
+    }
+
+    /**
+     * Intercambia el búfer pendiente por el de reserva y escribe su contenido al canal,
+     * de modo que quienes agregan registros solo esperan el intercambio y no el disco.
+     */
+    private void escribirPendientes(boolean forzar) throws IOException {
+        synchronized (candadoArchivo) {
+            ByteBuffer datos;
+            synchronized (candadoBufer) {
+                datos = pendiente;
+                pendiente = reserva;
+                reserva = datos;
+            }
+            datos.flip();
+            if (datos.hasRemaining()) {
+                while (datos.hasRemaining()) {
+                    canal.write(datos);
+                }
+                sinSincronizar = true;
+            }
+            datos.clear();
+            if (forzar && sinSincronizar) {
+                canal.force(false);
+                sinSincronizar = false;
+            }
+        }
+    }
+
+    /**
+     * Tarea periódica del group commit; además dispara la compactación automática.
+     */
+    private void sincronizarPeriodicamente() {
+        try {
+            sincronizar();
+            Path destino;
+            synchronized (candadoArchivo) {
+                destino = (umbralCompactacion > 0 && canal.size() >= umbralCompactacion && compactacion.isDone())
+                        ? snapshotAutomatico : null;
+            }
+            if (destino != null) {
+                compactar(destino);
+            }
+        } catch (IOException e) {
+            ultimoError = e;
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Compactación
+    // ----------------------------------------------------------------------
+
+    /**
+     * Activa la compactación automática cuando la bitácora supera un tamaño.
+     * @param snapshot Instantánea que se actualiza al compactar
+     * @param umbralBytes Tamaño de la bitácora que dispara la compactación (0 la desactiva)
+     */
+    public void setCompactacionAutomatica(Path snapshot, long umbralBytes) {
+        synchronized (candadoArchivo) {
+            this.snapshotAutomatico = snapshot;
+            this.umbralCompactacion = umbralBytes;
+        }
+    }
+
+    /**
+     * Rota la bitácora y, en segundo plano, aplica la parte rotada sobre la instantánea
+     * para obtener una instantánea nueva. Los registros que llegan mientras tanto van a la
+     * bitácora nueva. El trabajo se hace sobre un registro aparte, sin tocar el modelo en uso.
+     * Si ya hay una compactación en curso, devuelve esa.
+     * @param snapshot Instantánea base y destino
+     * @return tarea que termina cuando la instantánea nueva quedó escrita
+     * @throws IOException si falla la rotación
+     */
+    public CompletableFuture<Void> compactar(Path snapshot) throws IOException {
+        synchronized (candadoArchivo) {
+            if (cerrando || !compactacion.isDone()) {
+                return compactacion;
+            }
+            if (Files.exists(archivoRotado)) {
+                // Quedó una rotación sin terminar (corte anterior): se compacta esa primero
+                compactacion = CompletableFuture.runAsync(() -> combinar(snapshot), compactador);
+                return compactacion;
+            }
+            escribirPendientes(true);
+            canal.close();
+            Files.move(archivo, archivoRotado, StandardCopyOption.ATOMIC_MOVE);
+            canal = abrirParaAgregar(archivo);
+            compactacion = CompletableFuture.runAsync(() -> combinar(snapshot), compactador);
+            return compactacion;
+        }
+    }
+
+    /**
+     * Carga la instantánea y la bitácora rotada en un registro aparte y guarda el resultado.
+     * La bitácora rotada solo se borra después de escribir la instantánea; si un corte la deja,
+     * sus registros ya contenidos en la instantánea nueva se saltan por su número.
+     */
+    private void combinar(Path snapshot) {
+        try {
+            RegistroContactos temporal = new RegistroContactos(new ListaContactos(true),
+                    new ArbolBinarioContactos(), new GrafoColaboraciones());
+            if (Files.exists(snapshot)) {
+                try (SnapshotBinario base = SnapshotBinario.abrir(snapshot)) {
+                    base.cargarEn(temporal);
+                }
+            }
+            reproducir(archivoRotado, temporal);
+            SnapshotBinario.guardar(temporal, snapshot);
+            Files.deleteIfExists(archivoRotado);
+        } catch (IOException e) {
+            ultimoError = e;
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Reproducción
+    // ----------------------------------------------------------------------
+
+    /**
+     * Vuelve a aplicar sobre el registro la bitácora rotada (si quedó de una compactación
+     * interrumpida) y luego la bitácora, en ese orden. Se llama al iniciar, después de
+     * cargar la instantánea y antes de abrir la bitácora.
+     * @param archivo Ruta de la bitácora
+     * @param registro Registro sobre el que se aplican los cambios
+     * @return cantidad de registros leídos
+     * @throws IOException si falla la lectura
+     */
+    public static long reproducirTodo(Path archivo, RegistroContactos registro) throws IOException {
+        return reproducir(rotada(archivo), registro) + reproducir(archivo, registro);
+    }
+
+    /**
+     * Borra la bitácora rotada (si quedó de una compactación interrumpida) y la bitácora.
+     * Se llama después de guardar una instantánea completa del registro, con la bitácora
+     * cerrada. Si se corta en medio, lo que quede se salta al reproducir por su número.
+     * @param archivo Ruta de la bitácora
+     * @throws IOException si no se puede borrar
+     */
+    public static void borrar(Path archivo) throws IOException {
+        Files.deleteIfExists(rotada(archivo));
+        Files.deleteIfExists(archivo);
+    }
+
+    /**
+     * Devuelve la ruta a la que se rota la bitácora durante la compactación.
+     */
+    private static Path rotada(Path archivo) {
+        return archivo.resolveSibling(archivo.getFileName() + ".old");
+    }
+
+    /**
+     * Aplica los registros de una bitácora sobre el registro, hasta el final del archivo
+     * o hasta el primer registro incompleto o dañado. Se saltan los registros cuyo número no
+     * supera {@link RegistroContactos#getSecuencia()}: ese cambio ya está en el registro (por
+     * ejemplo, porque la instantánea se guardó después de anotarlo). Aplicarlos de nuevo no
+     * sería seguro: una baja seguida de un cambio de nombre que reutiliza el nombre borrado
+     * eliminaría al contacto renombrado.
+     * @param archivo Ruta de la bitácora (si no existe no hace nada)
+     * @param registro Registro sobre el que se aplican los cambios
+     * @return cantidad de registros leídos
+     * @throws IOException si falla la lectura
+     */
+    public static long reproducir(Path archivo, RegistroContactos registro) throws IOException {
+        if (!Files.exists(archivo)) {
+            return 0;
+        }
+        try (FileChannel lectura = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            LectorRegistros lector = new LectorRegistros(lectura);
+            long cantidad = 0;
+            String[] campos;
+            while ((campos = lector.siguiente()) != null) {
+                cantidad++;
+                if (lector.numero > 0 && lector.numero <= registro.getSecuencia()) {
+                    continue;  // Ya aplicado
+                }
+                if (lector.tipo == TIPO_CONTACTO && campos.length == 3) {
+                    registro.agregarContacto(campos[0], campos[1], campos[2]);
+                } else if (lector.tipo == TIPO_COLABORACION && campos.length == 2) {
+                    registro.agregarColaboracion(campos[0], campos[1]);
+                } else if (lector.tipo == TIPO_ELIMINAR_CONTACTO && campos.length == 1) {
+                    registro.eliminarContacto(campos[0]);
+                } else if (lector.tipo == TIPO_ELIMINAR_COLABORACION && campos.length == 2) {
+                    registro.eliminarColaboracion(campos[0], campos[1]);
+                } else if (lector.tipo == TIPO_ACTUALIZAR_CONTACTO && campos.length == 4) {
+                    registro.actualizarContacto(campos[0], campos[1], campos[2], campos[3]);
+                }
+                if (lector.numero > 0) {
+                    registro.setSecuencia(lector.numero);
+                }
+            }
+            return cantidad;
+        }
+    }
+
+    /**
+     * Impide compactaciones nuevas, detiene el group commit, espera la compactación en curso,
+     * vuelca lo pendiente con fsync y cierra el archivo. Al volver no queda ninguna tarea que
+     * pueda escribir la instantánea, así que quien cierra puede guardarla y borrar la bitácora.
+     * @throws IOException si falla la última escritura
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (candadoArchivo) {
+            if (cerrando) {
+                return;
+            }
+            cerrando = true;  // Desde aquí ni el group commit ni compactar() encolan otra combinación
+            umbralCompactacion = 0;
+        }
+        planificador.shutdown();
+        esperarTerminacion(planificador);  // Un fsync periódico en curso termina antes de seguir
+        try {
+            compactacion.join();
+        } catch (RuntimeException e) {
+            // El error ya quedó en ultimoError; la bitácora rotada se conserva para el próximo inicio
+        }
+        compactador.shutdown();
+        esperarTerminacion(compactador);
+        synchronized (candadoArchivo) {
+            escribirPendientes(true);
+            cerrada = true;
+            canal.close();
+        }
+    }
+
+    /**
+     * Espera a que un ejecutor ya detenido termine sus tareas; si se interrumpe, sigue
+     * esperando y restablece la marca de interrupción al final.
+     */
+    private static void esperarTerminacion(ExecutorService ejecutor) {
+        boolean interrumpido = false;
+        while (true) {
+            try {
+                if (ejecutor.awaitTermination(1, TimeUnit.SECONDS)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrumpido = true;
+            }
+        }
+        if (interrumpido) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Devuelve el último error ocurrido en segundo plano (fsync o compactación).
+     * @return error, o null si no hubo
+     */
+    public IOException getUltimoError() {
+        return ultimoError;
+    }
+
+    /**
+     * Devuelve el tamaño actual de la bitácora en disco, sin contar lo pendiente.
+     * @return tamaño en bytes
+     * @throws IOException si no se puede consultar
+     */
+    public long getTamanio() throws IOException {
+        synchronized (candadoArchivo) {
+            return canal.size();
+        }
+    }
+
+    /**
+     * Abre la bitácora para agregar, recortando un final incompleto o dañado.
+     */
+    private static FileChannel abrirParaAgregar(Path archivo) throws IOException {
+        FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        LectorRegistros lector = new LectorRegistros(canal);
+        while (lector.siguiente() != null) {
+            // Solo se busca el final del último registro válido
+        }
+        if (lector.finValido < canal.size()) {
+            canal.truncate(lector.finValido);
+        }
+        canal.position(lector.finValido);
+        return canal;
+    }
+
+    private static Thread hiloDemonio(Runnable tarea, String nombre) {
+        Thread hilo = new Thread(tarea, nombre);
+        hilo.setDaemon(true);
+        return hilo;
+    }
+
+    private static ByteBuffer nuevoBufer(int capacidad) {
+        return ByteBuffer.allocate(capacidad).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static int crc(ByteBuffer bufer, int inicio, int largo) {
+        CRC32 crc = new CRC32();
+        crc.update(bufer.array(), bufer.arrayOffset() + inicio, largo);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Lectura secuencial de registros validando largo y CRC.
+     */
+    private static final class LectorRegistros {
+        private final FileChannel canal;
+        private ByteBuffer bufer = nuevoBufer(64 * 1024);
+        // Posición en el archivo donde termina el último registro válido
+        long finValido;
+        // Tipo y número de cambio del último registro leído (número 0 si no lo tiene)
+        byte tipo;
+        long numero;
+
+        LectorRegistros(FileChannel canal) throws IOException {
+            this.canal = canal;
+            canal.position(0);
+            bufer.flip();
+        }
+
+        /**
+         * Lee el siguiente registro.
+         * @return sus campos, o null al final del archivo o ante un registro inválido
+         */
+        String[] siguiente() throws IOException {
+            if (!asegurar(8)) {
+                return null;
+            }
+            int inicio = bufer.position();
+            int largo = bufer.getInt(inicio);
+            int esperado = bufer.getInt(inicio + 4);
+            if (largo < 1 || largo > (1 << 26) || !asegurar(8 + largo)) {
+                return null;
+            }
+            inicio = bufer.position();
+            if (crc(bufer, inicio + 8, largo) != esperado) {
+                return null;
+            }
+            bufer.position(inicio + 8);
+            tipo = bufer.get();
+            int fin = inicio + 8 + largo;
+            numero = 0;
+            if ((tipo & CON_SECUENCIA) != 0) {
+                if (fin - bufer.position() < Long.BYTES) {
+                    return null;
+                }
+                tipo &= ~CON_SECUENCIA;
+                numero = bufer.getLong();
+            }
+            String[] campos = new String[MAXIMO_CAMPOS];
+            int cantidad = 0;
+            while (bufer.position() < fin) {
+                if (fin - bufer.position() < 4) {
+                    return null;
+                }
+                int n = bufer.getInt();
+                if (n < 0 || n > fin - bufer.position() || cantidad == campos.length) {
+                    return null;
+                }
+                campos[cantidad++] = new String(bufer.array(), bufer.arrayOffset() + bufer.position(), n,
+                        StandardCharsets.UTF_8);
+                bufer.position(bufer.position() + n);
+            }
+            finValido += 8 + largo;
+            return (cantidad == campos.length) ? campos : Arrays.copyOf(campos, cantidad);
+        }
+
+        /**
+         * Garantiza que el búfer tenga al menos n bytes sin leer.
+         * @return false si el archivo termina antes
+         */
+        private boolean asegurar(int n) throws IOException {
+            if (bufer.remaining() >= n) {
+                return true;
+            }
+            if (bufer.capacity() < n) {
+                ByteBuffer mayor = nuevoBufer(Math.max(n, bufer.capacity() * 2));
+                mayor.put(bufer);
+                bufer = mayor;
+            } else {
+                bufer.compact();
+            }
+            while (bufer.position() < n) {
+                if (canal.read(bufer) < 0) {
+                    bufer.flip();
+                    return false;
+                }
+            }
+            bufer.flip();
+            return true;
+        }
+    }
+}
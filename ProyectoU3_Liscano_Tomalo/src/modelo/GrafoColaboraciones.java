@@ -1,91 +1,711 @@
-package modelo;
-
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.List;
-import java.util.ArrayList;
-
-/**
- * Clase que representa un grafo no dirigido para modelar colaboraciones entre contactos.
- * Cada contacto es un nodo, y las colaboraciones son las aristas.
- */
-public class GrafoColaboraciones {
-    // Mapa que asocia cada nodo (contacto) con un conjunto de nodos adyacentes (colaboradores)
-    private HashMap<NodoContacto, HashSet<NodoContacto>> adyacencias;
-
-    /**
-     * Constructor que inicializa el mapa de adyacencias vacío.
-     */
-    public GrafoColaboraciones() {
-        adyacencias = new HashMap<>();  // Inicializa el grafo sin nodos ni aristas
-    }
-
-    /**
-     * Agrega un nuevo contacto al grafo como nodo sin aristas.
-     * Si el contacto ya existe, no hace nada.
-     * 
-     * @param contacto NodoContacto a agregar
-     */
-    public void agregarContacto(NodoContacto contacto) {
-        adyacencias.putIfAbsent(contacto, new HashSet<>()); // Añade contacto si no existe aún
-    }
-
-    /**
-     * Agrega una colaboración (arista) entre dos contactos existentes en el grafo.
-     * La colaboración es bidireccional.
-     * 
-     * @param c1 Primer contacto
-     * @param c2 Segundo contacto
-     */
-    public void agregarColaboracion(NodoContacto c1, NodoContacto c2) {
-        if (adyacencias.containsKey(c1) && adyacencias.containsKey(c2)) {
-            adyacencias.get(c1).add(c2); // Agrega c2 a la lista de vecinos de c1
-            adyacencias.get(c2).add(c1); // Agrega c1 a la lista de vecinos de c2 (arista bidireccional)
-        }
-    }
-
-    /**
-     * Obtiene una representación textual de todas las colaboraciones del grafo.
-     * Por cada contacto, lista con quiénes colabora.
-     * 
-     * @return String con las colaboraciones formateadas
-     */
-    public String obtenerColaboracionesTexto() {
-        StringBuilder sb = new StringBuilder();
-        for (NodoContacto c : adyacencias.keySet()) {  // Para cada nodo en el grafo
-            sb.append(c.nombre).append(" colabora con: ");
-            for (NodoContacto colaborador : adyacencias.get(c)) { // Lista de colaboradores
-                sb.append(colaborador.nombre).append(", ");       // Agrega nombres separados por espacio
-            }
-            sb.append("\n");
-        }
-        return sb.toString();
-    }
-
-    // Métodos nuevos para la vista gráfica
-
-    /**
-     * Devuelve la lista de todos los contactos (nodos) en el grafo.
-     * 
-     * @return Listado de nodos
-     */
-    public List<NodoContacto> getContactos() {
-        return new ArrayList<>(adyacencias.keySet()); // Convierte el conjunto de claves a lista
-    }
-
-    /**
-     * Devuelve el conjunto de vecinos (contactos colaboradores) de un nodo dado.
-     * Si el nodo no existe, devuelve un conjunto vacío.
-     * 
-     * @param nodo NodoContacto del que se obtienen vecinos
-     * @return Conjunto de vecinos
-     */
-    public Set<NodoContacto> getVecinos(NodoContacto nodo) {
-        return adyacencias.getOrDefault(nodo, new HashSet<>()); // Retorna vecinos o vacío si no existe
-    }
-    
-    public void limpiar() {
-        adyacencias.clear();
-    }
-}
+package modelo;
+
+import metricas.MetricasModelo;
+import metricas.OperacionModelo;
+
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/**
+ * Clase que representa un grafo no dirigido para modelar colaboraciones entre contactos.
+ * Cada contacto es un nodo, y las colaboraciones son las aristas.
+ * Cada contacto recibe un id entero denso (0, 1, 2, ...) y las adyacencias se guardan
+ * en arreglos de int que crecen por vértice; para las fases de solo lectura se puede
+ * obtener una instantánea compacta en formato CSR (ver {@link AdyacenciaCSR}).
+ * Al eliminar un contacto los ids siguen siendo densos: el último vértice pasa a ocupar el id
+ * que quedó libre, así que un id solo identifica a un contacto hasta la siguiente baja
+ * (ver {@link #getVersion()}).
+ * En modo concurrente las altas y bajas se serializan con un StampedLock; las consultas de grado y
+ * de vecinos leen de forma optimista (sin bloquear) y copian el resultado, y la instantánea
+ * CSR, inmutable, se comparte entre todos los hilos lectores.
+ */
+public class GrafoColaboraciones {
+    // Capacidad inicial de los arreglos de vértices
+    private static final int CAPACIDAD_INICIAL = 16;
+    // Arreglo compartido por los vértices que aún no tienen vecinos
+    private static final int[] SIN_VECINOS = new int[0];
+
+    // Id denso asignado a cada contacto
+    private Map<NodoContacto, Integer> ids;
+    // Contacto correspondiente a cada id
+    private NodoContacto[] contactos;
+    // Ids de los vecinos de cada vértice (buffer creciente, solo se usan los primeros grados[v])
+    private int[][] vecinos;
+    // Cantidad de vecinos de cada vértice
+    private int[] grados;
+    // Vistas de vecinos ya entregadas, para no crear una nueva en cada llamada
+    private VistaVecinos[] vistas;
+    // Cantidad de vértices y de colaboraciones
+    private volatile int numVertices;
+    private volatile long numAristas;
+    // Contador de modificaciones, cambia con cada alta o baja de vértice o arista
+    private volatile int version;
+    // Instantánea CSR vigente (null si el grafo cambió desde la última)
+    private volatile AdyacenciaCSR csr;
+    // Candado del modo concurrente (null si el grafo se usa desde un solo hilo)
+    private final StampedLock candado;
+    // Vista de solo lectura de los contactos, sin copias
+    private final List<NodoContacto> vistaContactos = new AbstractList<NodoContacto>() {
+        @Override
+        public NodoContacto get(int indice) {
+            if (indice < 0 || indice >= numVertices) {
+                throw new IndexOutOfBoundsException("Índice: " + indice);
+            }
+            return contactos[indice];
+        }
+
+        @Override
+        public int size() {
+            return numVertices;
+        }
+    };
+
+    /**
+     * Constructor que inicializa el grafo vacío.
+     */
+    public GrafoColaboraciones() {
+        this(false);
+    }
+
+    /**
+     * Constructor que inicializa el grafo vacío.
+     * @param concurrente true para admitir consultas desde varios hilos mientras otro agrega
+     */
+    public GrafoColaboraciones(boolean concurrente) {
+        candado = concurrente ? new StampedLock() : null;
+        limpiar();  // Inicializa el grafo sin nodos ni aristas
+    }
+
+    /**
+     * Agrega un nuevo contacto al grafo como nodo sin aristas.
+     * Si el contacto ya existe, no hace nada.
+     *
+     * @param contacto NodoContacto a agregar
+     */
+    public void agregarContacto(NodoContacto contacto) {
+        long inicio = MetricasModelo.inicio();
+        long sello = bloquearEscritura();
+        try {
+            agregarVertice(contacto);
+        } finally {
+            desbloquearEscritura(sello);
+            MetricasModelo.registrar(OperacionModelo.GRAFO_AGREGAR_CONTACTO, inicio);
+        }
+    }
+
+    private void agregarVertice(NodoContacto contacto) {
+        if (ids.containsKey(contacto)) {
+            return;  // El contacto ya es un vértice
+        }
+        if (numVertices == contactos.length) {
+            int capacidad = contactos.length * 2;  // Crecer al doble
+            contactos = Arrays.copyOf(contactos, capacidad);
+            vecinos = Arrays.copyOf(vecinos, capacidad);
+            grados = Arrays.copyOf(grados, capacidad);
+            vistas = Arrays.copyOf(vistas, capacidad);
+        }
+        int id = numVertices;
+        contactos[id] = contacto;
+        vecinos[id] = SIN_VECINOS;
+        numVertices = id + 1;  // Se publica el vértice ya inicializado
+        ids.put(contacto, id);
+        modificado();
+    }
+
+    /**
+     * Agrega una colaboración (arista) entre dos contactos existentes en el grafo.
+     * La colaboración es bidireccional y no se repite si ya existía.
+     *
+     * @param c1 Primer contacto
+     * @param c2 Segundo contacto
+     * @return true si la colaboración se agregó, false si algún contacto no está o ya colaboraban
+     */
+    public boolean agregarColaboracion(NodoContacto c1, NodoContacto c2) {
+        long inicio = MetricasModelo.inicio();
+        long sello = bloquearEscritura();
+        try {
+            int id1 = obtenerId(c1);
+            int id2 = obtenerId(c2);
+            if (id1 < 0 || id2 < 0 || sonVecinos(id1, id2)) {
+                return false;  // Algún contacto no existe o la colaboración ya estaba registrada
+            }
+            agregarVecino(id1, id2);      // Agrega c2 a los vecinos de c1
+            if (id1 != id2) {
+                agregarVecino(id2, id1);  // Agrega c1 a los vecinos de c2 (arista bidireccional)
+            }
+            numAristas++;
+            modificado();
+            return true;
+        } finally {
+            desbloquearEscritura(sello);
+            MetricasModelo.registrar(OperacionModelo.GRAFO_AGREGAR_COLABORACION, inicio);
+        }
+    }
+
+    /**
+     * Indica si dos contactos del grafo colaboran, revisando los vecinos del de menor grado.
+     * @param c1 Primer contacto
+     * @param c2 Segundo contacto
+     * @return true si ambos están en el grafo y colaboran
+     */
+    public boolean sonColaboradores(NodoContacto c1, NodoContacto c2) {
+        long sello = bloquearLectura();
+        try {
+            int id1 = obtenerId(c1);
+            int id2 = obtenerId(c2);
+            return id1 >= 0 && id2 >= 0 && sonVecinos(id1, id2);
+        } finally {
+            desbloquearLectura(sello);
+        }
+    }
+
+    /**
+     * Agrega una colaboración entre dos ids sin revisar si ya existía.
+     * Lo usa la carga masiva, que garantiza que cada arista llega una sola vez.
+     * @param id1 Id del primer contacto
+     * @param id2 Id del segundo contacto
+     */
+    void agregarColaboracionNueva(int id1, int id2) {
+        long sello = bloquearEscritura();
+        try {
+            agregarVecino(id1, id2);
+            if (id1 != id2) {
+                agregarVecino(id2, id1);
+            }
+            numAristas++;
+            modificado();
+        } finally {
+            desbloquearEscritura(sello);
+        }
+    }
+
+    /**
+     * Elimina la colaboración entre dos contactos, en O(grado) de cada uno.
+     *
+     * @param c1 Primer contacto
+     * @param c2 Segundo contacto
+     * @return true si la colaboración existía
+     */
+    public boolean eliminarColaboracion(NodoContacto c1, NodoContacto c2) {
+        long inicio = MetricasModelo.inicio();
+        long sello = bloquearEscritura();
+        try {
+            int id1 = obtenerId(c1);
+            int id2 = obtenerId(c2);
+            if (id1 < 0 || id2 < 0 || !quitarVecino(id1, id2)) {
+                return false;  // Algún contacto no existe o no colaboraban
+            }
+            if (id1 != id2) {
+                quitarVecino(id2, id1);
+            }
+            numAristas--;
+            modificado();
+            return true;
+        } finally {
+            desbloquearEscritura(sello);
+            MetricasModelo.registrar(OperacionModelo.GRAFO_ELIMINAR_COLABORACION, inicio);
+        }
+    }
+
+    /**
+     * Elimina un contacto y todas sus colaboraciones. Para que los ids sigan siendo densos,
+     * el contacto con el último id pasa a ocupar el id liberado y se renumera en las filas de
+     * sus vecinos. El costo es proporcional a los grados de ambos vértices y de sus vecinos,
+     * sin recorrer el resto del grafo.
+     *
+     * @param contacto Contacto a eliminar
+     * @return true si el contacto estaba en el grafo
+     */
+    public boolean eliminarContacto(NodoContacto contacto) {
+        long inicio = MetricasModelo.inicio();
+        long sello = bloquearEscritura();
+        try {
+            int id = obtenerId(contacto);
+            if (id < 0) {
+                return false;
+            }
+            int[] fila = vecinos[id];
+            int grado = grados[id];
+            for (int i = 0; i < grado; i++) {
+                if (fila[i] != id) {
+                    quitarVecino(fila[i], id);  // Cada vecino deja de apuntarle
+                }
+            }
+            numAristas -= grado;  // Un lazo ocupa una sola entrada de la fila
+            if (vistas[id] != null) {
+                vistas[id].id = -1;  // Las vistas ya entregadas quedan vacías
+            }
+            int ultimo = numVertices - 1;
+            if (id != ultimo) {
+                NodoContacto movido = contactos[ultimo];
+                int[] filaMovido = vecinos[ultimo];
+                for (int i = 0, n = grados[ultimo]; i < n; i++) {
+                    if (filaMovido[i] == ultimo) {
+                        filaMovido[i] = id;  // Lazo del vértice movido
+                    } else {
+                        reemplazarVecino(filaMovido[i], ultimo, id);
+                    }
+                }
+                contactos[id] = movido;
+                vecinos[id] = filaMovido;
+                grados[id] = grados[ultimo];
+                vistas[id] = vistas[ultimo];
+                if (vistas[id] != null) {
+                    vistas[id].id = id;
+                }
+                ids.put(movido, id);
+            }
+            contactos[ultimo] = null;
+            vecinos[ultimo] = SIN_VECINOS;
+            grados[ultimo] = 0;
+            vistas[ultimo] = null;
+            numVertices = ultimo;
+            ids.remove(contacto);
+            modificado();
+            return true;
+        } finally {
+            desbloquearEscritura(sello);
+            MetricasModelo.registrar(OperacionModelo.GRAFO_ELIMINAR_CONTACTO, inicio);
+        }
+    }
+
+    /**
+     * Obtiene una representación textual de todas las colaboraciones del grafo.
+     * Por cada contacto, lista con quiénes colabora.
+     *
+     * @return String con las colaboraciones formateadas
+     */
+    public String obtenerColaboracionesTexto() {
+        StringBuilder sb = new StringBuilder();
+        long inicio = MetricasModelo.inicio();
+        long sello = bloquearLectura();
+        try {
+            for (int v = 0; v < numVertices; v++) {  // Para cada nodo en el grafo
+                sb.append(contactos[v].getNombre()).append(" colabora con: ");
+                int[] fila = vecinos[v];
+                for (int i = 0; i < grados[v]; i++) {  // Lista de colaboradores
+                    sb.append(contactos[fila[i]].getNombre()).append(", ");
+                }
+                sb.append("\n");
+            }
+        } finally {
+            desbloquearLectura(sello);
+            MetricasModelo.registrar(OperacionModelo.GRAFO_TEXTO, inicio);
+        }
+        return sb.toString();
+    }
+
+    // Métodos nuevos para la vista gráfica
+
+    /**
+     * Devuelve la lista de todos los contactos (nodos) en el grafo, en orden de id.
+     * Es una vista de solo lectura que refleja los cambios del grafo; no se copia en cada llamada.
+     *
+     * @return Listado de nodos
+     */
+    public List<NodoContacto> getContactos() {
+        return vistaContactos;
+    }
+
+    /**
+     * Devuelve el conjunto de vecinos (contactos colaboradores) de un nodo dado.
+     * Si el nodo no existe, devuelve un conjunto vacío.
+     * Es una vista de solo lectura sobre el arreglo de adyacencias; se crea una vez por vértice.
+     * En modo concurrente devuelve en cambio un conjunto de solo lectura sobre una copia de los
+     * vecinos tomada de forma consistente (solo se copia el arreglo). Para recorrerlos sin
+     * copiar ver {@link #recorrerVecinos(NodoContacto, Consumer)}.
+     *
+     * @param nodo NodoContacto del que se obtienen vecinos
+     * @return Conjunto de vecinos
+     */
+    public Set<NodoContacto> getVecinos(NodoContacto nodo) {
+        long inicio = MetricasModelo.inicio();
+        try {
+            return vecinosDe(nodo);
+        } finally {
+            MetricasModelo.registrar(OperacionModelo.GRAFO_VECINOS, inicio);
+        }
+    }
+
+    private Set<NodoContacto> vecinosDe(NodoContacto nodo) {
+        if (candado != null) {
+            return new CopiaVecinos(copiarVecinos(nodo));
+        }
+        int id = obtenerId(nodo);
+        if (id < 0) {
+            return Collections.emptySet();  // Nodo inexistente
+        }
+        VistaVecinos vista = vistas[id];
+        if (vista == null) {
+            vista = new VistaVecinos(id);
+            vistas[id] = vista;
+        }
+        return vista;
+    }
+
+    /**
+     * Aplica una acción a cada vecino de un nodo sin copiar las adyacencias. En modo
+     * concurrente la acción se ejecuta con el candado de lectura tomado, así que debe ser
+     * breve y no modificar el grafo; para algo más largo (escribir a la red, por ejemplo)
+     * conviene {@link #getVecinos(NodoContacto)}.
+     * @param nodo Contacto del que se recorren los vecinos
+     * @param accion Acción a aplicar a cada vecino
+     * @return cantidad de vecinos recorridos, 0 si el nodo no está en el grafo
+     */
+    public int recorrerVecinos(NodoContacto nodo, Consumer<NodoContacto> accion) {
+        long inicio = MetricasModelo.inicio();
+        long sello = bloquearLectura();
+        try {
+            int id = obtenerId(nodo);
+            if (id < 0) {
+                return 0;
+            }
+            int[] fila = vecinos[id];
+            int grado = grados[id];
+            for (int i = 0; i < grado; i++) {
+                accion.accept(contactos[fila[i]]);
+            }
+            return grado;
+        } finally {
+            desbloquearLectura(sello);
+            MetricasModelo.registrar(OperacionModelo.GRAFO_VECINOS, inicio);
+        }
+    }
+
+    /**
+     * Devuelve el id denso de un contacto.
+     * @param contacto Contacto a consultar
+     * @return id entre 0 y getNumVertices() - 1, o -1 si no está en el grafo
+     */
+    public int obtenerId(NodoContacto contacto) {
+        Integer id = ids.get(contacto);
+        return (id != null) ? id : -1;
+    }
+
+    /**
+     * Devuelve el contacto asociado a un id.
+     * @param id Id del vértice
+     * @return contacto, o null si el id quedó libre por una baja
+     */
+    public NodoContacto getContacto(int id) {
+        return contactos[id];
+    }
+
+    /**
+     * Devuelve la cantidad de colaboradores de un contacto.
+     * @param contacto Contacto a consultar
+     * @return grado del contacto, o 0 si no está en el grafo
+     */
+    public int getGrado(NodoContacto contacto) {
+        if (candado == null) {
+            int id = obtenerId(contacto);
+            return (id >= 0) ? grados[id] : 0;
+        }
+        long sello = candado.tryOptimisticRead();
+        int id = obtenerId(contacto);  // Dentro de la lectura: una baja puede renumerar
+        int[] actuales = grados;
+        int grado = (id >= 0 && id < actuales.length) ? actuales[id] : 0;
+        if (candado.validate(sello)) {
+            return grado;
+        }
+        sello = candado.readLock();
+        try {
+            id = obtenerId(contacto);
+            return (id >= 0) ? grados[id] : 0;
+        } finally {
+            candado.unlockRead(sello);
+        }
+    }
+
+    /**
+     * Copia los vecinos de un vértice. Primero intenta sin bloquear y valida que ninguna
+     * escritura se haya cruzado; si hubo una, repite la copia con el candado de lectura.
+     */
+    private NodoContacto[] copiarVecinos(NodoContacto nodo) {
+        long sello = candado.tryOptimisticRead();
+        if (sello != 0) {
+            try {
+                NodoContacto[] copia = copiarVecinosSinCandado(nodo);
+                if (candado.validate(sello)) {
+                    return copia;
+                }
+            } catch (RuntimeException e) {
+                // Se leyó un estado intermedio de una escritura; se reintenta con candado
+            }
+        }
+        sello = candado.readLock();
+        try {
+            return copiarVecinosSinCandado(nodo);
+        } finally {
+            candado.unlockRead(sello);
+        }
+    }
+
+    private NodoContacto[] copiarVecinosSinCandado(NodoContacto nodo) {
+        int id = obtenerId(nodo);  // Se lee junto con la fila: una baja puede renumerar
+        if (id < 0) {
+            return new NodoContacto[0];
+        }
+        int[] fila = vecinos[id];
+        NodoContacto[] todos = contactos;
+        NodoContacto[] copia = new NodoContacto[Math.min(grados[id], fila.length)];
+        for (int i = 0; i < copia.length; i++) {
+            copia[i] = todos[fila[i]];
+        }
+        return copia;
+    }
+
+    /**
+     * Devuelve la cantidad de vértices del grafo.
+     * @return número de contactos
+     */
+    public int getNumVertices() {
+        return numVertices;
+    }
+
+    /**
+     * Devuelve la cantidad de colaboraciones (aristas no dirigidas) del grafo.
+     * @return número de colaboraciones
+     */
+    public long getNumAristas() {
+        return numAristas;
+    }
+
+    /**
+     * Devuelve un contador que cambia cada vez que se modifica el grafo.
+     * Permite a quien guarde datos derivados saber si siguen vigentes.
+     * @return versión actual
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Devuelve una instantánea CSR del grafo, con las filas ordenadas por id.
+     * Se construye en O(V + E) y se reutiliza hasta la siguiente modificación.
+     * @return instantánea inmutable de las adyacencias
+     */
+    public AdyacenciaCSR obtenerSnapshotCSR() {
+        AdyacenciaCSR actual = csr;
+        if (actual != null) {
+            return actual;
+        }
+        long inicio = MetricasModelo.inicio();
+        long sello = bloquearLectura();
+        try {
+            return construirSnapshotCSR();
+        } finally {
+            desbloquearLectura(sello);
+            MetricasModelo.registrar(OperacionModelo.GRAFO_CSR, inicio);
+        }
+    }
+
+    private AdyacenciaCSR construirSnapshotCSR() {
+        if (csr == null) {
+            int[] desplazamientos = new int[numVertices + 1];
+            for (int v = 0; v < numVertices; v++) {
+                desplazamientos[v + 1] = desplazamientos[v] + grados[v];
+            }
+            int[] destinos = new int[desplazamientos[numVertices]];
+            for (int v = 0; v < numVertices; v++) {
+                System.arraycopy(vecinos[v], 0, destinos, desplazamientos[v], grados[v]);
+                Arrays.sort(destinos, desplazamientos[v], desplazamientos[v + 1]);  // Filas ordenadas
+            }
+            csr = new AdyacenciaCSR(numVertices, desplazamientos, destinos,
+                    Arrays.copyOf(contactos, numVertices));
+        }
+        return csr;
+    }
+
+    public void limpiar() {
+        long sello = bloquearEscritura();
+        try {
+            reiniciar();
+        } finally {
+            desbloquearEscritura(sello);
+        }
+    }
+
+    private void reiniciar() {
+        ids = (candado != null) ? new ConcurrentHashMap<>() : new HashMap<>();
+        contactos = new NodoContacto[CAPACIDAD_INICIAL];
+        vecinos = new int[CAPACIDAD_INICIAL][];
+        grados = new int[CAPACIDAD_INICIAL];
+        vistas = new VistaVecinos[CAPACIDAD_INICIAL];
+        numVertices = 0;
+        numAristas = 0;
+        modificado();
+    }
+
+    // Candado del modo concurrente (no hace nada en modo de un solo hilo)
+
+    private long bloquearLectura() {
+        return (candado != null) ? candado.readLock() : 0;
+    }
+
+    private void desbloquearLectura(long sello) {
+        if (candado != null) {
+            candado.unlockRead(sello);
+        }
+    }
+
+    private long bloquearEscritura() {
+        return (candado != null) ? candado.writeLock() : 0;
+    }
+
+    private void desbloquearEscritura(long sello) {
+        if (candado != null) {
+            candado.unlockWrite(sello);
+        }
+    }
+
+    /**
+     * Indica si dos vértices ya colaboran, revisando la lista del de menor grado.
+     */
+    private boolean sonVecinos(int id1, int id2) {
+        if (grados[id1] > grados[id2]) {
+            int t = id1;
+            id1 = id2;
+            id2 = t;
+        }
+        int[] fila = vecinos[id1];
+        for (int i = 0, n = grados[id1]; i < n; i++) {
+            if (fila[i] == id2) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Agrega un vecino al final del buffer de un vértice, haciéndolo crecer si hace falta.
+     */
+    private void agregarVecino(int id, int vecino) {
+        int[] fila = vecinos[id];
+        int grado = grados[id];
+        if (grado == fila.length) {
+            fila = Arrays.copyOf(fila, Math.max(4, grado * 2));
+            vecinos[id] = fila;
+        }
+        fila[grado] = vecino;
+        grados[id] = grado + 1;
+    }
+
+    /**
+     * Quita un vecino de la fila de un vértice moviendo el último a su lugar (el orden de las
+     * filas no importa).
+     * @return false si no eran vecinos
+     */
+    private boolean quitarVecino(int id, int vecino) {
+        int[] fila = vecinos[id];
+        int grado = grados[id];
+        for (int i = 0; i < grado; i++) {
+            if (fila[i] == vecino) {
+                fila[i] = fila[grado - 1];
+                grados[id] = grado - 1;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Cambia, en la fila de un vértice, el id de un vecino que fue renumerado.
+     */
+    private void reemplazarVecino(int id, int anterior, int nuevo) {
+        int[] fila = vecinos[id];
+        for (int i = 0, n = grados[id]; i < n; i++) {
+            if (fila[i] == anterior) {
+                fila[i] = nuevo;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Registra una modificación e invalida la instantánea CSR.
+     */
+    private void modificado() {
+        version++;
+        csr = null;
+    }
+
+    /**
+     * Conjunto de solo lectura sobre una copia de los vecinos (sin repetidos, porque el grafo
+     * no guarda aristas dobles). Lo entrega getVecinos en modo concurrente.
+     */
+    private static final class CopiaVecinos extends AbstractSet<NodoContacto> {
+        private final NodoContacto[] vecinos;
+
+        CopiaVecinos(NodoContacto[] vecinos) {
+            this.vecinos = vecinos;
+        }
+
+        @Override
+        public int size() {
+            return vecinos.length;
+        }
+
+        @Override
+        public Iterator<NodoContacto> iterator() {
+            return Arrays.asList(vecinos).iterator();  // remove() no está soportado
+        }
+    }
+
+    /**
+     * Conjunto de solo lectura con los vecinos de un vértice, leído directamente del buffer.
+     */
+    private final class VistaVecinos extends AbstractSet<NodoContacto> {
+        // Id del vértice cuyos vecinos se muestran; cambia si el vértice se renumera y es -1 si se eliminó
+        private int id;
+
+        VistaVecinos(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public int size() {
+            return (id >= 0) ? grados[id] : 0;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof NodoContacto)) {
+                return false;
+            }
+            int otro = obtenerId((NodoContacto) o);
+            return id >= 0 && otro >= 0 && sonVecinos(id, otro);
+        }
+
+        @Override
+        public Iterator<NodoContacto> iterator() {
+            return new Iterator<NodoContacto>() {
+                private int posicion = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return id >= 0 && posicion < grados[id];
+                }
+
+                @Override
+                public NodoContacto next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return contactos[vecinos[id][posicion++]];
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package modelo;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Carga masiva de contactos y colaboraciones desde archivos CSV.
+ * Los archivos se leen en bloques con un búfer fijo y se procesan por lotes de filas,
+ * sin cargar nunca el archivo completo en memoria.
+ * - Contactos: una fila por contacto con "nombre,telefono,correo" (teléfono y correo opcionales).
+ * - Colaboraciones: una fila por arista con "nombre1,nombre2".
+ * Los campos pueden ir entre comillas dobles ("Perez, Ana"). Una primera fila cuyo primer campo
+ * sea "nombre" se toma como encabezado. Si los contactos vienen ordenados por nombre y el árbol
+ * está vacío, el árbol se construye al final de una vez en O(n) en lugar de insertar uno por uno.
+ * Entre lotes se informa el avance a un {@link Seguimiento}, que puede detener la importación.
+ */
+public class ImportadorCSV {
+    // Cantidad de filas que se procesan juntas
+    public static final int TAMANIO_LOTE = 4096;
+
+    // Registro donde se insertan los datos
+    private final RegistroContactos registro;
+    // Destinatario del avance (puede ser null)
+    private Seguimiento seguimiento;
+
+    /**
+     * Recibe el avance de una importación después de cada lote.
+     */
+    public interface Seguimiento {
+        /**
+         * Informa cuánto se leyó hasta ahora.
+         * @param caracteresLeidos Caracteres leídos de la entrada
+         * @return false para detener la importación (lo ya procesado se conserva)
+         */
+        boolean continuar(long caracteresLeidos);
+    }
+
+    /**
+     * Constructor que asocia el importador a un registro de contactos.
+     * @param registro Registro que mantiene la lista, el árbol y el grafo
+     */
+    public ImportadorCSV(RegistroContactos registro) {
+        this.registro = registro;
+    }
+
+    /**
+     * Establece quién recibe el avance de las importaciones.
+     * @param seguimiento Destinatario del avance, o null para ninguno
+     */
+    public void setSeguimiento(Seguimiento seguimiento) {
+        this.seguimiento = seguimiento;
+    }
+
+    /**
+     * Importa contactos desde un archivo CSV en UTF-8.
+     * @param archivo Ruta del archivo
+     * @return resumen de la importación
+     * @throws IOException si no se puede leer el archivo
+     */
+    public ResultadoImportacion importarContactos(Path archivo) throws IOException {
+        try (Reader lector = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            return importarContactos(lector);
+        }
+    }
+
+    /**
+     * Importa contactos leyendo filas CSV de un Reader (que no se cierra).
+     * @param entrada Origen de los datos
+     * @return resumen de la importación
+     * @throws IOException si falla la lectura
+     */
+    public ResultadoImportacion importarContactos(Reader entrada) throws IOException {
+        long inicio = System.nanoTime();
+        ResultadoImportacion resultado = new ResultadoImportacion();
+        ArbolBinarioContactos arbol = registro.getArbol();
+        // Mientras la entrada venga ordenada y el árbol estuviera vacío, se difiere su construcción.
+        // En modo concurrente no: cada contacto debe quedar visible en todas las estructuras a la vez.
+        CargaArbol carga = new CargaArbol(arbol.getTamanio() == 0 && !registro.esConcurrente());
+
+        LectorCSV lector = new LectorCSV(entrada);
+        String[][] lote = new String[TAMANIO_LOTE][];
+        long numeroFila = 0;
+        int enLote;
+        try {
+            do {
+                enLote = 0;
+                String[] fila;
+                while (enLote < TAMANIO_LOTE && (fila = lector.siguienteFila()) != null) {
+                    lote[enLote++] = fila;
+                }
+                registro.bloquearEscritura();  // Un solo candado por lote, no por fila
+                try {
+                    for (int i = 0; i < enLote; i++) {
+                        numeroFila++;
+                        procesarContacto(lote[i], numeroFila, resultado, carga);
+                        lote[i] = null;
+                    }
+                } finally {
+                    registro.desbloquearEscritura();
+                }
+            } while (enLote == TAMANIO_LOTE && continuar(lector, resultado));
+        } finally {
+            // Aunque la lectura falle o se cancele, lo ya registrado en la lista debe quedar en el árbol
+            carga.terminar(arbol);
+        }
+        resultado.setDuracionNanos(System.nanoTime() - inicio);
+        return resultado;
+    }
+
+    /**
+     * Importa colaboraciones desde un archivo CSV en UTF-8 (lista de aristas).
+     * @param archivo Ruta del archivo
+     * @return resumen de la importación
+     * @throws IOException si no se puede leer el archivo
+     */
+    public ResultadoImportacion importarColaboraciones(Path archivo) throws IOException {
+        try (Reader lector = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            return importarColaboraciones(lector);
+        }
+    }
+
+    /**
+     * Importa colaboraciones leyendo filas "nombre1,nombre2" de un Reader (que no se cierra).
+     * Ambos contactos deben estar registrados.
+     * @param entrada Origen de los datos
+     * @return resumen de la importación
+     * @throws IOException si falla la lectura
+     */
+    public ResultadoImportacion importarColaboraciones(Reader entrada) throws IOException {
+        long inicio = System.nanoTime();
+        ResultadoImportacion resultado = new ResultadoImportacion();
+        LectorCSV lector = new LectorCSV(entrada);
+        String[][] lote = new String[TAMANIO_LOTE][];
+        long numeroFila = 0;
+        int enLote;
+        do {
+            enLote = 0;
+            String[] fila;
+            while (enLote < TAMANIO_LOTE && (fila = lector.siguienteFila()) != null) {
+                lote[enLote++] = fila;
+            }
+            registro.bloquearEscritura();  // Un solo candado por lote, como en los contactos
+            try {
+                for (int i = 0; i < enLote; i++) {
+                    numeroFila++;
+                    procesarColaboracion(lote[i], numeroFila, resultado);
+                    lote[i] = null;
+                }
+            } finally {
+                registro.desbloquearEscritura();
+            }
+        } while (enLote == TAMANIO_LOTE && continuar(lector, resultado));
+        resultado.setDuracionNanos(System.nanoTime() - inicio);
+        return resultado;
+    }
+
+    /**
+     * Valida una fila de colaboración y la registra; quien llama tiene el candado de altas.
+     */
+    private void procesarColaboracion(String[] campos, long numeroFila, ResultadoImportacion resultado) {
+        if (esFilaVacia(campos) || (numeroFila == 1 && esEncabezado(campos))) {
+            return;
+        }
+        if (campos.length != 2) {
+            resultado.rechazar(numeroFila, "se esperaban 2 campos y hay " + campos.length);
+            return;
+        }
+        NodoContacto c1 = registro.buscar(campos[0].trim());
+        NodoContacto c2 = registro.buscar(campos[1].trim());
+        if (c1 == null || c2 == null) {
+            resultado.rechazar(numeroFila, "contacto no registrado: "
+                    + (c1 == null ? campos[0].trim() : campos[1].trim()));
+        } else if (c1 == c2) {
+            resultado.rechazar(numeroFila, "un contacto no puede colaborar consigo mismo");
+        } else {
+            registro.agregarColaboracion(c1, c2);  // Reentrante: ya se tiene el candado del lote
+            resultado.aceptar();
+        }
+    }
+
+    /**
+     * Valida una fila de contacto y la registra.
+     */
+    private void procesarContacto(String[] campos, long numeroFila, ResultadoImportacion resultado, CargaArbol carga) {
+        if (esFilaVacia(campos) || (numeroFila == 1 && esEncabezado(campos))) {
+            return;
+        }
+        if (campos.length > 3) {
+            resultado.rechazar(numeroFila, "se esperaban como máximo 3 campos y hay " + campos.length);
+            return;
+        }
+        String nombre = campos[0].trim();
+        String telefono = (campos.length > 1) ? campos[1].trim() : "";
+        String correo = (campos.length > 2) ? campos[2].trim() : "";
+        if (nombre.isEmpty()) {
+            resultado.rechazar(numeroFila, "el nombre es obligatorio");
+            return;
+        }
+        String conflicto = registro.verificarDuplicados(nombre, telefono, correo);
+        if (conflicto != null) {
+            resultado.rechazar(numeroFila, conflicto);
+            return;
+        }
+        NodoContacto nuevo = registro.registrar(nombre, telefono, correo, false);
+        carga.agregar(nuevo, registro.getArbol());
+        resultado.aceptar();
+    }
+
+    /**
+     * Informa el avance al seguimiento y decide si se lee otro lote.
+     */
+    private boolean continuar(LectorCSV lector, ResultadoImportacion resultado) {
+        if (seguimiento == null || seguimiento.continuar(lector.caracteresLeidos)) {
+            return true;
+        }
+        resultado.interrumpir();
+        return false;
+    }
+
+    private static boolean esFilaVacia(String[] campos) {
+        for (String campo : campos) {
+            if (!campo.trim().isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean esEncabezado(String[] campos) {
+        return campos[0].trim().equalsIgnoreCase("nombre");
+    }
+
+    /**
+     * Decide cómo llegan los contactos importados al árbol: mientras vengan en orden y el árbol
+     * estuviera vacío, se acumulan para construirlo al final en O(n); en cuanto aparece uno fuera
+     * de orden, se insertan los acumulados y se sigue insertando uno por uno.
+     */
+    private static final class CargaArbol {
+        private boolean diferida;
+        private NodoContacto[] pendientes = new NodoContacto[0];
+        private int cantidad;
+
+        CargaArbol(boolean diferida) {
+            this.diferida = diferida;
+        }
+
+        void agregar(NodoContacto contacto, ArbolBinarioContactos arbol) {
+            if (diferida && cantidad > 0
+                    && ArbolBinarioContactos.compararNombres(pendientes[cantidad - 1].getNombre(), contacto.getNombre()) >= 0) {
+                // Se rompió el orden: volcar lo acumulado y seguir con inserciones normales
+                for (int i = 0; i < cantidad; i++) {
+                    arbol.insertar(pendientes[i]);
+                }
+                pendientes = null;
+                diferida = false;
+            }
+            if (!diferida) {
+                arbol.insertar(contacto);
+                return;
+            }
+            if (cantidad == pendientes.length) {
+                pendientes = Arrays.copyOf(pendientes, Math.max(1024, cantidad * 2));
+            }
+            pendientes[cantidad++] = contacto;
+        }
+
+        void terminar(ArbolBinarioContactos arbol) {
+            if (diferida && cantidad > 0) {
+                arbol.construirDesdeOrdenados(pendientes, cantidad);
+            }
+            pendientes = null;
+        }
+    }
+
+    /**
+     * Lector de filas CSV sobre un búfer de caracteres de tamaño fijo.
+     * Admite campos entre comillas con comas, saltos de línea y comillas dobladas ("").
+     */
+    private static final class LectorCSV {
+        private final Reader entrada;
+        private final char[] bufer = new char[1 << 16];
+        private int posicion;
+        private int limite;
+        private boolean primerCaracter = true;
+        // Caracteres leídos de la entrada hasta ahora
+        long caracteresLeidos;
+        private final StringBuilder campo = new StringBuilder();
+        private final ArrayList<String> campos = new ArrayList<>();
+
+        LectorCSV(Reader entrada) {
+            this.entrada = entrada;
+        }
+
+        /**
+         * Lee la siguiente fila.
+         * @return campos de la fila, o null al llegar al final de la entrada
+         */
+        String[] siguienteFila() throws IOException {
+            campos.clear();
+            campo.setLength(0);
+            boolean entreComillas = false;
+            boolean hayDatos = false;
+            while (true) {
+                int c = leer();
+                if (c < 0) {
+                    if (!hayDatos) {
+                        return null;  // Fin de la entrada
+                    }
+                    break;
+                }
+                hayDatos = true;
+                if (entreComillas) {
+                    if (c == '"') {
+                        if (mirar() == '"') {
+                            leer();
+                            campo.append('"');  // Comilla escapada
+                        } else {
+                            entreComillas = false;
+                        }
+                    } else {
+                        campo.append((char) c);
+                    }
+                } else if (c == '"') {
+                    entreComillas = true;
+                } else if (c == ',') {
+                    campos.add(campo.toString());
+                    campo.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    campo.append((char) c);
+                }
+            }
+            campos.add(campo.toString());
+            return campos.toArray(new String[0]);
+        }
+
+        private int leer() throws IOException {
+            if (posicion == limite && !llenar()) {
+                return -1;
+            }
+            char c = bufer[posicion++];
+            if (primerCaracter) {
+                primerCaracter = false;
+                if (c == '\uFEFF') {
+                    return leer();  // Descartar la marca de orden de bytes de UTF-8
+                }
+            }
+            return c;
+        }
+
+        private int mirar() throws IOException {
+            if (posicion == limite && !llenar()) {
+                return -1;
+            }
+            return bufer[posicion];
+        }
+
+        private boolean llenar() throws IOException {
+            int leidos = entrada.read(bufer, 0, bufer.length);
+            if (leidos <= 0) {
+                return false;
+            }
+            posicion = 0;
+            limite = leidos;
+            caracteresLeidos += leidos;
+            return true;
+        }
+    }
+}
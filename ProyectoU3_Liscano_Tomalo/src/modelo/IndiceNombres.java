@@ -0,0 +1,472 @@
+package modelo;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+
+/**
+ * Índice de búsqueda por nombre para "buscar mientras se escribe".
+ * Los nombres se pliegan (minúsculas y sin tildes, de modo que "Pérez" y "perez" coinciden)
+ * y se guardan en dos árboles radix (tries comprimidos): uno con el nombre completo y otro
+ * con cada palabra siguiente, para que "ana" o "per" encuentren "Ana Pérez".
+ * La búsqueda aproximada recorre el árbol de nombres completos calculando la distancia de
+ * Levenshtein fila por fila y poda las ramas que ya superan la distancia máxima.
+ * Las filas de trabajo de la búsqueda son por hilo, así que varias búsquedas pueden correr a
+ * la vez sobre la misma instancia; las altas y bajas no, ni en paralelo con búsquedas: el
+ * registro concurrente las separa con un candado de lectura y escritura.
+ */
+public class IndiceNombres {
+    // Distancia máxima admitida en la búsqueda aproximada
+    public static final int DISTANCIA_MAXIMA = 2;
+    // Arreglo compartido por los nodos sin contactos
+    private static final NodoContacto[] SIN_CONTACTOS = new NodoContacto[0];
+
+    // Árbol radix de nombres completos plegados
+    private final NodoRadix nombresCompletos = new NodoRadix("");
+    // Árbol radix de las palabras que siguen a la primera (apellidos, segundos nombres)
+    private final NodoRadix palabras = new NodoRadix("");
+    // Filas de la tabla de Levenshtein, una por carácter de profundidad en el árbol.
+    // Son por hilo para que varias búsquedas puedan correr a la vez sobre el mismo índice.
+    private final ThreadLocal<int[][][]> filasPorHilo = ThreadLocal.withInitial(() -> new int[][][]{new int[0][]});
+
+    /**
+     * Pliega un nombre para compararlo: minúsculas, sin tildes ni diéresis y con espacios simples.
+     * @param nombre Nombre original
+     * @return nombre plegado
+     */
+    public static String plegar(String nombre) {
+        String texto = nombre;
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) >= 128) {
+                // Separar las tildes de sus letras para poder descartarlas
+                texto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+                break;
+            }
+        }
+        StringBuilder sb = new StringBuilder(texto.length());
+        boolean espacio = false;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (Character.isWhitespace(c)) {
+                espacio = sb.length() > 0;  // Los espacios iniciales se descartan
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                if (espacio) {
+                    sb.append(' ');        // Varios espacios seguidos quedan en uno
+                    espacio = false;
+                }
+                sb.append(c);
+            }
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Agrega un contacto al índice.
+     * @param contacto Contacto a indexar
+     */
+    public void agregar(NodoContacto contacto) {
+        String clave = plegar(contacto.getNombre());
+        insertar(nombresCompletos, clave, contacto);
+        // Cada palabra posterior a la primera también es punto de entrada para prefijos
+        for (int i = clave.indexOf(' '); i >= 0; i = clave.indexOf(' ', i + 1)) {
+            if (i + 1 < clave.length()) {
+                insertar(palabras, clave.substring(i + 1), contacto);
+            }
+        }
+    }
+
+    /**
+     * Quita un contacto del índice. Debe llamarse antes de cambiarle el nombre, porque la
+     * clave se calcula con el nombre actual. Las ramas que quedan vacías se podan y las
+     * aristas sueltas se vuelven a unir, así el árbol queda igual que si no se hubiera agregado.
+     * @param contacto Contacto a quitar
+     */
+    public void quitar(NodoContacto contacto) {
+        String clave = plegar(contacto.getNombre());
+        quitar(nombresCompletos, clave, contacto);
+        for (int i = clave.indexOf(' '); i >= 0; i = clave.indexOf(' ', i + 1)) {
+            if (i + 1 < clave.length()) {
+                quitar(palabras, clave.substring(i + 1), contacto);
+            }
+        }
+    }
+
+    /**
+     * Busca los contactos cuyo nombre, o alguna de sus palabras, empieza con el texto dado.
+     * Primero aparecen las coincidencias al inicio del nombre; dentro de cada grupo, los nombres
+     * más cortos y luego en orden alfabético.
+     * @param prefijo Texto escrito por el usuario
+     * @param limite Cantidad máxima de resultados
+     * @return contactos encontrados, sin repetir
+     */
+    public List<NodoContacto> buscarPorPrefijo(String prefijo, int limite) {
+        List<NodoContacto> resultado = new ArrayList<>();
+        String clave = plegar(prefijo);
+        if (clave.isEmpty() || limite <= 0) {
+            return resultado;
+        }
+        recolectarPrefijo(nombresCompletos, clave, limite, resultado);
+        if (resultado.size() < limite) {
+            recolectarPrefijo(palabras, clave, limite, resultado);
+        }
+        return resultado;
+    }
+
+    /**
+     * Busca los contactos cuyo nombre completo está a lo sumo a la distancia de edición indicada
+     * del texto dado (tolerancia a errores de tipeo).
+     * @param nombre Texto escrito por el usuario
+     * @param distanciaMaxima Distancia de Levenshtein máxima (se limita a DISTANCIA_MAXIMA)
+     * @param limite Cantidad máxima de resultados
+     * @return contactos encontrados, los más parecidos primero y luego en orden alfabético
+     */
+    public List<NodoContacto> buscarAproximado(String nombre, int distanciaMaxima, int limite) {
+        List<NodoContacto> resultado = new ArrayList<>();
+        String clave = plegar(nombre);
+        int maximo = Math.min(distanciaMaxima, DISTANCIA_MAXIMA);
+        if (clave.isEmpty() || limite <= 0 || maximo < 0) {
+            return resultado;
+        }
+        // Fila 0: distancia entre la clave vacía y cada prefijo del texto buscado
+        int[][][] filas = filasPorHilo.get();
+        int[] inicial = fila(filas, 0, clave.length());
+        for (int j = 0; j <= clave.length(); j++) {
+            inicial[j] = j;
+        }
+        List<NodoContacto> encontrados = new ArrayList<>();
+        List<Integer> distancias = new ArrayList<>();
+        for (int i = 0; i < nombresCompletos.numHijos; i++) {
+            recorrerAproximado(filas, nombresCompletos.hijos[i], 0, clave, maximo, encontrados, distancias);
+        }
+        // Ordenar por distancia y luego alfabéticamente
+        Integer[] orden = new Integer[encontrados.size()];
+        for (int i = 0; i < orden.length; i++) {
+            orden[i] = i;
+        }
+        Arrays.sort(orden, (a, b) -> distancias.get(a).equals(distancias.get(b))
+                ? ArbolBinarioContactos.compararNombres(encontrados.get(a).getNombre(), encontrados.get(b).getNombre())
+                : distancias.get(a) - distancias.get(b));
+        for (int i = 0; i < orden.length && i < limite; i++) {
+            resultado.add(encontrados.get(orden[i]));
+        }
+        return resultado;
+    }
+
+    // ----------------------------------------------------------------------
+    // Árbol radix
+    // ----------------------------------------------------------------------
+
+    /**
+     * Nodo del árbol radix: la etiqueta es el fragmento de texto de la arista que llega a él.
+     */
+    private static final class NodoRadix {
+        private static final NodoRadix[] SIN_HIJOS = new NodoRadix[0];
+
+        String etiqueta;
+        // Hijos ordenados por el primer carácter de su etiqueta
+        NodoRadix[] hijos = SIN_HIJOS;
+        int numHijos;
+        // Contactos cuya clave termina exactamente en este nodo
+        NodoContacto[] contactos = SIN_CONTACTOS;
+        int numContactos;
+        // Largo de la clave más corta de este subárbol (guía la búsqueda por prefijo)
+        int largoMinimo = Integer.MAX_VALUE;
+
+        NodoRadix(String etiqueta) {
+            this.etiqueta = etiqueta;
+        }
+
+        /**
+         * Posición del hijo cuya etiqueta empieza con c, o -(posición de inserción) - 1.
+         */
+        int buscarHijo(char c) {
+            int bajo = 0, alto = numHijos - 1;
+            while (bajo <= alto) {
+                int medio = (bajo + alto) >>> 1;
+                char m = hijos[medio].etiqueta.charAt(0);
+                if (m < c) {
+                    bajo = medio + 1;
+                } else if (m > c) {
+                    alto = medio - 1;
+                } else {
+                    return medio;
+                }
+            }
+            return -(bajo + 1);
+        }
+
+        void insertarHijo(int posicion, NodoRadix hijo) {
+            if (numHijos == hijos.length) {
+                hijos = Arrays.copyOf(hijos, Math.max(2, numHijos * 2));
+            }
+            System.arraycopy(hijos, posicion, hijos, posicion + 1, numHijos - posicion);
+            hijos[posicion] = hijo;
+            numHijos++;
+        }
+
+        void quitarHijo(int posicion) {
+            System.arraycopy(hijos, posicion + 1, hijos, posicion, numHijos - posicion - 1);
+            hijos[--numHijos] = null;
+        }
+
+        void agregarContacto(NodoContacto contacto) {
+            if (numContactos == contactos.length) {
+                contactos = Arrays.copyOf(contactos, Math.max(1, numContactos * 2));
+            }
+            contactos[numContactos++] = contacto;
+        }
+
+        /**
+         * Quita el contacto conservando el orden de los demás.
+         * @return false si no estaba en este nodo
+         */
+        boolean quitarContacto(NodoContacto contacto) {
+            for (int i = 0; i < numContactos; i++) {
+                if (contactos[i] == contacto) {
+                    System.arraycopy(contactos, i + 1, contactos, i, numContactos - i - 1);
+                    contactos[--numContactos] = null;
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Inserta una clave en el árbol radix, partiendo una arista si la clave se separa en medio de ella.
+     */
+    private static void insertar(NodoRadix raiz, String clave, NodoContacto contacto) {
+        NodoRadix nodo = raiz;
+        int i = 0;
+        while (true) {
+            nodo.largoMinimo = Math.min(nodo.largoMinimo, clave.length());
+            if (i == clave.length()) {
+                nodo.agregarContacto(contacto);
+                return;
+            }
+            int posicion = nodo.buscarHijo(clave.charAt(i));
+            if (posicion < 0) {
+                // Ningún hijo comparte el primer carácter: arista nueva con el resto de la clave
+                NodoRadix hoja = new NodoRadix(clave.substring(i));
+                hoja.largoMinimo = clave.length();
+                hoja.agregarContacto(contacto);
+                nodo.insertarHijo(-posicion - 1, hoja);
+                return;
+            }
+            NodoRadix hijo = nodo.hijos[posicion];
+            int comun = prefijoComun(hijo.etiqueta, clave, i);
+            if (comun < hijo.etiqueta.length()) {
+                // La clave se separa dentro de la arista: crear un nodo intermedio
+                NodoRadix intermedio = new NodoRadix(hijo.etiqueta.substring(0, comun));
+                intermedio.largoMinimo = hijo.largoMinimo;
+                hijo.etiqueta = hijo.etiqueta.substring(comun);
+                intermedio.insertarHijo(0, hijo);
+                nodo.hijos[posicion] = intermedio;
+                hijo = intermedio;
+            }
+            nodo = hijo;
+            i += comun;
+        }
+    }
+
+    /**
+     * Quita un contacto de la clave dada. Baja guardando el camino y luego sube por él: poda los
+     * nodos que quedaron sin contactos ni hijos, une con su único hijo a los que quedaron sin
+     * contactos y recalcula el largo mínimo de cada nodo a partir de sus hijos.
+     */
+    private static void quitar(NodoRadix raiz, String clave, NodoContacto contacto) {
+        // Cada arista tiene al menos un carácter, así que el camino no es más largo que la clave
+        NodoRadix[] camino = new NodoRadix[clave.length() + 1];
+        int[] posiciones = new int[clave.length() + 1];  // Posición de cada nodo entre los hijos de su padre
+        int[] largos = new int[clave.length() + 1];      // Largo de la clave que termina en cada nodo
+        camino[0] = raiz;
+        int profundidad = 0;
+        int i = 0;
+        while (i < clave.length()) {
+            NodoRadix nodo = camino[profundidad];
+            int posicion = nodo.buscarHijo(clave.charAt(i));
+            if (posicion < 0 || !clave.startsWith(nodo.hijos[posicion].etiqueta, i)) {
+                return;  // La clave no está en el árbol
+            }
+            i += nodo.hijos[posicion].etiqueta.length();
+            profundidad++;
+            camino[profundidad] = nodo.hijos[posicion];
+            posiciones[profundidad] = posicion;
+            largos[profundidad] = i;
+        }
+        if (!camino[profundidad].quitarContacto(contacto)) {
+            return;
+        }
+        for (int d = profundidad; d >= 0; d--) {
+            NodoRadix nodo = camino[d];
+            if (d > 0 && nodo.numContactos == 0 && nodo.numHijos <= 1) {
+                NodoRadix padre = camino[d - 1];
+                if (nodo.numHijos == 0) {
+                    padre.quitarHijo(posiciones[d]);  // Rama vacía
+                } else {
+                    NodoRadix hijo = nodo.hijos[0];     // Nodo intermedio innecesario: se une con su hijo
+                    hijo.etiqueta = nodo.etiqueta + hijo.etiqueta;
+                    padre.hijos[posiciones[d]] = hijo;
+                }
+                continue;
+            }
+            int minimo = (nodo.numContactos > 0) ? largos[d] : Integer.MAX_VALUE;
+            for (int h = 0; h < nodo.numHijos; h++) {
+                minimo = Math.min(minimo, nodo.hijos[h].largoMinimo);
+            }
+            nodo.largoMinimo = minimo;
+        }
+    }
+
+    /**
+     * Largo del prefijo común entre la etiqueta y la clave a partir de la posición indicada.
+     */
+    private static int prefijoComun(String etiqueta, String clave, int desde) {
+        int n = Math.min(etiqueta.length(), clave.length() - desde);
+        int i = 0;
+        while (i < n && etiqueta.charAt(i) == clave.charAt(desde + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Candidato pendiente en la búsqueda por prefijo: un subárbol y el texto que lleva a él.
+     */
+    private static final class Candidato implements Comparable<Candidato> {
+        final NodoRadix nodo;
+        final String ruta;
+
+        Candidato(NodoRadix nodo, String ruta) {
+            this.nodo = nodo;
+            this.ruta = ruta;
+        }
+
+        /**
+         * Primero el subárbol con la clave más corta; a igual largo, el de ruta alfabéticamente menor.
+         * Como los candidatos en cola son subárboles disjuntos, esto entrega las claves ordenadas
+         * por largo y luego alfabéticamente, bajando directo hacia ellas.
+         */
+        @Override
+        public int compareTo(Candidato otro) {
+            int largo = Integer.compare(nodo.largoMinimo, otro.nodo.largoMinimo);
+            return (largo != 0) ? largo : ruta.compareTo(otro.ruta);
+        }
+    }
+
+    /**
+     * Agrega al resultado los contactos del subárbol que corresponde al prefijo, de la clave
+     * más corta a la más larga, visitando solo los nodos que llevan a las claves que entran en el límite.
+     */
+    private static void recolectarPrefijo(NodoRadix raiz, String prefijo, int limite, List<NodoContacto> resultado) {
+        // Descender hasta el nodo cuyo subárbol contiene todas las claves con el prefijo
+        NodoRadix nodo = raiz;
+        String ruta = "";
+        int i = 0;
+        while (i < prefijo.length()) {
+            int posicion = nodo.buscarHijo(prefijo.charAt(i));
+            if (posicion < 0) {
+                return;  // Ninguna clave empieza así
+            }
+            NodoRadix hijo = nodo.hijos[posicion];
+            int comun = prefijoComun(hijo.etiqueta, prefijo, i);
+            if (i + comun < prefijo.length() && comun < hijo.etiqueta.length()) {
+                return;  // Difieren dentro de la arista
+            }
+            i += hijo.etiqueta.length();  // Puede pasar del largo del prefijo si termina dentro de la arista
+            ruta = ruta + hijo.etiqueta;
+            nodo = hijo;
+        }
+
+        PriorityQueue<Candidato> cola = new PriorityQueue<>();
+        cola.add(new Candidato(nodo, ruta));
+        while (!cola.isEmpty() && resultado.size() < limite) {
+            Candidato actual = cola.poll();
+            for (int j = 0; j < actual.nodo.numContactos && resultado.size() < limite; j++) {
+                NodoContacto contacto = actual.nodo.contactos[j];
+                if (!contiene(resultado, contacto)) {
+                    resultado.add(contacto);
+                }
+            }
+            for (int j = 0; j < actual.nodo.numHijos; j++) {
+                NodoRadix hijo = actual.nodo.hijos[j];
+                cola.add(new Candidato(hijo, actual.ruta + hijo.etiqueta));
+            }
+        }
+    }
+
+    /**
+     * Indica si la lista ya contiene exactamente esa instancia (las listas son cortas).
+     */
+    private static boolean contiene(List<NodoContacto> lista, NodoContacto contacto) {
+        for (NodoContacto c : lista) {
+            if (c == contacto) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ----------------------------------------------------------------------
+    // Búsqueda aproximada
+    // ----------------------------------------------------------------------
+
+    /**
+     * Recorre un subárbol extendiendo la tabla de Levenshtein un carácter por vez.
+     * Si el mínimo de una fila ya supera la distancia máxima, ninguna clave de abajo puede
+     * servir y la rama se descarta.
+     * @param profundidad Largo de la clave hasta el padre del nodo
+     */
+    private static void recorrerAproximado(int[][][] filas, NodoRadix nodo, int profundidad, String clave, int maximo,
+                                           List<NodoContacto> encontrados, List<Integer> distancias) {
+        int m = clave.length();
+        String etiqueta = nodo.etiqueta;
+        for (int k = 0; k < etiqueta.length(); k++) {
+            int[] anterior = filas[0][profundidad + k];
+            int[] actual = fila(filas, profundidad + k + 1, m);
+            char c = etiqueta.charAt(k);
+            actual[0] = anterior[0] + 1;
+            int minimo = actual[0];
+            for (int j = 1; j <= m; j++) {
+                int costo = (clave.charAt(j - 1) == c) ? 0 : 1;
+                actual[j] = Math.min(Math.min(actual[j - 1] + 1, anterior[j] + 1), anterior[j - 1] + costo);
+                minimo = Math.min(minimo, actual[j]);
+            }
+            if (minimo > maximo) {
+                return;  // Poda: la distancia solo puede crecer
+            }
+        }
+        int profundidadNodo = profundidad + etiqueta.length();
+        int distancia = filas[0][profundidadNodo][m];
+        if (distancia <= maximo) {
+            for (int j = 0; j < nodo.numContactos; j++) {
+                encontrados.add(nodo.contactos[j]);
+                distancias.add(distancia);
+            }
+        }
+        for (int j = 0; j < nodo.numHijos; j++) {
+            recorrerAproximado(filas, nodo.hijos[j], profundidadNodo, clave, maximo, encontrados, distancias);
+        }
+    }
+
+    /**
+     * Devuelve la fila de trabajo para una profundidad, creándola o agrandándola si hace falta.
+     * @param filas Contenedor de la tabla del hilo (filas[0] se reemplaza al crecer)
+     */
+    private static int[] fila(int[][][] filas, int profundidad, int largoClave) {
+        int[][] tabla = filas[0];
+        if (profundidad >= tabla.length) {
+            tabla = Arrays.copyOf(tabla, Math.max(profundidad + 1, tabla.length * 2));
+            filas[0] = tabla;
+        }
+        int[] f = tabla[profundidad];
+        if (f == null || f.length <= largoClave) {
+            f = new int[Math.max(largoClave + 1, 32)];
+            tabla[profundidad] = f;
+        }
+        return f;
+    }
+}
@@ -1,75 +1,303 @@
-package modelo;
-
-/**
- * Clase que representa una lista enlazada simple para manejar contactos.
- * Cada contacto es almacenado en un nodo con nombre, teléfono y correo.
- */
-public class ListaContactos {
-    // Referencia al primer nodo de la lista (cabeza)
-    private NodoContacto cabeza;
-
-    /**
-     * Constructor que inicializa la lista vacía.
-     */
-    public ListaContactos() {
-        cabeza = null;  // La lista comienza sin ningún nodo
-    }
-
-    /**
-     * Método para agregar un nuevo contacto al final de la lista.
-     * @param nombre Nombre del contacto
-     * @param telefono Teléfono del contacto
-     * @param correo Correo electrónico del contacto
-     */
-    public void agregarContacto(String nombre, String telefono, String correo) {
-        NodoContacto nuevo = new NodoContacto(nombre, telefono, correo); // Crear nuevo nodo con los datos
-        if (cabeza == null) {
-            cabeza = nuevo;  // Si la lista está vacía, el nuevo nodo es la cabeza
-        } else {
-            NodoContacto temp = cabeza;  // Nodo temporal para recorrer la lista
-            while (temp.siguiente != null) { // Recorrer hasta el último nodo
-                temp = temp.siguiente;
-            }
-            temp.siguiente = nuevo;  // Asignar el nuevo nodo al final de la lista
-        }
-    }
-
-    /**
-     * Método que retorna un String con la lista de todos los contactos en formato legible.
-     * @return String con la información de todos los contactos o mensaje si la lista está vacía
-     */
-    public String obtenerContactosTexto() {
-        StringBuilder sb = new StringBuilder();  // Usar StringBuilder para eficiencia en concatenación
-        NodoContacto temp = cabeza;  // Nodo temporal para recorrer la lista
-
-        if (temp == null) {
-            return "No hay contactos registrados.\n";  // Si la lista está vacía, retornar mensaje
-        }
-
-        while (temp != null) {  // Recorrer toda la lista
-            sb.append("Nombre: ").append(temp.nombre)    // Agregar nombre del contacto
-              .append(", Teléfono: ").append(temp.telefono) // Agregar teléfono
-              .append(", Correo: ").append(temp.correo)  // Agregar correo
-              .append("\n");                             // Agregar salto de línea
-            temp = temp.siguiente;  // Avanzar al siguiente nodo
-        }
-        return sb.toString();  // Retornar texto con todos los contactos
-    }
-
-    /**
-     * Método que busca un contacto en la lista por su nombre.
-     * La búsqueda no distingue mayúsculas o minúsculas.
-     * @param nombre Nombre a buscar
-     * @return NodoContacto encontrado o null si no existe
-     */
-    public NodoContacto buscarPorNombre(String nombre) {
-        NodoContacto temp = cabeza;  // Nodo temporal para recorrer la lista
-        while (temp != null) {  // Mientras no llegue al final
-            if (temp.nombre.equalsIgnoreCase(nombre)) { // Comparar nombre ignorando mayúsculas/minúsculas
-                return temp;  // Retornar el nodo si coincide
-            }
-            temp = temp.siguiente;  // Avanzar al siguiente nodo
-        }
-        return null;  // Retornar null si no se encontró el contacto
-    }
-}
+package modelo;
+
+import metricas.MetricasModelo;
+import metricas.OperacionModelo;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Clase que representa una lista enlazada para manejar contactos.
+ * Cada contacto es almacenado en un nodo con nombre, teléfono y correo.
+ * Mantiene una referencia al último nodo y el tamaño para agregar en O(1), y
+ * opcionalmente un índice hash por nombre para buscar en O(1). Cada nodo guarda además
+ * el enlace a su anterior, así un contacto se quita en O(1) sin buscar a su predecesor.
+ * En modo concurrente las altas y bajas se serializan con un candado y las lecturas (recorrer la
+ * lista o buscar por nombre) no bloquean: los enlaces hacia adelante son volatile y el índice es
+ * concurrente.
+ */
+public class ListaContactos {
+    // Referencia al primer nodo de la lista (cabeza)
+    private volatile NodoContacto cabeza;
+    // Referencia al último nodo de la lista (cola), evita recorrerla al agregar
+    private NodoContacto cola;
+    // Cantidad de contactos en la lista
+    private volatile int tamanio;
+    // Índice nombre (en minúsculas) -> primer nodo con ese nombre; null si está desactivado
+    private final Map<String, NodoContacto> indiceNombres;
+    // Candado de las altas y bajas en modo concurrente (null si la lista se usa desde un solo hilo)
+    private final ReentrantLock candado;
+    // Se agregó alguna vez un nombre repetido: al quitar uno hay que buscar si otro toma su lugar en el índice
+    private boolean hayDuplicados;
+
+    /**
+     * Constructor que inicializa la lista vacía con el índice por nombre activado.
+     */
+    public ListaContactos() {
+        this(true);
+    }
+
+    /**
+     * Constructor que inicializa la lista vacía.
+     * @param indexarNombres true para mantener el índice hash por nombre
+     */
+    public ListaContactos(boolean indexarNombres) {
+        this(indexarNombres, false);
+    }
+
+    /**
+     * Constructor que inicializa la lista vacía.
+     * @param indexarNombres true para mantener el índice hash por nombre
+     * @param concurrente true para admitir lecturas desde varios hilos mientras otro agrega
+     */
+    public ListaContactos(boolean indexarNombres, boolean concurrente) {
+        cabeza = null;  // La lista comienza sin ningún nodo
+        cola = null;
+        tamanio = 0;
+        if (!indexarNombres) {
+            indiceNombres = null;
+        } else {
+            indiceNombres = concurrente ? new ConcurrentHashMap<>() : new HashMap<>();
+        }
+        candado = concurrente ? new ReentrantLock() : null;
+    }
+
+    /**
+     * Normaliza un nombre para usarlo como clave del índice (sin distinguir mayúsculas).
+     * Pliega cada carácter igual que compareToIgnoreCase (a mayúscula y luego a minúscula),
+     * así dos nombres tienen la misma clave exactamente cuando el árbol los considera iguales.
+     * Con toLowerCase solo, "ς" y "σ" darían claves distintas aunque el árbol los iguale.
+     * @param nombre Nombre original
+     * @return clave del índice
+     */
+    static String claveNombre(String nombre) {
+        StringBuilder clave = new StringBuilder(nombre.length());
+        for (int i = 0; i < nombre.length(); ) {
+            int c = nombre.codePointAt(i);
+            clave.appendCodePoint(Character.toLowerCase(Character.toUpperCase(c)));
+            i += Character.charCount(c);
+        }
+        return clave.toString();
+    }
+
+    /**
+     * Método para agregar un nuevo contacto al final de la lista.
+     * @param nombre Nombre del contacto
+     * @param telefono Teléfono del contacto
+     * @param correo Correo electrónico del contacto
+     */
+    public void agregarContacto(String nombre, String telefono, String correo) {
+        agregarContacto(new NodoContacto(nombre, telefono, correo)); // Crear nuevo nodo con los datos
+    }
+
+    /**
+     * Agrega al final de la lista un contacto ya creado, sin copiarlo.
+     * Permite que la lista, el árbol y el grafo compartan la misma instancia.
+     * @param nuevo Contacto a enlazar (no debe pertenecer ya a otra lista)
+     */
+    public void agregarContacto(NodoContacto nuevo) {
+        long inicio = MetricasModelo.inicio();
+        if (candado == null) {
+            enlazar(nuevo);
+        } else {
+            candado.lock();
+            try {
+                enlazar(nuevo);
+            } finally {
+                candado.unlock();
+            }
+        }
+        MetricasModelo.registrar(OperacionModelo.LISTA_AGREGAR, inicio);
+    }
+
+    /**
+     * Enlaza el contacto al final y lo indexa.
+     */
+    private void enlazar(NodoContacto nuevo) {
+        nuevo.anterior = cola;
+        if (cabeza == null) {
+            cabeza = nuevo;        // Si la lista está vacía, el nuevo nodo es la cabeza
+        } else {
+            cola.siguiente = nuevo;  // Enlazar directamente después del último nodo
+        }
+        cola = nuevo;
+        tamanio++;
+        indexar(nuevo);
+    }
+
+    /**
+     * Quita un contacto de la lista en O(1) usando su enlace al anterior, y del índice por nombre.
+     * El nodo quitado conserva su enlace al siguiente, así un recorrido concurrente que estaba
+     * parado en él puede continuar.
+     * @param contacto Contacto a quitar
+     * @return true si el contacto estaba en la lista
+     */
+    public boolean eliminarContacto(NodoContacto contacto) {
+        long inicio = MetricasModelo.inicio();
+        if (candado != null) {
+            candado.lock();
+        }
+        try {
+            if (contacto == null || (contacto != cabeza && contacto.anterior == null)) {
+                return false;  // No pertenece a la lista (o ya se quitó)
+            }
+            NodoContacto anterior = contacto.anterior;
+            NodoContacto siguiente = contacto.siguiente;
+            if (anterior == null) {
+                cabeza = siguiente;
+            } else {
+                anterior.siguiente = siguiente;
+            }
+            if (siguiente == null) {
+                cola = anterior;
+            } else {
+                siguiente.anterior = anterior;
+            }
+            contacto.anterior = null;
+            tamanio--;
+            desindexar(contacto);
+            return true;
+        } finally {
+            if (candado != null) {
+                candado.unlock();
+            }
+            MetricasModelo.registrar(OperacionModelo.LISTA_ELIMINAR, inicio);
+        }
+    }
+
+    /**
+     * Cambia los datos de un contacto de la lista y, si cambia el nombre, lo reindexa; conserva
+     * su lugar en la lista. Lo usa el registro, que antes lo quita de las estructuras ordenadas
+     * por nombre.
+     * @param contacto Contacto de la lista
+     * @param nombre Nombre nuevo (puede ser el mismo)
+     * @param telefono Teléfono nuevo
+     * @param correo Correo nuevo
+     */
+    void cambiarDatos(NodoContacto contacto, String nombre, String telefono, String correo) {
+        if (candado != null) {
+            candado.lock();
+        }
+        try {
+            boolean renombrar = !contacto.getNombre().equals(nombre);
+            if (renombrar) {
+                desindexar(contacto);
+            }
+            contacto.asignar(nombre, telefono, correo);
+            if (renombrar) {
+                indexar(contacto);
+            }
+        } finally {
+            if (candado != null) {
+                candado.unlock();
+            }
+        }
+    }
+
+    /**
+     * Agrega el contacto al índice por nombre si todavía no hay otro con ese nombre.
+     */
+    private void indexar(NodoContacto contacto) {
+        if (indiceNombres != null
+                && indiceNombres.putIfAbsent(claveNombre(contacto.getNombre()), contacto) != null) { // Conserva el primero, como la búsqueda lineal
+            hayDuplicados = true;
+        }
+    }
+
+    /**
+     * Quita el contacto del índice por nombre. Si la lista llegó a tener nombres repetidos, el
+     * siguiente contacto con el mismo nombre pasa a ser el indexado (el único caso que recorre).
+     */
+    private void desindexar(NodoContacto contacto) {
+        if (indiceNombres == null) {
+            return;
+        }
+        String nombre = contacto.getNombre();
+        String clave = claveNombre(nombre);
+        if (indiceNombres.remove(clave, contacto) && hayDuplicados) {
+            for (NodoContacto temp = contacto.siguiente; temp != null; temp = temp.siguiente) {
+                if (temp.getNombre().equalsIgnoreCase(nombre) && (temp == cabeza || temp.anterior != null)) {
+                    indiceNombres.putIfAbsent(clave, temp);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Recorre la lista en orden de alta a partir de un nodo, como máximo la cantidad pedida,
+     * y devuelve dónde seguir. Sirve como cursor para listar por páginas sin armar el texto
+     * completo: cada página empieza en el nodo que devolvió la anterior.
+     * En modo concurrente no bloquea; los contactos agregados durante el recorrido pueden
+     * aparecer o no.
+     * @param inicio Primer nodo a recorrer; null para empezar por la cabeza
+     * @param limite Cantidad máxima de contactos a recorrer
+     * @param accion Acción a aplicar a cada contacto
+     * @return nodo donde empieza la página siguiente, o null si se llegó al final
+     */
+    public NodoContacto recorrerDesde(NodoContacto inicio, int limite, Consumer<NodoContacto> accion) {
+        long comienzo = MetricasModelo.inicio();
+        try {
+            NodoContacto temp = (inicio == null) ? cabeza : inicio;
+            for (int i = 0; temp != null && i < limite; i++) {
+                accion.accept(temp);
+                temp = temp.siguiente;  // Avanzar al siguiente nodo
+            }
+            return temp;
+        } finally {
+            MetricasModelo.registrar(OperacionModelo.LISTA_RECORRER, comienzo);
+        }
+    }
+
+    /**
+     * Método que busca un contacto en la lista por su nombre.
+     * La búsqueda no distingue mayúsculas o minúsculas.
+     * Usa el índice hash si está activado; si no, recorre la lista.
+     * @param nombre Nombre a buscar
+     * @return NodoContacto encontrado o null si no existe
+     */
+    public NodoContacto buscarPorNombre(String nombre) {
+        long inicio = MetricasModelo.inicio();
+        try {
+            return buscarNombre(nombre);
+        } finally {
+            MetricasModelo.registrar(OperacionModelo.LISTA_BUSCAR, inicio);
+        }
+    }
+
+    private NodoContacto buscarNombre(String nombre) {
+        if (nombre == null) {
+            return null;
+        }
+        if (indiceNombres != null) {
+            return indiceNombres.get(claveNombre(nombre));  // Búsqueda en tiempo constante
+        }
+        NodoContacto temp = cabeza;  // Nodo temporal para recorrer la lista
+        while (temp != null) {  // Mientras no llegue al final
+            if (temp.getNombre().equalsIgnoreCase(nombre)) { // Comparar nombre ignorando mayúsculas/minúsculas
+                return temp;  // Retornar el nodo si coincide
+            }
+            temp = temp.siguiente;  // Avanzar al siguiente nodo
+        }
+        return null;  // Retornar null si no se encontró el contacto
+    }
+
+    /**
+     * Devuelve el primer contacto de la lista, para recorrerla con getSiguiente().
+     * @return primer nodo o null si la lista está vacía
+     */
+    public NodoContacto getCabeza() {
+        return cabeza;
+    }
+
+    /**
+     * Devuelve la cantidad de contactos en la lista.
+     * @return número de contactos
+     */
+    public int getTamanio() {
+        return tamanio;
+    }
+}
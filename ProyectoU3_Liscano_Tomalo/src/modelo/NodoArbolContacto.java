@@ -1,24 +1,35 @@
-package modelo;
-
-/**
- * Nodo para el árbol binario de contactos.
- * Contiene un objeto NodoContacto y referencias a sus hijos izquierdo y derecho.
- */
-public class NodoArbolContacto {
-    // Objeto NodoContacto almacenado en este nodo del árbol
-    NodoContacto contacto;
-    // Referencia al hijo izquierdo en el árbol binario
-    NodoArbolContacto izquierdo;
-    // Referencia al hijo derecho en el árbol binario
-    NodoArbolContacto derecho;
-
-    /**
-     * Constructor que inicializa el nodo con un contacto dado y sin hijos.
-     * @param contacto El contacto a almacenar en el nodo
-     */
-    public NodoArbolContacto(NodoContacto contacto) {
-        this.contacto = contacto; // Asigna el contacto
-        izquierdo = null;         // Inicializa sin hijo izquierdo
-        derecho = null;           // Inicializa sin hijo derecho
-    }
-}
+package modelo;
+
+/**
+ * Nodo para el árbol binario de contactos.
+ * Contiene un objeto NodoContacto, referencias a sus hijos izquierdo y derecho,
+ * la referencia a su padre, el color usado por el balanceo rojo-negro y el tamaño del subárbol.
+ */
+public class NodoArbolContacto {
+    // Objeto NodoContacto almacenado en este nodo del árbol (final: visible sin candado para las lecturas optimistas)
+    final NodoContacto contacto;
+    // Referencia al hijo izquierdo en el árbol binario
+    NodoArbolContacto izquierdo;
+    // Referencia al hijo derecho en el árbol binario
+    NodoArbolContacto derecho;
+    // Referencia al padre (null en la raíz), permite recorrer el árbol sin recursión
+    NodoArbolContacto padre;
+    // Color del nodo en el árbol rojo-negro (true = rojo, false = negro)
+    boolean rojo;
+    // Cantidad de nodos del subárbol que empieza en este nodo (él incluido), para ubicar por posición
+    int tamanio;
+
+    /**
+     * Constructor que inicializa el nodo con un contacto dado y sin hijos.
+     * Todo nodo nuevo nace rojo, como exige la inserción rojo-negra.
+     * @param contacto El contacto a almacenar en el nodo
+     */
+    public NodoArbolContacto(NodoContacto contacto) {
+        this.contacto = contacto; // Asigna el contacto
+        izquierdo = null;         // Inicializa sin hijo izquierdo
+        derecho = null;           // Inicializa sin hijo derecho
+        padre = null;             // Se enlaza al padre al insertarlo
+        rojo = true;              // Los nodos se insertan en rojo
+        tamanio = 1;              // Nace como hoja
+    }
+}
@@ -1,63 +1,84 @@
-package modelo;
-
-/**
- * Clase que representa un nodo en la lista enlazada de contactos.
- * Cada nodo contiene la información de un contacto y referencia al siguiente nodo.
- */
-public class NodoContacto {
-    // Nombre del contacto
-    String nombre;
-    // Teléfono del contacto
-    String telefono;
-    // Correo electrónico del contacto
-    String correo;
-    // Referencia al siguiente nodo en la lista enlazada
-    NodoContacto siguiente;
-
-    /**
-     * Constructor que crea un nodo con los datos del contacto.
-     * Inicializa la referencia siguiente en null.
-     * 
-     * @param nombre Nombre del contacto
-     * @param telefono Teléfono del contacto
-     * @param correo Correo electrónico del contacto
-     */
-    public NodoContacto(String nombre, String telefono, String correo) {
-        this.nombre = nombre;       // Asignar nombre recibido
-        this.telefono = telefono;   // Asignar teléfono recibido
-        this.correo = correo;       // Asignar correo recibido
-        this.siguiente = null;      // Inicialmente no apunta a ningún nodo siguiente
-    }
-
-    /** 
-     * Devuelve el nombre del contacto.
-     * @return nombre
-     */
-    public String getNombre() {
-        return nombre;
-    }
-
-    /**
-     * Devuelve el teléfono del contacto.
-     * @return telefono
-     */
-    public String getTelefono() {
-        return telefono;
-    }
-
-    /**
-     * Devuelve el correo electrónico del contacto.
-     * @return correo
-     */
-    public String getCorreo() {
-        return correo;
-    }
-
-    /**
-     * Devuelve el nodo siguiente en la lista enlazada.
-     * @return siguiente nodo
-     */
-    public NodoContacto getSiguiente() {
-        return siguiente;
-    }
-}
+package modelo;
+
+/**
+ * Clase que representa un nodo en la lista enlazada de contactos.
+ * Cada nodo contiene la información de un contacto y referencia al siguiente nodo.
+ */
+public class NodoContacto {
+    // Datos del contacto; privados porque los nodos compactos y mapeados los dejan en null:
+    // el resto del modelo los lee siempre con los getters
+    private String nombre;
+    private String telefono;
+    private String correo;
+    // Referencia al siguiente nodo en la lista enlazada (volatile: la lista se puede recorrer mientras otro hilo agrega)
+    volatile NodoContacto siguiente;
+    // Referencia al nodo anterior, permite desenlazar en O(1); null en la cabeza y fuera de la lista
+    NodoContacto anterior;
+
+    /**
+     * Constructor que crea un nodo con los datos del contacto.
+     * Inicializa la referencia siguiente en null.
+     * 
+     * @param nombre Nombre del contacto
+     * @param telefono Teléfono del contacto
+     * @param correo Correo electrónico del contacto
+     */
+    public NodoContacto(String nombre, String telefono, String correo) {
+        this.nombre = nombre;       // Asignar nombre recibido
+        this.telefono = telefono;   // Asignar teléfono recibido
+        this.correo = correo;       // Asignar correo recibido
+        this.siguiente = null;      // Inicialmente no apunta a ningún nodo siguiente
+    }
+
+    /** 
+     * Devuelve el nombre del contacto.
+     * @return nombre
+     */
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Devuelve el teléfono del contacto.
+     * @return telefono
+     */
+    public String getTelefono() {
+        return telefono;
+    }
+
+    /**
+     * Devuelve el correo electrónico del contacto.
+     * @return correo
+     */
+    public String getCorreo() {
+        return correo;
+    }
+
+    /**
+     * Reemplaza los datos del contacto. Solo lo usan las estructuras del modelo, que antes
+     * lo quitan de los índices que dependen de esos datos.
+     * @param nombre Nombre nuevo
+     * @param telefono Teléfono nuevo
+     * @param correo Correo nuevo
+     */
+    void asignar(String nombre, String telefono, String correo) {
+        this.nombre = nombre;
+        this.telefono = telefono;
+        this.correo = correo;
+    }
+
+    /**
+     * Avisa que el contacto salió del registro. Un contacto compacto libera ahí su registro
+     * en el almacén; este no tiene nada que liberar.
+     */
+    void descartar() {
+    }
+
+    /**
+     * Devuelve el nodo siguiente en la lista enlazada.
+     * @return siguiente nodo
+     */
+    public NodoContacto getSiguiente() {
+        return siguiente;
+    }
+}
@@ -0,0 +1,57 @@
+package modelo;
+
+/**
+ * Contacto cuyos datos viven en un {@link AlmacenContactos} en lugar de en tres String.
+ * El nodo guarda solo la dirección de su registro y los getters decodifican el dato pedido
+ * cada vez: ahorra memoria a cambio de crear un String temporal en cada lectura.
+ * Los campos heredados de texto quedan en null; el resto del modelo accede a los datos
+ * siempre por los getters.
+ */
+final class NodoContactoCompacto extends NodoContacto {
+    // Almacén donde está el registro del contacto
+    private final AlmacenContactos almacen;
+    // Dirección del registro (volatile: un cambio de datos se publica con una sola escritura)
+    private volatile int direccion;
+
+    /**
+     * Constructor usado por el almacén al crear el contacto.
+     * @param almacen Almacén que guarda los datos
+     * @param direccion Dirección del registro del contacto
+     */
+    NodoContactoCompacto(AlmacenContactos almacen, int direccion) {
+        super(null, null, null);
+        this.almacen = almacen;
+        this.direccion = direccion;
+    }
+
+    @Override
+    public String getNombre() {
+        return almacen.nombre(direccion);
+    }
+
+    @Override
+    public String getTelefono() {
+        return almacen.telefono(direccion);
+    }
+
+    @Override
+    public String getCorreo() {
+        return almacen.correo(direccion);
+    }
+
+    /**
+     * Escribe un registro nuevo con los datos y libera el anterior; quien lea el contacto
+     * mientras tanto ve los datos viejos o los nuevos, nunca una mezcla.
+     */
+    @Override
+    void asignar(String nombre, String telefono, String correo) {
+        int anterior = direccion;
+        direccion = almacen.guardar(nombre, telefono, correo);
+        almacen.liberar(anterior);
+    }
+
+    @Override
+    void descartar() {
+        almacen.liberar(direccion);
+    }
+}
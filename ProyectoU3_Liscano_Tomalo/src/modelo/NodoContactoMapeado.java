@@ -0,0 +1,55 @@
+package modelo;
+
+/**
+ * Contacto cuyos datos se leen de una {@link SnapshotBinario} mapeada en memoria: el nodo
+ * guarda solo la posición del contacto en la instantánea y los getters decodifican el dato
+ * desde el archivo cada vez. Los datos quedan en la caché de páginas del sistema operativo,
+ * fuera del heap, y varios procesos que mapean el mismo archivo la comparten.
+ * Si el contacto se modifica, pasa a guardar sus datos en los campos heredados: el archivo
+ * es de solo lectura.
+ */
+final class NodoContactoMapeado extends NodoContacto {
+    // Instantánea de donde se leen los datos
+    private final SnapshotBinario instantanea;
+    // Posición del contacto en la instantánea, o -1 cuando ya tiene datos propios
+    private volatile int posicion;
+
+    /**
+     * Constructor usado por la instantánea al cargarse mapeada.
+     * @param instantanea Instantánea abierta
+     * @param posicion Posición del contacto en la instantánea
+     */
+    NodoContactoMapeado(SnapshotBinario instantanea, int posicion) {
+        super(null, null, null);
+        this.instantanea = instantanea;
+        this.posicion = posicion;
+    }
+
+    @Override
+    public String getNombre() {
+        int p = posicion;
+        return (p >= 0) ? instantanea.getNombre(p) : super.getNombre();
+    }
+
+    @Override
+    public String getTelefono() {
+        int p = posicion;
+        return (p >= 0) ? instantanea.getTelefono(p) : super.getTelefono();
+    }
+
+    @Override
+    public String getCorreo() {
+        int p = posicion;
+        return (p >= 0) ? instantanea.getCorreo(p) : super.getCorreo();
+    }
+
+    /**
+     * Guarda los datos nuevos en los campos heredados y deja de leer la instantánea; la
+     * escritura volatile de la posición publica los tres campos juntos.
+     */
+    @Override
+    void asignar(String nombre, String telefono, String correo) {
+        super.asignar(nombre, telefono, correo);
+        posicion = -1;
+    }
+}
@@ -0,0 +1,695 @@
+package modelo;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Registro central de contactos.
+ * Crea un único NodoContacto por contacto y entrega esa misma instancia a la lista,
+ * al árbol y al grafo, de modo que las tres estructuras comparten el registro canónico
+ * y un contacto hallado en una de ellas puede usarse directamente en las otras.
+ * Además mantiene índices hash por teléfono (solo dígitos) y por correo (en minúsculas)
+ * para búsquedas inversas en O(1) y para rechazar duplicados al insertar.
+ * En modo concurrente (ver {@link #RegistroContactos(ListaContactos, ArbolBinarioContactos,
+ * GrafoColaboraciones, boolean)}) varios hilos pueden consultar mientras otro inserta:
+ * - las búsquedas por nombre usan un ConcurrentSkipListMap y nunca bloquean;
+ * - los índices de teléfono y correo son ConcurrentHashMap;
+ * - las altas, bajas y cambios se serializan con un candado, de modo que revisar duplicados e
+ *   insertar en todas las estructuras es atómico, y el contacto se publica en el índice de nombres
+ *   al final, cuando ya está en la lista, el árbol y el grafo (y en una baja se retira primero).
+ * Con un {@link AlmacenContactos} los contactos se crean compactos: sus datos se guardan como
+ * bytes en el almacén en lugar de en tres String por contacto.
+ */
+public class RegistroContactos {
+    // Estructuras que comparten los contactos del registro
+    private final ListaContactos lista;
+    private final ArbolBinarioContactos arbol;
+    private final GrafoColaboraciones grafo;
+    // Índice de búsqueda por prefijo y aproximada de nombres
+    private final IndiceNombres indiceNombres;
+    // Índices inversos: teléfono normalizado -> contacto y correo normalizado -> contacto
+    private final Map<String, NodoContacto> indiceTelefonos;
+    private final Map<String, NodoContacto> indiceCorreos;
+    // Modo concurrente: índice ordenado de nombres, candado de escrituras y candado del índice de prefijos
+    private final boolean concurrente;
+    private final ConcurrentSkipListMap<String, NodoContacto> nombres;
+    private final ReentrantLock candadoEscritura;
+    private final ReentrantReadWriteLock candadoIndiceNombres;
+    // Almacén de los datos de los contactos compactos (null: contactos con String)
+    private final AlmacenContactos almacen;
+    // Bitácora donde se anotan los cambios antes de aplicarlos (null si no hay persistencia)
+    private BitacoraEscritura bitacora;
+    // Número del último cambio aplicado; numera los registros de la bitácora y se guarda en la instantánea
+    private volatile long secuencia;
+
+    /**
+     * Constructor que recibe las estructuras que el registro mantendrá sincronizadas.
+     * @param lista Lista enlazada de contactos
+     * @param arbol Árbol binario de contactos
+     * @param grafo Grafo de colaboraciones
+     */
+    public RegistroContactos(ListaContactos lista, ArbolBinarioContactos arbol, GrafoColaboraciones grafo) {
+        this(lista, arbol, grafo, false);
+    }
+
+    /**
+     * Constructor que permite activar el modo concurrente. En ese modo las estructuras
+     * recibidas también deben haberse creado en modo concurrente.
+     * @param lista Lista enlazada de contactos
+     * @param arbol Árbol binario de contactos
+     * @param grafo Grafo de colaboraciones
+     * @param concurrente true para admitir consultas desde varios hilos mientras otro inserta
+     */
+    public RegistroContactos(ListaContactos lista, ArbolBinarioContactos arbol, GrafoColaboraciones grafo,
+                             boolean concurrente) {
+        this(lista, arbol, grafo, concurrente, null);
+    }
+
+    /**
+     * Constructor que además permite guardar los datos de los contactos en un almacén compacto.
+     * @param lista Lista enlazada de contactos
+     * @param arbol Árbol binario de contactos
+     * @param grafo Grafo de colaboraciones
+     * @param concurrente true para admitir consultas desde varios hilos mientras otro inserta
+     * @param almacen Almacén donde se guardan los datos de los contactos nuevos, o null para usar String
+     */
+    public RegistroContactos(ListaContactos lista, ArbolBinarioContactos arbol, GrafoColaboraciones grafo,
+                             boolean concurrente, AlmacenContactos almacen) {
+        this.lista = lista;
+        this.arbol = arbol;
+        this.grafo = grafo;
+        this.indiceNombres = new IndiceNombres();
+        this.concurrente = concurrente;
+        this.almacen = almacen;
+        if (concurrente) {
+            this.indiceTelefonos = new ConcurrentHashMap<>();
+            this.indiceCorreos = new ConcurrentHashMap<>();
+            this.nombres = new ConcurrentSkipListMap<>();
+            this.candadoEscritura = new ReentrantLock();
+            this.candadoIndiceNombres = new ReentrantReadWriteLock();
+        } else {
+            this.indiceTelefonos = new HashMap<>();
+            this.indiceCorreos = new HashMap<>();
+            this.nombres = null;
+            this.candadoEscritura = null;
+            this.candadoIndiceNombres = null;
+        }
+    }
+
+    /**
+     * Crea un registro en modo concurrente con su lista, árbol y grafo también concurrentes.
+     * @return registro vacío listo para usarse desde varios hilos
+     */
+    public static RegistroContactos crearConcurrente() {
+        return new RegistroContactos(new ListaContactos(true, true), new ArbolBinarioContactos(true),
+                new GrafoColaboraciones(true), true);
+    }
+
+    /**
+     * Devuelve el almacén de los datos de los contactos.
+     * @return almacén compacto, o null si los contactos guardan sus datos en String
+     */
+    public AlmacenContactos getAlmacen() {
+        return almacen;
+    }
+
+    /**
+     * Indica si el registro admite uso desde varios hilos.
+     * @return true en modo concurrente
+     */
+    public boolean esConcurrente() {
+        return concurrente;
+    }
+
+    /**
+     * Normaliza un teléfono dejando solo sus dígitos ("099-123 4567" -> "0991234567").
+     * @param telefono Teléfono original (puede ser null)
+     * @return dígitos del teléfono, vacío si no tiene ninguno
+     */
+    public static String normalizarTelefono(String telefono) {
+        if (telefono == null) {
+            return "";
+        }
+        StringBuilder digitos = new StringBuilder(telefono.length());
+        for (int i = 0; i < telefono.length(); i++) {
+            char c = telefono.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digitos.append(c);
+            }
+        }
+        return digitos.toString();
+    }
+
+    /**
+     * Normaliza un correo quitando espacios y pasándolo a minúsculas.
+     * @param correo Correo original (puede ser null)
+     * @return correo normalizado, vacío si no hay correo
+     */
+    public static String normalizarCorreo(String correo) {
+        return (correo == null) ? "" : correo.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Revisa si un contacto nuevo chocaría con uno ya registrado por nombre, teléfono o correo.
+     * Los teléfonos y correos vacíos no se consideran duplicados.
+     * @param nombre Nombre del contacto
+     * @param telefono Teléfono del contacto
+     * @param correo Correo electrónico del contacto
+     * @return descripción del conflicto, o null si el contacto se puede agregar
+     */
+    public String verificarDuplicados(String nombre, String telefono, String correo) {
+        return buscarConflicto(null, nombre, telefono, correo);
+    }
+
+    /**
+     * Revisa si cambiar los datos de un contacto lo haría chocar con otro ya registrado.
+     * Conservar su propio nombre, teléfono o correo no es un conflicto.
+     * @param contacto Contacto que se modificaría
+     * @param nombre Nombre nuevo
+     * @param telefono Teléfono nuevo
+     * @param correo Correo nuevo
+     * @return descripción del conflicto, o null si el cambio se puede aplicar
+     */
+    public String verificarCambios(NodoContacto contacto, String nombre, String telefono, String correo) {
+        return buscarConflicto(contacto, nombre, telefono, correo);
+    }
+
+    /**
+     * Busca otro contacto, distinto de "propio", con el mismo nombre, teléfono o correo.
+     */
+    private String buscarConflicto(NodoContacto propio, String nombre, String telefono, String correo) {
+        NodoContacto otro = buscar(nombre);
+        if (otro != null && otro != propio) {
+            return "Ya existe un contacto con ese nombre.";
+        }
+        otro = buscarPorTelefono(telefono);
+        if (otro != null && otro != propio) {
+            return "El teléfono ya pertenece a " + otro.getNombre() + ".";
+        }
+        otro = buscarPorCorreo(correo);
+        if (otro != null && otro != propio) {
+            return "El correo ya pertenece a " + otro.getNombre() + ".";
+        }
+        return null;
+    }
+
+    /**
+     * Crea un contacto y lo agrega a la lista, al árbol y al grafo.
+     * Si el nombre, el teléfono o el correo ya están registrados no hace nada
+     * (ver {@link #verificarDuplicados(String, String, String)}).
+     * @param nombre Nombre del contacto
+     * @param telefono Teléfono del contacto
+     * @param correo Correo electrónico del contacto
+     * @return el contacto creado, o null si chocaba con uno existente
+     */
+    public NodoContacto agregarContacto(String nombre, String telefono, String correo) {
+        bloquearEscritura();
+        try {
+            if (verificarDuplicados(nombre, telefono, correo) != null) {
+                return null;  // Un solo registro canónico por nombre, teléfono y correo
+            }
+            return registrar(nombre, telefono, correo, true);
+        } finally {
+            desbloquearEscritura();
+        }
+    }
+
+    /**
+     * Agrega un lote de contactos tomando el candado de altas una sola vez para todo el lote.
+     * Cada fila es {nombre, telefono, correo} (teléfono y correo opcionales); las filas inválidas
+     * o duplicadas, también dentro del mismo lote, se rechazan sin detener el resto.
+     * @param filas Contactos a agregar
+     * @return resumen con aceptados, rechazados y motivos ("Fila N" cuenta desde 1)
+     */
+    public ResultadoImportacion agregarContactos(List<String[]> filas) {
+        long inicio = System.nanoTime();
+        ResultadoImportacion resultado = new ResultadoImportacion();
+        bloquearEscritura();
+        try {
+            long numeroFila = 0;
+            for (String[] fila : filas) {
+                numeroFila++;
+                if (fila == null || fila.length == 0 || fila.length > 3) {
+                    resultado.rechazar(numeroFila, "se esperaban de 1 a 3 campos");
+                    continue;
+                }
+                String nombre = (fila[0] == null) ? "" : fila[0].trim();
+                String telefono = (fila.length > 1 && fila[1] != null) ? fila[1].trim() : "";
+                String correo = (fila.length > 2 && fila[2] != null) ? fila[2].trim() : "";
+                if (nombre.isEmpty()) {
+                    resultado.rechazar(numeroFila, "el nombre es obligatorio");
+                    continue;
+                }
+                String conflicto = verificarDuplicados(nombre, telefono, correo);
+                if (conflicto != null) {
+                    resultado.rechazar(numeroFila, conflicto);
+                    continue;
+                }
+                registrar(nombre, telefono, correo, true);
+                resultado.aceptar();
+            }
+        } finally {
+            desbloquearEscritura();
+        }
+        resultado.setDuracionNanos(System.nanoTime() - inicio);
+        return resultado;
+    }
+
+    /**
+     * Agrega un lote de colaboraciones {nombre1, nombre2} con un solo candado para todo el lote.
+     * @param pares Colaboraciones a agregar
+     * @return resumen con aceptadas, rechazadas y motivos ("Fila N" cuenta desde 1)
+     */
+    public ResultadoImportacion agregarColaboraciones(List<String[]> pares) {
+        long inicio = System.nanoTime();
+        ResultadoImportacion resultado = new ResultadoImportacion();
+        bloquearEscritura();
+        try {
+            long numeroFila = 0;
+            for (String[] par : pares) {
+                numeroFila++;
+                if (par == null || par.length != 2 || par[0] == null || par[1] == null) {
+                    resultado.rechazar(numeroFila, "se esperaban 2 nombres");
+                    continue;
+                }
+                NodoContacto c1 = buscar(par[0].trim());
+                NodoContacto c2 = buscar(par[1].trim());
+                if (c1 == null || c2 == null) {
+                    resultado.rechazar(numeroFila, "contacto no registrado: " + (c1 == null ? par[0].trim() : par[1].trim()));
+                } else if (c1 == c2) {
+                    resultado.rechazar(numeroFila, "un contacto no puede colaborar consigo mismo");
+                } else {
+                    agregarColaboracion(c1, c2);
+                    resultado.aceptar();
+                }
+            }
+        } finally {
+            desbloquearEscritura();
+        }
+        resultado.setDuracionNanos(System.nanoTime() - inicio);
+        return resultado;
+    }
+
+    /**
+     * Crea el contacto y lo agrega a las estructuras, sin revisar duplicados.
+     * La carga masiva puede diferir la inserción en el árbol para construirlo al final de una vez.
+     * @param insertarEnArbol false si quien llama se encarga de agregarlo al árbol después
+     * @return el contacto creado
+     */
+    NodoContacto registrar(String nombre, String telefono, String correo, boolean insertarEnArbol) {
+        bloquearEscritura();
+        try {
+            long numero = ++secuencia;
+            if (bitacora != null) {
+                bitacora.registrarContacto(numero, nombre, telefono, correo);
+            }
+            NodoContacto nuevo = (almacen != null) ? almacen.crear(nombre, telefono, correo)
+                    : new NodoContacto(nombre, telefono, correo);
+            return registrar(nuevo, insertarEnArbol);
+        } finally {
+            desbloquearEscritura();
+        }
+    }
+
+    /**
+     * Agrega a las estructuras un contacto ya creado, sin revisar duplicados ni anotarlo en la
+     * bitácora. Lo usa la carga mapeada de una instantánea, que crea sus propios contactos.
+     * @param nuevo Contacto que todavía no está en ninguna estructura
+     * @param insertarEnArbol false si quien llama se encarga de agregarlo al árbol después
+     * @return el mismo contacto
+     */
+    NodoContacto registrar(NodoContacto nuevo, boolean insertarEnArbol) {
+        bloquearEscritura();
+        try {
+            String nombre = nuevo.getNombre();
+            lista.agregarContacto(nuevo);   // La misma instancia en las tres estructuras
+            if (insertarEnArbol) {
+                arbol.insertar(nuevo);
+            }
+            grafo.agregarContacto(nuevo);
+            agregarAIndiceNombres(nuevo);
+            indexar(indiceTelefonos, normalizarTelefono(nuevo.getTelefono()), nuevo);
+            indexar(indiceCorreos, normalizarCorreo(nuevo.getCorreo()), nuevo);
+            if (nombres != null) {
+                nombres.putIfAbsent(ListaContactos.claveNombre(nombre), nuevo);  // Último paso: queda visible
+            }
+            return nuevo;
+        } finally {
+            desbloquearEscritura();
+        }
+    }
+
+    /**
+     * Elimina un contacto de la lista, el árbol, el grafo (con sus colaboraciones) y los índices.
+     * En modo concurrente deja de ser visible por nombre antes de quitarlo de las estructuras.
+     * @param nombre Nombre del contacto (sin distinguir mayúsculas)
+     * @return el contacto eliminado, o null si no existía
+     */
+    public NodoContacto eliminarContacto(String nombre) {
+        bloquearEscritura();
+        try {
+            NodoContacto contacto = buscar(nombre);
+            if (contacto == null) {
+                return null;
+            }
+            long numero = ++secuencia;
+            if (bitacora != null) {
+                bitacora.registrarEliminacionContacto(numero, contacto.getNombre());
+            }
+            if (nombres != null) {
+                nombres.remove(ListaContactos.claveNombre(contacto.getNombre()), contacto);  // Primer paso: deja de ser visible
+            }
+            desindexar(indiceTelefonos, normalizarTelefono(contacto.getTelefono()), contacto);
+            desindexar(indiceCorreos, normalizarCorreo(contacto.getCorreo()), contacto);
+            quitarDeIndiceNombres(contacto);
+            grafo.eliminarContacto(contacto);
+            arbol.eliminar(contacto.getNombre());
+            lista.eliminarContacto(contacto);
+            contacto.descartar();
+            return contacto;
+        } finally {
+            desbloquearEscritura();
+        }
+    }
+
+    /**
+     * Cambia los datos de un contacto conservando la misma instancia, así sus colaboraciones y
+     * su lugar en la lista no cambian. Si cambia el nombre, el contacto se saca del árbol y de los
+     * índices de nombres antes del cambio y se vuelve a agregar después; si no, solo se
+     * reindexan el teléfono y el correo.
+     * No hace nada si el contacto no existe o si los datos nuevos chocan con otro contacto
+     * (ver {@link #verificarCambios(NodoContacto, String, String, String)}).
+     * @param nombre Nombre actual del contacto
+     * @param nuevoNombre Nombre nuevo (puede ser el mismo)
+     * @param telefono Teléfono nuevo
+     * @param correo Correo nuevo
+     * @return el contacto modificado, o null si no existía o chocaba con otro
+     */
+    public NodoContacto actualizarContacto(String nombre, String nuevoNombre, String telefono, String correo) {
+        bloquearEscritura();
+        try {
+            NodoContacto contacto = buscar(nombre);
+            if (contacto == null || verificarCambios(contacto, nuevoNombre, telefono, correo) != null) {
+                return null;
+            }
+            long numero = ++secuencia;
+            if (bitacora != null) {
+                bitacora.registrarActualizacion(numero, contacto.getNombre(), nuevoNombre, telefono, correo);
+            }
+            boolean renombrar = !contacto.getNombre().equals(nuevoNombre);
+            if (renombrar) {
+                if (nombres != null) {
+                    nombres.remove(ListaContactos.claveNombre(contacto.getNombre()), contacto);
+                }
+                quitarDeIndiceNombres(contacto);       // Sus claves dependen del nombre anterior
+                arbol.eliminar(contacto.getNombre());
+            }
+            desindexar(indiceTelefonos, normalizarTelefono(contacto.getTelefono()), contacto);
+            desindexar(indiceCorreos, normalizarCorreo(contacto.getCorreo()), contacto);
+            lista.cambiarDatos(contacto, nuevoNombre, telefono, correo);
+            indexar(indiceTelefonos, normalizarTelefono(telefono), contacto);
+            indexar(indiceCorreos, normalizarCorreo(correo), contacto);
+            if (renombrar) {
+                arbol.insertar(contacto);
+                agregarAIndiceNombres(contacto);
+                if (nombres != null) {
+                    nombres.putIfAbsent(ListaContactos.claveNombre(nuevoNombre), contacto);  // Último paso: queda visible
+                }
+            }
+            return contacto;
+        } finally {
+            desbloquearEscritura();
+        }
+    }
+
+    /**
+     * Toma el candado de altas (no hace nada fuera del modo concurrente). Es reentrante: la
+     * carga masiva lo toma una vez por lote para revisar e insertar muchas filas seguidas.
+     */
+    void bloquearEscritura() {
+        if (candadoEscritura != null) {
+            candadoEscritura.lock();
+        }
+    }
+
+    /**
+     * Libera el candado de altas.
+     */
+    void desbloquearEscritura() {
+        if (candadoEscritura != null) {
+            candadoEscritura.unlock();
+        }
+    }
+
+    /**
+     * Busca el registro canónico de un contacto por nombre (sin distinguir mayúsculas).
+     * @param nombre Nombre a buscar
+     * @return NodoContacto encontrado o null si no existe
+     */
+    public NodoContacto buscar(String nombre) {
+        if (nombres != null) {
+            return (nombre == null) ? null : nombres.get(ListaContactos.claveNombre(nombre));  // Sin bloquear
+        }
+        return lista.buscarPorNombre(nombre);  // Índice hash de la lista, O(1)
+    }
+
+    /**
+     * Busca un contacto por teléfono, ignorando espacios, guiones y otros separadores.
+     * @param telefono Teléfono a buscar
+     * @return NodoContacto encontrado o null si no existe
+     */
+    public NodoContacto buscarPorTelefono(String telefono) {
+        String clave = normalizarTelefono(telefono);
+        return clave.isEmpty() ? null : indiceTelefonos.get(clave);
+    }
+
+    /**
+     * Busca un contacto por correo, sin distinguir mayúsculas.
+     * @param correo Correo a buscar
+     * @return NodoContacto encontrado o null si no existe
+     */
+    public NodoContacto buscarPorCorreo(String correo) {
+        String clave = normalizarCorreo(correo);
+        return clave.isEmpty() ? null : indiceCorreos.get(clave);
+    }
+
+    /**
+     * Busca contactos cuyo nombre o alguna de sus palabras empieza con el texto dado.
+     * @param prefijo Texto a buscar (sin distinguir mayúsculas ni tildes)
+     * @param limite Cantidad máxima de resultados
+     * @return contactos encontrados, los más cortos primero
+     */
+    public List<NodoContacto> buscarPorPrefijo(String prefijo, int limite) {
+        if (candadoIndiceNombres == null) {
+            return indiceNombres.buscarPorPrefijo(prefijo, limite);
+        }
+        candadoIndiceNombres.readLock().lock();
+        try {
+            return indiceNombres.buscarPorPrefijo(prefijo, limite);
+        } finally {
+            candadoIndiceNombres.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca contactos con nombres parecidos al texto dado, tolerando errores de tipeo.
+     * @param nombre Texto a buscar
+     * @param limite Cantidad máxima de resultados
+     * @return contactos encontrados, los más parecidos primero
+     */
+    public List<NodoContacto> buscarAproximado(String nombre, int limite) {
+        if (candadoIndiceNombres == null) {
+            return indiceNombres.buscarAproximado(nombre, IndiceNombres.DISTANCIA_MAXIMA, limite);
+        }
+        candadoIndiceNombres.readLock().lock();
+        try {
+            return indiceNombres.buscarAproximado(nombre, IndiceNombres.DISTANCIA_MAXIMA, limite);
+        } finally {
+            candadoIndiceNombres.readLock().unlock();
+        }
+    }
+
+    /**
+     * Agrega una colaboración entre dos contactos registrados, buscándolos por nombre.
+     * @param nombre1 Nombre del primer contacto
+     * @param nombre2 Nombre del segundo contacto
+     * @return true si ambos contactos existen y la colaboración no estaba registrada
+     */
+    public boolean agregarColaboracion(String nombre1, String nombre2) {
+        NodoContacto c1 = buscar(nombre1);
+        NodoContacto c2 = buscar(nombre2);
+        return agregarColaboracion(c1, c2);
+    }
+
+    /**
+     * Agrega una colaboración entre dos contactos ya registrados. Si ya colaboraban no anota
+     * nada en la bitácora ni consume un número de cambio.
+     * @param c1 Primer contacto
+     * @param c2 Segundo contacto
+     * @return true si ambos contactos existen y la colaboración no estaba registrada
+     */
+    public boolean agregarColaboracion(NodoContacto c1, NodoContacto c2) {
+        if (c1 == null || c2 == null) {
+            return false;
+        }
+        bloquearEscritura();  // La anotación en la bitácora y el alta quedan en el mismo orden
+        try {
+            // Con el candado tomado nadie más cambia el grafo entre la revisión y el alta
+            if (grafo.obtenerId(c1) < 0 || grafo.obtenerId(c2) < 0 || grafo.sonColaboradores(c1, c2)) {
+                return false;
+            }
+            long numero = ++secuencia;
+            if (bitacora != null) {
+                bitacora.registrarColaboracion(numero, c1.getNombre(), c2.getNombre());
+            }
+            return grafo.agregarColaboracion(c1, c2);
+        } finally {
+            desbloquearEscritura();
+        }
+    }
+
+    /**
+     * Elimina la colaboración entre dos contactos registrados, buscándolos por nombre.
+     * @param nombre1 Nombre del primer contacto
+     * @param nombre2 Nombre del segundo contacto
+     * @return true si ambos contactos existen y colaboraban
+     */
+    public boolean eliminarColaboracion(String nombre1, String nombre2) {
+        return eliminarColaboracion(buscar(nombre1), buscar(nombre2));
+    }
+
+    /**
+     * Elimina la colaboración entre dos contactos ya registrados. Si no colaboraban no anota
+     * nada en la bitácora ni consume un número de cambio.
+     * @param c1 Primer contacto
+     * @param c2 Segundo contacto
+     * @return true si ambos contactos existen y colaboraban
+     */
+    public boolean eliminarColaboracion(NodoContacto c1, NodoContacto c2) {
+        if (c1 == null || c2 == null) {
+            return false;
+        }
+        bloquearEscritura();
+        try {
+            if (!grafo.sonColaboradores(c1, c2)) {
+                return false;
+            }
+            long numero = ++secuencia;
+            if (bitacora != null) {
+                bitacora.registrarEliminacionColaboracion(numero, c1.getNombre(), c2.getNombre());
+            }
+            return grafo.eliminarColaboracion(c1, c2);
+        } finally {
+            desbloquearEscritura();
+        }
+    }
+
+    /**
+     * Asocia una bitácora de escritura anticipada: desde entonces cada alta, baja o cambio de
+     * contacto o de colaboración se anota en ella antes de aplicarse. Se asigna después de cargar la
+     * instantánea y reproducir la bitácora, para no volver a anotar lo ya guardado.
+     * @param bitacora Bitácora a usar, o null para dejar de anotar
+     */
+    public void setBitacora(BitacoraEscritura bitacora) {
+        this.bitacora = bitacora;
+    }
+
+    /**
+     * Devuelve el número del último cambio aplicado. Cada alta, baja o cambio recibe el número
+     * siguiente y con él se anota en la bitácora; la instantánea guarda el número vigente al
+     * escribirse, así al reproducir la bitácora se saltan los cambios que ya contiene.
+     * @return número del último cambio, 0 si no hubo ninguno
+     */
+    public long getSecuencia() {
+        return secuencia;
+    }
+
+    /**
+     * Fija el número del último cambio aplicado; lo usan la carga de una instantánea y la
+     * reproducción de la bitácora.
+     * @param secuencia Número del último cambio contenido en el registro
+     */
+    void setSecuencia(long secuencia) {
+        this.secuencia = secuencia;
+    }
+
+    /**
+     * Agrega una entrada a un índice inverso si la clave no está vacía.
+     */
+    private static void indexar(Map<String, NodoContacto> indice, String clave, NodoContacto contacto) {
+        if (!clave.isEmpty()) {
+            indice.put(clave, contacto);
+        }
+    }
+
+    /**
+     * Quita una entrada de un índice inverso, solo si todavía apunta a ese contacto.
+     */
+    private static void desindexar(Map<String, NodoContacto> indice, String clave, NodoContacto contacto) {
+        if (!clave.isEmpty()) {
+            indice.remove(clave, contacto);
+        }
+    }
+
+    /**
+     * Agrega el contacto al índice de prefijos, con su candado de escritura en modo concurrente.
+     */
+    private void agregarAIndiceNombres(NodoContacto contacto) {
+        if (candadoIndiceNombres == null) {
+            indiceNombres.agregar(contacto);
+            return;
+        }
+        candadoIndiceNombres.writeLock().lock();
+        try {
+            indiceNombres.agregar(contacto);
+        } finally {
+            candadoIndiceNombres.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Quita el contacto del índice de prefijos, con su candado de escritura en modo concurrente.
+     */
+    private void quitarDeIndiceNombres(NodoContacto contacto) {
+        if (candadoIndiceNombres == null) {
+            indiceNombres.quitar(contacto);
+            return;
+        }
+        candadoIndiceNombres.writeLock().lock();
+        try {
+            indiceNombres.quitar(contacto);
+        } finally {
+            candadoIndiceNombres.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Devuelve la lista enlazada de contactos del registro.
+     * @return lista de contactos
+     */
+    public ListaContactos getLista() {
+        return lista;
+    }
+
+    /**
+     * Devuelve el árbol de contactos del registro.
+     * @return árbol de contactos
+     */
+    public ArbolBinarioContactos getArbol() {
+        return arbol;
+    }
+
+    /**
+     * Devuelve el grafo de colaboraciones del registro.
+     * @return grafo de colaboraciones
+     */
+    public GrafoColaboraciones getGrafo() {
+        return grafo;
+    }
+}
@@ -0,0 +1,127 @@
+package modelo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resumen de una importación masiva o de un lote de altas: filas leídas, aceptadas y rechazadas,
+ * motivos de los primeros rechazos y velocidad alcanzada.
+ */
+public class ResultadoImportacion {
+    // Cantidad máxima de motivos de rechazo que se guardan (el resto solo se cuenta)
+    private static final int MAX_MOTIVOS = 100;
+
+    // Contadores de filas
+    private long filasLeidas;
+    private long aceptadas;
+    private long rechazadas;
+    // Motivos de los primeros rechazos, con su número de fila
+    private final List<String> motivosRechazo = new ArrayList<>();
+    // Duración total de la importación en nanosegundos
+    private long duracionNanos;
+    // true si se detuvo antes de llegar al final de la entrada
+    private boolean interrumpida;
+
+    /**
+     * Cuenta una fila aceptada.
+     */
+    void aceptar() {
+        filasLeidas++;
+        aceptadas++;
+    }
+
+    /**
+     * Cuenta una fila rechazada y guarda el motivo si aún hay espacio.
+     * @param fila Número de fila en el archivo (desde 1)
+     * @param motivo Descripción del problema
+     */
+    void rechazar(long fila, String motivo) {
+        filasLeidas++;
+        rechazadas++;
+        if (motivosRechazo.size() < MAX_MOTIVOS) {
+            motivosRechazo.add("Fila " + fila + ": " + motivo);
+        }
+    }
+
+    /**
+     * Registra la duración total.
+     * @param nanos Duración en nanosegundos
+     */
+    void setDuracionNanos(long nanos) {
+        this.duracionNanos = nanos;
+    }
+
+    /**
+     * Marca la importación como detenida antes del final.
+     */
+    void interrumpir() {
+        this.interrumpida = true;
+    }
+
+    /**
+     * Indica si la importación se detuvo antes de llegar al final de la entrada.
+     * @return true si se interrumpió
+     */
+    public boolean isInterrumpida() {
+        return interrumpida;
+    }
+
+    /**
+     * Devuelve la cantidad de filas leídas (sin contar encabezado ni filas vacías).
+     * @return filas leídas
+     */
+    public long getFilasLeidas() {
+        return filasLeidas;
+    }
+
+    /**
+     * Devuelve la cantidad de filas aceptadas.
+     * @return filas aceptadas
+     */
+    public long getAceptadas() {
+        return aceptadas;
+    }
+
+    /**
+     * Devuelve la cantidad de filas rechazadas.
+     * @return filas rechazadas
+     */
+    public long getRechazadas() {
+        return rechazadas;
+    }
+
+    /**
+     * Devuelve los motivos de los primeros rechazos (como máximo 100).
+     * @return lista de motivos con su número de fila
+     */
+    public List<String> getMotivosRechazo() {
+        return motivosRechazo;
+    }
+
+    /**
+     * Devuelve la duración total de la importación.
+     * @return duración en nanosegundos
+     */
+    public long getDuracionNanos() {
+        return duracionNanos;
+    }
+
+    /**
+     * Calcula la velocidad de la importación.
+     * @return filas procesadas por segundo
+     */
+    public double getFilasPorSegundo() {
+        return (duracionNanos == 0) ? 0 : filasLeidas * 1e9 / duracionNanos;
+    }
+
+    /**
+     * Devuelve un resumen legible de la importación.
+     * @return texto con contadores, duración y velocidad
+     */
+    @Override
+    public String toString() {
+        return filasLeidas + " filas, " + aceptadas + " aceptadas, " + rechazadas + " rechazadas en "
+                + (duracionNanos / 1_000_000) + " ms (" + Math.round(getFilasPorSegundo()) + " filas/s)"
+                + (interrumpida ? ", interrumpida" : "");
+    }
+}
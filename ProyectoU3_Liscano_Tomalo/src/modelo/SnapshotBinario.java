@@ -0,0 +1,580 @@
+package modelo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+/**
+ * Instantánea binaria compacta de un registro de contactos (lista, árbol y grafo).
+ * El archivo tiene un encabezado fijo y cuatro secciones:
+ * - tabla de cadenas: cada texto distinto una sola vez, en UTF-8, con su desplazamiento;
+ * - contactos: tres índices de cadena (nombre, teléfono, correo) por contacto, en el orden de la lista;
+ * - orden: índices de contacto ordenados por nombre (el recorrido inorden del árbol);
+ * - adyacencias: el grafo en formato CSR, indexado por posición de contacto.
+ * Se escribe con FileChannel y se lee con MappedByteBuffer: al abrirla solo se mapea el archivo,
+ * y se puede consultar (buscar por nombre, leer colaboradores) antes de cargarla en memoria con
+ * {@link #cargarEn(RegistroContactos)}, o cargarla dejando los datos de los contactos en el
+ * archivo con {@link #cargarMapeadoEn(RegistroContactos)}.
+ * Cada guardado escribe una generación nueva ("contactos.snap.N") y después cambia de forma
+ * atómica el índice ("contactos.snap", unas pocas líneas de texto) para que apunte a ella: un
+ * archivo de datos nunca se reescribe, así que puede seguir mapeado por este u otros procesos.
+ * Se conserva también la generación anterior, por si otro proceso leyó el índice y todavía no
+ * la abrió; las más viejas se borran (en Windows, las que siguen mapeadas quedan para después).
+ * Una instantánea de un solo archivo, como las que se guardaban antes, se sigue pudiendo abrir.
+ */
+public class SnapshotBinario implements Closeable {
+    // Identificador del formato ("CTSN") y versión (la 2 agrega el número del último cambio)
+    private static final int MAGICO = 0x4354534E;
+    private static final int VERSION = 2;
+    private static final int VERSION_SIN_SECUENCIA = 1;
+    // Tamaño del encabezado fijo en bytes (64 en la versión 1)
+    private static final int TAMANIO_ENCABEZADO = 72;
+    private static final int TAMANIO_ENCABEZADO_SIN_SECUENCIA = 64;
+    // Comienzo del índice que nombra la generación vigente
+    private static final String INDICE = "CTSN-GENERACION ";
+
+    // Canal del archivo abierto
+    private final FileChannel canal;
+    // Número del último cambio del registro contenido en la instantánea (0 en la versión 1)
+    private final long secuencia;
+    // Cantidades leídas del encabezado
+    private final int numCadenas;
+    private final int numContactos;
+    private final int numEntradas;
+    // Secciones mapeadas en memoria
+    private final ByteBuffer desplazamientosCadenas;
+    private final ByteBuffer bytesCadenas;
+    private final ByteBuffer contactos;
+    private final ByteBuffer orden;
+    private final ByteBuffer desplazamientosAdyacencia;
+    private final ByteBuffer destinosAdyacencia;
+
+    // ----------------------------------------------------------------------
+    // Escritura
+    // ----------------------------------------------------------------------
+
+    /**
+     * Guarda el contenido del registro como una generación nueva y luego apunta el índice a
+     * ella, para no dejar una instantánea a medias si algo falla ni tocar la que esté mapeada.
+     * Solo se guardan los contactos de la lista y las colaboraciones entre ellos, junto con el
+     * número del último cambio ({@link RegistroContactos#getSecuencia()}). Toma el candado de
+     * altas del registro mientras tanto, así ese número corresponde exactamente a lo guardado.
+     * @param registro Registro a guardar
+     * @param archivo Ruta del índice de la instantánea
+     * @throws IOException si falla la escritura
+     */
+    public static void guardar(RegistroContactos registro, Path archivo) throws IOException {
+        registro.bloquearEscritura();
+        try {
+            escribir(registro, archivo);
+        } finally {
+            registro.desbloquearEscritura();
+        }
+    }
+
+    /**
+     * Escribe la instantánea en la generación siguiente a la vigente y cambia el índice;
+     * quien llama ya tiene el candado de altas.
+     */
+    private static void escribir(RegistroContactos registro, Path archivo) throws IOException {
+        long numero = 1;
+        try {
+            numero = Math.max(generacionVigente(archivo), 0) + 1;
+        } catch (IOException e) {
+            // Sin índice (o vacío o dañado): se empieza por la primera generación libre
+        }
+        Path generacion;
+        while (Files.exists(generacion = generacion(archivo, numero))) {
+            numero++;  // Quedó de un guardado que se cortó antes de cambiar el índice
+        }
+        escribirDatos(registro, generacion);
+
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try (FileChannel salida = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            salida.write(ByteBuffer.wrap((INDICE + numero + "\n").getBytes(StandardCharsets.UTF_8)));
+            salida.force(true);
+        }
+        // El índice solo se lee, nunca se mapea: se puede reemplazar también en Windows
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        borrarGeneracionesViejas(archivo, numero);
+    }
+
+    /**
+     * Escribe los datos de la instantánea en un archivo nuevo.
+     */
+    private static void escribirDatos(RegistroContactos registro, Path archivo) throws IOException {
+        ListaContactos lista = registro.getLista();
+        int n = lista.getTamanio();
+        // Posición de cada contacto en la lista
+        IdentityHashMap<NodoContacto, Integer> posiciones = new IdentityHashMap<>(n * 2);
+        NodoContacto[] porPosicion = new NodoContacto[n];
+        int i = 0;
+        for (NodoContacto c = lista.getCabeza(); c != null; c = c.siguiente) {
+            posiciones.put(c, i);
+            porPosicion[i++] = c;
+        }
+
+        // Tabla de cadenas sin repetidos
+        HashMap<String, Integer> idsCadenas = new HashMap<>();
+        int[] registros = new int[n * 3];
+        int[] largos = new int[16];
+        byte[][] utf8 = new byte[16][];
+        int numCadenas = 0;
+        long totalBytes = 0;
+        for (int p = 0; p < n; p++) {
+            String[] campos = {porPosicion[p].getNombre(), porPosicion[p].getTelefono(), porPosicion[p].getCorreo()};
+            for (int k = 0; k < 3; k++) {
+                String texto = (campos[k] == null) ? "" : campos[k];
+                Integer id = idsCadenas.get(texto);
+                if (id == null) {
+                    id = numCadenas++;
+                    idsCadenas.put(texto, id);
+                    if (id == utf8.length) {
+                        utf8 = Arrays.copyOf(utf8, id * 2);
+                        largos = Arrays.copyOf(largos, id * 2);
+                    }
+                    utf8[id] = texto.getBytes(StandardCharsets.UTF_8);
+                    largos[id] = utf8[id].length;
+                    totalBytes += largos[id];
+                }
+                registros[p * 3 + k] = id;
+            }
+        }
+        if (totalBytes > Integer.MAX_VALUE) {
+            throw new IOException("La tabla de cadenas supera los 2 GB");
+        }
+
+        // Orden alfabético según el árbol
+        int[] ordenNombres = new int[n];
+        int[] cuenta = {0};
+        registro.getArbol().recorrerEnOrden(c -> {
+            Integer p = posiciones.get(c);
+            if (p != null && cuenta[0] < n) {
+                ordenNombres[cuenta[0]++] = p;
+            }
+        });
+
+        // Adyacencias indexadas por posición de contacto
+        GrafoColaboraciones grafo = registro.getGrafo();
+        AdyacenciaCSR csr = grafo.obtenerSnapshotCSR();
+        int[] desplazamientos = new int[n + 1];
+        int[] destinos = new int[csr.getNumEntradas()];
+        int usados = 0;
+        for (int p = 0; p < n; p++) {
+            desplazamientos[p] = usados;
+            int v = grafo.obtenerId(porPosicion[p]);
+            if (v >= 0) {
+                for (int q = csr.desplazamientos[v]; q < csr.desplazamientos[v + 1]; q++) {
+                    Integer destino = posiciones.get(csr.contactos[csr.destinos[q]]);
+                    if (destino != null) {
+                        destinos[usados++] = destino;
+                    }
+                }
+            }
+        }
+        desplazamientos[n] = usados;
+
+        try (FileChannel salida = FileChannel.open(archivo, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE)) {
+            EscritorBloques escritor = new EscritorBloques(salida, TAMANIO_ENCABEZADO);
+            long inicioCadenas = escritor.posicion();
+            long desplazamiento = 0;
+            for (int c = 0; c < numCadenas; c++) {
+                escritor.escribirInt((int) desplazamiento);
+                desplazamiento += largos[c];
+            }
+            escritor.escribirInt((int) desplazamiento);
+            long inicioBytes = escritor.posicion();
+            for (int c = 0; c < numCadenas; c++) {
+                escritor.escribirBytes(utf8[c]);
+            }
+            long inicioContactos = escritor.posicion();
+            escritor.escribirInts(registros, n * 3);
+            long inicioOrden = escritor.posicion();
+            escritor.escribirInts(ordenNombres, cuenta[0]);
+            long inicioDesplazamientos = escritor.posicion();
+            escritor.escribirInts(desplazamientos, n + 1);
+            escritor.escribirInts(destinos, usados);
+            escritor.vaciar();
+
+            // El encabezado se escribe al final, cuando ya se conocen todas las posiciones
+            ByteBuffer encabezado = ByteBuffer.allocate(TAMANIO_ENCABEZADO).order(ByteOrder.LITTLE_ENDIAN);
+            encabezado.putInt(MAGICO).putInt(VERSION)
+                    .putInt(numCadenas).putInt(n).putInt(cuenta[0]).putInt(usados)
+                    .putLong(inicioCadenas).putLong(inicioBytes).putLong(inicioContactos)
+                    .putLong(inicioOrden).putLong(inicioDesplazamientos).putLong(registro.getSecuencia());
+            encabezado.rewind();
+            salida.write(encabezado, 0);
+            salida.force(true);
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Generaciones
+    // ----------------------------------------------------------------------
+
+    /**
+     * Devuelve la ruta de una generación de la instantánea.
+     */
+    private static Path generacion(Path archivo, long numero) {
+        return archivo.resolveSibling(archivo.getFileName() + "." + numero);
+    }
+
+    /**
+     * Lee el índice y devuelve el número de la generación vigente.
+     * @return número de generación, o -1 si el archivo es una instantánea de un solo archivo
+     */
+    private static long generacionVigente(Path archivo) throws IOException {
+        byte[] contenido = Files.readAllBytes(archivo);
+        if (contenido.length >= 4 && ByteBuffer.wrap(contenido).order(ByteOrder.LITTLE_ENDIAN).getInt(0) == MAGICO) {
+            return -1;
+        }
+        String texto = new String(contenido, StandardCharsets.UTF_8).trim();
+        if (!texto.startsWith(INDICE)) {
+            throw new IOException("El archivo no es una instantánea de contactos ni su índice");
+        }
+        try {
+            return Long.parseLong(texto.substring(INDICE.length()).trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Índice de instantánea dañado: " + texto);
+        }
+    }
+
+    /**
+     * Borra las generaciones anteriores a la previa de la vigente (y las que dejó un guardado
+     * cortado). Si una no se puede borrar, por ejemplo porque sigue mapeada en Windows, se
+     * intenta de nuevo en el próximo guardado.
+     */
+    private static void borrarGeneracionesViejas(Path archivo, long vigente) {
+        Path carpeta = archivo.toAbsolutePath().getParent();
+        String prefijo = archivo.getFileName() + ".";
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(carpeta, prefijo + "*")) {
+            for (Path otro : archivos) {
+                String sufijo = otro.getFileName().toString().substring(prefijo.length());
+                if (!sufijo.isEmpty() && sufijo.chars().allMatch(Character::isDigit)
+                        && sufijo.length() < 19 && Long.parseLong(sufijo) < vigente - 1) {
+                    try {
+                        Files.deleteIfExists(otro);
+                    } catch (IOException e) {
+                        // Sigue en uso; queda para el próximo guardado
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // No se pudo listar la carpeta; las generaciones viejas quedan para el próximo guardado
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Lectura
+    // ----------------------------------------------------------------------
+
+    /**
+     * Abre la generación vigente de una instantánea mapeando sus secciones en memoria, sin
+     * leer los datos todavía.
+     * @param archivo Ruta del índice (o de una instantánea de un solo archivo)
+     * @return instantánea lista para consultar o cargar
+     * @throws IOException si el archivo no existe o no tiene el formato esperado
+     */
+    public static SnapshotBinario abrir(Path archivo) throws IOException {
+        long numero = generacionVigente(archivo);
+        FileChannel canal = FileChannel.open((numero < 0) ? archivo : generacion(archivo, numero),
+                StandardOpenOption.READ);
+        try {
+            return new SnapshotBinario(canal);
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    private SnapshotBinario(FileChannel canal) throws IOException {
+        this.canal = canal;
+        if (canal.size() < TAMANIO_ENCABEZADO_SIN_SECUENCIA) {
+            throw new IOException("Instantánea incompleta");
+        }
+        ByteBuffer encabezado = mapear(0, TAMANIO_ENCABEZADO_SIN_SECUENCIA);
+        int version = encabezado.getInt(4);
+        if (encabezado.getInt(0) != MAGICO || (version != VERSION && version != VERSION_SIN_SECUENCIA)) {
+            throw new IOException("El archivo no es una instantánea de contactos compatible");
+        }
+        secuencia = (version == VERSION) ? mapear(0, TAMANIO_ENCABEZADO).getLong(64) : 0;
+        numCadenas = encabezado.getInt(8);
+        numContactos = encabezado.getInt(12);
+        int numOrden = encabezado.getInt(16);
+        numEntradas = encabezado.getInt(20);
+        long inicioCadenas = encabezado.getLong(24);
+        long inicioBytes = encabezado.getLong(32);
+        long inicioContactos = encabezado.getLong(40);
+        long inicioOrden = encabezado.getLong(48);
+        long inicioDesplazamientos = encabezado.getLong(56);
+        if (numOrden != numContactos) {
+            throw new IOException("Instantánea inconsistente: el orden no cubre todos los contactos");
+        }
+        desplazamientosCadenas = mapear(inicioCadenas, 4L * (numCadenas + 1));
+        bytesCadenas = mapear(inicioBytes, inicioContactos - inicioBytes);
+        contactos = mapear(inicioContactos, 12L * numContactos);
+        orden = mapear(inicioOrden, 4L * numContactos);
+        desplazamientosAdyacencia = mapear(inicioDesplazamientos, 4L * (numContactos + 1));
+        destinosAdyacencia = mapear(inicioDesplazamientos + 4L * (numContactos + 1), 4L * numEntradas);
+    }
+
+    /**
+     * Mapea una sección de solo lectura del archivo.
+     */
+    private ByteBuffer mapear(long inicio, long largo) throws IOException {
+        if (largo > Integer.MAX_VALUE || inicio + largo > canal.size()) {
+            throw new IOException("Sección fuera del archivo o mayor a 2 GB");
+        }
+        MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_ONLY, inicio, largo);
+        return mapa.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Devuelve el número del último cambio del registro que contiene la instantánea.
+     * @return número de cambio, 0 si la instantánea no lo guarda (versión 1)
+     */
+    public long getSecuencia() {
+        return secuencia;
+    }
+
+    /**
+     * Devuelve la cantidad de contactos guardados.
+     * @return número de contactos
+     */
+    public int getCantidadContactos() {
+        return numContactos;
+    }
+
+    /**
+     * Devuelve la cantidad de colaboraciones guardadas.
+     * @return número de entradas de adyacencia (cada colaboración aparece en las dos filas)
+     */
+    public int getCantidadEntradasAdyacencia() {
+        return numEntradas;
+    }
+
+    /**
+     * Lee el nombre del contacto en una posición, decodificándolo directamente del archivo.
+     * @param posicion Posición del contacto en la lista (desde 0)
+     * @return nombre
+     */
+    public String getNombre(int posicion) {
+        return cadena(contactos.getInt(posicion * 12));
+    }
+
+    /**
+     * Lee el teléfono del contacto en una posición.
+     * @param posicion Posición del contacto en la lista
+     * @return teléfono
+     */
+    public String getTelefono(int posicion) {
+        return cadena(contactos.getInt(posicion * 12 + 4));
+    }
+
+    /**
+     * Lee el correo del contacto en una posición.
+     * @param posicion Posición del contacto en la lista
+     * @return correo
+     */
+    public String getCorreo(int posicion) {
+        return cadena(contactos.getInt(posicion * 12 + 8));
+    }
+
+    /**
+     * Busca un contacto por nombre con búsqueda binaria sobre la sección de orden,
+     * sin cargar la instantánea. Lee O(log n) nombres del archivo.
+     * @param nombre Nombre a buscar (sin distinguir mayúsculas)
+     * @return posición del contacto, o -1 si no está
+     */
+    public int buscar(String nombre) {
+        int bajo = 0, alto = numContactos - 1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            int posicion = orden.getInt(medio * 4);
+            int cmp = ArbolBinarioContactos.compararNombres(nombre, getNombre(posicion));
+            if (cmp == 0) {
+                return posicion;
+            }
+            if (cmp < 0) {
+                alto = medio - 1;
+            } else {
+                bajo = medio + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Lee las posiciones de los colaboradores de un contacto.
+     * @param posicion Posición del contacto
+     * @return posiciones de sus colaboradores
+     */
+    public int[] getColaboradores(int posicion) {
+        int inicio = desplazamientosAdyacencia.getInt(posicion * 4);
+        int fin = desplazamientosAdyacencia.getInt(posicion * 4 + 4);
+        int[] resultado = new int[fin - inicio];
+        for (int i = 0; i < resultado.length; i++) {
+            resultado[i] = destinosAdyacencia.getInt((inicio + i) * 4);
+        }
+        return resultado;
+    }
+
+    /**
+     * Carga toda la instantánea en un registro vacío: lista en el orden original, árbol
+     * construido de una vez desde el orden guardado y grafo desde el CSR.
+     * @param registro Registro vacío que recibirá los datos
+     */
+    public void cargarEn(RegistroContactos registro) {
+        cargar(registro, false);
+    }
+
+    /**
+     * Carga la instantánea como {@link #cargarEn(RegistroContactos)}, pero sin copiar los datos
+     * de los contactos al heap: cada contacto lee su nombre, teléfono y correo del archivo
+     * mapeado. El archivo se comparte en solo lectura con otros procesos que lo tengan mapeado
+     * y los contactos lo siguen leyendo aunque la instantánea se cierre; no hay problema
+     * porque {@link #guardar(RegistroContactos, Path)} escribe siempre una generación nueva.
+     * Cuesta decodificar el dato en cada lectura, incluidas las comparaciones del árbol.
+     * @param registro Registro vacío que recibirá los datos
+     */
+    public void cargarMapeadoEn(RegistroContactos registro) {
+        cargar(registro, true);
+    }
+
+    /**
+     * Carga la lista en el orden original, el árbol de una vez desde el orden guardado y el
+     * grafo desde el CSR, y deja en el registro el número del último cambio guardado.
+     */
+    private void cargar(RegistroContactos registro, boolean mapeado) {
+        if (registro.getLista().getTamanio() > 0) {
+            throw new IllegalStateException("El registro debe estar vacío para cargar una instantánea");
+        }
+        NodoContacto[] porPosicion = new NodoContacto[numContactos];
+        if (mapeado) {
+            for (int p = 0; p < numContactos; p++) {
+                porPosicion[p] = registro.registrar(new NodoContactoMapeado(this, p), false);
+            }
+        } else {
+            // Decodificar cada cadena una sola vez
+            String[] cadenas = new String[numCadenas];
+            for (int i = 0; i < numCadenas; i++) {
+                cadenas[i] = cadena(i);
+            }
+            for (int p = 0; p < numContactos; p++) {
+                porPosicion[p] = registro.registrar(cadenas[contactos.getInt(p * 12)],
+                        cadenas[contactos.getInt(p * 12 + 4)], cadenas[contactos.getInt(p * 12 + 8)], false);
+            }
+        }
+
+        NodoContacto[] ordenados = new NodoContacto[numContactos];
+        for (int i = 0; i < numContactos; i++) {
+            ordenados[i] = porPosicion[orden.getInt(i * 4)];
+        }
+        registro.getArbol().construirDesdeOrdenados(ordenados, numContactos);
+
+        GrafoColaboraciones grafo = registro.getGrafo();
+        int[] ids = new int[numContactos];
+        for (int p = 0; p < numContactos; p++) {
+            ids[p] = grafo.obtenerId(porPosicion[p]);
+        }
+        for (int p = 0; p < numContactos; p++) {
+            int inicio = desplazamientosAdyacencia.getInt(p * 4);
+            int fin = desplazamientosAdyacencia.getInt(p * 4 + 4);
+            for (int q = inicio; q < fin; q++) {
+                int otro = destinosAdyacencia.getInt(q * 4);
+                if (p <= otro) {  // Cada arista aparece en ambas filas: agregarla una sola vez
+                    grafo.agregarColaboracionNueva(ids[p], ids[otro]);
+                }
+            }
+        }
+        registro.setSecuencia(secuencia);  // La bitácora se reproduce a partir del cambio siguiente
+    }
+
+    /**
+     * Cierra el archivo. Las secciones mapeadas se liberan cuando el recolector las descarta.
+     * @throws IOException si falla el cierre
+     */
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    /**
+     * Decodifica una cadena de la tabla.
+     */
+    private String cadena(int id) {
+        int inicio = desplazamientosCadenas.getInt(id * 4);
+        int fin = desplazamientosCadenas.getInt(id * 4 + 4);
+        byte[] bytes = new byte[fin - inicio];
+        bytesCadenas.get(inicio, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Escritura secuencial a un FileChannel a través de un búfer de tamaño fijo.
+     */
+    private static final class EscritorBloques {
+        private final FileChannel salida;
+        private final ByteBuffer bufer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        private long posicion;
+
+        EscritorBloques(FileChannel salida, long inicio) throws IOException {
+            this.salida = salida;
+            this.posicion = inicio;
+            salida.position(inicio);
+        }
+
+        long posicion() {
+            return posicion;
+        }
+
+        void escribirInt(int valor) throws IOException {
+            if (bufer.remaining() < 4) {
+                vaciar();
+            }
+            bufer.putInt(valor);
+            posicion += 4;
+        }
+
+        void escribirInts(int[] valores, int cantidad) throws IOException {
+            for (int i = 0; i < cantidad; i++) {
+                escribirInt(valores[i]);
+            }
+        }
+
+        void escribirBytes(byte[] datos) throws IOException {
+            int escritos = 0;
+            while (escritos < datos.length) {
+                if (!bufer.hasRemaining()) {
+                    vaciar();
+                }
+                int n = Math.min(bufer.remaining(), datos.length - escritos);
+                bufer.put(datos, escritos, n);
+                escritos += n;
+            }
+            posicion += datos.length;
+        }
+
+        void vaciar() throws IOException {
+            bufer.flip();
+            while (bufer.hasRemaining()) {
+                salida.write(bufer);
+            }
+            bufer.clear();
+        }
+    }
+}
@@ -1,9 +1,16 @@
-/**
- * 
- */
-/**
- * 
- */
-module ProyectoU3_Liscano_Tomalo {
-	requires java.desktop;
+/**
+ * 
+ */
+/**
+ * 
+ */
+module ProyectoU3_Liscano_Tomalo {
+	requires java.desktop;
+	requires jdk.httpserver;
+	requires transitive java.management;
+	requires jdk.management;
+	requires jdk.jfr;
+
+	// JMX lee la interfaz de las métricas por reflexión
+	exports metricas;
 }
\ No newline at end of file
@@ -0,0 +1,238 @@
+package servicio;
+
+import modelo.NodoContacto;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Escritor de JSON en flujo: cada valor se escribe directamente en el Writer a medida que se
+ * genera, sin armar antes el texto completo de la respuesta. Lleva la cuenta de las comas
+ * por nivel de anidamiento.
+ */
+public class EscritorJson implements Closeable {
+    // Destino del texto
+    private final Writer salida;
+    // Por nivel: true si ya se escribió algún elemento (hace falta coma antes del siguiente)
+    private boolean[] conElementos = new boolean[8];
+    private int nivel;
+    // true justo después de escribir un nombre de campo (el valor no lleva coma)
+    private boolean despuesDeNombre;
+
+    /**
+     * Constructor que escribe sobre un Writer (conviene que tenga búfer).
+     * @param salida Destino del JSON
+     */
+    public EscritorJson(Writer salida) {
+        this.salida = salida;
+    }
+
+    /**
+     * Abre un objeto ({).
+     * @return este escritor
+     * @throws IOException si falla la escritura
+     */
+    public EscritorJson inicioObjeto() throws IOException {
+        abrir('{');
+        return this;
+    }
+
+    /**
+     * Cierra el objeto abierto (}).
+     * @return este escritor
+     * @throws IOException si falla la escritura
+     */
+    public EscritorJson finObjeto() throws IOException {
+        cerrar('}');
+        return this;
+    }
+
+    /**
+     * Abre un arreglo ([).
+     * @return este escritor
+     * @throws IOException si falla la escritura
+     */
+    public EscritorJson inicioArreglo() throws IOException {
+        abrir('[');
+        return this;
+    }
+
+    /**
+     * Cierra el arreglo abierto (]).
+     * @return este escritor
+     * @throws IOException si falla la escritura
+     */
+    public EscritorJson finArreglo() throws IOException {
+        cerrar(']');
+        return this;
+    }
+
+    /**
+     * Escribe el nombre de un campo; lo siguiente que se escriba es su valor.
+     * @param nombre Nombre del campo
+     * @return este escritor
+     * @throws IOException si falla la escritura
+     */
+    public EscritorJson nombre(String nombre) throws IOException {
+        separar();
+        cadena(nombre);
+        salida.write(':');
+        despuesDeNombre = true;
+        return this;
+    }
+
+    /**
+     * Escribe un texto (o null).
+     * @param texto Valor a escribir
+     * @return este escritor
+     * @throws IOException si falla la escritura
+     */
+    public EscritorJson valor(String texto) throws IOException {
+        separar();
+        if (texto == null) {
+            salida.write("null");
+        } else {
+            cadena(texto);
+        }
+        return this;
+    }
+
+    /**
+     * Escribe un número entero.
+     * @param numero Valor a escribir
+     * @return este escritor
+     * @throws IOException si falla la escritura
+     */
+    public EscritorJson valor(long numero) throws IOException {
+        separar();
+        salida.write(Long.toString(numero));
+        return this;
+    }
+
+    /**
+     * Escribe true o false.
+     * @param logico Valor a escribir
+     * @return este escritor
+     * @throws IOException si falla la escritura
+     */
+    public EscritorJson valor(boolean logico) throws IOException {
+        separar();
+        salida.write(logico ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * Escribe un campo de texto completo.
+     * @param nombre Nombre del campo
+     * @param texto Valor del campo
+     * @return este escritor
+     * @throws IOException si falla la escritura
+     */
+    public EscritorJson campo(String nombre, String texto) throws IOException {
+        return nombre(nombre).valor(texto);
+    }
+
+    /**
+     * Escribe un campo numérico completo.
+     * @param nombre Nombre del campo
+     * @param numero Valor del campo
+     * @return este escritor
+     * @throws IOException si falla la escritura
+     */
+    public EscritorJson campo(String nombre, long numero) throws IOException {
+        return nombre(nombre).valor(numero);
+    }
+
+    /**
+     * Escribe un contacto como objeto {"nombre", "telefono", "correo"}.
+     * @param contacto Contacto a escribir
+     * @return este escritor
+     * @throws IOException si falla la escritura
+     */
+    public EscritorJson contacto(NodoContacto contacto) throws IOException {
+        return inicioObjeto()
+                .campo("nombre", contacto.getNombre())
+                .campo("telefono", contacto.getTelefono())
+                .campo("correo", contacto.getCorreo())
+                .finObjeto();
+    }
+
+    /**
+     * Vacía el búfer del Writer subyacente.
+     * @throws IOException si falla la escritura
+     */
+    public void vaciar() throws IOException {
+        salida.flush();
+    }
+
+    /**
+     * Cierra el Writer subyacente.
+     * @throws IOException si falla el cierre
+     */
+    @Override
+    public void close() throws IOException {
+        salida.close();
+    }
+
+    private void abrir(char c) throws IOException {
+        separar();
+        salida.write(c);
+        if (++nivel == conElementos.length) {
+            conElementos = Arrays.copyOf(conElementos, nivel * 2);
+        }
+        conElementos[nivel] = false;
+    }
+
+    private void cerrar(char c) throws IOException {
+        nivel--;
+        salida.write(c);
+    }
+
+    /**
+     * Escribe la coma si el nivel actual ya tiene elementos (salvo tras un nombre de campo).
+     */
+    private void separar() throws IOException {
+        if (despuesDeNombre) {
+            despuesDeNombre = false;
+            return;
+        }
+        if (conElementos[nivel]) {
+            salida.write(',');
+        }
+        conElementos[nivel] = true;
+    }
+
+    /**
+     * Escribe un texto entre comillas, escapando lo que JSON exige.
+     */
+    private void cadena(String texto) throws IOException {
+        salida.write('"');
+        int desde = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            String escape;
+            if (c == '"') {
+                escape = "\\\"";
+            } else if (c == '\\') {
+                escape = "\\\\";
+            } else if (c == '\n') {
+                escape = "\\n";
+            } else if (c == '\r') {
+                escape = "\\r";
+            } else if (c == '\t') {
+                escape = "\\t";
+            } else if (c < 0x20 || c == 0x2028 || c == 0x2029) {
+                escape = String.format("\\u%04x", (int) c);
+            } else {
+                continue;
+            }
+            salida.write(texto, desde, i - desde);
+            salida.write(escape);
+            desde = i + 1;
+        }
+        salida.write(texto, desde, texto.length() - desde);
+        salida.write('"');
+    }
+}
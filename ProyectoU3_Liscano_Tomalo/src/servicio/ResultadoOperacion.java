@@ -0,0 +1,70 @@
+package servicio;
+
+import modelo.NodoContacto;
+
+/**
+ * Resultado de una operación individual del servicio: si tuvo éxito, el mensaje para mostrar
+ * y, cuando corresponde, el contacto involucrado.
+ */
+public class ResultadoOperacion {
+    // Indica si la operación se realizó
+    private final boolean exito;
+    // Descripción del resultado o del motivo del rechazo
+    private final String mensaje;
+    // Contacto creado o involucrado (puede ser null)
+    private final NodoContacto contacto;
+
+    private ResultadoOperacion(boolean exito, String mensaje, NodoContacto contacto) {
+        this.exito = exito;
+        this.mensaje = mensaje;
+        this.contacto = contacto;
+    }
+
+    /**
+     * Crea un resultado exitoso.
+     * @param mensaje Descripción del resultado
+     * @param contacto Contacto involucrado (puede ser null)
+     * @return resultado exitoso
+     */
+    static ResultadoOperacion exito(String mensaje, NodoContacto contacto) {
+        return new ResultadoOperacion(true, mensaje, contacto);
+    }
+
+    /**
+     * Crea un resultado de rechazo.
+     * @param mensaje Motivo del rechazo
+     * @return resultado fallido
+     */
+    static ResultadoOperacion error(String mensaje) {
+        return new ResultadoOperacion(false, mensaje, null);
+    }
+
+    /**
+     * Indica si la operación se realizó.
+     * @return true si tuvo éxito
+     */
+    public boolean isExito() {
+        return exito;
+    }
+
+    /**
+     * Devuelve el mensaje del resultado, listo para mostrar al usuario.
+     * @return mensaje
+     */
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    /**
+     * Devuelve el contacto creado o involucrado en la operación.
+     * @return contacto, o null si no aplica
+     */
+    public NodoContacto getContacto() {
+        return contacto;
+    }
+
+    @Override
+    public String toString() {
+        return mensaje;
+    }
+}
@@ -0,0 +1,402 @@
+package servicio;
+
+import modelo.BitacoraEscritura;
+import modelo.ImportadorCSV;
+import modelo.NodoContacto;
+import modelo.RegistroContactos;
+import modelo.ResultadoImportacion;
+import modelo.SnapshotBinario;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Servicio de contactos independiente de la interfaz gráfica.
+ * Reúne las operaciones de negocio (altas individuales y por lotes, bajas, modificaciones,
+ * búsquedas, listados y persistencia) para que puedan usarlas tanto el controlador Swing como procesos de carga
+ * o un servidor, sin pasar por el hilo de eventos de Swing.
+ * Las variantes por lote toman el candado de altas y validan una sola vez por lote.
+ * Con -Dcontactos.mapeado=true la instantánea se carga mapeada: los contactos leen sus datos
+ * del archivo en lugar de copiarlos al heap (ver {@link SnapshotBinario#cargarMapeadoEn}).
+ */
+public class ServicioContactos implements Closeable {
+    // true si la instantánea se carga dejando los datos de los contactos en el archivo mapeado
+    private static final boolean SNAPSHOT_MAPEADO = Boolean.getBoolean("contactos.mapeado");
+
+    // Registro que mantiene la lista, el árbol, el grafo y los índices
+    private final RegistroContactos registro;
+    // Persistencia (null hasta abrirla)
+    private Path archivoSnapshot;
+    private Path archivoBitacora;
+    private BitacoraEscritura bitacora;
+
+    /**
+     * Constructor que asocia el servicio a un registro de contactos.
+     * @param registro Registro a usar
+     */
+    public ServicioContactos(RegistroContactos registro) {
+        this.registro = registro;
+    }
+
+    // ----------------------------------------------------------------------
+    // Altas
+    // ----------------------------------------------------------------------
+
+    /**
+     * Agrega un contacto validando que tenga nombre y que no repita nombre, teléfono ni correo.
+     * @param nombre Nombre del contacto
+     * @param telefono Teléfono (opcional)
+     * @param correo Correo electrónico (opcional)
+     * @return resultado con el contacto creado o el motivo del rechazo
+     */
+    public ResultadoOperacion agregarContacto(String nombre, String telefono, String correo) {
+        nombre = (nombre == null) ? "" : nombre.trim();
+        telefono = (telefono == null) ? "" : telefono.trim();
+        correo = (correo == null) ? "" : correo.trim();
+        if (nombre.isEmpty()) {
+            return ResultadoOperacion.error("El nombre es obligatorio.");
+        }
+        String conflicto = registro.verificarDuplicados(nombre, telefono, correo);
+        if (conflicto == null) {
+            NodoContacto nuevo = registro.agregarContacto(nombre, telefono, correo);
+            if (nuevo != null) {
+                return ResultadoOperacion.exito("Contacto agregado: " + nombre, nuevo);
+            }
+            // Otro hilo lo agregó entre la revisión y el alta
+            conflicto = registro.verificarDuplicados(nombre, telefono, correo);
+        }
+        return ResultadoOperacion.error(conflicto);
+    }
+
+    /**
+     * Agrega un lote de contactos {nombre, telefono, correo}.
+     * @param contactos Filas a agregar
+     * @return resumen del lote
+     */
+    public ResultadoImportacion agregarContactos(List<String[]> contactos) {
+        return registro.agregarContactos(contactos);
+    }
+
+    /**
+     * Agrega una colaboración entre dos contactos registrados.
+     * @param nombre1 Nombre del primer contacto
+     * @param nombre2 Nombre del segundo contacto
+     * @return resultado de la operación
+     */
+    public ResultadoOperacion agregarColaboracion(String nombre1, String nombre2) {
+        if (nombre1 == null || nombre2 == null) {
+            return ResultadoOperacion.error("Debe seleccionar dos contactos.");
+        }
+        NodoContacto c1 = registro.buscar(nombre1.trim());
+        NodoContacto c2 = registro.buscar(nombre2.trim());
+        if (c1 == null || c2 == null) {
+            return ResultadoOperacion.error("Error al buscar contactos para colaboración.");
+        }
+        if (c1 == c2) {
+            return ResultadoOperacion.error("No puede colaborar un contacto consigo mismo.");
+        }
+        if (!registro.agregarColaboracion(c1, c2)) {
+            return ResultadoOperacion.error(c1.getNombre() + " y " + c2.getNombre() + " ya colaboran.");
+        }
+        return ResultadoOperacion.exito("Colaboración agregada entre " + c1.getNombre() + " y " + c2.getNombre(), c1);
+    }
+
+    /**
+     * Agrega un lote de colaboraciones {nombre1, nombre2}.
+     * @param pares Colaboraciones a agregar
+     * @return resumen del lote
+     */
+    public ResultadoImportacion agregarColaboraciones(List<String[]> pares) {
+        return registro.agregarColaboraciones(pares);
+    }
+
+    /**
+     * Importa contactos desde un archivo CSV.
+     * @param archivo Ruta del archivo
+     * @return resumen de la importación
+     * @throws IOException si no se puede leer el archivo
+     */
+    public ResultadoImportacion importarContactos(Path archivo) throws IOException {
+        return importarContactos(archivo, null);
+    }
+
+    /**
+     * Importa contactos desde un archivo CSV informando el avance después de cada lote.
+     * @param archivo Ruta del archivo
+     * @param seguimiento Destinatario del avance, que puede detener la importación (puede ser null)
+     * @return resumen de la importación
+     * @throws IOException si no se puede leer el archivo
+     */
+    public ResultadoImportacion importarContactos(Path archivo, ImportadorCSV.Seguimiento seguimiento)
+            throws IOException {
+        ImportadorCSV importador = new ImportadorCSV(registro);
+        importador.setSeguimiento(seguimiento);
+        return importador.importarContactos(archivo);
+    }
+
+    /**
+     * Importa colaboraciones desde un archivo CSV.
+     * @param archivo Ruta del archivo
+     * @return resumen de la importación
+     * @throws IOException si no se puede leer el archivo
+     */
+    public ResultadoImportacion importarColaboraciones(Path archivo) throws IOException {
+        return importarColaboraciones(archivo, null);
+    }
+
+    /**
+     * Importa colaboraciones desde un archivo CSV informando el avance después de cada lote.
+     * @param archivo Ruta del archivo
+     * @param seguimiento Destinatario del avance, que puede detener la importación (puede ser null)
+     * @return resumen de la importación
+     * @throws IOException si no se puede leer el archivo
+     */
+    public ResultadoImportacion importarColaboraciones(Path archivo, ImportadorCSV.Seguimiento seguimiento)
+            throws IOException {
+        ImportadorCSV importador = new ImportadorCSV(registro);
+        importador.setSeguimiento(seguimiento);
+        return importador.importarColaboraciones(archivo);
+    }
+
+    // ----------------------------------------------------------------------
+    // Bajas y modificaciones
+    // ----------------------------------------------------------------------
+
+    /**
+     * Elimina un contacto junto con sus colaboraciones.
+     * @param nombre Nombre del contacto
+     * @return resultado con el contacto eliminado o el motivo del rechazo
+     */
+    public ResultadoOperacion eliminarContacto(String nombre) {
+        nombre = (nombre == null) ? "" : nombre.trim();
+        if (nombre.isEmpty()) {
+            return ResultadoOperacion.error("Debe indicar el nombre del contacto a eliminar.");
+        }
+        NodoContacto eliminado = registro.eliminarContacto(nombre);
+        if (eliminado == null) {
+            return ResultadoOperacion.error("Contacto no encontrado: " + nombre);
+        }
+        return ResultadoOperacion.exito("Contacto eliminado: " + eliminado.getNombre(), eliminado);
+    }
+
+    /**
+     * Elimina la colaboración entre dos contactos registrados.
+     * @param nombre1 Nombre del primer contacto
+     * @param nombre2 Nombre del segundo contacto
+     * @return resultado de la operación
+     */
+    public ResultadoOperacion eliminarColaboracion(String nombre1, String nombre2) {
+        if (nombre1 == null || nombre2 == null) {
+            return ResultadoOperacion.error("Debe seleccionar dos contactos.");
+        }
+        NodoContacto c1 = registro.buscar(nombre1.trim());
+        NodoContacto c2 = registro.buscar(nombre2.trim());
+        if (c1 == null || c2 == null) {
+            return ResultadoOperacion.error("Error al buscar contactos para colaboración.");
+        }
+        if (!registro.eliminarColaboracion(c1, c2)) {
+            return ResultadoOperacion.error(c1.getNombre() + " y " + c2.getNombre() + " no colaboran.");
+        }
+        return ResultadoOperacion.exito("Colaboración eliminada entre " + c1.getNombre() + " y " + c2.getNombre(), c1);
+    }
+
+    /**
+     * Cambia los datos de un contacto validando que el nombre nuevo no quede vacío y que no
+     * repita el nombre, el teléfono ni el correo de otro contacto. Sus colaboraciones se conservan.
+     * @param nombre Nombre actual del contacto
+     * @param nuevoNombre Nombre nuevo; vacío para conservar el actual
+     * @param telefono Teléfono nuevo; vacío para conservar el actual
+     * @param correo Correo electrónico nuevo; vacío para conservar el actual
+     * @return resultado con el contacto modificado o el motivo del rechazo
+     */
+    public ResultadoOperacion actualizarContacto(String nombre, String nuevoNombre, String telefono, String correo) {
+        nombre = (nombre == null) ? "" : nombre.trim();
+        nuevoNombre = (nuevoNombre == null) ? "" : nuevoNombre.trim();
+        telefono = (telefono == null) ? "" : telefono.trim();
+        correo = (correo == null) ? "" : correo.trim();
+        NodoContacto contacto = registro.buscar(nombre);
+        if (contacto == null) {
+            return ResultadoOperacion.error("Contacto no encontrado: " + nombre);
+        }
+        // Un campo vacío conserva el dato actual, así el formulario no borra lo que no se escribió
+        if (nuevoNombre.isEmpty()) {
+            nuevoNombre = contacto.getNombre();
+        }
+        if (telefono.isEmpty()) {
+            telefono = contacto.getTelefono();
+        }
+        if (correo.isEmpty()) {
+            correo = contacto.getCorreo();
+        }
+        String conflicto = registro.verificarCambios(contacto, nuevoNombre, telefono, correo);
+        if (conflicto == null) {
+            NodoContacto actualizado = registro.actualizarContacto(nombre, nuevoNombre, telefono, correo);
+            if (actualizado != null) {
+                return ResultadoOperacion.exito("Contacto actualizado: " + actualizado.getNombre(), actualizado);
+            }
+            // Otro hilo lo cambió o lo eliminó entre la revisión y el cambio
+            contacto = registro.buscar(nombre);
+            conflicto = (contacto == null) ? "Contacto no encontrado: " + nombre
+                    : registro.verificarCambios(contacto, nuevoNombre, telefono, correo);
+        }
+        return ResultadoOperacion.error(conflicto);
+    }
+
+    // ----------------------------------------------------------------------
+    // Consultas
+    // ----------------------------------------------------------------------
+
+    /**
+     * Busca un contacto por su nombre exacto (sin distinguir mayúsculas).
+     * @param nombre Nombre a buscar
+     * @return contacto, o null si no existe
+     */
+    public NodoContacto buscar(String nombre) {
+        return (nombre == null) ? null : registro.buscar(nombre.trim());
+    }
+
+    /**
+     * Busca un contacto por teléfono o, si no hay coincidencia, por correo.
+     * @param telefono Teléfono a buscar (puede estar vacío)
+     * @param correo Correo a buscar (puede estar vacío)
+     * @return contacto, o null si no existe
+     */
+    public NodoContacto buscarPorTelefonoOCorreo(String telefono, String correo) {
+        NodoContacto encontrado = registro.buscarPorTelefono(telefono);
+        return (encontrado != null) ? encontrado : registro.buscarPorCorreo(correo);
+    }
+
+    /**
+     * Busca contactos parecidos a un texto: primero por prefijo y, si no hay, tolerando
+     * errores de tipeo.
+     * @param texto Texto escrito por el usuario
+     * @param limite Cantidad máxima de resultados
+     * @return coincidencias, posiblemente vacía
+     */
+    public List<NodoContacto> buscarCoincidencias(String texto, int limite) {
+        List<NodoContacto> sugerencias = registro.buscarPorPrefijo(texto, limite);
+        if (sugerencias.isEmpty()) {
+            sugerencias = registro.buscarAproximado(texto, limite);
+        }
+        return sugerencias;
+    }
+
+    /**
+     * Devuelve una página de contactos en orden alfabético.
+     * @param desde Posición del primer contacto (desde 0)
+     * @param limite Cantidad máxima de contactos
+     * @return contactos de la página
+     */
+    public List<NodoContacto> listarOrdenados(int desde, int limite) {
+        List<NodoContacto> pagina = new ArrayList<>(Math.max(0, Math.min(limite, 1024)));
+        if (desde < 0 || limite <= 0) {
+            return pagina;
+        }
+        registro.getArbol().recorrerDesdePosicion(desde, limite, pagina::add);  // O(log n) hasta "desde"
+        return pagina;
+    }
+
+    /**
+     * Devuelve la cantidad de contactos registrados.
+     * @return número de contactos
+     */
+    public int getCantidadContactos() {
+        return registro.getLista().getTamanio();
+    }
+
+    /**
+     * Devuelve el registro sobre el que trabaja el servicio.
+     * @return registro de contactos
+     */
+    public RegistroContactos getRegistro() {
+        return registro;
+    }
+
+    // ----------------------------------------------------------------------
+    // Persistencia
+    // ----------------------------------------------------------------------
+
+    /**
+     * Carga la instantánea indicada (si existe), reproduce la bitácora sobre ella y deja la
+     * bitácora abierta para anotar las altas siguientes. Debe llamarse con el registro vacío
+     * o solo con datos que la bitácora no contenga.
+     * @param snapshot Archivo de la instantánea
+     * @param archivoBitacora Archivo de la bitácora
+     * @param intervaloMillis Milisegundos entre cada fsync de la bitácora
+     * @param umbralCompactacion Tamaño de bitácora que dispara una compactación (0 la desactiva)
+     * @return true si había instantánea y se cargó
+     * @throws IOException si falla la lectura o no se puede abrir la bitácora
+     */
+    public boolean abrirPersistencia(Path snapshot, Path archivoBitacora, long intervaloMillis,
+                                     long umbralCompactacion) throws IOException {
+        boolean cargada = cargarSnapshot(snapshot);
+        abrirBitacora(snapshot, archivoBitacora, intervaloMillis, umbralCompactacion);
+        return cargada;
+    }
+
+    /**
+     * Carga la instantánea en el registro, si el archivo existe.
+     * @param snapshot Archivo de la instantánea
+     * @return true si se cargó
+     * @throws IOException si el archivo existe pero no se puede leer
+     */
+    public boolean cargarSnapshot(Path snapshot) throws IOException {
+        this.archivoSnapshot = snapshot;
+        if (!Files.exists(snapshot)) {
+            return false;
+        }
+        try (SnapshotBinario instantanea = SnapshotBinario.abrir(snapshot)) {
+            if (SNAPSHOT_MAPEADO) {
+                instantanea.cargarMapeadoEn(registro);  // El mapa sigue vivo después de cerrar
+            } else {
+                instantanea.cargarEn(registro);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reproduce la bitácora sobre lo ya cargado y la deja abierta para las altas siguientes.
+     * @param snapshot Instantánea que se actualiza al compactar
+     * @param archivoBitacora Archivo de la bitácora
+     * @param intervaloMillis Milisegundos entre cada fsync
+     * @param umbralCompactacion Tamaño de bitácora que dispara una compactación (0 la desactiva)
+     * @return cantidad de cambios recuperados de la bitácora
+     * @throws IOException si falla la lectura o la apertura
+     */
+    public long abrirBitacora(Path snapshot, Path archivoBitacora, long intervaloMillis,
+                              long umbralCompactacion) throws IOException {
+        this.archivoSnapshot = snapshot;
+        this.archivoBitacora = archivoBitacora;
+        long reproducidos = BitacoraEscritura.reproducirTodo(archivoBitacora, registro);
+        bitacora = new BitacoraEscritura(archivoBitacora, intervaloMillis);
+        bitacora.setCompactacionAutomatica(snapshot, umbralCompactacion);
+        registro.setBitacora(bitacora);
+        return reproducidos;
+    }
+
+    /**
+     * Cierra la bitácora, guarda la instantánea y, si se guardó, descarta la bitácora y la
+     * bitácora rotada que pudo dejar una compactación fallida: todo quedó en la instantánea.
+     * Si no se abrió la persistencia no hace nada.
+     * @throws IOException si falla el cierre o la escritura de la instantánea
+     */
+    @Override
+    public void close() throws IOException {
+        if (bitacora != null) {
+            registro.setBitacora(null);
+            bitacora.close();
+            bitacora = null;
+        }
+        if (archivoSnapshot != null) {
+            SnapshotBinario.guardar(registro, archivoSnapshot);
+            if (archivoBitacora != null) {
+                BitacoraEscritura.borrar(archivoBitacora);  // Primero la rotada, después la actual
+            }
+        }
+    }
+}
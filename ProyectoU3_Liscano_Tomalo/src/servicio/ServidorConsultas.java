@@ -0,0 +1,400 @@
+package servicio;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import metricas.EstadisticaOperacion;
+import metricas.HistogramaLatencias;
+import metricas.MetricasModelo;
+import modelo.AnaliticaGrafo;
+import modelo.NodoContacto;
+import modelo.RegistroContactos;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Servidor HTTP local de solo lectura sobre el directorio de contactos y el grafo de colaboraciones,
+ * construido con el servidor embebido del JDK (com.sun.net.httpserver).
+ * Rutas (todas GET, parámetros en la query y respuestas JSON):
+ * - /contacto?nombre=...              contacto exacto, buscado en el árbol
+ * - /contactos?desde=0&amp;limite=100     página del listado alfabético
+ * - /buscar?q=...&amp;limite=10           coincidencias por prefijo o aproximadas
+ * - /vecinos?nombre=...               colaboradores directos
+ * - /camino?origen=...&amp;destino=...    camino más corto de colaboraciones; 404 "sin camino"
+ *                                     si los dos contactos no están conectados
+ * - /metricas                         solicitudes y latencias p50/p99 por ruta, y por operación
+ *                                     del modelo si las métricas del modelo están activas
+ * Cada solicitud corre en su propio hilo virtual cuando la JVM los ofrece (Java 21 o posterior);
+ * si no, en un pool de hilos que crece según demanda. Las conexiones keep-alive inactivas no
+ * ocupan hilos: las atiende el selector del servidor. Las respuestas se escriben en flujo
+ * (transferencia por bloques), sin armar el texto completo en memoria.
+ * El registro debe estar en modo concurrente si se modifica mientras el servidor atiende.
+ */
+public class ServidorConsultas implements Closeable {
+    // Límite de elementos por respuesta de listado
+    private static final int LIMITE_MAXIMO = 10_000;
+    // Cola de conexiones pendientes de aceptar
+    private static final int COLA_CONEXIONES = 4096;
+    // Conexiones keep-alive inactivas que el servidor conserva (el JDK cierra las que pasen de 200)
+    private static final String MAX_INACTIVAS = "sun.net.httpserver.maxIdleConnections";
+
+    static {
+        // Debe fijarse antes de crear el primer HttpServer; respeta el valor dado con -D
+        if (System.getProperty(MAX_INACTIVAS) == null) {
+            System.setProperty(MAX_INACTIVAS, "10000");
+        }
+    }
+
+    // Servicio consultado
+    private final ServicioContactos servicio;
+    // Servidor HTTP y ejecutor de las solicitudes
+    private final HttpServer servidor;
+    private final ExecutorService ejecutor;
+    // Instancias de análisis reutilizables (no son seguras entre hilos: una por consulta a la vez)
+    private final ConcurrentLinkedQueue<AnaliticaGrafo> analiticas = new ConcurrentLinkedQueue<>();
+    // Limita las búsquedas de caminos simultáneas: usan CPU y arreglos de trabajo de tamaño O(V)
+    private final Semaphore permisosAnalitica;
+    // Latencia por ruta, en nanosegundos
+    private final Map<String, HistogramaLatencias> latencias = new LinkedHashMap<>();
+
+    /**
+     * Crea el servidor escuchando solo en la interfaz local (127.0.0.1). No atiende hasta
+     * llamar a {@link #iniciar()}.
+     * @param servicio Servicio de contactos a exponer
+     * @param puerto Puerto TCP (0 para elegir uno libre)
+     * @throws IOException si no se puede abrir el puerto
+     */
+    public ServidorConsultas(ServicioContactos servicio, int puerto) throws IOException {
+        this.servicio = servicio;
+        this.servidor = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), puerto),
+                COLA_CONEXIONES);
+        this.ejecutor = crearEjecutor();
+        this.permisosAnalitica = new Semaphore(Math.max(2, Runtime.getRuntime().availableProcessors() * 2));
+        servidor.setExecutor(ejecutor);
+        registrarRuta("/contacto", this::contacto);
+        registrarRuta("/contactos", this::contactos);
+        registrarRuta("/buscar", this::buscar);
+        registrarRuta("/vecinos", this::vecinos);
+        registrarRuta("/camino", this::camino);
+        registrarRuta("/metricas", this::metricas);
+    }
+
+    /**
+     * Empieza a atender solicitudes.
+     */
+    public void iniciar() {
+        servidor.start();
+    }
+
+    /**
+     * Devuelve el puerto en el que escucha el servidor.
+     * @return puerto TCP
+     */
+    public int getPuerto() {
+        return servidor.getAddress().getPort();
+    }
+
+    /**
+     * Devuelve el histograma de latencias de una ruta.
+     * @param ruta Ruta, por ejemplo "/contacto"
+     * @return histograma en nanosegundos, o null si la ruta no existe
+     */
+    public HistogramaLatencias getLatencias(String ruta) {
+        return latencias.get(ruta);
+    }
+
+    /**
+     * Detiene el servidor esperando hasta un segundo a que terminen las solicitudes en curso.
+     */
+    @Override
+    public void close() {
+        servidor.stop(1);
+        ejecutor.shutdown();
+        try {
+            ejecutor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Crea un ejecutor de un hilo virtual por tarea si la JVM lo ofrece (se busca por reflexión
+     * para poder compilar y correr también en Java 17); si no, un pool de hilos que crece según
+     * la demanda y recicla los hilos inactivos.
+     * @return ejecutor para las solicitudes
+     */
+    static ExecutorService crearEjecutor() {
+        try {
+            Method virtuales = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtuales.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Executors.newCachedThreadPool(tarea -> {
+                Thread hilo = new Thread(tarea, "consultas-http");
+                hilo.setDaemon(true);
+                return hilo;
+            });
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Rutas
+    // ----------------------------------------------------------------------
+
+    private void contacto(Map<String, String> parametros, HttpExchange intercambio) throws IOException {
+        String nombre = requerido(parametros, "nombre");
+        NodoContacto encontrado = registro().getArbol().buscar(nombre);  // Lectura optimista en modo concurrente
+        if (encontrado == null) {
+            throw new ErrorConsulta(404, "Contacto no encontrado: " + nombre);
+        }
+        try (EscritorJson json = responder(intercambio)) {
+            json.contacto(encontrado);
+        }
+    }
+
+    private void contactos(Map<String, String> parametros, HttpExchange intercambio) throws IOException {
+        int desde = entero(parametros, "desde", 0);
+        int limite = Math.min(entero(parametros, "limite", 100), LIMITE_MAXIMO);
+        List<NodoContacto> pagina = servicio.listarOrdenados(desde, limite);
+        try (EscritorJson json = responder(intercambio)) {
+            json.inicioObjeto()
+                    .campo("total", servicio.getCantidadContactos())
+                    .campo("desde", desde)
+                    .nombre("contactos").inicioArreglo();
+            for (NodoContacto c : pagina) {
+                json.contacto(c);
+            }
+            json.finArreglo().finObjeto();
+        }
+    }
+
+    private void buscar(Map<String, String> parametros, HttpExchange intercambio) throws IOException {
+        String texto = requerido(parametros, "q");
+        int limite = Math.min(entero(parametros, "limite", 10), LIMITE_MAXIMO);
+        List<NodoContacto> coincidencias = servicio.buscarCoincidencias(texto, limite);
+        try (EscritorJson json = responder(intercambio)) {
+            json.inicioArreglo();
+            for (NodoContacto c : coincidencias) {
+                json.contacto(c);
+            }
+            json.finArreglo();
+        }
+    }
+
+    private void vecinos(Map<String, String> parametros, HttpExchange intercambio) throws IOException {
+        NodoContacto contacto = contactoExistente(requerido(parametros, "nombre"));
+        try (EscritorJson json = responder(intercambio)) {
+            json.inicioObjeto().campo("nombre", contacto.getNombre()).nombre("vecinos").inicioArreglo();
+            for (NodoContacto vecino : registro().getGrafo().getVecinos(contacto)) {
+                json.valor(vecino.getNombre());
+            }
+            json.finArreglo().finObjeto();
+        }
+    }
+
+    private void camino(Map<String, String> parametros, HttpExchange intercambio) throws IOException {
+        NodoContacto origen = contactoExistente(requerido(parametros, "origen"));
+        NodoContacto destino = contactoExistente(requerido(parametros, "destino"));
+        List<NodoContacto> camino;
+        permisosAnalitica.acquireUninterruptibly();
+        AnaliticaGrafo analitica = analiticas.poll();
+        try {
+            if (analitica == null) {
+                analitica = new AnaliticaGrafo(registro().getGrafo());
+            }
+            camino = analitica.caminoMasCorto(origen, destino);
+        } finally {
+            if (analitica != null) {
+                analiticas.offer(analitica);  // Como mucho tantas instancias como permisos
+            }
+            permisosAnalitica.release();
+        }
+        if (camino.isEmpty()) {
+            throw new ErrorConsulta(404, "Sin camino entre " + origen.getNombre() + " y " + destino.getNombre());
+        }
+        try (EscritorJson json = responder(intercambio)) {
+            json.inicioObjeto().campo("grados", camino.size() - 1).nombre("camino").inicioArreglo();
+            for (NodoContacto c : camino) {
+                json.valor(c.getNombre());
+            }
+            json.finArreglo().finObjeto();
+        }
+    }
+
+    private void metricas(Map<String, String> parametros, HttpExchange intercambio) throws IOException {
+        try (EscritorJson json = responder(intercambio)) {
+            json.inicioObjeto().nombre("rutas").inicioArreglo();
+            for (Map.Entry<String, HistogramaLatencias> ruta : latencias.entrySet()) {
+                HistogramaLatencias h = ruta.getValue();
+                json.inicioObjeto()
+                        .campo("ruta", ruta.getKey())
+                        .campo("solicitudes", h.getCantidad())
+                        .campo("p50_us", h.percentil(50) / 1000)
+                        .campo("p99_us", h.percentil(99) / 1000)
+                        .campo("max_us", h.getMaximo() / 1000)
+                        .finObjeto();
+            }
+            json.finArreglo();
+            if (MetricasModelo.ACTIVAS) {
+                json.nombre("modelo").inicioArreglo();
+                for (EstadisticaOperacion e : MetricasModelo.getInstancia().getOperaciones()) {
+                    json.inicioObjeto()
+                            .campo("operacion", e.getOperacion())
+                            .campo("cantidad", e.getCantidad())
+                            .campo("lentas", e.getLentas())
+                            .campo("p50_us", e.getP50Nanos() / 1000)
+                            .campo("p99_us", e.getP99Nanos() / 1000)
+                            .campo("max_us", e.getMaximoNanos() / 1000)
+                            .finObjeto();
+                }
+                json.finArreglo();
+            }
+            json.finObjeto();
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Utilidades
+    // ----------------------------------------------------------------------
+
+    /**
+     * Ruta atendida por un método que lee los parámetros y escribe la respuesta.
+     */
+    private interface Manejador {
+        void atender(Map<String, String> parametros, HttpExchange intercambio) throws IOException;
+    }
+
+    /**
+     * Solicitud inválida; se responde con el código y el mensaje indicados antes de escribir nada.
+     */
+    private static final class ErrorConsulta extends RuntimeException {
+        private final int codigo;
+
+        ErrorConsulta(int codigo, String mensaje) {
+            super(mensaje, null, false, false);
+            this.codigo = codigo;
+        }
+    }
+
+    /**
+     * Registra una ruta midiendo su latencia y convirtiendo los errores en respuestas JSON.
+     */
+    private void registrarRuta(String ruta, Manejador manejador) {
+        HistogramaLatencias histograma = new HistogramaLatencias();
+        latencias.put(ruta, histograma);
+        servidor.createContext(ruta, intercambio -> {
+            long inicio = System.nanoTime();
+            try {
+                if (!"GET".equals(intercambio.getRequestMethod())) {
+                    throw new ErrorConsulta(405, "Solo se admite GET");
+                }
+                if (!intercambio.getRequestURI().getPath().equals(ruta)) {
+                    throw new ErrorConsulta(404, "Ruta desconocida");
+                }
+                manejador.atender(parametros(intercambio.getRequestURI().getRawQuery()), intercambio);
+            } catch (ErrorConsulta e) {
+                responderError(intercambio, e.codigo, e.getMessage());
+            } catch (RuntimeException e) {
+                responderError(intercambio, 500, "Error interno: " + e);
+            } finally {
+                intercambio.close();
+                histograma.registrar(System.nanoTime() - inicio);
+            }
+        });
+    }
+
+    /**
+     * Envía los encabezados de una respuesta 200 por bloques y devuelve el escritor JSON del cuerpo.
+     */
+    private static EscritorJson responder(HttpExchange intercambio) throws IOException {
+        return responder(intercambio, 200);
+    }
+
+    private static EscritorJson responder(HttpExchange intercambio, int codigo) throws IOException {
+        intercambio.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        intercambio.sendResponseHeaders(codigo, 0);  // 0: largo desconocido, se envía por bloques
+        return new EscritorJson(new BufferedWriter(
+                new OutputStreamWriter(intercambio.getResponseBody(), StandardCharsets.UTF_8), 8192));
+    }
+
+    private static void responderError(HttpExchange intercambio, int codigo, String mensaje) {
+        try (EscritorJson json = responder(intercambio, codigo)) {
+            json.inicioObjeto().campo("error", mensaje).finObjeto();
+        } catch (IOException | RuntimeException e) {
+            // El cliente cerró la conexión o ya se habían enviado los encabezados
+        }
+    }
+
+    private RegistroContactos registro() {
+        return servicio.getRegistro();
+    }
+
+    private NodoContacto contactoExistente(String nombre) {
+        NodoContacto contacto = servicio.buscar(nombre);
+        if (contacto == null) {
+            throw new ErrorConsulta(404, "Contacto no encontrado: " + nombre);
+        }
+        return contacto;
+    }
+
+    private static String requerido(Map<String, String> parametros, String nombre) {
+        String valor = parametros.get(nombre);
+        if (valor == null || valor.trim().isEmpty()) {
+            throw new ErrorConsulta(400, "Falta el parámetro " + nombre);
+        }
+        return valor.trim();
+    }
+
+    private static int entero(Map<String, String> parametros, String nombre, int porDefecto) {
+        String valor = parametros.get(nombre);
+        if (valor == null) {
+            return porDefecto;
+        }
+        try {
+            int numero = Integer.parseInt(valor.trim());
+            if (numero < 0) {
+                throw new ErrorConsulta(400, "El parámetro " + nombre + " no puede ser negativo");
+            }
+            return numero;
+        } catch (NumberFormatException e) {
+            throw new ErrorConsulta(400, "El parámetro " + nombre + " debe ser un número");
+        }
+    }
+
+    /**
+     * Separa y decodifica los parámetros de la query ("a=1&amp;b=dos").
+     */
+    private static Map<String, String> parametros(String query) {
+        Map<String, String> parametros = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+            return parametros;
+        }
+        for (String par : query.split("&")) {
+            int igual = par.indexOf('=');
+            String clave = (igual < 0) ? par : par.substring(0, igual);
+            String valor = (igual < 0) ? "" : par.substring(igual + 1);
+            try {
+                parametros.put(URLDecoder.decode(clave, StandardCharsets.UTF_8),
+                        URLDecoder.decode(valor, StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                throw new ErrorConsulta(400, "Parámetro mal codificado: " + clave);
+            }
+        }
+        return parametros;
+    }
+}
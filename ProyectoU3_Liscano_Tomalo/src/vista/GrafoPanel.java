@@ -0,0 +1,631 @@
+package vista;
+
+import modelo.AdyacenciaCSR;
+import modelo.GrafoColaboraciones;
+import modelo.NodoContacto;
+
+import javax.swing.JPanel;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Panel que dibuja el grafo de contactos y colaboraciones.
+ * Las posiciones las calcula un {@link MotorDisenoFuerzas} en segundo plano. Cada diseño que
+ * publica se indexa en una grilla ({@link IndiceEspacial}) y solo se dibuja lo que cae en la
+ * vista: los nodos de las celdas visibles y las aristas que la cruzan. Lo dibujado se guarda en
+ * una imagen que se reutiliza en cada repintado hasta que cambie el diseño o la vista; lo que
+ * cambia con el mouse (nodo bajo el puntero y nodo seleccionado, con sus colaboraciones) se
+ * dibuja encima, en O(grado).
+ * Con poco zoom los nodos no entran sin taparse: las zonas densas se agrupan en un círculo por
+ * región de la pantalla y las aristas entre regiones se dibujan una sola vez.
+ * La rueda del mouse acerca o aleja, arrastrar el fondo desplaza la vista y un doble clic en el
+ * fondo vuelve a encuadrar todo el grafo. Arrastrar un nodo lo fija donde se suelta; un doble
+ * clic en él lo vuelve a soltar.
+ */
+public class GrafoPanel extends JPanel {
+    // Diámetro de los nodos con mucho zoom; con menos se achican para no taparse entre sí
+    private static final int DIAMETRO_MAXIMO = 40;
+    private static final int DIAMETRO_MINIMO = 4;
+    // Por debajo de este diámetro los nombres no entran en el nodo y no se escriben
+    private static final int DIAMETRO_MINIMO_ETIQUETA = 20;
+    // Diámetro de un nodo respecto de la distancia ideal entre colaboradores en pantalla
+    private static final double DIAMETRO_POR_DISTANCIA = 0.6;
+    // Lado en píxeles de las regiones en que se agrupan los nodos con poco zoom
+    private static final int LADO_GRUPO = 12;
+    // Con más aristas que esto se dibuja sin suavizado para no alargar la construcción de la capa
+    private static final int MAX_ARISTAS_SUAVIZADAS = 2_000;
+    // Margen en píxeles entre el diseño y el borde del panel al encuadrar
+    private static final int MARGEN = 30;
+    // Límites del zoom: píxeles por unidad del mundo como máximo, y fracción del encuadre como mínimo
+    private static final double ESCALA_MAXIMA = 200;
+    private static final double ALEJAMIENTO_MAXIMO = 0.25;
+    // Factor de zoom por paso de la rueda
+    private static final double PASO_ZOOM = 1.2;
+    // Colores
+    private static final Color COLOR_ARISTA = Color.LIGHT_GRAY;
+    private static final Color COLOR_NODO = Color.CYAN;
+    private static final Color COLOR_GRUPO = new Color(0, 160, 200);
+    private static final Color COLOR_SOBRE = Color.ORANGE;
+    private static final Color COLOR_SELECCION = new Color(120, 170, 255);
+
+    // Referencia al grafo a visualizar
+    private GrafoColaboraciones grafo;
+    // Calcula las posiciones en segundo plano; cada diseño nuevo pide un repintado
+    private final MotorDisenoFuerzas motor = new MotorDisenoFuerzas(this::repaint);
+
+    // Diseño vigente, su instantánea del grafo y su índice espacial
+    private MotorDisenoFuerzas.Disenio disenio;
+    private AdyacenciaCSR csr;
+    private IndiceEspacial indice;
+    // Tamaño del panel con el que se dibujó la capa
+    private int anchoVista;
+    private int altoVista;
+
+    // Vista: pantalla = desplazamiento + escala * mundo
+    private double escala = 1;
+    private double desplX;
+    private double desplY;
+    // true mientras la vista encuadra todo el diseño (hasta que el usuario la mueva)
+    private boolean encuadreAutomatico = true;
+    // Derivados de la escala: diámetro de los nodos y si se dibujan agrupados
+    private int diametro = DIAMETRO_MINIMO;
+    private boolean agrupado;
+
+    // Capa con las aristas y los nodos ya dibujados (null si hay que volver a dibujarla)
+    private BufferedImage capa;
+    // Escala de pantalla con la que se dibujó la capa (mayor que 1 en pantallas de alta densidad)
+    private double escalaCapa;
+    // Al dibujar agrupado: región de cada nodo visible (-1 si no lo es) y parejas de regiones
+    // ya unidas por una arista (direccionamiento abierto, -1 = libre)
+    private int[] regionNodo = new int[0];
+    private long[] parejas = new long[0];
+    private int numParejas;
+
+    // Nodo bajo el puntero y nodo seleccionado (ids del diseño vigente, -1 si no hay)
+    private int idSobre = -1;
+    private int idSeleccionado = -1;
+    // Contacto seleccionado, para ubicarlo de nuevo cuando cambia el diseño
+    private NodoContacto seleccionado;
+    // Contacto que se está arrastrando (null si ninguno; por contacto y no por id, que una baja
+    // puede renumerar) y último punto al arrastrar
+    private NodoContacto arrastrado;
+    private int ultimoX;
+    private int ultimoY;
+
+    /**
+     * Constructor que configura el panel y el seguimiento del mouse.
+     */
+    public GrafoPanel() {
+        setPreferredSize(new Dimension(400, 400)); // Tamaño preferido del panel
+        setBackground(Color.WHITE);                 // Fondo blanco
+
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                int id = nodoEn(e.getX(), e.getY());
+                if (id != idSobre) {
+                    idSobre = id;
+                    setToolTipText(id >= 0 ? csr.getContacto(id).getNombre() : null);
+                    repaint();  // Solo se repinta la capa ya hecha y el resaltado
+                }
+            }
+
+            @Override
+            public void mouseExited(MouseEvent e) {
+                if (idSobre >= 0) {
+                    idSobre = -1;
+                    repaint();
+                }
+            }
+
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int id = nodoEn(e.getX(), e.getY());
+                if (e.getClickCount() == 2) {
+                    if (id >= 0) {
+                        motor.soltar(csr.getContacto(id));  // Doble clic en un nodo: vuelve a moverse con las fuerzas
+                    } else {
+                        encuadreAutomatico = true;  // Doble clic en el fondo: encuadrar todo
+                        capa = null;
+                        repaint();
+                    }
+                }
+                setSeleccionado(id >= 0 ? csr.getContacto(id) : null);
+            }
+
+            @Override
+            public void mousePressed(MouseEvent e) {
+                int id = nodoEn(e.getX(), e.getY());
+                arrastrado = (id >= 0) ? csr.getContacto(id) : null;
+                ultimoX = e.getX();
+                ultimoY = e.getY();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (disenio == null) {
+                    return;
+                }
+                if (arrastrado != null) {
+                    motor.fijar(arrastrado, (e.getX() - desplX) / escala, (e.getY() - desplY) / escala);
+                } else {
+                    moverVista(escala, desplX + e.getX() - ultimoX, desplY + e.getY() - ultimoY);
+                }
+                ultimoX = e.getX();
+                ultimoY = e.getY();
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                arrastrado = null;
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                if (disenio == null) {
+                    return;
+                }
+                // El punto del mundo bajo el puntero queda en su lugar
+                double nueva = escala * Math.pow(PASO_ZOOM, -e.getPreciseWheelRotation());
+                nueva = Math.max(escalaEncuadre() * ALEJAMIENTO_MAXIMO, Math.min(ESCALA_MAXIMA, nueva));
+                double factor = nueva / escala;
+                moverVista(nueva, e.getX() - (e.getX() - desplX) * factor, e.getY() - (e.getY() - desplY) * factor);
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+        addMouseWheelListener(mouse);
+    }
+
+    /**
+     * Establece el grafo que se va a dibujar, o avisa que cambió. Si es el mismo grafo, los
+     * nodos conservan su lugar y solo se acomodan los cambios.
+     * @param grafo Grafo de colaboraciones (null para no dibujar nada)
+     */
+    public void setGrafo(GrafoColaboraciones grafo) {
+        this.grafo = grafo;
+        motor.setGrafo(grafo);
+        repaint();  // Pide redibujado
+    }
+
+    /**
+     * Resalta un contacto y sus colaboraciones.
+     * @param contacto Contacto a resaltar, o null para quitar la selección
+     */
+    public void setSeleccionado(NodoContacto contacto) {
+        seleccionado = contacto;
+        idSeleccionado = idEnDisenio(contacto);
+        repaint();
+    }
+
+    /**
+     * Devuelve el contacto resaltado.
+     * @return contacto seleccionado, o null si no hay
+     */
+    public NodoContacto getSeleccionado() {
+        return seleccionado;
+    }
+
+    /**
+     * Método que dibuja el componente: la capa de aristas y nodos, y encima el resaltado.
+     * @param g Contexto gráfico
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        asegurarDisenio();
+        if (disenio == null) return;
+
+        Graphics2D g2 = (Graphics2D) g;
+        double escalaPantalla = g2.getTransform().getScaleX();
+        if (capa == null || escalaPantalla != escalaCapa) {
+            dibujarCapa(escalaPantalla);
+        }
+        g2.drawImage(capa, 0, 0, anchoVista, altoVista, null);
+
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        if (idSeleccionado >= 0) {
+            resaltar(g2, idSeleccionado, COLOR_SELECCION);
+        }
+        if (idSobre >= 0 && idSobre != idSeleccionado) {
+            resaltar(g2, idSobre, COLOR_SOBRE);
+        }
+    }
+
+    /**
+     * Toma el último diseño del motor si es nuevo y lo indexa; si la vista está en encuadre
+     * automático, la ajusta para que entre todo el diseño.
+     */
+    private void asegurarDisenio() {
+        MotorDisenoFuerzas.Disenio ultimo = (grafo == null) ? null : motor.getDisenio();
+        if (ultimo == null) {
+            disenio = null;
+            csr = null;
+            indice = null;
+            capa = null;
+            return;
+        }
+        int width = getWidth();
+        int height = getHeight();
+
+        // Si no está inicializado el tamaño, usar tamaño preferido
+        if (width <= 0) width = getPreferredSize().width;
+        if (height <= 0) height = getPreferredSize().height;
+
+        if (ultimo != disenio) {
+            disenio = ultimo;
+            csr = ultimo.csr;
+            indice = new IndiceEspacial(ultimo);
+            capa = null;
+            if (idSobre >= csr.getNumVertices()) {
+                idSobre = -1;
+            }
+            idSeleccionado = idEnDisenio(seleccionado);
+        }
+        if (width != anchoVista || height != altoVista) {
+            anchoVista = width;
+            altoVista = height;
+            capa = null;
+        }
+        if (capa == null && encuadreAutomatico) {
+            double nueva = escalaEncuadre();
+            aplicarVista(nueva, width / 2.0 - nueva * (disenio.minX + disenio.maxX) / 2,
+                    height / 2.0 - nueva * (disenio.minY + disenio.maxY) / 2);
+        }
+    }
+
+    /**
+     * Escala con la que el diseño vigente entra entero en el panel.
+     */
+    private double escalaEncuadre() {
+        double anchoMundo = Math.max(disenio.maxX - disenio.minX, 1);
+        double altoMundo = Math.max(disenio.maxY - disenio.minY, 1);
+        return Math.max(Math.min((anchoVista - 2.0 * MARGEN) / anchoMundo, (altoVista - 2.0 * MARGEN) / altoMundo), 1e-6);
+    }
+
+    /**
+     * Cambio de vista pedido por el usuario: queda fija aunque el diseño siga moviéndose.
+     */
+    private void moverVista(double nuevaEscala, double nuevoDesplX, double nuevoDesplY) {
+        encuadreAutomatico = false;
+        aplicarVista(nuevaEscala, nuevoDesplX, nuevoDesplY);
+        repaint();
+    }
+
+    /**
+     * Cambia la vista y recalcula el nivel de detalle; la capa se redibuja en el próximo repintado.
+     */
+    private void aplicarVista(double nuevaEscala, double nuevoDesplX, double nuevoDesplY) {
+        escala = nuevaEscala;
+        desplX = nuevoDesplX;
+        desplY = nuevoDesplY;
+        // La distancia ideal entre colaboradores es 1 en el mundo: que los nodos no se tapen
+        double ideal = escala * DIAMETRO_POR_DISTANCIA;
+        diametro = (int) Math.max(DIAMETRO_MINIMO, Math.min(DIAMETRO_MAXIMO, ideal));
+        agrupado = ideal < DIAMETRO_MINIMO;
+        capa = null;
+    }
+
+    private int pantallaX(int id) {
+        return (int) Math.round(desplX + escala * disenio.x[id]);
+    }
+
+    private int pantallaY(int id) {
+        return (int) Math.round(desplY + escala * disenio.y[id]);
+    }
+
+    /**
+     * Dibuja en la capa lo que cae en la vista.
+     * @param escalaPantalla Escala de la pantalla, para que la capa no se vea borrosa en alta densidad
+     */
+    private void dibujarCapa(double escalaPantalla) {
+        int ancho = (int) Math.ceil(anchoVista * escalaPantalla);
+        int alto = (int) Math.ceil(altoVista * escalaPantalla);
+        capa = new BufferedImage(Math.max(1, ancho), Math.max(1, alto), BufferedImage.TYPE_INT_RGB);
+        escalaCapa = escalaPantalla;
+        Graphics2D g2 = capa.createGraphics();
+        try {
+            g2.scale(escalaPantalla, escalaPantalla);
+            g2.setColor(getBackground());
+            g2.fillRect(0, 0, anchoVista, altoVista);
+            if (csr.getNumEntradas() / 2 <= MAX_ARISTAS_SUAVIZADAS) {
+                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            }
+            if (agrupado) {
+                dibujarAgrupado(g2, escalaPantalla);
+            } else {
+                dibujarDetalle(g2, escalaPantalla);
+            }
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    /**
+     * Dibuja cada nodo visible y las aristas que cruzan la vista. Cada colaboración se dibuja
+     * una sola vez (de u a v con u &lt; v).
+     */
+    private void dibujarDetalle(Graphics2D g2, double escalaPantalla) {
+        // Rectángulo visible en el mundo, ampliado en un radio de nodo para no cortar los del borde
+        double margen = diametro / 2.0 / escala;
+        double x0 = -desplX / escala - margen;
+        double y0 = -desplY / escala - margen;
+        double x1 = (anchoVista - desplX) / escala + margen;
+        double y1 = (altoVista - desplY) / escala + margen;
+
+        // Dibujar aristas (colaboraciones) cuyo rectángulo toca la vista
+        g2.setStroke(new BasicStroke(diametro >= DIAMETRO_MINIMO_ETIQUETA ? 2 : 1)); // Grosor líneas
+        g2.setColor(COLOR_ARISTA);
+        float[] x = disenio.x;
+        float[] y = disenio.y;
+        int n = csr.getNumVertices();
+        for (int u = 0; u < n; u++) {
+            int fin = csr.getInicio(u) + csr.getGrado(u);
+            for (int k = csr.getInicio(u); k < fin; k++) {
+                int v = csr.getDestino(k);
+                if (u < v && Math.max(x[u], x[v]) >= x0 && Math.min(x[u], x[v]) <= x1
+                        && Math.max(y[u], y[v]) >= y0 && Math.min(y[u], y[v]) <= y1) {
+                    g2.drawLine(pantallaX(u), pantallaY(u), pantallaX(v), pantallaY(v));
+                }
+            }
+        }
+
+        // Dibujar nodos: se copia una imagen del nodo ya hecha, bastante más rápido que
+        // rellenar y bordear un óvalo por nodo; se trabaja en píxeles de la capa para no escalarla
+        BufferedImage nodo = crearImagenNodo(escalaPantalla);
+        AffineTransform original = g2.getTransform();
+        g2.setTransform(new AffineTransform());
+        double radio = diametro / 2.0;
+        indice.recorrer(x0, y0, x1, y1, id -> g2.drawImage(nodo,
+                (int) ((pantallaX(id) - radio) * escalaPantalla), (int) ((pantallaY(id) - radio) * escalaPantalla), null));
+        g2.setTransform(original);
+
+        // Escribir los nombres si entran en los nodos
+        if (diametro >= DIAMETRO_MINIMO_ETIQUETA) {
+            g2.setColor(Color.BLACK);
+            FontMetrics fm = g2.getFontMetrics();
+            indice.recorrer(x0, y0, x1, y1, id -> dibujarNombre(g2, fm, id));
+        }
+    }
+
+    /**
+     * Dibuja los nodos visibles agrupados por región de la pantalla: una región con un solo nodo
+     * lo muestra en su lugar; con varios, un círculo en su centro que crece con la cantidad (hasta el lado de la región).
+     * Las aristas entre dos regiones visibles se dibujan una sola vez y las internas se omiten.
+     */
+    private void dibujarAgrupado(Graphics2D g2, double escalaPantalla) {
+        int columnas = anchoVista / LADO_GRUPO + 1;
+        int filas = altoVista / LADO_GRUPO + 1;
+        int regiones = columnas * filas;
+        int[] cuenta = new int[regiones];
+        long[] sumaX = new long[regiones];
+        long[] sumaY = new long[regiones];
+        double x0 = -desplX / escala;
+        double y0 = -desplY / escala;
+        double x1 = (anchoVista - desplX) / escala;
+        double y1 = (altoVista - desplY) / escala;
+        int n = csr.getNumVertices();
+        if (regionNodo.length < n) {
+            regionNodo = new int[n];
+        }
+        Arrays.fill(regionNodo, 0, n, -1);
+        indice.recorrer(x0, y0, x1, y1, id -> {
+            int px = pantallaX(id);
+            int py = pantallaY(id);
+            int r = regionDe(px, py, columnas, filas);
+            regionNodo[id] = r;
+            cuenta[r]++;
+            sumaX[r] += px;
+            sumaY[r] += py;
+        });
+        // Centro de cada región con nodos
+        int[] centroX = new int[regiones];
+        int[] centroY = new int[regiones];
+        for (int r = 0; r < regiones; r++) {
+            if (cuenta[r] > 0) {
+                centroX[r] = (int) (sumaX[r] / cuenta[r]);
+                centroY[r] = (int) (sumaY[r] / cuenta[r]);
+            }
+        }
+
+        // Aristas: un extremo fuera de la vista se dibuja en su lugar real (la línea se recorta)
+        g2.setStroke(new BasicStroke(1));
+        g2.setColor(COLOR_ARISTA);
+        limpiarParejas(regiones * 4);
+        float[] x = disenio.x;
+        float[] y = disenio.y;
+        for (int u = 0; u < n; u++) {
+            int ru = regionNodo[u];
+            int fin = csr.getInicio(u) + csr.getGrado(u);
+            for (int k = csr.getInicio(u); k < fin; k++) {
+                int v = csr.getDestino(k);
+                if (u > v) {
+                    continue;
+                }
+                int rv = regionNodo[v];
+                if (ru >= 0 && rv >= 0) {
+                    if (ru == rv || !agregarPareja((long) Math.min(ru, rv) * regiones + Math.max(ru, rv))) {
+                        continue;  // Arista interna de una región o ya dibujada entre estas dos
+                    }
+                } else if (Math.max(x[u], x[v]) < x0 || Math.min(x[u], x[v]) > x1
+                        || Math.max(y[u], y[v]) < y0 || Math.min(y[u], y[v]) > y1) {
+                    continue;  // No toca la vista
+                }
+                g2.drawLine(ru >= 0 ? centroX[ru] : pantallaX(u), ru >= 0 ? centroY[ru] : pantallaY(u),
+                        rv >= 0 ? centroX[rv] : pantallaX(v), rv >= 0 ? centroY[rv] : pantallaY(v));
+            }
+        }
+
+        // Regiones: las de un nodo con la imagen del nodo, las demás como grupo
+        BufferedImage nodo = crearImagenNodo(escalaPantalla);
+        double radio = diametro / 2.0;
+        AffineTransform original = g2.getTransform();
+        g2.setTransform(new AffineTransform());
+        for (int r = 0; r < regiones; r++) {
+            if (cuenta[r] == 1) {
+                g2.drawImage(nodo, (int) ((centroX[r] - radio) * escalaPantalla), (int) ((centroY[r] - radio) * escalaPantalla), null);
+            }
+        }
+        g2.setTransform(original);
+        for (int r = 0; r < regiones; r++) {
+            if (cuenta[r] > 1) {
+                int d = (int) Math.min(LADO_GRUPO - 2, DIAMETRO_MINIMO + Math.sqrt(cuenta[r]));  // Sin tapar a las regiones vecinas
+                g2.setColor(COLOR_GRUPO);
+                g2.fillOval(centroX[r] - d / 2, centroY[r] - d / 2, d, d);
+                g2.setColor(Color.BLACK);
+                g2.drawOval(centroX[r] - d / 2, centroY[r] - d / 2, d, d);
+            }
+        }
+    }
+
+    private static int regionDe(int px, int py, int columnas, int filas) {
+        int c = Math.max(0, Math.min(columnas - 1, px / LADO_GRUPO));
+        int f = Math.max(0, Math.min(filas - 1, py / LADO_GRUPO));
+        return f * columnas + c;
+    }
+
+    /**
+     * Vacía el conjunto de parejas de regiones, con lugar para la cantidad indicada (crece si
+     * hacen falta más).
+     */
+    private void limpiarParejas(int cantidad) {
+        int capacidad = Integer.highestOneBit(Math.max(16, cantidad) * 2);
+        if (parejas.length != capacidad) {
+            parejas = new long[capacidad];
+        }
+        Arrays.fill(parejas, -1);
+        numParejas = 0;
+    }
+
+    /**
+     * Agrega una pareja de regiones al conjunto.
+     * @return true si no estaba
+     */
+    private boolean agregarPareja(long clave) {
+        int mascara = parejas.length - 1;
+        int i = (int) ((clave * 0x9E3779B97F4A7C15L) >>> 40) & mascara;
+        while (parejas[i] != -1) {
+            if (parejas[i] == clave) {
+                return false;
+            }
+            i = (i + 1) & mascara;
+        }
+        parejas[i] = clave;
+        if (++numParejas * 2 > parejas.length) {
+            // Más de la mitad ocupada: duplicar y volver a ubicar
+            long[] anteriores = parejas;
+            parejas = new long[anteriores.length * 2];
+            Arrays.fill(parejas, -1);
+            mascara = parejas.length - 1;
+            for (long p : anteriores) {
+                if (p != -1) {
+                    int k = (int) ((p * 0x9E3779B97F4A7C15L) >>> 40) & mascara;
+                    while (parejas[k] != -1) {
+                        k = (k + 1) & mascara;
+                    }
+                    parejas[k] = p;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Dibuja un nodo (círculo con borde) en una imagen chica con fondo transparente.
+     * @param escalaPantalla Escala de la capa
+     */
+    private BufferedImage crearImagenNodo(double escalaPantalla) {
+        int lado = (int) Math.ceil((diametro + 1) * escalaPantalla) + 1;
+        BufferedImage imagen = new BufferedImage(lado, lado, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = imagen.createGraphics();
+        try {
+            g2.scale(escalaPantalla, escalaPantalla);
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setColor(COLOR_NODO);
+            g2.fillOval(0, 0, diametro, diametro);
+            g2.setColor(Color.BLACK);
+            g2.drawOval(0, 0, diametro, diametro);
+        } finally {
+            g2.dispose();
+        }
+        return imagen;
+    }
+
+    /**
+     * Dibuja un nodo con sus colaboraciones en el color indicado, encima de la capa.
+     */
+    private void resaltar(Graphics2D g2, int id, Color color) {
+        g2.setColor(color);
+        g2.setStroke(new BasicStroke(2));
+        int fin = csr.getInicio(id) + csr.getGrado(id);
+        for (int k = csr.getInicio(id); k < fin; k++) {
+            int v = csr.getDestino(k);
+            g2.drawLine(pantallaX(id), pantallaY(id), pantallaX(v), pantallaY(v));
+        }
+        dibujarNodo(g2, id, color);
+        g2.setColor(Color.BLACK);
+        FontMetrics fm = g2.getFontMetrics();
+        if (diametro >= DIAMETRO_MINIMO_ETIQUETA) {
+            dibujarNombre(g2, fm, id);
+            return;
+        }
+        // Con nodos chicos el nombre del resaltado se escribe igual, arriba del nodo
+        String nombre = csr.getContacto(id).getNombre();
+        int x = pantallaX(id) - fm.stringWidth(nombre) / 2;
+        int y = pantallaY(id) - diametro / 2 - fm.getDescent() - 2;
+        g2.drawString(nombre, x, y);
+    }
+
+    private void dibujarNodo(Graphics2D g2, int id, Color relleno) {
+        int x = pantallaX(id) - diametro / 2;
+        int y = pantallaY(id) - diametro / 2;
+        g2.setColor(relleno);
+        g2.fillOval(x, y, diametro, diametro);
+        g2.setColor(Color.BLACK);
+        g2.drawOval(x, y, diametro, diametro);
+    }
+
+    /**
+     * Escribe el nombre centrado en el nodo.
+     */
+    private void dibujarNombre(Graphics2D g2, FontMetrics fm, int id) {
+        String nombre = csr.getContacto(id).getNombre();
+        int ancho = fm.stringWidth(nombre);
+        int alto = fm.getHeight();
+        g2.drawString(nombre, pantallaX(id) - ancho / 2, pantallaY(id) + alto / 4);
+    }
+
+    /**
+     * Devuelve el id del nodo más cercano al punto dentro de su radio, o -1. Se busca en el
+     * índice espacial, revisando solo las celdas alrededor del punto.
+     */
+    private int nodoEn(int x, int y) {
+        if (indice == null) {
+            return -1;
+        }
+        int radio = Math.max(diametro / 2, 3);  // Con nodos muy chicos se deja un margen para apuntar
+        return indice.masCercano((x - desplX) / escala, (y - desplY) / escala, radio / escala);
+    }
+
+    /**
+     * Devuelve el id de un contacto en el diseño vigente, o -1 si no está dibujado.
+     */
+    private int idEnDisenio(NodoContacto contacto) {
+        if (contacto == null || csr == null || grafo == null) {
+            return -1;
+        }
+        int id = grafo.obtenerId(contacto);
+        return (id >= 0 && id < csr.getNumVertices() && csr.getContacto(id) == contacto) ? id : -1;
+    }
+}
@@ -0,0 +1,134 @@
+package vista;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Índice espacial de un diseño: una grilla uniforme sobre el rectángulo que contiene a todos
+ * los contactos, con los ids de cada celda guardados en forma contigua (como la adyacencia CSR).
+ * Se arma en O(n) una vez por diseño y permite recorrer los contactos de una región, o buscar
+ * el más cercano a un punto, revisando solo las celdas que los pueden contener.
+ */
+final class IndiceEspacial {
+    // Contactos por celda buscados en promedio
+    private static final double CONTACTOS_POR_CELDA = 2;
+
+    // Coordenadas del mundo por id (las del diseño, no se copian)
+    private final float[] x;
+    private final float[] y;
+    // Esquina de la grilla y lado de cada celda
+    private final double minX;
+    private final double minY;
+    private final double lado;
+    private final int columnas;
+    private final int filas;
+    // Los ids de la celda c están en ids[inicio[c] .. inicio[c + 1] - 1]
+    private final int[] inicio;
+    private final int[] ids;
+
+    /**
+     * Arma el índice de un diseño.
+     * @param disenio Diseño publicado por el motor
+     */
+    IndiceEspacial(MotorDisenoFuerzas.Disenio disenio) {
+        x = disenio.x;
+        y = disenio.y;
+        int n = disenio.csr.getNumVertices();
+        minX = disenio.minX;
+        minY = disenio.minY;
+        double ancho = Math.max(disenio.maxX - disenio.minX, 1e-3);
+        double alto = Math.max(disenio.maxY - disenio.minY, 1e-3);
+        double celdas = Math.max(1, n / CONTACTOS_POR_CELDA);
+        double ladoCelda = Math.sqrt(ancho * alto / celdas);
+        // Con diseños muy alargados, que no haya más celdas que las buscadas
+        ladoCelda = Math.max(ladoCelda, Math.max(ancho, alto) / celdas);
+        lado = ladoCelda;
+        columnas = (int) (ancho / lado) + 1;
+        filas = (int) (alto / lado) + 1;
+
+        // Conteo por celda y luego ubicación, como un ordenamiento por conteo
+        inicio = new int[columnas * filas + 1];
+        int[] celdaDe = new int[n];
+        for (int i = 0; i < n; i++) {
+            celdaDe[i] = celda(columna(x[i]), fila(y[i]));
+            inicio[celdaDe[i] + 1]++;
+        }
+        for (int c = 0; c < columnas * filas; c++) {
+            inicio[c + 1] += inicio[c];
+        }
+        ids = new int[n];
+        int[] siguiente = new int[columnas * filas];
+        for (int i = 0; i < n; i++) {
+            int c = celdaDe[i];
+            ids[inicio[c] + siguiente[c]++] = i;
+        }
+    }
+
+    /**
+     * Aplica una acción a cada contacto dentro del rectángulo (bordes incluidos).
+     * @param x0 Menor x del rectángulo, en coordenadas del mundo
+     * @param y0 Menor y
+     * @param x1 Mayor x
+     * @param y1 Mayor y
+     * @param accion Acción que recibe el id de cada contacto
+     */
+    void recorrer(double x0, double y0, double x1, double y1, IntConsumer accion) {
+        int c0 = columna(x0), c1 = columna(x1);
+        int f0 = fila(y0), f1 = fila(y1);
+        for (int f = f0; f <= f1; f++) {
+            for (int c = c0; c <= c1; c++) {
+                int celda = celda(c, f);
+                // Las celdas interiores están enteras dentro del rectángulo: no hace falta comparar
+                boolean interior = c > c0 && c < c1 && f > f0 && f < f1;
+                for (int k = inicio[celda]; k < inicio[celda + 1]; k++) {
+                    int id = ids[k];
+                    if (interior || (x[id] >= x0 && x[id] <= x1 && y[id] >= y0 && y[id] <= y1)) {
+                        accion.accept(id);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Busca el contacto más cercano a un punto dentro de un radio. Si hay varios a la misma
+     * distancia, devuelve el de mayor id (el que se dibuja encima).
+     * @param px Coordenada x del mundo
+     * @param py Coordenada y del mundo
+     * @param radio Distancia máxima
+     * @return id del contacto, o -1 si no hay ninguno en el radio
+     */
+    int masCercano(double px, double py, double radio) {
+        int mejor = -1;
+        double mejorDistancia = radio * radio;
+        int c0 = columna(px - radio), c1 = columna(px + radio);
+        int f0 = fila(py - radio), f1 = fila(py + radio);
+        for (int f = f0; f <= f1; f++) {
+            for (int c = c0; c <= c1; c++) {
+                int celda = celda(c, f);
+                for (int k = inicio[celda]; k < inicio[celda + 1]; k++) {
+                    int id = ids[k];
+                    double dx = x[id] - px;
+                    double dy = y[id] - py;
+                    double d2 = dx * dx + dy * dy;
+                    if (d2 < mejorDistancia || (d2 == mejorDistancia && id > mejor)) {
+                        mejor = id;
+                        mejorDistancia = d2;
+                    }
+                }
+            }
+        }
+        return mejor;
+    }
+
+    private int columna(double px) {
+        return (int) Math.max(0, Math.min(columnas - 1, Math.floor((px - minX) / lado)));
+    }
+
+    private int fila(double py) {
+        return (int) Math.max(0, Math.min(filas - 1, Math.floor((py - minY) / lado)));
+    }
+
+    private int celda(int columna, int fila) {
+        return fila * columnas + columna;
+    }
+}
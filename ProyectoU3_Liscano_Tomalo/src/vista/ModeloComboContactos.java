@@ -0,0 +1,163 @@
+package vista;
+
+import modelo.ArbolBinarioContactos;
+
+import javax.swing.AbstractListModel;
+import javax.swing.ComboBoxModel;
+
+/**
+ * Modelo de lista desplegable perezoso sobre el árbol de contactos: muestra los nombres en
+ * orden alfabético, o solo los que empiezan con un texto (filtro por prefijo, sin distinguir
+ * mayúsculas). Como los nombres con un mismo prefijo ocupan posiciones seguidas en el árbol,
+ * el filtro es un rango de posiciones que se ubica en O(log n), y los nombres se piden al árbol
+ * por bloques a medida que la lista los pinta. Un alta avisa solo la fila nueva.
+ * Cada lista desplegable necesita su propia instancia (guarda la selección), pero todas leen
+ * del mismo árbol sin copiar nada.
+ */
+public class ModeloComboContactos extends AbstractListModel<String> implements ComboBoxModel<String> {
+    // Nombres que se piden juntos al árbol
+    private static final int TAMANIO_BLOQUE = 128;
+    // Mayor carácter posible: prefijo + este carácter queda después de todos los nombres con el prefijo
+    private static final char ULTIMO_CARACTER = Character.MAX_VALUE;
+
+    // Origen de los datos
+    private final ArbolBinarioContactos arbol;
+    // Prefijo del filtro ("" para todos) y rango de posiciones del árbol que lo cumplen
+    private String filtro = "";
+    private int desde;
+    private int cantidad;
+    // Elemento seleccionado (con el combo editable puede ser un texto que no está en la lista)
+    private Object seleccionado;
+    // Bloque de nombres en memoria, por índice de la lista (inicioBloque = -1 si no hay ninguno)
+    private final String[] bloque = new String[TAMANIO_BLOQUE];
+    private int inicioBloque = -1;
+    private int enBloque;
+
+    /**
+     * Constructor que asocia el modelo al árbol de contactos, sin filtro.
+     * @param arbol Árbol de contactos
+     */
+    public ModeloComboContactos(ArbolBinarioContactos arbol) {
+        this.arbol = arbol;
+        calcularRango();
+    }
+
+    /**
+     * Muestra solo los nombres que empiezan con un texto.
+     * @param prefijo Texto inicial buscado (null o vacío para mostrar todos)
+     */
+    public void setFiltro(String prefijo) {
+        String nuevo = (prefijo == null) ? "" : prefijo.trim();
+        if (nuevo.equals(filtro)) {
+            return;
+        }
+        filtro = nuevo;
+        actualizar();
+    }
+
+    /**
+     * Devuelve el filtro vigente.
+     * @return prefijo del filtro, "" si no hay
+     */
+    public String getFiltro() {
+        return filtro;
+    }
+
+    /**
+     * Vuelve a leer el rango del filtro y descarta el bloque en memoria. Se llama después de
+     * cambios masivos en el árbol (por ejemplo, una importación).
+     */
+    public void actualizar() {
+        int anterior = cantidad;
+        calcularRango();
+        inicioBloque = -1;
+        if (anterior > 0 || cantidad > 0) {
+            fireContentsChanged(this, 0, Math.max(anterior, cantidad) - 1);
+        }
+    }
+
+    /**
+     * Avisa que se agregó un contacto al árbol. Si cumple el filtro, se avisa solo su fila;
+     * si no, solo se corre el rango. O(log n).
+     * @param nombre Nombre del contacto agregado
+     */
+    public void contactoAgregado(String nombre) {
+        int anterior = cantidad;
+        calcularRango();
+        inicioBloque = -1;
+        if (cantidad == anterior + 1 && nombre.regionMatches(true, 0, filtro, 0, filtro.length())) {
+            int indice = arbol.posicionDe(nombre) - desde;
+            fireIntervalAdded(this, indice, indice);
+        } else if (cantidad != anterior) {
+            // Hubo otros cambios que no se avisaron: se relee todo
+            fireContentsChanged(this, 0, Math.max(anterior, cantidad) - 1);
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return cantidad;
+    }
+
+    @Override
+    public String getElementAt(int indice) {
+        if (indice < 0 || indice >= cantidad) {
+            return null;
+        }
+        if (inicioBloque < 0 || indice < inicioBloque || indice >= inicioBloque + enBloque) {
+            cargarBloque(indice);
+        }
+        int i = indice - inicioBloque;
+        return (i < enBloque) ? bloque[i] : null;
+    }
+
+    /**
+     * Devuelve el índice de un nombre en la lista, en O(log n).
+     * @param elemento Nombre buscado
+     * @return índice, o -1 si no está en la lista (o no cumple el filtro)
+     */
+    public int indiceDe(Object elemento) {
+        if (!(elemento instanceof String)) {
+            return -1;
+        }
+        String nombre = (String) elemento;
+        int indice = arbol.posicionDe(nombre) - desde;
+        return (indice >= 0 && indice < cantidad && nombre.equals(getElementAt(indice))) ? indice : -1;
+    }
+
+    @Override
+    public void setSelectedItem(Object elemento) {
+        if ((seleccionado != null && !seleccionado.equals(elemento)) || (seleccionado == null && elemento != null)) {
+            seleccionado = elemento;
+            fireContentsChanged(this, -1, -1);  // Así avisa DefaultComboBoxModel un cambio de selección
+        }
+    }
+
+    @Override
+    public Object getSelectedItem() {
+        return seleccionado;
+    }
+
+    /**
+     * Ubica en el árbol el rango de posiciones de los nombres que empiezan con el filtro.
+     */
+    private void calcularRango() {
+        if (filtro.isEmpty()) {
+            desde = 0;
+            cantidad = arbol.getTamanio();
+            return;
+        }
+        desde = arbol.posicionDe(filtro);
+        cantidad = arbol.posicionDe(filtro + ULTIMO_CARACTER) - desde;
+    }
+
+    /**
+     * Trae del árbol el bloque que contiene el índice.
+     */
+    private void cargarBloque(int indice) {
+        inicioBloque = indice - indice % TAMANIO_BLOQUE;
+        enBloque = 0;
+        int limite = Math.min(TAMANIO_BLOQUE, cantidad - inicioBloque);
+        arbol.recorrerDesdePosicion(desde + inicioBloque, limite, c -> bloque[enBloque++] = c.getNombre());
+    }
+}
@@ -0,0 +1,102 @@
+package vista;
+
+import modelo.GrafoColaboraciones;
+import modelo.NodoContacto;
+
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Modelo de tabla perezoso sobre el grafo de colaboraciones: una fila por contacto, en orden de
+ * id del grafo, con sus colaboradores. Es el orden de alta mientras no haya bajas: al eliminar
+ * un contacto, el último pasa a ocupar su fila (ver {@link GrafoColaboraciones}).
+ * Los textos se arman solo para los bloques de filas que se pintan.
+ */
+public class ModeloTablaColaboraciones extends AbstractTableModel {
+    // Filas que se arman juntas
+    private static final int TAMANIO_BLOQUE = 128;
+    // Colaboradores que se nombran por fila; del resto solo se indica la cantidad
+    private static final int MAX_NOMBRES = 50;
+    // Títulos de las columnas
+    private static final String[] COLUMNAS = {"Contacto", "Colabora con"};
+
+    // Origen de los datos
+    private final GrafoColaboraciones grafo;
+    // Cantidad de filas informada a la tabla; solo cambia en actualizar()
+    private int filas;
+    // Textos de colaboradores del bloque en memoria (inicioBloque = -1 si no hay ninguno)
+    private final String[] bloque = new String[TAMANIO_BLOQUE];
+    private int inicioBloque = -1;
+
+    /**
+     * Constructor que asocia el modelo al grafo.
+     * @param grafo Grafo de colaboraciones
+     */
+    public ModeloTablaColaboraciones(GrafoColaboraciones grafo) {
+        this.grafo = grafo;
+        this.filas = grafo.getNumVertices();
+    }
+
+    /**
+     * Vuelve a leer la cantidad de contactos y descarta el bloque en memoria. Se llama después
+     * de modificar el grafo.
+     */
+    public void actualizar() {
+        filas = grafo.getNumVertices();
+        inicioBloque = -1;
+        fireTableDataChanged();
+    }
+
+    @Override
+    public int getRowCount() {
+        return filas;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNAS.length;
+    }
+
+    @Override
+    public String getColumnName(int columna) {
+        return COLUMNAS[columna];
+    }
+
+    @Override
+    public Object getValueAt(int fila, int columna) {
+        if (columna == 0) {
+            NodoContacto contacto = grafo.getContacto(fila);
+            return (contacto != null) ? contacto.getNombre() : "";  // Fila de un contacto recién eliminado
+        }
+        if (inicioBloque < 0 || fila < inicioBloque || fila >= inicioBloque + TAMANIO_BLOQUE) {
+            cargarBloque(fila);
+        }
+        return bloque[fila - inicioBloque];
+    }
+
+    /**
+     * Arma los textos de colaboradores del bloque que contiene la fila.
+     */
+    private void cargarBloque(int fila) {
+        inicioBloque = fila - fila % TAMANIO_BLOQUE;
+        int hasta = Math.min(inicioBloque + TAMANIO_BLOQUE, filas);
+        for (int id = inicioBloque; id < hasta; id++) {
+            StringBuilder sb = new StringBuilder();
+            int[] nombrados = {0};
+            NodoContacto contacto = grafo.getContacto(id);
+            if (contacto == null) {
+                bloque[id - inicioBloque] = "";
+                continue;
+            }
+            // Sin copiar los vecinos: la acción solo arma el texto
+            int total = grafo.recorrerVecinos(contacto, vecino -> {
+                if (nombrados[0] < MAX_NOMBRES) {
+                    sb.append(nombrados[0]++ == 0 ? "" : ", ").append(vecino.getNombre());
+                }
+            });
+            if (total > nombrados[0]) {
+                sb.append(" ... (").append(total - nombrados[0]).append(" más)");
+            }
+            bloque[id - inicioBloque] = sb.toString();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package vista;
+
+import modelo.ArbolBinarioContactos;
+import modelo.GrafoColaboraciones;
+import modelo.NodoContacto;
+
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Modelo de tabla perezoso sobre el árbol de contactos: la tabla muestra todos los contactos en
+ * orden alfabético, pero al árbol solo se le piden las filas que se pintan, por bloques que se
+ * ubican por posición en O(log n). Abrir el listado no copia ningún contacto y la memoria usada
+ * no depende de la cantidad de filas.
+ */
+public class ModeloTablaContactos extends AbstractTableModel {
+    // Filas que se piden juntas al árbol
+    private static final int TAMANIO_BLOQUE = 128;
+    // Títulos de las columnas
+    private static final String[] COLUMNAS = {"Nombre", "Teléfono", "Correo", "Colaboradores"};
+
+    // Origen de los datos
+    private final ArbolBinarioContactos arbol;
+    private final GrafoColaboraciones grafo;
+    // Cantidad de filas informada a la tabla; solo cambia en actualizar()
+    private int filas;
+    // Bloque de filas en memoria (inicioBloque = -1 si no hay ninguno)
+    private final NodoContacto[] bloque = new NodoContacto[TAMANIO_BLOQUE];
+    private int inicioBloque = -1;
+    private int enBloque;
+
+    /**
+     * Constructor que asocia el modelo al árbol (filas) y al grafo (cantidad de colaboradores).
+     * @param arbol Árbol de contactos
+     * @param grafo Grafo de colaboraciones
+     */
+    public ModeloTablaContactos(ArbolBinarioContactos arbol, GrafoColaboraciones grafo) {
+        this.arbol = arbol;
+        this.grafo = grafo;
+        this.filas = arbol.getTamanio();
+    }
+
+    /**
+     * Vuelve a leer la cantidad de contactos y descarta el bloque en memoria. Se llama después
+     * de modificar el árbol.
+     */
+    public void actualizar() {
+        filas = arbol.getTamanio();
+        inicioBloque = -1;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Devuelve el contacto de una fila.
+     * @param fila Fila de la tabla
+     * @return contacto, o null si la fila ya no existe
+     */
+    public NodoContacto getContacto(int fila) {
+        if (inicioBloque < 0 || fila < inicioBloque || fila >= inicioBloque + enBloque) {
+            cargarBloque(fila);
+        }
+        int i = fila - inicioBloque;
+        return (i >= 0 && i < enBloque) ? bloque[i] : null;
+    }
+
+    /**
+     * Devuelve la fila donde está o estaría un nombre.
+     * @param nombre Nombre a ubicar
+     * @return fila entre 0 y getRowCount()
+     */
+    public int getFila(String nombre) {
+        return Math.min(arbol.posicionDe(nombre), filas);
+    }
+
+    @Override
+    public int getRowCount() {
+        return filas;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNAS.length;
+    }
+
+    @Override
+    public String getColumnName(int columna) {
+        return COLUMNAS[columna];
+    }
+
+    @Override
+    public Object getValueAt(int fila, int columna) {
+        NodoContacto contacto = getContacto(fila);
+        if (contacto == null) {
+            return "";
+        }
+        switch (columna) {
+            case 0: return contacto.getNombre();
+            case 1: return contacto.getTelefono();
+            case 2: return contacto.getCorreo();
+            default: return grafo.getGrado(contacto);
+        }
+    }
+
+    /**
+     * Trae del árbol el bloque que contiene la fila.
+     */
+    private void cargarBloque(int fila) {
+        inicioBloque = fila - fila % TAMANIO_BLOQUE;
+        enBloque = 0;
+        arbol.recorrerDesdePosicion(inicioBloque, TAMANIO_BLOQUE, c -> bloque[enBloque++] = c);
+    }
+}
@@ -0,0 +1,665 @@
+package vista;
+
+import modelo.AdyacenciaCSR;
+import modelo.GrafoColaboraciones;
+import modelo.NodoContacto;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Diseño del grafo por fuerzas (Fruchterman-Reingold) que corre en un hilo propio.
+ * Los contactos se repelen entre sí y cada colaboración atrae a sus extremos como un resorte;
+ * la repulsión entre todos los pares se aproxima con un quadtree de Barnes-Hut, así cada
+ * iteración cuesta O(n log n + aristas) en lugar de O(n²). El movimiento máximo por iteración
+ * (temperatura) va bajando hasta que el diseño se estabiliza; entonces el hilo espera.
+ * Cada tanto se publica una copia de las posiciones ({@link Disenio}) y se avisa al panel.
+ * Cuando el grafo cambia, los contactos que ya estaban conservan su lugar, los nuevos nacen
+ * junto a sus colaboradores y solo se recalientan los contactos afectados (los nuevos, los que
+ * cambiaron de colaboraciones y sus vecinos), así el resto del dibujo casi no se mueve. Si una
+ * baja renumeró contactos, sus posiciones se trasladan a los ids nuevos.
+ * Los contactos fijados no se mueven.
+ * Las coordenadas son del "mundo": la distancia ideal entre colaboradores es 1; el panel las
+ * escala a píxeles.
+ */
+public class MotorDisenoFuerzas {
+    // Distancia ideal entre dos colaboradores
+    private static final double K = 1.0;
+    // Criterio de Barnes-Hut: una celda de lado s a distancia d se aproxima si s/d < THETA
+    private static final double THETA = 0.8;
+    private static final double THETA2 = THETA * THETA;
+    // Atracción de todos los contactos hacia el origen, para que los componentes sueltos no se alejen
+    private static final double GRAVEDAD = 0.15;
+    // Enfriamiento por iteración y temperatura a partir de la cual el diseño se da por estable
+    private static final double ENFRIAMIENTO = 0.97;
+    private static final double TEMPERATURA_MINIMA = 0.005;
+    // Fracción de la temperatura inicial con la que se recalientan los contactos afectados por
+    // un cambio, y con la que se recalienta todo el resto
+    private static final double RECALENTAMIENTO_LOCAL = 0.3;
+    private static final double RECALENTAMIENTO_GLOBAL = 0.01;
+    // Milisegundos mínimos entre dos publicaciones mientras el diseño se mueve; con grafos
+    // grandes se publica menos seguido, porque cada diseño nuevo obliga al panel a redibujar todo
+    private static final long INTERVALO_PUBLICACION_MS = 40;
+    private static final int NODOS_POR_MS_PUBLICACION = 25;
+    // Espera máxima sin trabajo antes de revisar si el grafo cambió
+    private static final long ESPERA_MS = 500;
+    // Profundidad máxima del quadtree (puntos casi coincidentes se agrupan en una hoja)
+    private static final int PROFUNDIDAD_MAXIMA = 48;
+
+    /**
+     * Copia inmutable de un diseño: la instantánea del grafo y la posición de cada contacto por id.
+     */
+    public static final class Disenio {
+        // Instantánea del grafo con la que se calcularon las posiciones
+        public final AdyacenciaCSR csr;
+        // Coordenadas por id
+        public final float[] x;
+        public final float[] y;
+        // Rectángulo que contiene todas las posiciones
+        public final float minX, minY, maxX, maxY;
+        // Número de publicación (crece con cada diseño nuevo)
+        public final long secuencia;
+
+        Disenio(AdyacenciaCSR csr, float[] x, float[] y, long secuencia) {
+            this.csr = csr;
+            this.x = x;
+            this.y = y;
+            this.secuencia = secuencia;
+            float x0 = Float.MAX_VALUE, y0 = Float.MAX_VALUE, x1 = -Float.MAX_VALUE, y1 = -Float.MAX_VALUE;
+            for (int i = 0; i < csr.getNumVertices(); i++) {
+                x0 = Math.min(x0, x[i]);
+                y0 = Math.min(y0, y[i]);
+                x1 = Math.max(x1, x[i]);
+                y1 = Math.max(y1, y[i]);
+            }
+            if (csr.getNumVertices() == 0) {
+                x0 = y0 = x1 = y1 = 0;
+            }
+            this.minX = x0;
+            this.minY = y0;
+            this.maxX = x1;
+            this.maxY = y1;
+        }
+    }
+
+    /**
+     * Pedido de fijar (o soltar) un contacto, que aplica el hilo del diseño. Lleva el contacto
+     * y no su id: una baja puede renumerar los ids entre el pedido y su aplicación.
+     */
+    private static final class Fijacion {
+        final NodoContacto contacto;
+        final double x, y;
+        final boolean fijar;
+
+        Fijacion(NodoContacto contacto, double x, double y, boolean fijar) {
+            this.contacto = contacto;
+            this.x = x;
+            this.y = y;
+            this.fijar = fijar;
+        }
+    }
+
+    // Se llama (desde el hilo del diseño) cada vez que se publica un diseño nuevo
+    private final Runnable alPublicar;
+    // Monitor para dormir y despertar al hilo
+    private final Object monitor = new Object();
+    // Pedidos de fijación pendientes
+    private final ConcurrentLinkedQueue<Fijacion> fijaciones = new ConcurrentLinkedQueue<>();
+    private final Random azar = new Random(7);
+
+    // Grafo a diseñar (lo cambia el hilo de eventos) y aviso de cambio pendiente
+    private volatile GrafoColaboraciones grafo;
+    private volatile boolean cambioPendiente;
+    private volatile boolean detenido;
+    private Thread hilo;
+    // Último diseño publicado
+    private volatile Disenio disenio;
+
+    // Estado de la simulación (solo lo toca el hilo del diseño)
+    private GrafoColaboraciones grafoActual;
+    private AdyacenciaCSR csr;
+    private int versionActual = -1;
+    private int n;
+    private double[] x = new double[0];
+    private double[] y = new double[0];
+    private double[] dx = new double[0];
+    private double[] dy = new double[0];
+    private boolean[] fijo = new boolean[0];
+    // Contactos afectados por el último cambio, que se mueven con la temperatura local
+    private boolean[] activo = new boolean[0];
+    private double temperatura;
+    private double temperaturaLocal;
+    private long secuencia;
+    private long ultimaPublicacion;
+    private boolean cambiosSinPublicar;
+
+    // Quadtree en arreglos: por celda, sus cuatro hijos (-1 si no tiene), el cuerpo si es una
+    // hoja con un solo contacto (-1 si no), la masa y las sumas para el centro de masa
+    private int[] hijos = new int[0];
+    private int[] cuerpo = new int[0];
+    private double[] masa = new double[0];
+    private double[] sumaX = new double[0];
+    private double[] sumaY = new double[0];
+    private double[] celdaX = new double[0];
+    private double[] celdaY = new double[0];
+    private double[] lado = new double[0];
+    private int numCeldas;
+    private int[] pila = new int[64];
+
+    /**
+     * Constructor del motor; el hilo arranca con el primer grafo.
+     * @param alPublicar Acción a ejecutar (en el hilo del diseño) al publicar un diseño nuevo
+     */
+    public MotorDisenoFuerzas(Runnable alPublicar) {
+        this.alPublicar = alPublicar;
+    }
+
+    /**
+     * Establece el grafo a diseñar y avisa que pudo haber cambiado. Si es el mismo grafo de
+     * antes, se conservan las posiciones y solo se acomodan los cambios.
+     * @param grafo Grafo de colaboraciones (null para pausar el diseño)
+     */
+    public void setGrafo(GrafoColaboraciones grafo) {
+        this.grafo = grafo;
+        synchronized (monitor) {
+            if (hilo == null && grafo != null) {
+                hilo = new Thread(this::correr, "disenio-grafo");
+                hilo.setDaemon(true);
+                hilo.setPriority(Thread.MIN_PRIORITY);  // Que no compita con el hilo de eventos
+                hilo.start();
+            }
+        }
+        avisar();
+    }
+
+    /**
+     * Devuelve el último diseño publicado.
+     * @return diseño, o null si todavía no hay
+     */
+    public Disenio getDisenio() {
+        return disenio;
+    }
+
+    /**
+     * Fija un contacto en una posición; deja de moverse hasta que se lo suelte.
+     * @param contacto Contacto a fijar
+     * @param x Coordenada x del mundo
+     * @param y Coordenada y del mundo
+     */
+    public void fijar(NodoContacto contacto, double x, double y) {
+        fijaciones.add(new Fijacion(contacto, x, y, true));
+        avisar();
+    }
+
+    /**
+     * Suelta un contacto fijado para que vuelva a moverse con las fuerzas.
+     * @param contacto Contacto a soltar
+     */
+    public void soltar(NodoContacto contacto) {
+        fijaciones.add(new Fijacion(contacto, 0, 0, false));
+        avisar();
+    }
+
+    /**
+     * Detiene el hilo del diseño.
+     */
+    public void detener() {
+        detenido = true;
+        avisar();
+    }
+
+    private void avisar() {
+        synchronized (monitor) {
+            cambioPendiente = true;
+            monitor.notifyAll();
+        }
+    }
+
+    /**
+     * Ciclo del hilo: mientras el diseño no esté estable itera y publica; si lo está, espera
+     * un aviso (o revisa cada tanto si el grafo cambió por otra vía).
+     */
+    private void correr() {
+        while (!detenido) {
+            synchronized (monitor) {
+                while (!detenido && !cambioPendiente && (grafo == null || !enMovimiento())) {
+                    try {
+                        monitor.wait(ESPERA_MS);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    GrafoColaboraciones g = grafo;
+                    if (g != null && g.getVersion() != versionActual) {
+                        break;
+                    }
+                }
+                cambioPendiente = false;
+            }
+            if (detenido) {
+                return;
+            }
+            if (!sincronizarConGrafo()) {
+                continue;  // Sin grafo: se conserva el diseño por si vuelve el mismo
+            }
+            aplicarFijaciones();
+            if (enMovimiento()) {
+                iterar();
+                temperatura *= ENFRIAMIENTO;
+                temperaturaLocal *= ENFRIAMIENTO;
+                if (temperaturaLocal <= temperatura) {
+                    Arrays.fill(activo, 0, n, false);  // El cambio ya se acomodó
+                    temperaturaLocal = 0;
+                }
+                cambiosSinPublicar = true;
+            }
+            long ahora = System.currentTimeMillis();
+            if (cambiosSinPublicar && (ahora - ultimaPublicacion >= intervaloPublicacion() || !enMovimiento())) {
+                publicar();
+                ultimaPublicacion = ahora;
+            }
+        }
+    }
+
+    private long intervaloPublicacion() {
+        return Math.max(INTERVALO_PUBLICACION_MS, n / NODOS_POR_MS_PUBLICACION);
+    }
+
+    private boolean enMovimiento() {
+        return Math.max(temperatura, temperaturaLocal) > TEMPERATURA_MINIMA;
+    }
+
+    /**
+     * Toma una instantánea nueva si el grafo cambió. Los contactos nuevos se ubican junto a sus
+     * colaboradores ya ubicados (o al azar si no tienen) y el diseño se recalienta. Si hubo
+     * bajas, el estado de cada contacto que siguió en el grafo pasa de su id anterior al nuevo.
+     * @return false si no hay grafo que diseñar
+     */
+    private boolean sincronizarConGrafo() {
+        GrafoColaboraciones g = grafo;
+        if (g == null) {
+            return false;
+        }
+        if (g != grafoActual) {
+            grafoActual = g;       // Otro grafo: se empieza de cero
+            csr = null;
+            n = 0;
+            versionActual = -1;
+            Arrays.fill(fijo, false);
+            Arrays.fill(activo, false);
+            temperaturaLocal = 0;
+        }
+        int version = g.getVersion();
+        if (version == versionActual && csr != null) {
+            return true;
+        }
+        AdyacenciaCSR anterior = csr;
+        csr = g.obtenerSnapshotCSR();
+        versionActual = version;
+        int anteriores = n;
+        n = csr.getNumVertices();
+        asegurarCapacidad(n);
+        // Id anterior de cada contacto, o null si los ids solo crecieron (no hubo bajas)
+        int[] origen = (anterior != null && huboRenumeracion(anterior, anteriores)) ? remapear(anterior, anteriores) : null;
+
+        double inicial = temperaturaInicial();
+        double radio = Math.sqrt(Math.max(1, n)) * K;
+        for (int v = 0; v < n; v++) {
+            if (idAnterior(origen, v, anteriores) >= 0) {
+                continue;  // Ya estaba ubicado
+            }
+            fijo[v] = false;
+            activo[v] = false;
+            // Centro de los colaboradores ya ubicados
+            double sx = 0, sy = 0;
+            int ubicados = 0;
+            int fin = csr.getInicio(v) + csr.getGrado(v);
+            for (int k = csr.getInicio(v); k < fin; k++) {
+                int w = csr.getDestino(k);
+                if (idAnterior(origen, w, anteriores) >= 0) {
+                    sx += x[w];
+                    sy += y[w];
+                    ubicados++;
+                }
+            }
+            if (ubicados > 0) {
+                x[v] = sx / ubicados + (azar.nextDouble() - 0.5) * K;
+                y[v] = sy / ubicados + (azar.nextDouble() - 0.5) * K;
+            } else {
+                double angulo = azar.nextDouble() * 2 * Math.PI;
+                double r = radio * Math.sqrt(azar.nextDouble());
+                x[v] = r * Math.cos(angulo);
+                y[v] = r * Math.sin(angulo);
+            }
+        }
+        if (anteriores == 0) {
+            temperatura = inicial;  // Primer diseño: todos se mueven
+        } else {
+            // Afectados: los contactos nuevos y los que ganaron o perdieron colaboraciones, con sus vecinos
+            for (int v = 0; v < n; v++) {
+                int previo = idAnterior(origen, v, anteriores);
+                if (previo < 0 || csr.getGrado(v) != anterior.getGrado(previo)) {
+                    activar(v);
+                }
+            }
+            recalentar(inicial);
+        }
+        cambiosSinPublicar = true;
+        return true;
+    }
+
+    /**
+     * Indica si algún contacto cambió de id desde la instantánea anterior: hubo bajas si hay
+     * menos vértices o si en algún id hay otro contacto.
+     */
+    private boolean huboRenumeracion(AdyacenciaCSR anterior, int anteriores) {
+        if (n < anteriores) {
+            return true;
+        }
+        for (int v = 0; v < anteriores; v++) {
+            if (csr.getContacto(v) != anterior.getContacto(v)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Traslada posición, fijación y actividad de cada contacto de su id anterior al nuevo.
+     * @return id anterior de cada contacto, -1 para los nuevos
+     */
+    private int[] remapear(AdyacenciaCSR anterior, int anteriores) {
+        Map<NodoContacto, Integer> ids = new IdentityHashMap<>(anteriores * 2);
+        for (int v = 0; v < anteriores; v++) {
+            ids.put(anterior.getContacto(v), v);
+        }
+        double[] xPrevio = Arrays.copyOf(x, anteriores);
+        double[] yPrevio = Arrays.copyOf(y, anteriores);
+        boolean[] fijoPrevio = Arrays.copyOf(fijo, anteriores);
+        boolean[] activoPrevio = Arrays.copyOf(activo, anteriores);
+        int[] origen = new int[n];
+        for (int v = 0; v < n; v++) {
+            Integer previo = ids.get(csr.getContacto(v));
+            origen[v] = (previo != null) ? previo : -1;
+            if (previo != null) {
+                x[v] = xPrevio[previo];
+                y[v] = yPrevio[previo];
+                fijo[v] = fijoPrevio[previo];
+                activo[v] = activoPrevio[previo];
+            }
+        }
+        return origen;
+    }
+
+    /**
+     * Id que tenía un contacto en la instantánea anterior, o -1 si es nuevo.
+     */
+    private static int idAnterior(int[] origen, int v, int anteriores) {
+        if (origen != null) {
+            return origen[v];
+        }
+        return (v < anteriores) ? v : -1;
+    }
+
+    /**
+     * Marca un contacto y sus colaboradores para que se muevan con la temperatura local.
+     */
+    private void activar(int v) {
+        activo[v] = true;
+        int fin = csr.getInicio(v) + csr.getGrado(v);
+        for (int k = csr.getInicio(v); k < fin; k++) {
+            activo[csr.getDestino(k)] = true;
+        }
+    }
+
+    private void recalentar(double inicial) {
+        temperaturaLocal = Math.max(temperaturaLocal, inicial * RECALENTAMIENTO_LOCAL);
+        temperatura = Math.max(temperatura, inicial * RECALENTAMIENTO_GLOBAL);
+    }
+
+    private double temperaturaInicial() {
+        return 0.1 * Math.sqrt(Math.max(1, n)) * K + K;
+    }
+
+    /**
+     * Aplica los pedidos de fijación sobre la instantánea vigente, resolviendo el id de cada
+     * contacto en este hilo. Si el contacto ya no está en la instantánea (se eliminó, o el grafo
+     * cambió otra vez desde que se tomó) el pedido se descarta; el arrastre envía otro enseguida.
+     */
+    private void aplicarFijaciones() {
+        Fijacion f;
+        while ((f = fijaciones.poll()) != null) {
+            int id = grafoActual.obtenerId(f.contacto);
+            if (id < 0 || id >= n || csr.getContacto(id) != f.contacto) {
+                continue;
+            }
+            fijo[id] = f.fijar;
+            if (f.fijar) {
+                x[id] = f.x;
+                y[id] = f.y;
+            }
+            // Los vecinos se reacomodan alrededor de la nueva posición
+            activar(id);
+            recalentar(temperaturaInicial());
+            cambiosSinPublicar = true;
+        }
+    }
+
+    /**
+     * Una iteración: repulsión aproximada con Barnes-Hut, atracción por colaboración,
+     * gravedad hacia el origen y desplazamiento limitado por la temperatura.
+     */
+    private void iterar() {
+        construirQuadtree();
+        double k2 = K * K;
+        for (int i = 0; i < n; i++) {
+            repulsion(i, k2);
+        }
+        // Atracción: cada colaboración una sola vez (u < v)
+        for (int u = 0; u < n; u++) {
+            int fin = csr.getInicio(u) + csr.getGrado(u);
+            for (int k = csr.getInicio(u); k < fin; k++) {
+                int v = csr.getDestino(k);
+                if (v <= u) {
+                    continue;
+                }
+                double ex = x[u] - x[v];
+                double ey = y[u] - y[v];
+                double d = Math.sqrt(ex * ex + ey * ey);
+                double f = d / K;  // (d²/k) / d: se multiplica por el vector sin normalizar
+                dx[u] -= ex * f;
+                dy[u] -= ey * f;
+                dx[v] += ex * f;
+                dy[v] += ey * f;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            if (fijo[i]) {
+                continue;
+            }
+            dx[i] -= GRAVEDAD * x[i];
+            dy[i] -= GRAVEDAD * y[i];
+            double largo = Math.sqrt(dx[i] * dx[i] + dy[i] * dy[i]);
+            if (largo > 0) {
+                double paso = Math.min(largo, activo[i] ? temperaturaLocal : temperatura) / largo;
+                x[i] += dx[i] * paso;
+                y[i] += dy[i] * paso;
+            }
+        }
+    }
+
+    /**
+     * Suma en (dx[i], dy[i]) la repulsión de todos los demás contactos, recorriendo el quadtree:
+     * las celdas lejanas se tratan como un solo cuerpo en su centro de masa.
+     */
+    private void repulsion(int i, double k2) {
+        double fx = 0, fy = 0;
+        double xi = x[i], yi = y[i];
+        int tope = 0;
+        pila[tope++] = 0;
+        while (tope > 0) {
+            int c = pila[--tope];
+            double m = masa[c];
+            if (m == 0) {
+                continue;
+            }
+            double cx = sumaX[c] / m;
+            double cy = sumaY[c] / m;
+            double ex = xi - cx;
+            double ey = yi - cy;
+            double d2 = ex * ex + ey * ey;
+            boolean hoja = hijos[4 * c] < 0 && hijos[4 * c + 1] < 0 && hijos[4 * c + 2] < 0 && hijos[4 * c + 3] < 0;
+            if (hoja || lado[c] * lado[c] < THETA2 * d2) {
+                if (hoja && cuerpo[c] == i) {
+                    m -= 1;  // La hoja contiene a este mismo contacto
+                    if (m <= 0) {
+                        continue;
+                    }
+                }
+                if (d2 < 1e-12) {
+                    // Puntos coincidentes: empujar en una dirección arbitraria
+                    ex = (azar.nextDouble() - 0.5) * 1e-3;
+                    ey = (azar.nextDouble() - 0.5) * 1e-3;
+                    d2 = ex * ex + ey * ey;
+                }
+                double f = m * k2 / d2;  // (k²/d) / d
+                fx += ex * f;
+                fy += ey * f;
+                continue;
+            }
+            if (tope + 4 > pila.length) {
+                pila = Arrays.copyOf(pila, pila.length * 2);
+            }
+            for (int h = 0; h < 4; h++) {
+                int hijo = hijos[4 * c + h];
+                if (hijo >= 0) {
+                    pila[tope++] = hijo;
+                }
+            }
+        }
+        dx[i] = fx;
+        dy[i] = fy;
+    }
+
+    /**
+     * Arma el quadtree con las posiciones actuales. La raíz es el cuadrado que contiene a todos.
+     */
+    private void construirQuadtree() {
+        double x0 = Double.MAX_VALUE, y0 = Double.MAX_VALUE, x1 = -Double.MAX_VALUE, y1 = -Double.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            x0 = Math.min(x0, x[i]);
+            y0 = Math.min(y0, y[i]);
+            x1 = Math.max(x1, x[i]);
+            y1 = Math.max(y1, y[i]);
+        }
+        numCeldas = 0;
+        int raiz = nuevaCelda(x0, y0, Math.max(Math.max(x1 - x0, y1 - y0), 1e-6) * 1.0001);
+        for (int i = 0; i < n; i++) {
+            insertar(raiz, i);
+        }
+    }
+
+    private void insertar(int celda, int i) {
+        int c = celda;
+        for (int profundidad = 0; ; profundidad++) {
+            masa[c] += 1;
+            sumaX[c] += x[i];
+            sumaY[c] += y[i];
+            boolean hoja = hijos[4 * c] < 0 && hijos[4 * c + 1] < 0 && hijos[4 * c + 2] < 0 && hijos[4 * c + 3] < 0;
+            if (hoja) {
+                if (masa[c] == 1) {
+                    cuerpo[c] = i;  // Hoja vacía: el contacto queda acá
+                    return;
+                }
+                if (profundidad >= PROFUNDIDAD_MAXIMA) {
+                    return;  // Casi coincidentes: se acumulan en la hoja
+                }
+                // Hoja ocupada: se divide y el que estaba baja a su cuadrante
+                int anterior = cuerpo[c];
+                cuerpo[c] = -1;
+                if (anterior >= 0) {
+                    int h = cuadranteDe(c, x[anterior], y[anterior]);
+                    int hijo = hijoOCrear(c, h);
+                    masa[hijo] += 1;
+                    sumaX[hijo] += x[anterior];
+                    sumaY[hijo] += y[anterior];
+                    cuerpo[hijo] = anterior;
+                }
+            }
+            c = hijoOCrear(c, cuadranteDe(c, x[i], y[i]));
+        }
+    }
+
+    private int cuadranteDe(int c, double px, double py) {
+        double mitad = lado[c] / 2;
+        int h = (px >= celdaX[c] + mitad) ? 1 : 0;
+        if (py >= celdaY[c] + mitad) {
+            h += 2;
+        }
+        return h;
+    }
+
+    private int hijoOCrear(int c, int h) {
+        int hijo = hijos[4 * c + h];
+        if (hijo < 0) {
+            double mitad = lado[c] / 2;
+            hijo = nuevaCelda(celdaX[c] + ((h & 1) != 0 ? mitad : 0), celdaY[c] + ((h & 2) != 0 ? mitad : 0), mitad);
+            hijos[4 * c + h] = hijo;
+        }
+        return hijo;
+    }
+
+    private int nuevaCelda(double cx, double cy, double ladoCelda) {
+        if (numCeldas == masa.length) {
+            int capacidad = Math.max(64, numCeldas * 2);
+            hijos = Arrays.copyOf(hijos, 4 * capacidad);
+            cuerpo = Arrays.copyOf(cuerpo, capacidad);
+            masa = Arrays.copyOf(masa, capacidad);
+            sumaX = Arrays.copyOf(sumaX, capacidad);
+            sumaY = Arrays.copyOf(sumaY, capacidad);
+            celdaX = Arrays.copyOf(celdaX, capacidad);
+            celdaY = Arrays.copyOf(celdaY, capacidad);
+            lado = Arrays.copyOf(lado, capacidad);
+        }
+        int c = numCeldas++;
+        Arrays.fill(hijos, 4 * c, 4 * c + 4, -1);
+        cuerpo[c] = -1;
+        masa[c] = 0;
+        sumaX[c] = 0;
+        sumaY[c] = 0;
+        celdaX[c] = cx;
+        celdaY[c] = cy;
+        lado[c] = ladoCelda;
+        return c;
+    }
+
+    private void asegurarCapacidad(int cantidad) {
+        if (x.length >= cantidad) {
+            return;
+        }
+        int capacidad = Math.max(cantidad, x.length * 2);
+        x = Arrays.copyOf(x, capacidad);
+        y = Arrays.copyOf(y, capacidad);
+        dx = Arrays.copyOf(dx, capacidad);
+        dy = Arrays.copyOf(dy, capacidad);
+        fijo = Arrays.copyOf(fijo, capacidad);
+        activo = Arrays.copyOf(activo, capacidad);
+    }
+
+    /**
+     * Publica una copia de las posiciones y avisa.
+     */
+    private void publicar() {
+        float[] px = new float[n];
+        float[] py = new float[n];
+        for (int i = 0; i < n; i++) {
+            px[i] = (float) x[i];
+            py[i] = (float) y[i];
+        }
+        disenio = new Disenio(csr, px, py, ++secuencia);
+        cambiosSinPublicar = false;
+        alPublicar.run();
+    }
+}